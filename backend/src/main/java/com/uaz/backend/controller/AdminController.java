@@ -0,0 +1,121 @@
+package com.uaz.backend.controller;
+
+import com.uaz.backend.dto.MessageResponse;
+import com.uaz.backend.dto.AdminSummaryDTO;
+import com.uaz.backend.dto.DepartmentQuantilesDTO;
+import com.uaz.backend.dto.DepartmentStatisticsDTO;
+import com.uaz.backend.dto.StatisticsRebuildStatus;
+import com.uaz.backend.dto.TeacherStatisticsDTO;
+import com.uaz.backend.service.AdminSummaryService;
+import com.uaz.backend.service.CourseStatisticsService;
+import com.uaz.backend.service.StatisticsRebuildService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Controller pour les opérations d'administration (tableau de bord et maintenance des statistiques)
+ */
+@RestController
+@RequestMapping("/admin")
+@CrossOrigin(origins = {"http://localhost:5173", "http://localhost:3000"}, allowCredentials = "true")
+@RequiredArgsConstructor
+public class AdminController {
+
+    private final StatisticsRebuildService statisticsRebuildService;
+    private final CourseStatisticsService courseStatisticsService;
+    private final AdminSummaryService adminSummaryService;
+
+    /**
+     * Résumé du tableau de bord : utilisateurs par rôle et statut, avis par statut, cours (Admin uniquement)
+     * GET /api/admin/summary (une seule requête agrégée, mise en cache quelques secondes)
+     */
+    @GetMapping("/summary")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> getSummary() {
+        AdminSummaryDTO summary = adminSummaryService.getSummary();
+        return ResponseEntity.ok(summary);
+    }
+
+    /**
+     * Lancer la reconstruction des statistiques de cours depuis les avis (Admin uniquement)
+     * POST /api/admin/statistics/rebuild?mode=verify (écarts seulement) ou mode=repair (réécriture)
+     */
+    @PostMapping("/statistics/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> rebuildStatistics(
+            @RequestParam(defaultValue = StatisticsRebuildService.MODE_VERIFY) String mode,
+            @RequestParam(required = false) Integer chunkSize) {
+        try {
+            StatisticsRebuildStatus status = statisticsRebuildService.start(mode, chunkSize);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(status);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(new MessageResponse(e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new MessageResponse(e.getMessage()));
+        }
+    }
+
+    /**
+     * Progression de la reconstruction en cours ou résultat de la dernière (Admin uniquement)
+     * GET /api/admin/statistics/rebuild
+     */
+    @GetMapping("/statistics/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> getRebuildStatus() {
+        try {
+            return ResponseEntity.ok(statisticsRebuildService.getStatus());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(new MessageResponse(e.getMessage()));
+        }
+    }
+
+    /**
+     * Classement des départements par moyenne pondérée par le nombre d'avis (Admin uniquement)
+     * GET /api/admin/statistics/departments?limit=20&minReviews=10
+     */
+    @GetMapping("/statistics/departments")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> getDepartmentRanking(
+            @RequestParam(defaultValue = "20") Integer limit,
+            @RequestParam(defaultValue = "1") Integer minReviews) {
+        List<DepartmentStatisticsDTO> ranking = courseStatisticsService.getDepartmentRanking(limit, minReviews);
+        return ResponseEntity.ok(ranking);
+    }
+
+    /**
+     * Quantiles des notes d'un département (médiane, p10, p90 par critère) (Admin uniquement)
+     * GET /api/admin/statistics/departments/quantiles?department=Informatique
+     */
+    @GetMapping("/statistics/departments/quantiles")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> getDepartmentQuantiles(@RequestParam String department) {
+        try {
+            DepartmentQuantilesDTO quantiles = courseStatisticsService.getDepartmentQuantiles(department);
+            return ResponseEntity.ok(quantiles);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(new MessageResponse(e.getMessage()));
+        }
+    }
+
+    /**
+     * Classement des enseignants par moyenne pondérée par le nombre d'avis de leurs cours (Admin uniquement)
+     * GET /api/admin/statistics/teachers?limit=20&minReviews=10
+     */
+    @GetMapping("/statistics/teachers")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> getTeacherRanking(
+            @RequestParam(defaultValue = "20") Integer limit,
+            @RequestParam(defaultValue = "1") Integer minReviews) {
+        List<TeacherStatisticsDTO> ranking = courseStatisticsService.getTeacherRanking(limit, minReviews);
+        return ResponseEntity.ok(ranking);
+    }
+}
@@ -1,18 +1,49 @@
 package com.uaz.backend.controller;
 
 import com.uaz.backend.dto.CourseDTO;
+import com.uaz.backend.dto.CourseImportSummary;
 import com.uaz.backend.dto.CourseRequest;
 import com.uaz.backend.dto.CourseStatisticsDTO;
+import com.uaz.backend.dto.CourseSuggestionDTO;
+import com.uaz.backend.dto.CursorPage;
 import com.uaz.backend.dto.MessageResponse;
+import com.uaz.backend.dto.RatingTrendDTO;
+import com.uaz.backend.dto.ReviewAnalyticsDTO;
+import com.uaz.backend.dto.TrendingCourseDTO;
+import com.uaz.backend.service.CourseImportReader;
+import com.uaz.backend.service.CourseImportService;
 import com.uaz.backend.service.CourseService;
+import com.uaz.backend.service.CourseStatisticsReport;
+import com.uaz.backend.service.RatingTrendService;
+import com.uaz.backend.service.ReviewAnalyticsStore;
+import com.uaz.backend.service.TrendingCourses;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.databind.json.JsonMapper;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Controller pour la gestion des cours
@@ -24,15 +55,48 @@ import java.util.List;
 public class CourseController {
 
     private final CourseService courseService;
+    private final CourseImportService courseImportService;
+    private final CourseStatisticsReport courseStatisticsReport;
+    private final RatingTrendService ratingTrendService;
+    private final ReviewAnalyticsStore reviewAnalyticsStore;
+    private final TrendingCourses trendingCourses;
+    private final JsonMapper jsonMapper;
+
+    @Value("${app.http.cache-control.courses:no-cache}")
+    private String coursesCacheControl;
+
+    @Value("${app.http.cache-control.statistics:no-cache}")
+    private String statisticsCacheControl;
 
     /**
      * Obtenir tous les cours actifs
      * GET /api/courses
+     * GET /api/courses?size=20&cursor=...&fields=courseId,name,code (page, curseur et champs facultatifs)
+     * Une page n'inclut la description que si "fields" la nomme ; seul le tableau complet la contient
+     * ETag = empreinte du catalogue : 304 si If-None-Match correspond
      */
     @GetMapping
-    public ResponseEntity<List<CourseDTO>> getAllCourses() {
-        List<CourseDTO> courses = courseService.getAllActiveCourses();
-        return ResponseEntity.ok(courses);
+    public ResponseEntity<?> getAllCourses(
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String fields,
+            WebRequest webRequest) {
+        String etag = courseService.getCatalogETag();
+        if (webRequest.checkNotModified(etag)) {
+            return cacheable(HttpStatus.NOT_MODIFIED, etag, coursesCacheControl).build();
+        }
+        if (!isPaged(page, size, cursor, fields)) {
+            return cacheable(HttpStatus.OK, etag, coursesCacheControl)
+                    .body(courseService.getAllActiveCourses());
+        }
+        try {
+            return cacheable(HttpStatus.OK, etag, coursesCacheControl)
+                    .body(courseService.getAllActiveCourses(page, size, cursor, fields));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new MessageResponse(e.getMessage()));
+        }
     }
 
     /**
@@ -40,20 +104,41 @@ public class CourseController {
      * GET /api/courses/user/{userId}
      */
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<CourseDTO>> getCoursesForUser(@PathVariable Integer userId) {
-        List<CourseDTO> courses = courseService.getCoursesForUser(userId);
-        return ResponseEntity.ok(courses);
+    public ResponseEntity<?> getCoursesForUser(
+            @PathVariable Integer userId,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String fields) {
+        if (!isPaged(page, size, cursor, fields)) {
+            return ResponseEntity.ok(courseService.getCoursesForUser(userId));
+        }
+        try {
+            return ResponseEntity.ok(courseService.getCoursesForUser(userId, page, size, cursor, fields));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new MessageResponse(e.getMessage()));
+        }
     }
 
     /**
      * Obtenir un cours par son ID
      * GET /api/courses/{id}
+     * ETag dérivé des dates de mise à jour : 304 si If-None-Match correspond
      */
     @GetMapping("/{id}")
-    public ResponseEntity<?> getCourseById(@PathVariable Integer id) {
+    public ResponseEntity<?> getCourseById(@PathVariable Integer id, WebRequest webRequest) {
+        Optional<String> etag = courseService.getCourseETag(id);
+        if (etag.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(new MessageResponse("Cours non trouvé"));
+        }
+        if (webRequest.checkNotModified(etag.get())) {
+            return cacheable(HttpStatus.NOT_MODIFIED, etag.get(), coursesCacheControl).build();
+        }
         try {
             CourseDTO course = courseService.getCourseById(id);
-            return ResponseEntity.ok(course);
+            return cacheable(HttpStatus.OK, etag.get(), coursesCacheControl).body(course);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(new MessageResponse("Cours non trouvé"));
@@ -61,23 +146,50 @@ public class CourseController {
     }
 
     /**
-     * Rechercher des cours
-     * GET /api/courses/search?q=java
+     * Rechercher des cours (résultats classés par pertinence, avec pagination)
+     * GET /api/courses/search?q=java&page=0&size=20
      */
     @GetMapping("/search")
-    public ResponseEntity<List<CourseDTO>> searchCourses(@RequestParam String q) {
-        List<CourseDTO> courses = courseService.searchCourses(q);
+    public ResponseEntity<Page<CourseDTO>> searchCourses(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "0") Integer page,
+            @RequestParam(defaultValue = "20") Integer size) {
+        Page<CourseDTO> courses = courseService.searchCourses(q, page, size);
         return ResponseEntity.ok(courses);
     }
 
+    /**
+     * Autocomplétion sur le code, le nom et l'enseignant
+     * GET /api/courses/suggest?q=prog&limit=8
+     */
+    @GetMapping("/suggest")
+    public ResponseEntity<List<CourseSuggestionDTO>> suggestCourses(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "8") Integer limit) {
+        List<CourseSuggestionDTO> suggestions = courseService.suggestCourses(q, limit);
+        return ResponseEntity.ok(suggestions);
+    }
+
     /**
      * Obtenir les cours par département
      * GET /api/courses/department?department=Informatique
      */
     @GetMapping("/department")
-    public ResponseEntity<List<CourseDTO>> getCoursesByDepartment(@RequestParam String department) {
-        List<CourseDTO> courses = courseService.getCoursesByDepartment(department);
-        return ResponseEntity.ok(courses);
+    public ResponseEntity<?> getCoursesByDepartment(
+            @RequestParam String department,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String fields) {
+        if (!isPaged(page, size, cursor, fields)) {
+            return ResponseEntity.ok(courseService.getCoursesByDepartment(department));
+        }
+        try {
+            return ResponseEntity.ok(courseService.getCoursesByDepartment(department, page, size, cursor, fields));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new MessageResponse(e.getMessage()));
+        }
     }
 
     /**
@@ -85,9 +197,21 @@ public class CourseController {
      * GET /api/courses/type?type=course
      */
     @GetMapping("/type")
-    public ResponseEntity<List<CourseDTO>> getCoursesByType(@RequestParam String type) {
-        List<CourseDTO> courses = courseService.getCoursesByType(type);
-        return ResponseEntity.ok(courses);
+    public ResponseEntity<?> getCoursesByType(
+            @RequestParam String type,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String fields) {
+        if (!isPaged(page, size, cursor, fields)) {
+            return ResponseEntity.ok(courseService.getCoursesByType(type));
+        }
+        try {
+            return ResponseEntity.ok(courseService.getCoursesByType(type, page, size, cursor, fields));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new MessageResponse(e.getMessage()));
+        }
     }
 
     /**
@@ -105,26 +229,124 @@ public class CourseController {
      * GET /api/courses/teacher/{teacherId}
      */
     @GetMapping("/teacher/{teacherId}")
-    public ResponseEntity<List<CourseDTO>> getCoursesByTeacher(@PathVariable Integer teacherId) {
-        List<CourseDTO> courses = courseService.getCoursesByTeacher(teacherId);
-        return ResponseEntity.ok(courses);
+    public ResponseEntity<?> getCoursesByTeacher(
+            @PathVariable Integer teacherId,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String fields) {
+        if (!isPaged(page, size, cursor, fields)) {
+            return ResponseEntity.ok(courseService.getCoursesByTeacher(teacherId));
+        }
+        try {
+            return ResponseEntity.ok(courseService.getCoursesByTeacher(teacherId, page, size, cursor, fields));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new MessageResponse(e.getMessage()));
+        }
+    }
+
+    /**
+     * Obtenir les statistiques de plusieurs cours en une seule requête
+     * GET /api/courses/statistics?ids=1,2,3
+     * GET /api/courses/statistics?department=Informatique&type=course (tous les cours actifs, filtres facultatifs)
+     * Sans paramètre : rapport complet pré-sérialisé, écrit tel quel (gzip si Accept-Encoding l'accepte)
+     */
+    @GetMapping("/statistics")
+    public ResponseEntity<?> getCoursesStatistics(
+            @RequestParam(required = false) List<Integer> ids,
+            @RequestParam(required = false) String department,
+            @RequestParam(required = false) String type,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            WebRequest webRequest) {
+        if (ids == null && department == null && type == null) {
+            return getStatisticsReport(acceptsGzip(acceptEncoding), webRequest);
+        }
+        try {
+            List<CourseStatisticsDTO> statistics = ids != null
+                    ? courseService.getCoursesStatistics(ids)
+                    : courseService.getAllCourseStatistics(department, type);
+            return ResponseEntity.ok(statistics);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new MessageResponse(e.getMessage()));
+        }
+    }
+
+    /**
+     * Analyser les avis approuvés par département, type, semestre, période et critère (en mémoire)
+     * GET /api/courses/statistics/analytics?department=Informatique&from=2024-09-01&to=2025-06-30&criterion=clarity
+     * GET /api/courses/statistics/analytics?type=course&groupBy=department (groupBy : department, semester ou type)
+     */
+    @GetMapping("/statistics/analytics")
+    public ResponseEntity<?> getReviewAnalytics(
+            @RequestParam(required = false) String department,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) String semester,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String criterion,
+            @RequestParam(required = false) String groupBy) {
+        try {
+            ReviewAnalyticsDTO analytics = reviewAnalyticsStore.query(department, type, semester,
+                    from, to, criterion, groupBy);
+            return ResponseEntity.ok(analytics);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new MessageResponse(e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(new MessageResponse(e.getMessage()));
+        }
     }
 
     /**
      * Obtenir les statistiques d'un cours
      * GET /api/courses/{id}/statistics
+     * ETag dérivé des dates de mise à jour et des variations en attente : 304 si If-None-Match correspond
      */
     @GetMapping("/{id}/statistics")
-    public ResponseEntity<?> getCourseStatistics(@PathVariable Integer id) {
+    public ResponseEntity<?> getCourseStatistics(@PathVariable Integer id, WebRequest webRequest) {
+        Optional<String> etag = courseService.getCourseStatisticsETag(id);
+        if (etag.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(new MessageResponse("Statistiques non disponibles"));
+        }
+        if (webRequest.checkNotModified(etag.get())) {
+            return cacheable(HttpStatus.NOT_MODIFIED, etag.get(), statisticsCacheControl).build();
+        }
         try {
             CourseStatisticsDTO stats = courseService.getCourseStatistics(id);
-            return ResponseEntity.ok(stats);
+            return cacheable(HttpStatus.OK, etag.get(), statisticsCacheControl).body(stats);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(new MessageResponse("Statistiques non disponibles"));
         }
     }
 
+    /**
+     * Obtenir l'évolution des notes d'un cours par période
+     * GET /api/courses/{id}/statistics/trend?granularity=month&from=2024-09-01&to=2025-06-30
+     * granularity : week, month (par défaut) ou semester
+     */
+    @GetMapping("/{id}/statistics/trend")
+    public ResponseEntity<?> getCourseRatingTrend(
+            @PathVariable Integer id,
+            @RequestParam(required = false) String granularity,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            RatingTrendDTO trend = ratingTrendService.getRatingTrend(id, granularity, from, to);
+            return ResponseEntity.ok(trend);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new MessageResponse(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(new MessageResponse(e.getMessage()));
+        }
+    }
+
     /**
      * Créer un nouveau cours (Admin uniquement)
      * POST /api/courses
@@ -141,6 +363,46 @@ public class CourseController {
         }
     }
 
+    /**
+     * Importer des cours en masse (Admin uniquement)
+     * POST /api/courses/import (text/csv avec en-tête, ou application/x-ndjson)
+     * Réponse en flux NDJSON : un résultat par ligne importée, puis le récapitulatif
+     */
+    @PostMapping(value = "/import", consumes = {CourseImportReader.TEXT_CSV, CourseImportReader.APPLICATION_NDJSON})
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> importCourses(HttpServletRequest request) {
+        CourseImportReader reader;
+        try {
+            Charset charset = request.getCharacterEncoding() != null
+                    ? Charset.forName(request.getCharacterEncoding()) : StandardCharsets.UTF_8;
+            reader = CourseImportReader.open(request.getContentType(),
+                    new InputStreamReader(request.getInputStream(), charset), jsonMapper);
+        } catch (IllegalArgumentException | IOException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new MessageResponse("Erreur lors de l'import: " + e.getMessage()));
+        }
+
+        StreamingResponseBody body = outputStream -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            try (reader) {
+                CourseImportSummary summary = courseImportService.importCourses(reader, result -> {
+                    try {
+                        writer.write(jsonMapper.writeValueAsString(result));
+                        writer.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                writer.write(jsonMapper.writeValueAsString(summary));
+                writer.write('\n');
+            }
+            writer.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
     /**
      * Mettre à jour un cours (Admin uniquement)
      * PUT /api/courses/{id}
@@ -193,23 +455,116 @@ public class CourseController {
 
     /**
      * Obtenir les cours les mieux notés
-     * GET /api/courses/top-rated?limit=5
+     * GET /api/courses/top-rated?limit=5&minReviews=3&mode=bayesian&department=Informatique
      */
     @GetMapping("/top-rated")
-    public ResponseEntity<List<CourseDTO>> getTopRatedCourses(
-            @RequestParam(defaultValue = "5") Integer limit) {
-        List<CourseDTO> courses = courseService.getTopRatedCourses(limit);
-        return ResponseEntity.ok(courses);
+    public ResponseEntity<?> getTopRatedCourses(
+            @RequestParam(defaultValue = "5") Integer limit,
+            @RequestParam(defaultValue = "1") Integer minReviews,
+            @RequestParam(defaultValue = "rating") String mode,
+            @RequestParam(required = false) String department) {
+        try {
+            List<CourseDTO> courses = courseService.getTopRatedCourses(limit, minReviews, mode, department);
+            return ResponseEntity.ok(courses);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new MessageResponse(e.getMessage()));
+        }
+    }
+
+    /**
+     * Obtenir les cours tendance (avis approuvés récents pondérés par décroissance exponentielle, en mémoire)
+     * GET /api/courses/trending?limit=10
+     */
+    @GetMapping("/trending")
+    public ResponseEntity<?> getTrendingCourses(@RequestParam(defaultValue = "10") Integer limit) {
+        try {
+            List<TrendingCourseDTO> courses = trendingCourses.getTrendingCourses(limit);
+            return ResponseEntity.ok(courses);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(new MessageResponse(e.getMessage()));
+        }
     }
 
     /**
-     * Obtenir les cours récents
-     * GET /api/courses/recent?limit=10
+     * Obtenir les cours récents (pagination par curseur)
+     * GET /api/courses/recent?limit=10&cursor=...
      */
     @GetMapping("/recent")
-    public ResponseEntity<List<CourseDTO>> getRecentCourses(
-            @RequestParam(defaultValue = "10") Integer limit) {
-        List<CourseDTO> courses = courseService.getRecentCourses(limit);
-        return ResponseEntity.ok(courses);
+    public ResponseEntity<?> getRecentCourses(
+            @RequestParam(defaultValue = "10") Integer limit,
+            @RequestParam(required = false) String cursor) {
+        try {
+            CursorPage<CourseDTO> courses = courseService.getRecentCourses(limit, cursor);
+            return ResponseEntity.ok(courses);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new MessageResponse(e.getMessage()));
+        }
+    }
+
+    /**
+     * Rapport complet des statistiques : octets pré-rendus, sans requête ni sérialisation
+     */
+    private ResponseEntity<?> getStatisticsReport(boolean gzip, WebRequest webRequest) {
+        CourseStatisticsReport.Rendered report = courseStatisticsReport.current();
+        String etag = report.etag(gzip);
+        if (webRequest.checkNotModified(etag)) {
+            return cacheable(HttpStatus.NOT_MODIFIED, etag, statisticsCacheControl)
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+        ResponseEntity.BodyBuilder response = cacheable(HttpStatus.OK, etag, statisticsCacheControl)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .contentType(MediaType.APPLICATION_JSON);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        byte[] body = report.body(gzip);
+        return response.contentLength(body.length).body(body);
+    }
+
+    /**
+     * gzip accepté s'il figure dans Accept-Encoding sans q=0 ; à défaut, selon * s'il est présent
+     */
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Boolean gzip = null;
+        Boolean any = null;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim();
+            boolean accepted = true;
+            for (int i = 1; i < parts.length; i++) {
+                if (parts[i].replace(" ", "").matches("q=0(\\.0{0,3})?")) {
+                    accepted = false;
+                }
+            }
+            if (name.equalsIgnoreCase("gzip")) {
+                gzip = accepted;
+            } else if (name.equals("*")) {
+                any = accepted;
+            }
+        }
+        return gzip != null ? gzip : Boolean.TRUE.equals(any);
+    }
+
+    /**
+     * Réponse portant l'ETag et la directive Cache-Control configurée
+     */
+    private static ResponseEntity.BodyBuilder cacheable(HttpStatus status, String etag, String cacheControl) {
+        return ResponseEntity.status(status)
+                .eTag(etag)
+                .header(HttpHeaders.CACHE_CONTROL, cacheControl);
+    }
+
+    /**
+     * Sans page, taille, curseur ni champs, les listes gardent leur réponse historique (tableau complet)
+     */
+    private static boolean isPaged(Integer page, Integer size, String cursor, String fields) {
+        return page != null || size != null || cursor != null || fields != null;
     }
 }
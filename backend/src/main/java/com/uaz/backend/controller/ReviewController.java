@@ -2,6 +2,7 @@ package com.uaz.backend.controller;
 
 import com.uaz.backend.dto.*;
 import com.uaz.backend.entity.User;
+import com.uaz.backend.service.ModerationQueueService;
 import com.uaz.backend.service.ReviewService;
 import com.uaz.backend.service.UserService;
 import jakarta.validation.Valid;
@@ -29,6 +30,7 @@ public class ReviewController {
 
     private final ReviewService reviewService;
     private final UserService userService;
+    private final ModerationQueueService moderationQueueService;
 
     /**
      * Obtenir les avis d'un cours (avec pagination)
@@ -45,6 +47,26 @@ public class ReviewController {
         return ResponseEntity.ok(reviews);
     }
 
+    /**
+     * Obtenir les avis d'un cours (pagination par curseur, sans comptage sauf demande)
+     * GET /api/reviews/course/{courseId}/cursor?limit=20&cursor=...&includeTotal=false
+     */
+    @GetMapping("/course/{courseId}/cursor")
+    public ResponseEntity<?> getReviewsByCourseCursor(
+            @PathVariable Integer courseId,
+            @RequestParam(defaultValue = "20") Integer limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") Boolean includeTotal) {
+        try {
+            CursorPage<ReviewResponse> reviews = reviewService.getApprovedReviewsByCourse(
+                    courseId, limit, cursor, includeTotal);
+            return ResponseEntity.ok(reviews);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new MessageResponse(e.getMessage()));
+        }
+    }
+
     /**
      * Obtenir un avis par son ID
      * GET /api/reviews/{id}
@@ -161,6 +183,39 @@ public class ReviewController {
         return ResponseEntity.ok(reviews);
     }
 
+    /**
+     * Réserver le prochain lot d'avis à modérer (Admin uniquement)
+     * POST /api/reviews/moderation/claim?size=10
+     * Chaque avis n'est réservé que par un modérateur à la fois, jusqu'à claimExpiresAt
+     */
+    @PostMapping("/moderation/claim")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> claimModerationBatch(
+            @RequestParam(defaultValue = "10") Integer size,
+            Authentication authentication) {
+        String username = authentication.getName();
+        User user = userService.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("Utilisateur non trouvé"));
+
+        ModerationBatchDTO batch = moderationQueueService.claimNext(user.getUserId(), size);
+        return ResponseEntity.ok(batch);
+    }
+
+    /**
+     * Libérer les avis réservés par le modérateur connecté (Admin uniquement)
+     * DELETE /api/reviews/moderation/claim
+     */
+    @DeleteMapping("/moderation/claim")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> releaseModerationBatch(Authentication authentication) {
+        String username = authentication.getName();
+        User user = userService.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("Utilisateur non trouvé"));
+
+        int released = moderationQueueService.release(user.getUserId());
+        return ResponseEntity.ok(new MessageResponse("Avis libérés: " + released, true));
+    }
+
     /**
      * Modérer un avis (Admin uniquement)
      * PUT /api/reviews/{id}/moderate
@@ -169,10 +224,18 @@ public class ReviewController {
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<?> moderateReview(
             @PathVariable Integer id,
-            @Valid @RequestBody ModerationRequest moderationRequest) {
+            @Valid @RequestBody ModerationRequest moderationRequest,
+            Authentication authentication) {
         try {
-            ReviewResponse review = reviewService.moderateReview(id, moderationRequest.getStatus());
+            String username = authentication.getName();
+            User user = userService.findByUsername(username)
+                    .orElseThrow(() -> new RuntimeException("Utilisateur non trouvé"));
+
+            ReviewResponse review = reviewService.moderateReview(id, moderationRequest.getStatus(), user.getUserId());
             return ResponseEntity.ok(review);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(new MessageResponse(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .body(new MessageResponse("Erreur lors de la modération: " + e.getMessage()));
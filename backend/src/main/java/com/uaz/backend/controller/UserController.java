@@ -1,7 +1,9 @@
 package com.uaz.backend.controller;
 
+import com.uaz.backend.dto.AdminSummaryDTO;
 import com.uaz.backend.dto.MessageResponse;
 import com.uaz.backend.entity.User;
+import com.uaz.backend.service.AdminSummaryService;
 import com.uaz.backend.service.UserService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -24,6 +26,7 @@ import java.util.Map;
 public class UserController {
 
     private final UserService userService;
+    private final AdminSummaryService adminSummaryService;
 
     /**
      * Obtenir le profil de l'utilisateur connecté
@@ -237,16 +240,18 @@ public class UserController {
     /**
      * Obtenir les statistiques des utilisateurs (Admin uniquement)
      * GET /api/users/statistics
+     * Lu depuis le résumé administrateur (une requête, mis en cache quelques secondes)
      */
     @GetMapping("/statistics")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<?> getUserStatistics() {
+        AdminSummaryDTO summary = adminSummaryService.getSummary();
         Map<String, Object> stats = new HashMap<>();
-        stats.put("totalUsers", userService.countAllUsers());
-        stats.put("totalStudents", userService.countStudents());
-        stats.put("totalTeachers", userService.countTeachers());
-        stats.put("totalAdmins", userService.countAdmins());
-        stats.put("activeUsers", userService.countActiveUsers());
+        stats.put("totalUsers", summary.getTotalUsers());
+        stats.put("totalStudents", summary.getActiveStudents());
+        stats.put("totalTeachers", summary.getActiveTeachers());
+        stats.put("totalAdmins", summary.getActiveAdmins());
+        stats.put("activeUsers", summary.getActiveUsers());
 
         return ResponseEntity.ok(stats);
     }
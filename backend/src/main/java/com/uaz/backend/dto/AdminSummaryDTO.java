@@ -0,0 +1,32 @@
+package com.uaz.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO pour le résumé du tableau de bord administrateur
+ * Les comptes par rôle ne portent que sur les utilisateurs actifs
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AdminSummaryDTO {
+    private Long totalUsers;
+    private Long activeUsers;
+    private Long inactiveUsers;
+    private Long activeStudents;
+    private Long activeTeachers;
+    private Long activeAdmins;
+    private Long totalReviews;
+    private Long pendingReviews;
+    private Long approvedReviews;
+    private Long rejectedReviews;
+    private Long totalCourses;
+    private Long activeCourses;
+    private LocalDateTime generatedAt;  // date du calcul (le résumé est mis en cache quelques secondes)
+}
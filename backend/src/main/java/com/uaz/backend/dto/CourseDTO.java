@@ -1,35 +1,62 @@
 package com.uaz.backend.dto;
 
+import com.uaz.backend.entity.Course;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
-import lombok.Data;
-import lombok.NoArgsConstructor;
+import lombok.Value;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 /**
  * DTO pour les informations de cours
+ * Immuable : les instances du catalogue en mémoire sont partagées telles quelles entre les requêtes
+ * (une variante se construit avec toBuilder)
  */
-@Data
-@Builder
-@NoArgsConstructor
+@Value
+@Builder(toBuilder = true)
 @AllArgsConstructor
 public class CourseDTO {
-    private Integer courseId;
-    private String name;
-    private String code;
-    private String description;
-    private String type;
-    private Integer teacherId;
-    private String teacherName;
-    private String department;
-    private String semester;
-    private Integer credits;
-    private Boolean isActive;
-    private BigDecimal avgRating;
-    private Integer totalReviews;
-    private LocalDateTime createdAt;
-    private LocalDateTime updatedAt;
-}
+    Integer courseId;
+    String name;
+    String code;
+    String description;
+    String type;
+    Integer teacherId;
+    String teacherName;
+    String department;
+    String semester;
+    Integer credits;
+    Boolean isActive;
+    BigDecimal avgRating;
+    Integer totalReviews;
+    LocalDateTime createdAt;
+    LocalDateTime updatedAt;
+
+    /**
+     * Constructeur utilisé par les projections JPQL (SELECT new ...)
+     * Le type est reçu sous forme d'enum, l'enseignant et les statistiques via LEFT JOIN
+     */
+    public CourseDTO(Integer courseId, String name, String code, String description,
+                     Course.CourseType type, Integer teacherId, String teacherName,
+                     String department, String semester, Integer credits, Boolean isActive,
+                     BigDecimal avgRating, Integer totalReviews,
+                     LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this(courseId, name, code, description, type != null ? type.getValue() : null,
+                teacherId, teacherName, department, semester, credits, isActive,
+                avgRating, totalReviews, createdAt, updatedAt);
+    }
 
+    /**
+     * Constructeur utilisé par les projections de liste sans description
+     * (la colonne TEXT n'est ni lue ni transférée)
+     */
+    public CourseDTO(Integer courseId, String name, String code,
+                     Course.CourseType type, Integer teacherId, String teacherName,
+                     String department, String semester, Integer credits, Boolean isActive,
+                     BigDecimal avgRating, Integer totalReviews,
+                     LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this(courseId, name, code, null, type, teacherId, teacherName, department, semester, credits,
+                isActive, avgRating, totalReviews, createdAt, updatedAt);
+    }
+}
@@ -0,0 +1,95 @@
+package com.uaz.backend.dto;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Sélection de champs (sparse fieldset) pour les listes de cours
+ * GET /api/courses?fields=courseId,code,name,avgRating
+ * Une liste paginée n'inclut la description que si elle est nommée dans "fields"
+ */
+public final class CourseFields {
+
+    public static final String DESCRIPTION = "description";
+
+    private static final Map<String, Function<CourseDTO, Object>> ACCESSORS = new LinkedHashMap<>();
+
+    static {
+        ACCESSORS.put("courseId", CourseDTO::getCourseId);
+        ACCESSORS.put("name", CourseDTO::getName);
+        ACCESSORS.put("code", CourseDTO::getCode);
+        ACCESSORS.put(DESCRIPTION, CourseDTO::getDescription);
+        ACCESSORS.put("type", CourseDTO::getType);
+        ACCESSORS.put("teacherId", CourseDTO::getTeacherId);
+        ACCESSORS.put("teacherName", CourseDTO::getTeacherName);
+        ACCESSORS.put("department", CourseDTO::getDepartment);
+        ACCESSORS.put("semester", CourseDTO::getSemester);
+        ACCESSORS.put("credits", CourseDTO::getCredits);
+        ACCESSORS.put("isActive", CourseDTO::getIsActive);
+        ACCESSORS.put("avgRating", CourseDTO::getAvgRating);
+        ACCESSORS.put("totalReviews", CourseDTO::getTotalReviews);
+        ACCESSORS.put("createdAt", CourseDTO::getCreatedAt);
+        ACCESSORS.put("updatedAt", CourseDTO::getUpdatedAt);
+    }
+
+    /**
+     * Champs d'une liste paginée sans paramètre "fields" : tous sauf la description
+     */
+    public static final Set<String> LIST_DEFAULT;
+
+    static {
+        Set<String> defaults = new LinkedHashSet<>(ACCESSORS.keySet());
+        defaults.remove(DESCRIPTION);
+        LIST_DEFAULT = Collections.unmodifiableSet(defaults);
+    }
+
+    private CourseFields() {
+    }
+
+    /**
+     * Lire le paramètre "fields" (null ou vide = LIST_DEFAULT)
+     */
+    public static Set<String> parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return LIST_DEFAULT;
+        }
+        Set<String> selected = new LinkedHashSet<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!ACCESSORS.containsKey(name)) {
+                throw new IllegalArgumentException("Champ inconnu: " + name
+                        + " (champs disponibles: " + String.join(", ", ACCESSORS.keySet()) + ")");
+            }
+            selected.add(name);
+        }
+        return selected.isEmpty() ? LIST_DEFAULT : Collections.unmodifiableSet(selected);
+    }
+
+    /**
+     * Indique si la description doit être chargée pour cette sélection
+     */
+    public static boolean includesDescription(Set<String> fields) {
+        return fields.contains(DESCRIPTION);
+    }
+
+    /**
+     * Ne conserver que les champs demandés (les valeurs nulles sont omises)
+     */
+    public static Map<String, Object> select(CourseDTO course, Set<String> fields) {
+        Map<String, Object> values = new LinkedHashMap<>(fields.size() * 2);
+        for (String field : fields) {
+            Object value = ACCESSORS.get(field).apply(course);
+            if (value != null) {
+                values.put(field, value);
+            }
+        }
+        return values;
+    }
+}
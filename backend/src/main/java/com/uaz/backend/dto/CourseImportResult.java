@@ -0,0 +1,32 @@
+package com.uaz.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO pour le résultat de l'import d'une ligne (status : created ou rejected)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CourseImportResult {
+
+    public static final String CREATED = "created";
+    public static final String REJECTED = "rejected";
+
+    private Long line;
+    private String code;
+    private String status;
+    private String message;
+
+    public static CourseImportResult created(long line, String code) {
+        return new CourseImportResult(line, code, CREATED, null);
+    }
+
+    public static CourseImportResult rejected(long line, String code, String message) {
+        return new CourseImportResult(line, code, REJECTED, message);
+    }
+}
@@ -0,0 +1,19 @@
+package com.uaz.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO pour le récapitulatif d'un import de cours
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CourseImportSummary {
+    private Long total;
+    private Long created;
+    private Long rejected;
+}
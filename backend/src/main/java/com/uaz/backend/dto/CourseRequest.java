@@ -1,6 +1,7 @@
 package com.uaz.backend.dto;
 
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -16,9 +17,11 @@ import lombok.NoArgsConstructor;
 public class CourseRequest {
 
     @NotBlank(message = "Le nom du cours est obligatoire")
+    @Size(max = 150, message = "Le nom du cours ne doit pas dépasser 150 caractères")
     private String name;
 
     @NotBlank(message = "Le code du cours est obligatoire")
+    @Size(max = 20, message = "Le code du cours ne doit pas dépasser 20 caractères")
     private String code;
 
     private String description;
@@ -27,8 +30,13 @@ public class CourseRequest {
     private String type; // course ou service
 
     private Integer teacherId;
+
+    @Size(max = 100, message = "Le département ne doit pas dépasser 100 caractères")
     private String department;
+
+    @Size(max = 20, message = "Le semestre ne doit pas dépasser 20 caractères")
     private String semester;
+
     private Integer credits;
 }
 
@@ -1,11 +1,14 @@
 package com.uaz.backend.dto;
 
+import com.uaz.backend.service.RatingSketch;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * DTO pour les statistiques d'un cours
@@ -22,4 +25,39 @@ public class CourseStatisticsDTO {
     private BigDecimal avgRatingMaterial;
     private BigDecimal avgRatingPedagogy;
     private Integer totalReviews;
+
+    /**
+     * Histogrammes par critère (overall, clarity, material, pedagogy) :
+     * 11 compteurs par demi-étoile, de 0 à 5
+     */
+    private Map<String, int[]> histograms;
+
+    /**
+     * Quantiles par critère (p10, médiane, p90), calculés depuis les compteurs par dixième d'étoile
+     */
+    private Map<String, RatingQuantilesDTO> quantiles;
+
+    /**
+     * Constructeur utilisé par la projection JPQL (histogrammes et compteurs lus depuis course_statistics)
+     */
+    public CourseStatisticsDTO(Integer courseId, String courseName, BigDecimal avgRatingOverall,
+                               BigDecimal avgRatingClarity, BigDecimal avgRatingMaterial,
+                               BigDecimal avgRatingPedagogy, Integer totalReviews,
+                               int[] histOverall, int[] histClarity, int[] histMaterial, int[] histPedagogy,
+                               int[] sketchOverall, int[] sketchClarity, int[] sketchMaterial, int[] sketchPedagogy) {
+        this(courseId, courseName, avgRatingOverall, avgRatingClarity, avgRatingMaterial, avgRatingPedagogy,
+                totalReviews, new LinkedHashMap<>(), new LinkedHashMap<>());
+        histograms.put("overall", histogram(histOverall));
+        histograms.put("clarity", histogram(histClarity));
+        histograms.put("material", histogram(histMaterial));
+        histograms.put("pedagogy", histogram(histPedagogy));
+        quantiles.put("overall", RatingSketch.of(sketchOverall).quantiles());
+        quantiles.put("clarity", RatingSketch.of(sketchClarity).quantiles());
+        quantiles.put("material", RatingSketch.of(sketchMaterial).quantiles());
+        quantiles.put("pedagogy", RatingSketch.of(sketchPedagogy).quantiles());
+    }
+
+    private static int[] histogram(int[] counts) {
+        return counts != null ? counts : new int[11];
+    }
 }
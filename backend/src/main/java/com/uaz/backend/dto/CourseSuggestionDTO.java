@@ -0,0 +1,21 @@
+package com.uaz.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO pour une suggestion d'autocomplétion de cours
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CourseSuggestionDTO {
+    private Integer courseId;
+    private String code;
+    private String name;
+    private String teacherName;
+    private Double score;
+}
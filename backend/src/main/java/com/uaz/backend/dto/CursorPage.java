@@ -0,0 +1,39 @@
+package com.uaz.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * DTO pour une page paginée par curseur (keyset)
+ * nextCursor est opaque et doit être renvoyé tel quel pour obtenir la page suivante
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+    private List<T> items;
+    private String nextCursor;
+    private Boolean hasMore;
+    private Long totalElements;
+
+    /**
+     * Construire une page à partir de "size + 1" lignes lues :
+     * la ligne supplémentaire indique seulement qu'une page suivante existe
+     */
+    public static <T> CursorPage<T> of(List<T> rows, int size, Function<T, String> cursorOf) {
+        boolean hasMore = rows.size() > size;
+        List<T> items = hasMore ? rows.subList(0, size) : rows;
+        String nextCursor = hasMore && !items.isEmpty() ? cursorOf.apply(items.get(items.size() - 1)) : null;
+        return CursorPage.<T>builder()
+                .items(items)
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
+    }
+}
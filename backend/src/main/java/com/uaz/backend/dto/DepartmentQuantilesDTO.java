@@ -0,0 +1,21 @@
+package com.uaz.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * DTO pour les quantiles des notes d'un département (résumés de ses cours fusionnés)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DepartmentQuantilesDTO {
+    private String department;
+    private Integer courses;
+    private Map<String, RatingQuantilesDTO> quantiles;  // overall, clarity, material, pedagogy
+}
@@ -0,0 +1,24 @@
+package com.uaz.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO pour les statistiques agrégées d'un département (moyennes pondérées par le nombre d'avis)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DepartmentStatisticsDTO {
+    private String department;
+    private Integer totalReviews;
+    private BigDecimal avgRatingOverall;
+    private BigDecimal avgRatingClarity;
+    private BigDecimal avgRatingMaterial;
+    private BigDecimal avgRatingPedagogy;
+}
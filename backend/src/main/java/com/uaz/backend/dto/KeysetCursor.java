@@ -0,0 +1,52 @@
+package com.uaz.backend.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Curseur keyset opaque : position (horodatage, id) de la dernière ligne d'une page
+ * Encodé en base64 URL-safe pour rester opaque côté client
+ *
+ * @param timestamp horodatage de tri (peut être null pour un tri sur l'id seul)
+ * @param id        identifiant servant à départager les égalités
+ */
+public record KeysetCursor(LocalDateTime timestamp, Integer id) {
+
+    private static final String SEPARATOR = "|";
+
+    public static KeysetCursor of(LocalDateTime timestamp, Integer id) {
+        return new KeysetCursor(timestamp, id);
+    }
+
+    public static KeysetCursor ofId(Integer id) {
+        return new KeysetCursor(null, id);
+    }
+
+    /**
+     * Décoder un curseur reçu du client (null ou vide = première page)
+     */
+    public static KeysetCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new IllegalArgumentException("Curseur invalide");
+            }
+            String timestamp = raw.substring(0, separator);
+            Integer id = Integer.valueOf(raw.substring(separator + 1));
+            return new KeysetCursor(timestamp.isEmpty() ? null : LocalDateTime.parse(timestamp), id);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Curseur invalide");
+        }
+    }
+
+    public String encode() {
+        String raw = (timestamp != null ? timestamp.toString() : "") + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,21 @@
+package com.uaz.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * DTO pour un lot d'avis réservés par un modérateur, jusqu'à claimExpiresAt
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ModerationBatchDTO {
+    private List<ReviewResponse> reviews;
+    private LocalDateTime claimExpiresAt;
+}
@@ -0,0 +1,22 @@
+package com.uaz.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO pour les quantiles des notes d'un critère (null si aucun avis ne note ce critère)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RatingQuantilesDTO {
+    private Long count;
+    private BigDecimal p10;
+    private BigDecimal median;
+    private BigDecimal p90;
+}
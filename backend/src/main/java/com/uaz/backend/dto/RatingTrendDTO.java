@@ -0,0 +1,24 @@
+package com.uaz.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * DTO pour l'évolution des notes d'un cours par période (les périodes sans avis sont omises)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RatingTrendDTO {
+    private Integer courseId;
+    private String granularity;  // week, month ou semester
+    private LocalDate from;
+    private LocalDate to;
+    private List<RatingTrendPointDTO> points;
+}
@@ -0,0 +1,26 @@
+package com.uaz.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * DTO pour un point de tendance : avis approuvés créés pendant une période et moyennes par critère
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RatingTrendPointDTO {
+    private LocalDate periodStart;
+    private String label;  // 2025-W07, 2025-03 ou 2025-S1
+    private Integer totalReviews;
+    private BigDecimal avgRatingOverall;
+    private BigDecimal avgRatingClarity;
+    private BigDecimal avgRatingMaterial;
+    private BigDecimal avgRatingPedagogy;
+}
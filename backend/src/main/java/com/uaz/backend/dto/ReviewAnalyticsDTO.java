@@ -0,0 +1,32 @@
+package com.uaz.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * DTO pour une analyse ad hoc des avis approuvés (filtres facultatifs, un critère de note)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReviewAnalyticsDTO {
+    private String department;
+    private String type;
+    private String semester;
+    private LocalDate from;
+    private LocalDate to;
+    private String criterion;  // overall, clarity, material ou pedagogy
+    private String groupBy;    // department, semester, type, ou null
+    private Long reviews;      // avis correspondant aux filtres
+    private Long rated;        // dont le critère est noté
+    private BigDecimal average;
+    private int[] histogram;   // 11 compteurs par demi-étoile
+    private List<ReviewAnalyticsGroupDTO> groups;
+}
@@ -0,0 +1,22 @@
+package com.uaz.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO pour un groupe d'une analyse des avis (département, semestre ou type)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReviewAnalyticsGroupDTO {
+    private String key;
+    private Long reviews;
+    private Long rated;
+    private BigDecimal average;
+}
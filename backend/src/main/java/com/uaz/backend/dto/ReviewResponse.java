@@ -1,5 +1,6 @@
 package com.uaz.backend.dto;
 
+import com.uaz.backend.entity.Review;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -32,4 +33,26 @@ public class ReviewResponse {
     private String teacherResponse;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+
+    /**
+     * Constructeur utilisé par les projections JPQL (SELECT new ...)
+     * Notes reçues en dixièmes (NOT_RATED si absente), auteur et réponse de l'enseignant via jointures
+     */
+    public ReviewResponse(Integer reviewId, Integer userId, Integer courseId, String courseName, String courseCode,
+                          Short ratingOverallTenths, Short ratingClarityTenths,
+                          Short ratingMaterialTenths, Short ratingPedagogyTenths,
+                          String comment, Boolean anonymous, String userFullName,
+                          Review.ModerationStatus moderationStatus, String teacherResponse,
+                          LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this(reviewId, userId, courseId, courseName, courseCode,
+                rating(ratingOverallTenths), rating(ratingClarityTenths),
+                rating(ratingMaterialTenths), rating(ratingPedagogyTenths),
+                comment, anonymous, Boolean.TRUE.equals(anonymous) ? "Anonyme" : userFullName,
+                moderationStatus != null ? moderationStatus.name() : null, teacherResponse,
+                createdAt, updatedAt);
+    }
+
+    private static BigDecimal rating(Short tenths) {
+        return tenths != null ? Review.rating(tenths) : null;
+    }
 }
@@ -0,0 +1,26 @@
+package com.uaz.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * DTO pour l'écart entre les statistiques stockées d'un cours et celles recalculées depuis les avis
+ * differences : valeur attendue - valeur stockée, par colonne (sommes en dixièmes d'étoile)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StatisticsDriftDTO {
+    private Integer courseId;
+    private Integer storedTotalReviews;
+    private Integer expectedTotalReviews;
+    private BigDecimal storedAvgRatingOverall;
+    private BigDecimal expectedAvgRatingOverall;
+    private Map<String, Long> differences;
+}
@@ -0,0 +1,35 @@
+package com.uaz.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * DTO pour l'état d'une reconstruction (ou vérification) des statistiques de cours
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StatisticsRebuildStatus {
+    private Long jobId;
+    private String mode;   // verify ou repair
+    private String state;  // running, completed ou failed
+    private Integer totalChunks;
+    private Integer completedChunks;
+    private Long coursesScanned;
+    private Long reviewsScanned;
+    private Long driftedCourses;
+    private Long repairedCourses;
+    private Long rollupBuckets;  // lignes course_rating_rollups recalculées (mode repair)
+    private Double reviewsPerSecond;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private Long elapsedMillis;
+    private String error;
+    private List<StatisticsDriftDTO> drifts;
+}
@@ -0,0 +1,25 @@
+package com.uaz.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO pour les statistiques agrégées des cours d'un enseignant (moyennes pondérées par le nombre d'avis)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TeacherStatisticsDTO {
+    private Integer teacherId;
+    private String teacherName;
+    private Integer totalReviews;
+    private BigDecimal avgRatingOverall;
+    private BigDecimal avgRatingClarity;
+    private BigDecimal avgRatingMaterial;
+    private BigDecimal avgRatingPedagogy;
+}
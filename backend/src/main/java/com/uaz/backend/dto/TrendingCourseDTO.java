@@ -0,0 +1,29 @@
+package com.uaz.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO pour un cours tendance : avis approuvés récents pondérés par une décroissance exponentielle
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrendingCourseDTO {
+    private Integer courseId;
+    private String code;
+    private String name;
+    private String type;
+    private String teacherName;
+    private String department;
+    private BigDecimal avgRating;
+    private Integer totalReviews;
+    private BigDecimal trendingScore;
+    private BigDecimal recentReviews;
+    private BigDecimal recentAverage;
+}
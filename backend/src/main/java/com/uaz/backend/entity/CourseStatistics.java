@@ -9,7 +9,10 @@ import java.time.LocalDateTime;
 
 /**
  * Entité CourseStatistics - Cache des statistiques d'un cours
- * Cette table est mise à jour automatiquement par des triggers et fonctions PL/pgSQL
+ * Les sommes et compteurs par critère (en dixièmes d'étoile) sont mis à jour de façon incrémentale
+ * par CourseStatisticsService à chaque changement d'état de modération d'un avis ;
+ * les moyennes en sont dérivées dans la même instruction, et les histogrammes par demi-étoile
+ * ainsi que les compteurs par dixième d'étoile (quantiles) mis à jour
  */
 @Entity
 @Table(name = "course_statistics",
@@ -52,35 +55,102 @@ public class CourseStatistics {
     @Column(name = "avg_rating_pedagogy", precision = 3, scale = 2)
     private BigDecimal avgRatingPedagogy;
 
-    @Column(name = "total_reviews")
+    @Column(name = "total_reviews", nullable = false)
     @Builder.Default
     private Integer totalReviews = 0;
 
+    // Sommes (dixièmes d'étoile) et compteurs des avis approuvés ; total_reviews compte la note globale
+
+    @Column(name = "sum_overall_tenths", nullable = false)
+    @Builder.Default
+    private Long sumOverallTenths = 0L;
+
+    @Column(name = "sum_clarity_tenths", nullable = false)
+    @Builder.Default
+    private Long sumClarityTenths = 0L;
+
+    @Column(name = "count_clarity", nullable = false)
+    @Builder.Default
+    private Integer countClarity = 0;
+
+    @Column(name = "sum_material_tenths", nullable = false)
+    @Builder.Default
+    private Long sumMaterialTenths = 0L;
+
+    @Column(name = "count_material", nullable = false)
+    @Builder.Default
+    private Integer countMaterial = 0;
+
+    @Column(name = "sum_pedagogy_tenths", nullable = false)
+    @Builder.Default
+    private Long sumPedagogyTenths = 0L;
+
+    @Column(name = "count_pedagogy", nullable = false)
+    @Builder.Default
+    private Integer countPedagogy = 0;
+
+    // Histogrammes par demi-étoile (11 compteurs : 0, 0.5, ..., 5) des avis approuvés
+
+    @Column(name = "hist_overall", nullable = false, columnDefinition = "integer[]")
+    @Builder.Default
+    private int[] histOverall = new int[11];
+
+    @Column(name = "hist_clarity", nullable = false, columnDefinition = "integer[]")
+    @Builder.Default
+    private int[] histClarity = new int[11];
+
+    @Column(name = "hist_material", nullable = false, columnDefinition = "integer[]")
+    @Builder.Default
+    private int[] histMaterial = new int[11];
+
+    @Column(name = "hist_pedagogy", nullable = false, columnDefinition = "integer[]")
+    @Builder.Default
+    private int[] histPedagogy = new int[11];
+
+    // Compteurs par dixième d'étoile (51 valeurs : 0.0, 0.1, ..., 5.0) pour les quantiles, voir RatingSketch
+
+    @Column(name = "sketch_overall", nullable = false, columnDefinition = "integer[]")
+    @Builder.Default
+    private int[] sketchOverall = new int[51];
+
+    @Column(name = "sketch_clarity", nullable = false, columnDefinition = "integer[]")
+    @Builder.Default
+    private int[] sketchClarity = new int[51];
+
+    @Column(name = "sketch_material", nullable = false, columnDefinition = "integer[]")
+    @Builder.Default
+    private int[] sketchMaterial = new int[51];
+
+    @Column(name = "sketch_pedagogy", nullable = false, columnDefinition = "integer[]")
+    @Builder.Default
+    private int[] sketchPedagogy = new int[51];
+
     @UpdateTimestamp
     @Column(name = "last_updated")
     private LocalDateTime lastUpdated;
 
     /**
      * Calcule la moyenne générale de toutes les notes
+     * Moyenne des moyennes par critère, calculée en centièmes depuis les sommes en dixièmes
      */
     public BigDecimal getOverallAverage() {
         int count = 0;
-        BigDecimal sum = BigDecimal.ZERO;
+        long sum = 0;
 
-        if (avgRatingOverall != null) {
-            sum = sum.add(avgRatingOverall);
+        if (totalReviews != null && totalReviews > 0) {
+            sum += hundredths(sumOverallTenths, totalReviews);
             count++;
         }
-        if (avgRatingClarity != null) {
-            sum = sum.add(avgRatingClarity);
+        if (countClarity != null && countClarity > 0) {
+            sum += hundredths(sumClarityTenths, countClarity);
             count++;
         }
-        if (avgRatingMaterial != null) {
-            sum = sum.add(avgRatingMaterial);
+        if (countMaterial != null && countMaterial > 0) {
+            sum += hundredths(sumMaterialTenths, countMaterial);
             count++;
         }
-        if (avgRatingPedagogy != null) {
-            sum = sum.add(avgRatingPedagogy);
+        if (countPedagogy != null && countPedagogy > 0) {
+            sum += hundredths(sumPedagogyTenths, countPedagogy);
             count++;
         }
 
@@ -88,7 +158,14 @@ public class CourseStatistics {
             return BigDecimal.ZERO;
         }
 
-        return sum.divide(BigDecimal.valueOf(count), 2, BigDecimal.ROUND_HALF_UP);
+        return BigDecimal.valueOf((sum * 2 + count) / (2L * count), 2);
+    }
+
+    /**
+     * Moyenne en centièmes d'une somme en dixièmes, arrondie comme avg_rating_* (demi vers le haut)
+     */
+    private static long hundredths(long sumTenths, int count) {
+        return (sumTenths * 20 + count) / (2L * count);
     }
 
     /**
@@ -0,0 +1,79 @@
+package com.uaz.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Entité DepartmentStatistics - Agrégat des statistiques des cours d'un département
+ * Les sommes de course_statistics y sont reportées de façon incrémentale par CourseStatisticsService ;
+ * les moyennes sont donc pondérées par le nombre d'avis
+ */
+@Entity
+@Table(name = "department_statistics")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@ToString
+@EqualsAndHashCode(of = "department")
+public class DepartmentStatistics {
+
+    @Id
+    @Column(name = "department", length = 100)
+    private String department;
+
+    @Column(name = "avg_rating_overall", precision = 3, scale = 2)
+    private BigDecimal avgRatingOverall;
+
+    @Column(name = "avg_rating_clarity", precision = 3, scale = 2)
+    private BigDecimal avgRatingClarity;
+
+    @Column(name = "avg_rating_material", precision = 3, scale = 2)
+    private BigDecimal avgRatingMaterial;
+
+    @Column(name = "avg_rating_pedagogy", precision = 3, scale = 2)
+    private BigDecimal avgRatingPedagogy;
+
+    @Column(name = "total_reviews", nullable = false)
+    @Builder.Default
+    private Integer totalReviews = 0;
+
+    // Sommes (dixièmes d'étoile) et compteurs des avis approuvés de tous les cours concernés
+
+    @Column(name = "sum_overall_tenths", nullable = false)
+    @Builder.Default
+    private Long sumOverallTenths = 0L;
+
+    @Column(name = "sum_clarity_tenths", nullable = false)
+    @Builder.Default
+    private Long sumClarityTenths = 0L;
+
+    @Column(name = "count_clarity", nullable = false)
+    @Builder.Default
+    private Integer countClarity = 0;
+
+    @Column(name = "sum_material_tenths", nullable = false)
+    @Builder.Default
+    private Long sumMaterialTenths = 0L;
+
+    @Column(name = "count_material", nullable = false)
+    @Builder.Default
+    private Integer countMaterial = 0;
+
+    @Column(name = "sum_pedagogy_tenths", nullable = false)
+    @Builder.Default
+    private Long sumPedagogyTenths = 0L;
+
+    @Column(name = "count_pedagogy", nullable = false)
+    @Builder.Default
+    private Integer countPedagogy = 0;
+
+    @UpdateTimestamp
+    @Column(name = "last_updated")
+    private LocalDateTime lastUpdated;
+}
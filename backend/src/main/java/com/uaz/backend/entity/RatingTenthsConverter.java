@@ -0,0 +1,30 @@
+package com.uaz.backend.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Custom converter to map an optional rating (SMALLINT tenths, NULL when not rated)
+ * to a primitive field, using NOT_RATED for NULL
+ */
+@Converter
+public class RatingTenthsConverter implements AttributeConverter<Short, Short> {
+
+    public static final short NOT_RATED = -1;
+
+    @Override
+    public Short convertToDatabaseColumn(Short attribute) {
+        if (attribute == null || attribute == NOT_RATED) {
+            return null;
+        }
+        return attribute;
+    }
+
+    @Override
+    public Short convertToEntityAttribute(Short dbData) {
+        if (dbData == null) {
+            return NOT_RATED;
+        }
+        return dbData;
+    }
+}
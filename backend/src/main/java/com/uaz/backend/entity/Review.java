@@ -6,6 +6,7 @@ import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDateTime;
 
 /**
@@ -33,6 +34,8 @@ import java.time.LocalDateTime;
 @EqualsAndHashCode(of = "reviewId")
 public class Review {
 
+    public static final short NOT_RATED = RatingTenthsConverter.NOT_RATED;
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     @Column(name = "review_id")
@@ -46,19 +49,26 @@ public class Review {
     @JoinColumn(name = "course_id", nullable = false)
     private Course course;
 
-    // Évaluations (notes de 0 à 5)
+    // Évaluations (notes de 0 à 5) en dixièmes d'étoile : 0 à 50 en SMALLINT
+    // Un critère facultatif non noté vaut NOT_RATED (NULL en base)
 
-    @Column(name = "rating_overall", nullable = false, precision = 2, scale = 1)
-    private BigDecimal ratingOverall;
+    @Column(name = "rating_overall", nullable = false)
+    private short ratingOverallTenths;
 
-    @Column(name = "rating_clarity", precision = 2, scale = 1)
-    private BigDecimal ratingClarity;
+    @Convert(converter = RatingTenthsConverter.class)
+    @Column(name = "rating_clarity")
+    @Builder.Default
+    private short ratingClarityTenths = NOT_RATED;
 
-    @Column(name = "rating_material", precision = 2, scale = 1)
-    private BigDecimal ratingMaterial;
+    @Convert(converter = RatingTenthsConverter.class)
+    @Column(name = "rating_material")
+    @Builder.Default
+    private short ratingMaterialTenths = NOT_RATED;
 
-    @Column(name = "rating_pedagogy", precision = 2, scale = 1)
-    private BigDecimal ratingPedagogy;
+    @Convert(converter = RatingTenthsConverter.class)
+    @Column(name = "rating_pedagogy")
+    @Builder.Default
+    private short ratingPedagogyTenths = NOT_RATED;
 
     @Column(name = "comment", columnDefinition = "TEXT")
     private String comment;
@@ -84,6 +94,15 @@ public class Review {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    // Réservation par un modérateur (file de modération) : écrite uniquement par ModerationQueueService
+    // et par la décision, en SQL, pour qu'une sauvegarde de l'avis n'écrase jamais une réservation concurrente
+
+    @Column(name = "claimed_by", insertable = false, updatable = false)
+    private Integer claimedBy;
+
+    @Column(name = "claim_expires_at", insertable = false, updatable = false)
+    private LocalDateTime claimExpiresAt;
+
     // Relations
 
     /**
@@ -126,6 +145,14 @@ public class Review {
         return ModerationStatus.REJECTED.equals(this.moderationStatus);
     }
 
+    /**
+     * Vérifie si l'avis est réservé par un autre modérateur (réservation non expirée)
+     */
+    public boolean isClaimedByOther(Integer moderatorId, LocalDateTime now) {
+        return claimedBy != null && !claimedBy.equals(moderatorId)
+                && claimExpiresAt != null && claimExpiresAt.isAfter(now);
+    }
+
     /**
      * Approuve l'avis
      */
@@ -144,25 +171,74 @@ public class Review {
 
     /**
      * Calcule la note moyenne de tous les critères
+     * Somme entière des dixièmes, arrondie au centième (demi vers le haut)
      */
     public BigDecimal getAverageRating() {
         int count = 1; // rating_overall est toujours présent
-        BigDecimal sum = ratingOverall;
+        int sum = ratingOverallTenths;
 
-        if (ratingClarity != null) {
-            sum = sum.add(ratingClarity);
+        if (ratingClarityTenths != NOT_RATED) {
+            sum += ratingClarityTenths;
             count++;
         }
-        if (ratingMaterial != null) {
-            sum = sum.add(ratingMaterial);
+        if (ratingMaterialTenths != NOT_RATED) {
+            sum += ratingMaterialTenths;
             count++;
         }
-        if (ratingPedagogy != null) {
-            sum = sum.add(ratingPedagogy);
+        if (ratingPedagogyTenths != NOT_RATED) {
+            sum += ratingPedagogyTenths;
             count++;
         }
 
-        return sum.divide(BigDecimal.valueOf(count), 2, BigDecimal.ROUND_HALF_UP);
+        return BigDecimal.valueOf((sum * 20L + count) / (2L * count), 2);
+    }
+
+    // Notes décimales (API) : conversion aux bornes, le stockage et les calculs restent en dixièmes
+
+    public BigDecimal getRatingOverall() {
+        return rating(ratingOverallTenths);
+    }
+
+    public void setRatingOverall(BigDecimal rating) {
+        this.ratingOverallTenths = tenths(rating);
+    }
+
+    public BigDecimal getRatingClarity() {
+        return rating(ratingClarityTenths);
+    }
+
+    public void setRatingClarity(BigDecimal rating) {
+        this.ratingClarityTenths = tenths(rating);
+    }
+
+    public BigDecimal getRatingMaterial() {
+        return rating(ratingMaterialTenths);
+    }
+
+    public void setRatingMaterial(BigDecimal rating) {
+        this.ratingMaterialTenths = tenths(rating);
+    }
+
+    public BigDecimal getRatingPedagogy() {
+        return rating(ratingPedagogyTenths);
+    }
+
+    public void setRatingPedagogy(BigDecimal rating) {
+        this.ratingPedagogyTenths = tenths(rating);
+    }
+
+    /**
+     * Note décimale en dixièmes, arrondie au dixième (demi vers le haut) ; NOT_RATED si absente
+     */
+    public static short tenths(BigDecimal rating) {
+        return rating != null ? rating.setScale(1, RoundingMode.HALF_UP).unscaledValue().shortValueExact() : NOT_RATED;
+    }
+
+    /**
+     * Note en dixièmes vers sa valeur décimale (échelle 1) ; null si non notée
+     */
+    public static BigDecimal rating(short tenths) {
+        return tenths != NOT_RATED ? BigDecimal.valueOf(tenths, 1) : null;
     }
 
     /**
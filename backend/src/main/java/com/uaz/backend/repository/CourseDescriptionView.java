@@ -0,0 +1,11 @@
+package com.uaz.backend.repository;
+
+/**
+ * Projection : description d'un cours, chargée à part des listes paginées
+ */
+public interface CourseDescriptionView {
+
+    Integer getCourseId();
+
+    String getDescription();
+}
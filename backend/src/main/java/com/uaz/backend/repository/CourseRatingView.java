@@ -0,0 +1,15 @@
+package com.uaz.backend.repository;
+
+import java.math.BigDecimal;
+
+/**
+ * Projection : moyenne et nombre d'avis d'un cours, reportés dans le catalogue après un report des bandes
+ */
+public interface CourseRatingView {
+
+    Integer getCourseId();
+
+    BigDecimal getAvgRating();
+
+    Integer getTotalReviews();
+}
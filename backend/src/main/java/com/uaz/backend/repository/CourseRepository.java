@@ -1,11 +1,18 @@
 package com.uaz.backend.repository;
 
+import com.uaz.backend.dto.CourseDTO;
+import com.uaz.backend.dto.CourseStatisticsDTO;
 import com.uaz.backend.entity.Course;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,6 +22,45 @@ import java.util.Optional;
 @Repository
 public interface CourseRepository extends JpaRepository<Course, Integer> {
 
+    /**
+     * Clause SELECT de la projection CourseDTO (alias c = cours, t = enseignant, s = statistiques)
+     */
+    String COURSE_DTO_PROJECTION = "SELECT new com.uaz.backend.dto.CourseDTO(" +
+            "c.courseId, c.name, c.code, c.description, c.type, t.userId, t.fullName, " +
+            "c.department, c.semester, c.credits, c.isActive, s.avgRatingOverall, s.totalReviews, " +
+            "c.createdAt, c.updatedAt) ";
+
+    /**
+     * Projection CourseDTO : cours + nom de l'enseignant + statistiques en une seule requête
+     */
+    String COURSE_DTO_SELECT = COURSE_DTO_PROJECTION +
+            "FROM Course c LEFT JOIN c.teacher t LEFT JOIN c.statistics s ";
+
+    /**
+     * Projection CourseDTO sans la description, pour les listes paginées
+     */
+    String COURSE_SUMMARY_SELECT = "SELECT new com.uaz.backend.dto.CourseDTO(" +
+            "c.courseId, c.name, c.code, c.type, t.userId, t.fullName, " +
+            "c.department, c.semester, c.credits, c.isActive, s.avgRatingOverall, s.totalReviews, " +
+            "c.createdAt, c.updatedAt) " +
+            "FROM Course c LEFT JOIN c.teacher t LEFT JOIN c.statistics s ";
+
+    /**
+     * Projection CourseStatisticsDTO : nom du cours, statistiques, histogrammes et quantiles en une seule requête jointe
+     */
+    String COURSE_STATISTICS_SELECT = "SELECT new com.uaz.backend.dto.CourseStatisticsDTO(" +
+            "c.courseId, c.name, s.avgRatingOverall, s.avgRatingClarity, s.avgRatingMaterial, " +
+            "s.avgRatingPedagogy, COALESCE(s.totalReviews, 0), " +
+            "s.histOverall, s.histClarity, s.histMaterial, s.histPedagogy, " +
+            "s.sketchOverall, s.sketchClarity, s.sketchMaterial, s.sketchPedagogy) " +
+            "FROM Course c LEFT JOIN c.statistics s ";
+
+    /**
+     * Filtre de recherche : document pondéré (code > nom > description) ou code proche (pg_trgm)
+     */
+    String SEARCH_FROM = "FROM courses c WHERE c.is_active = true AND " +
+            "(c.search_vector @@ to_tsquery('french_unaccent', :tsquery) OR lower(c.code) % :code) ";
+
     Optional<Course> findByCode(String code);
 
     List<Course> findByIsActiveTrue();
@@ -37,4 +83,109 @@ public interface CourseRepository extends JpaRepository<Course, Integer> {
             "LOWER(c.code) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
             "LOWER(c.description) LIKE LOWER(CONCAT('%', :search, '%')))")
     List<Course> searchCourses(@Param("search") String search);
+
+    // Projections CourseDTO (une requête par liste, quel que soit le nombre de cours)
+
+    @Query(COURSE_DTO_SELECT + "WHERE c.courseId = :courseId")
+    Optional<CourseDTO> findCourseDTOById(@Param("courseId") Integer courseId);
+
+    @Query(COURSE_DTO_SELECT + "WHERE c.isActive = true ORDER BY c.courseId")
+    List<CourseDTO> findActiveCourseDTOs();
+
+    @Query(COURSE_DTO_SELECT + "WHERE c.isActive = true AND c.type = :type ORDER BY c.courseId")
+    List<CourseDTO> findActiveCourseDTOsByType(@Param("type") Course.CourseType type);
+
+    @Query(COURSE_DTO_SELECT + "WHERE c.isActive = true AND t.userId = :teacherId ORDER BY c.courseId")
+    List<CourseDTO> findActiveCourseDTOsByTeacher(@Param("teacherId") Integer teacherId);
+
+    @Query(COURSE_DTO_SELECT + "WHERE c.isActive = true AND " +
+            "(c.department = :department OR c.type = :globalType) ORDER BY c.courseId")
+    List<CourseDTO> findActiveCourseDTOsByDepartmentOrType(@Param("department") String department,
+                                                           @Param("globalType") Course.CourseType globalType);
+
+    default List<CourseDTO> findActiveCourseDTOsByDepartmentOrGlobal(String department) {
+        return findActiveCourseDTOsByDepartmentOrType(department, Course.CourseType.SERVICE);
+    }
+
+    /**
+     * Première page du fil des cours récents, servie par idx_courses_active_created
+     */
+    @Query(COURSE_DTO_SELECT + "WHERE c.isActive = true ORDER BY c.createdAt DESC, c.courseId DESC")
+    List<CourseDTO> findRecentCourseDTOs(Pageable pageable);
+
+    /**
+     * Page suivante du fil : cours strictement après le curseur (created_at, course_id)
+     */
+    @Query(COURSE_DTO_SELECT + "WHERE c.isActive = true AND (c.createdAt, c.courseId) < (:createdAt, :courseId) " +
+            "ORDER BY c.createdAt DESC, c.courseId DESC")
+    List<CourseDTO> findRecentCourseDTOsBefore(@Param("createdAt") LocalDateTime createdAt,
+                                               @Param("courseId") Integer courseId,
+                                               Pageable pageable);
+
+    // Listes paginées (keyset sur course_id, sans description)
+
+    @Query(COURSE_SUMMARY_SELECT + "WHERE c.isActive = true AND t.userId = :teacherId AND c.courseId > :afterId " +
+            "ORDER BY c.courseId")
+    Slice<CourseDTO> findActiveCourseSummariesByTeacher(@Param("teacherId") Integer teacherId,
+                                                        @Param("afterId") Integer afterId,
+                                                        Pageable pageable);
+
+    @Query(COURSE_SUMMARY_SELECT + "WHERE c.isActive = true AND " +
+            "(c.department = :department OR c.type = :globalType) AND c.courseId > :afterId ORDER BY c.courseId")
+    Slice<CourseDTO> findActiveCourseSummariesByDepartmentOrType(@Param("department") String department,
+                                                                 @Param("globalType") Course.CourseType globalType,
+                                                                 @Param("afterId") Integer afterId,
+                                                                 Pageable pageable);
+
+    @Query("SELECT COUNT(c) FROM Course c WHERE c.isActive = true AND c.teacher.userId = :teacherId")
+    long countActiveCoursesByTeacher(@Param("teacherId") Integer teacherId);
+
+    @Query("SELECT COUNT(c) FROM Course c WHERE c.isActive = true AND " +
+            "(c.department = :department OR c.type = :globalType)")
+    long countActiveCoursesByDepartmentOrType(@Param("department") String department,
+                                              @Param("globalType") Course.CourseType globalType);
+
+    // Projections CourseStatisticsDTO
+
+    @Query(COURSE_STATISTICS_SELECT + "WHERE c.courseId IN :courseIds ORDER BY c.courseId")
+    List<CourseStatisticsDTO> findCourseStatisticsDTOsByIds(@Param("courseIds") Collection<Integer> courseIds);
+
+    @Query(COURSE_STATISTICS_SELECT + "WHERE c.isActive = true " +
+            "AND (:department IS NULL OR c.department = :department) " +
+            "AND (:type IS NULL OR c.type = :type) ORDER BY c.courseId")
+    List<CourseStatisticsDTO> findActiveCourseStatisticsDTOs(@Param("department") String department,
+                                                             @Param("type") Course.CourseType type);
+
+    /**
+     * Parmi les codes donnés, retourne ceux déjà utilisés par un cours
+     */
+    @Query("SELECT c.code FROM Course c WHERE c.code IN :codes")
+    List<String> findExistingCodes(@Param("codes") Collection<String> codes);
+
+    @Query("SELECT c.courseId AS courseId, c.description AS description FROM Course c WHERE c.courseId IN :courseIds")
+    List<CourseDescriptionView> findDescriptionsByCourseIds(@Param("courseIds") Collection<Integer> courseIds);
+
+    @Query("SELECT c.courseId AS courseId, s.avgRatingOverall AS avgRating, s.totalReviews AS totalReviews " +
+            "FROM Course c LEFT JOIN c.statistics s WHERE c.courseId IN :courseIds")
+    List<CourseRatingView> findRatingsByCourseIds(@Param("courseIds") Collection<Integer> courseIds);
+
+    @Query("SELECT c.updatedAt AS updatedAt, t.updatedAt AS teacherUpdatedAt, s.lastUpdated AS statisticsUpdatedAt " +
+            "FROM Course c LEFT JOIN c.teacher t LEFT JOIN c.statistics s WHERE c.courseId = :courseId")
+    Optional<CourseVersionView> findVersionByCourseId(@Param("courseId") Integer courseId);
+
+    @Query(COURSE_DTO_SELECT + "WHERE c.courseId IN :courseIds")
+    List<CourseDTO> findCourseDTOsByIds(@Param("courseIds") Collection<Integer> courseIds);
+
+    /**
+     * Recherche plein texte (search_vector, index GIN) et trigramme sur le code (idx_courses_code_trgm)
+     * Retourne les IDs triés par pertinence ; les DTO sont chargés ensuite par findCourseDTOsByIds
+     */
+    @Query(value = "SELECT c.course_id " + SEARCH_FROM +
+            "ORDER BY ts_rank_cd(c.search_vector, to_tsquery('french_unaccent', :tsquery)) " +
+            "+ similarity(lower(c.code), :code) DESC, c.course_id",
+            countQuery = "SELECT COUNT(*) " + SEARCH_FROM,
+            nativeQuery = true)
+    Page<Integer> searchRankedCourseIds(@Param("tsquery") String tsquery,
+                                        @Param("code") String code,
+                                        Pageable pageable);
 }
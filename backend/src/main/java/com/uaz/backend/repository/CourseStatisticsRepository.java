@@ -1,10 +1,16 @@
 package com.uaz.backend.repository;
 
+import com.uaz.backend.dto.CourseDTO;
 import com.uaz.backend.entity.CourseStatistics;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,15 +20,272 @@ import java.util.Optional;
 @Repository
 public interface CourseStatisticsRepository extends JpaRepository<CourseStatistics, Integer> {
 
+    /**
+     * Classement lu depuis course_statistics : l'ordre (avg_rating_overall DESC, total_reviews DESC)
+     * correspond au parcours inverse de l'index idx_stats_rating_reviews
+     */
+    String LEADERBOARD_SELECT = CourseRepository.COURSE_DTO_PROJECTION +
+            "FROM CourseStatistics s JOIN s.course c LEFT JOIN c.teacher t " +
+            "WHERE c.isActive = true AND s.avgRatingOverall IS NOT NULL AND s.totalReviews >= :minReviews ";
+
+    /**
+     * Colonnes des agrégats par département et par enseignant (mêmes sommes que course_statistics)
+     */
+    String AGGREGATE_COLUMNS = "total_reviews, sum_overall_tenths, sum_clarity_tenths, count_clarity, " +
+            "sum_material_tenths, count_material, sum_pedagogy_tenths, count_pedagogy, " +
+            "avg_rating_overall, avg_rating_clarity, avg_rating_material, avg_rating_pedagogy, last_updated";
+
+    /**
+     * Valeurs d'une variation d'avis (paramètres nommés de applyReviewDelta) pour AGGREGATE_COLUMNS
+     */
+    String AGGREGATE_DELTA_VALUES = ":reviews, :overall, :clarity, :clarityCount, " +
+            ":material, :materialCount, :pedagogy, :pedagogyCount, " +
+            "ROUND(:overall / 10.0 / NULLIF(:reviews, 0), 2), " +
+            "ROUND(:clarity / 10.0 / NULLIF(:clarityCount, 0), 2), " +
+            "ROUND(:material / 10.0 / NULLIF(:materialCount, 0), 2), " +
+            "ROUND(:pedagogy / 10.0 / NULLIF(:pedagogyCount, 0), 2), CURRENT_TIMESTAMP";
+
+    /**
+     * Valeurs de la ligne course_statistics s d'un cours, multipliées par :sign (+1 ajout, -1 retrait)
+     */
+    String AGGREGATE_COURSE_VALUES = ":sign * s.total_reviews, :sign * s.sum_overall_tenths, " +
+            ":sign * s.sum_clarity_tenths, :sign * s.count_clarity, " +
+            ":sign * s.sum_material_tenths, :sign * s.count_material, " +
+            ":sign * s.sum_pedagogy_tenths, :sign * s.count_pedagogy, " +
+            "ROUND(s.sum_overall_tenths / 10.0 / NULLIF(s.total_reviews, 0), 2), " +
+            "ROUND(s.sum_clarity_tenths / 10.0 / NULLIF(s.count_clarity, 0), 2), " +
+            "ROUND(s.sum_material_tenths / 10.0 / NULLIF(s.count_material, 0), 2), " +
+            "ROUND(s.sum_pedagogy_tenths / 10.0 / NULLIF(s.count_pedagogy, 0), 2), CURRENT_TIMESTAMP";
+
+    /**
+     * Fusion d'une variation dans une ligne d'agrégat existante (alias a) ; moyennes recalculées sur les sommes
+     */
+    String AGGREGATE_MERGE = "total_reviews = a.total_reviews + EXCLUDED.total_reviews, " +
+            "sum_overall_tenths = a.sum_overall_tenths + EXCLUDED.sum_overall_tenths, " +
+            "sum_clarity_tenths = a.sum_clarity_tenths + EXCLUDED.sum_clarity_tenths, " +
+            "count_clarity = a.count_clarity + EXCLUDED.count_clarity, " +
+            "sum_material_tenths = a.sum_material_tenths + EXCLUDED.sum_material_tenths, " +
+            "count_material = a.count_material + EXCLUDED.count_material, " +
+            "sum_pedagogy_tenths = a.sum_pedagogy_tenths + EXCLUDED.sum_pedagogy_tenths, " +
+            "count_pedagogy = a.count_pedagogy + EXCLUDED.count_pedagogy, " +
+            "avg_rating_overall = ROUND((a.sum_overall_tenths + EXCLUDED.sum_overall_tenths) / 10.0 " +
+            "/ NULLIF(a.total_reviews + EXCLUDED.total_reviews, 0), 2), " +
+            "avg_rating_clarity = ROUND((a.sum_clarity_tenths + EXCLUDED.sum_clarity_tenths) / 10.0 " +
+            "/ NULLIF(a.count_clarity + EXCLUDED.count_clarity, 0), 2), " +
+            "avg_rating_material = ROUND((a.sum_material_tenths + EXCLUDED.sum_material_tenths) / 10.0 " +
+            "/ NULLIF(a.count_material + EXCLUDED.count_material, 0), 2), " +
+            "avg_rating_pedagogy = ROUND((a.sum_pedagogy_tenths + EXCLUDED.sum_pedagogy_tenths) / 10.0 " +
+            "/ NULLIF(a.count_pedagogy + EXCLUDED.count_pedagogy, 0), 2), " +
+            "last_updated = CURRENT_TIMESTAMP";
+
+    /**
+     * Fusion d'une variation dans une ligne d'agrégat temporel existante (alias r)
+     */
+    String ROLLUP_MERGE = "total_reviews = r.total_reviews + EXCLUDED.total_reviews, " +
+            "sum_overall_tenths = r.sum_overall_tenths + EXCLUDED.sum_overall_tenths, " +
+            "sum_clarity_tenths = r.sum_clarity_tenths + EXCLUDED.sum_clarity_tenths, " +
+            "count_clarity = r.count_clarity + EXCLUDED.count_clarity, " +
+            "sum_material_tenths = r.sum_material_tenths + EXCLUDED.sum_material_tenths, " +
+            "count_material = r.count_material + EXCLUDED.count_material, " +
+            "sum_pedagogy_tenths = r.sum_pedagogy_tenths + EXCLUDED.sum_pedagogy_tenths, " +
+            "count_pedagogy = r.count_pedagogy + EXCLUDED.count_pedagogy";
+
     Optional<CourseStatistics> findByCourseCourseId(Integer courseId);
 
     default Optional<CourseStatistics> findByCourseId(Integer courseId) {
         return findByCourseCourseId(courseId);
     }
 
-    @Query("SELECT cs FROM CourseStatistics cs WHERE cs.totalReviews > 0 ORDER BY cs.avgRatingOverall DESC")
-    List<CourseStatistics> findTopRatedCourses();
+    @Query(LEADERBOARD_SELECT + "ORDER BY s.avgRatingOverall DESC, s.totalReviews DESC")
+    List<CourseDTO> findTopRatedCourses(@Param("minReviews") int minReviews, Pageable pageable);
+
+    @Query(LEADERBOARD_SELECT + "AND c.department = :department " +
+            "ORDER BY s.avgRatingOverall DESC, s.totalReviews DESC")
+    List<CourseDTO> findTopRatedCoursesByDepartment(@Param("department") String department,
+                                                    @Param("minReviews") int minReviews,
+                                                    Pageable pageable);
+
+    /**
+     * Classement bayésien : (n * moyenne + m * C) / (n + m)
+     * où m est le poids a priori et C la moyenne globale pondérée
+     */
+    @Query(LEADERBOARD_SELECT + "AND (:department IS NULL OR c.department = :department) " +
+            "ORDER BY (s.totalReviews * s.avgRatingOverall + :prior * :globalMean) / (s.totalReviews + :prior) DESC, " +
+            "s.totalReviews DESC")
+    List<CourseDTO> findTopRatedCoursesBayesian(@Param("department") String department,
+                                                @Param("minReviews") int minReviews,
+                                                @Param("prior") int prior,
+                                                @Param("globalMean") BigDecimal globalMean,
+                                                Pageable pageable);
+
+    /**
+     * Moyenne globale pondérée par le nombre d'avis
+     */
+    @Query("SELECT SUM(s.avgRatingOverall * s.totalReviews) / SUM(s.totalReviews) " +
+            "FROM CourseStatistics s WHERE s.totalReviews > 0 AND s.avgRatingOverall IS NOT NULL")
+    BigDecimal findGlobalMeanRating();
+
+    /**
+     * Appliquer une variation (bandes reportées d'un cours) à la ligne de statistiques du cours (une seule ligne touchée)
+     * Les sommes, compteurs, histogrammes et compteurs par dixième (littéraux tableau "{...}" de variations)
+     * sont incrémentés, les moyennes recalculées à partir des nouvelles sommes dans la même instruction
+     */
+    @Modifying
+    @Query(value = "INSERT INTO course_statistics AS s (course_id, total_reviews, " +
+            "sum_overall_tenths, sum_clarity_tenths, count_clarity, sum_material_tenths, count_material, " +
+            "sum_pedagogy_tenths, count_pedagogy, " +
+            "hist_overall, hist_clarity, hist_material, hist_pedagogy, " +
+            "sketch_overall, sketch_clarity, sketch_material, sketch_pedagogy, " +
+            "avg_rating_overall, avg_rating_clarity, avg_rating_material, avg_rating_pedagogy, last_updated) " +
+            "VALUES (:courseId, :reviews, :overall, :clarity, :clarityCount, :material, :materialCount, " +
+            ":pedagogy, :pedagogyCount, " +
+            "CAST(:histOverall AS integer[]), CAST(:histClarity AS integer[]), " +
+            "CAST(:histMaterial AS integer[]), CAST(:histPedagogy AS integer[]), " +
+            "CAST(:sketchOverall AS integer[]), CAST(:sketchClarity AS integer[]), " +
+            "CAST(:sketchMaterial AS integer[]), CAST(:sketchPedagogy AS integer[]), " +
+            "ROUND(:overall / 10.0 / NULLIF(:reviews, 0), 2), " +
+            "ROUND(:clarity / 10.0 / NULLIF(:clarityCount, 0), 2), " +
+            "ROUND(:material / 10.0 / NULLIF(:materialCount, 0), 2), " +
+            "ROUND(:pedagogy / 10.0 / NULLIF(:pedagogyCount, 0), 2), CURRENT_TIMESTAMP) " +
+            "ON CONFLICT (course_id) DO UPDATE SET " +
+            "total_reviews = s.total_reviews + EXCLUDED.total_reviews, " +
+            "sum_overall_tenths = s.sum_overall_tenths + EXCLUDED.sum_overall_tenths, " +
+            "sum_clarity_tenths = s.sum_clarity_tenths + EXCLUDED.sum_clarity_tenths, " +
+            "count_clarity = s.count_clarity + EXCLUDED.count_clarity, " +
+            "sum_material_tenths = s.sum_material_tenths + EXCLUDED.sum_material_tenths, " +
+            "count_material = s.count_material + EXCLUDED.count_material, " +
+            "sum_pedagogy_tenths = s.sum_pedagogy_tenths + EXCLUDED.sum_pedagogy_tenths, " +
+            "count_pedagogy = s.count_pedagogy + EXCLUDED.count_pedagogy, " +
+            "hist_overall = int_array_add(s.hist_overall, EXCLUDED.hist_overall), " +
+            "hist_clarity = int_array_add(s.hist_clarity, EXCLUDED.hist_clarity), " +
+            "hist_material = int_array_add(s.hist_material, EXCLUDED.hist_material), " +
+            "hist_pedagogy = int_array_add(s.hist_pedagogy, EXCLUDED.hist_pedagogy), " +
+            "sketch_overall = int_array_add(s.sketch_overall, EXCLUDED.sketch_overall), " +
+            "sketch_clarity = int_array_add(s.sketch_clarity, EXCLUDED.sketch_clarity), " +
+            "sketch_material = int_array_add(s.sketch_material, EXCLUDED.sketch_material), " +
+            "sketch_pedagogy = int_array_add(s.sketch_pedagogy, EXCLUDED.sketch_pedagogy), " +
+            "avg_rating_overall = ROUND((s.sum_overall_tenths + EXCLUDED.sum_overall_tenths) / 10.0 " +
+            "/ NULLIF(s.total_reviews + EXCLUDED.total_reviews, 0), 2), " +
+            "avg_rating_clarity = ROUND((s.sum_clarity_tenths + EXCLUDED.sum_clarity_tenths) / 10.0 " +
+            "/ NULLIF(s.count_clarity + EXCLUDED.count_clarity, 0), 2), " +
+            "avg_rating_material = ROUND((s.sum_material_tenths + EXCLUDED.sum_material_tenths) / 10.0 " +
+            "/ NULLIF(s.count_material + EXCLUDED.count_material, 0), 2), " +
+            "avg_rating_pedagogy = ROUND((s.sum_pedagogy_tenths + EXCLUDED.sum_pedagogy_tenths) / 10.0 " +
+            "/ NULLIF(s.count_pedagogy + EXCLUDED.count_pedagogy, 0), 2), " +
+            "last_updated = CURRENT_TIMESTAMP",
+            nativeQuery = true)
+    int applyReviewDelta(@Param("courseId") Integer courseId,
+                         @Param("reviews") int reviews,
+                         @Param("overall") long overall,
+                         @Param("clarity") long clarity,
+                         @Param("clarityCount") int clarityCount,
+                         @Param("material") long material,
+                         @Param("materialCount") int materialCount,
+                         @Param("pedagogy") long pedagogy,
+                         @Param("pedagogyCount") int pedagogyCount,
+                         @Param("histOverall") String histOverall,
+                         @Param("histClarity") String histClarity,
+                         @Param("histMaterial") String histMaterial,
+                         @Param("histPedagogy") String histPedagogy,
+                         @Param("sketchOverall") String sketchOverall,
+                         @Param("sketchClarity") String sketchClarity,
+                         @Param("sketchMaterial") String sketchMaterial,
+                         @Param("sketchPedagogy") String sketchPedagogy);
+
+    /**
+     * Compteurs par dixième d'étoile (overall, clarity, material, pedagogy) des cours d'un département
+     */
+    @Query("SELECT s.sketchOverall, s.sketchClarity, s.sketchMaterial, s.sketchPedagogy " +
+            "FROM CourseStatistics s JOIN s.course c WHERE c.department = :department")
+    List<Object[]> findSketchesByDepartment(@Param("department") String department);
+
+    /**
+     * Verrouiller la ligne de statistiques d'un cours (FOR UPDATE) jusqu'à la fin de la transaction
+     */
+    @Query(value = "SELECT stat_id FROM course_statistics WHERE course_id = :courseId FOR UPDATE", nativeQuery = true)
+    Optional<Integer> lockByCourseId(@Param("courseId") Integer courseId);
+
+    /**
+     * Ajouter la variation d'un avis approuvé à une bande de son cours (course_statistics_deltas)
+     * Les approbations concurrentes d'un même cours écrivent des bandes différentes au lieu de se sérialiser
+     * sur la ligne course_statistics ; les bandes y sont reportées par StatisticsDeltaService
+     */
+    @Modifying
+    @Query(value = "INSERT INTO course_statistics_deltas AS d (course_id, stripe, total_reviews, " +
+            "sum_overall_tenths, sum_clarity_tenths, count_clarity, sum_material_tenths, count_material, " +
+            "sum_pedagogy_tenths, count_pedagogy, " +
+            "hist_overall, hist_clarity, hist_material, hist_pedagogy, " +
+            "sketch_overall, sketch_clarity, sketch_material, sketch_pedagogy) " +
+            "VALUES (:courseId, :stripe, :reviews, :overall, :clarity, :clarityCount, :material, :materialCount, " +
+            ":pedagogy, :pedagogyCount, " +
+            "CAST(:histOverall AS integer[]), CAST(:histClarity AS integer[]), " +
+            "CAST(:histMaterial AS integer[]), CAST(:histPedagogy AS integer[]), " +
+            "CAST(:sketchOverall AS integer[]), CAST(:sketchClarity AS integer[]), " +
+            "CAST(:sketchMaterial AS integer[]), CAST(:sketchPedagogy AS integer[])) " +
+            "ON CONFLICT (course_id, stripe) DO UPDATE SET " +
+            "total_reviews = d.total_reviews + EXCLUDED.total_reviews, " +
+            "sum_overall_tenths = d.sum_overall_tenths + EXCLUDED.sum_overall_tenths, " +
+            "sum_clarity_tenths = d.sum_clarity_tenths + EXCLUDED.sum_clarity_tenths, " +
+            "count_clarity = d.count_clarity + EXCLUDED.count_clarity, " +
+            "sum_material_tenths = d.sum_material_tenths + EXCLUDED.sum_material_tenths, " +
+            "count_material = d.count_material + EXCLUDED.count_material, " +
+            "sum_pedagogy_tenths = d.sum_pedagogy_tenths + EXCLUDED.sum_pedagogy_tenths, " +
+            "count_pedagogy = d.count_pedagogy + EXCLUDED.count_pedagogy, " +
+            "hist_overall = int_array_add(d.hist_overall, EXCLUDED.hist_overall), " +
+            "hist_clarity = int_array_add(d.hist_clarity, EXCLUDED.hist_clarity), " +
+            "hist_material = int_array_add(d.hist_material, EXCLUDED.hist_material), " +
+            "hist_pedagogy = int_array_add(d.hist_pedagogy, EXCLUDED.hist_pedagogy), " +
+            "sketch_overall = int_array_add(d.sketch_overall, EXCLUDED.sketch_overall), " +
+            "sketch_clarity = int_array_add(d.sketch_clarity, EXCLUDED.sketch_clarity), " +
+            "sketch_material = int_array_add(d.sketch_material, EXCLUDED.sketch_material), " +
+            "sketch_pedagogy = int_array_add(d.sketch_pedagogy, EXCLUDED.sketch_pedagogy)",
+            nativeQuery = true)
+    int applyReviewDeltaStripe(@Param("courseId") Integer courseId,
+                               @Param("stripe") int stripe,
+                               @Param("reviews") int reviews,
+                               @Param("overall") long overall,
+                               @Param("clarity") long clarity,
+                               @Param("clarityCount") int clarityCount,
+                               @Param("material") long material,
+                               @Param("materialCount") int materialCount,
+                               @Param("pedagogy") long pedagogy,
+                               @Param("pedagogyCount") int pedagogyCount,
+                               @Param("histOverall") String histOverall,
+                               @Param("histClarity") String histClarity,
+                               @Param("histMaterial") String histMaterial,
+                               @Param("histPedagogy") String histPedagogy,
+                               @Param("sketchOverall") String sketchOverall,
+                               @Param("sketchClarity") String sketchClarity,
+                               @Param("sketchMaterial") String sketchMaterial,
+                               @Param("sketchPedagogy") String sketchPedagogy);
 
-    @Query("SELECT cs FROM CourseStatistics cs JOIN cs.course c WHERE c.department = :department AND cs.totalReviews > 0 ORDER BY cs.avgRatingOverall DESC")
-    List<CourseStatistics> findTopRatedCoursesByDepartment(String department);
+    /**
+     * Ajouter la variation d'un avis approuvé à la même bande des agrégats temporels de son cours :
+     * une instruction, trois lignes (semaine, mois et semestre contenant la date de l'avis)
+     */
+    @Modifying
+    @Query(value = "INSERT INTO course_rating_rollup_deltas AS r (course_id, granularity, period_start, stripe, " +
+            "total_reviews, sum_overall_tenths, sum_clarity_tenths, count_clarity, sum_material_tenths, " +
+            "count_material, sum_pedagogy_tenths, count_pedagogy) VALUES " +
+            "(:courseId, 'week', :week, :stripe, :reviews, :overall, :clarity, :clarityCount, " +
+            ":material, :materialCount, :pedagogy, :pedagogyCount), " +
+            "(:courseId, 'month', :month, :stripe, :reviews, :overall, :clarity, :clarityCount, " +
+            ":material, :materialCount, :pedagogy, :pedagogyCount), " +
+            "(:courseId, 'semester', :semester, :stripe, :reviews, :overall, :clarity, :clarityCount, " +
+            ":material, :materialCount, :pedagogy, :pedagogyCount) " +
+            "ON CONFLICT (course_id, granularity, period_start, stripe) DO UPDATE SET " + ROLLUP_MERGE,
+            nativeQuery = true)
+    int applyRollupDeltaStripe(@Param("courseId") Integer courseId,
+                               @Param("stripe") int stripe,
+                               @Param("week") LocalDate week,
+                               @Param("month") LocalDate month,
+                               @Param("semester") LocalDate semester,
+                               @Param("reviews") int reviews,
+                               @Param("overall") long overall,
+                               @Param("clarity") long clarity,
+                               @Param("clarityCount") int clarityCount,
+                               @Param("material") long material,
+                               @Param("materialCount") int materialCount,
+                               @Param("pedagogy") long pedagogy,
+                               @Param("pedagogyCount") int pedagogyCount);
 }
@@ -0,0 +1,16 @@
+package com.uaz.backend.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projection : dates de mise à jour d'un cours, de son enseignant et de ses statistiques
+ * Sert à calculer les ETag sans charger le cours
+ */
+public interface CourseVersionView {
+
+    LocalDateTime getUpdatedAt();
+
+    LocalDateTime getTeacherUpdatedAt();
+
+    LocalDateTime getStatisticsUpdatedAt();
+}
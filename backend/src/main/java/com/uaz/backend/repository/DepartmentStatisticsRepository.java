@@ -0,0 +1,62 @@
+package com.uaz.backend.repository;
+
+import com.uaz.backend.dto.DepartmentStatisticsDTO;
+import com.uaz.backend.entity.DepartmentStatistics;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository pour l'entité DepartmentStatistics
+ */
+@Repository
+public interface DepartmentStatisticsRepository extends JpaRepository<DepartmentStatistics, String> {
+
+    /**
+     * Classement des départements par moyenne pondérée, puis par nombre d'avis
+     */
+    @Query("SELECT new com.uaz.backend.dto.DepartmentStatisticsDTO(d.department, d.totalReviews, " +
+            "d.avgRatingOverall, d.avgRatingClarity, d.avgRatingMaterial, d.avgRatingPedagogy) " +
+            "FROM DepartmentStatistics d " +
+            "WHERE d.avgRatingOverall IS NOT NULL AND d.totalReviews >= :minReviews " +
+            "ORDER BY d.avgRatingOverall DESC, d.totalReviews DESC, d.department")
+    List<DepartmentStatisticsDTO> findRanking(@Param("minReviews") int minReviews, Pageable pageable);
+
+    /**
+     * Ajouter à la ligne d'un département la somme des variations de ses cours
+     */
+    @Modifying
+    @Query(value = "INSERT INTO department_statistics AS a (department, " +
+            CourseStatisticsRepository.AGGREGATE_COLUMNS + ") " +
+            "SELECT :department, " + CourseStatisticsRepository.AGGREGATE_DELTA_VALUES + " " +
+            "ON CONFLICT (department) DO UPDATE SET " + CourseStatisticsRepository.AGGREGATE_MERGE,
+            nativeQuery = true)
+    int applyReviewDelta(@Param("department") String department,
+                         @Param("reviews") int reviews,
+                         @Param("overall") long overall,
+                         @Param("clarity") long clarity,
+                         @Param("clarityCount") int clarityCount,
+                         @Param("material") long material,
+                         @Param("materialCount") int materialCount,
+                         @Param("pedagogy") long pedagogy,
+                         @Param("pedagogyCount") int pedagogyCount);
+
+    /**
+     * Ajouter (sign = 1) ou retirer (sign = -1) toutes les statistiques d'un cours au département donné
+     */
+    @Modifying
+    @Query(value = "INSERT INTO department_statistics AS a (department, " +
+            CourseStatisticsRepository.AGGREGATE_COLUMNS + ") " +
+            "SELECT :department, " + CourseStatisticsRepository.AGGREGATE_COURSE_VALUES + " " +
+            "FROM course_statistics s WHERE s.course_id = :courseId " +
+            "ON CONFLICT (department) DO UPDATE SET " + CourseStatisticsRepository.AGGREGATE_MERGE,
+            nativeQuery = true)
+    int applyCourse(@Param("department") String department,
+                    @Param("courseId") Integer courseId,
+                    @Param("sign") int sign);
+}
@@ -1,13 +1,19 @@
 package com.uaz.backend.repository;
 
+import com.uaz.backend.dto.ReviewResponse;
 import com.uaz.backend.entity.Review;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,20 +23,88 @@ import java.util.Optional;
 @Repository
 public interface ReviewRepository extends JpaRepository<Review, Integer> {
 
-    @Query("SELECT r FROM Review r WHERE r.course.courseId = :courseId AND r.moderationStatus = :status")
-    List<Review> findByCourseIdAndModerationStatus(@Param("courseId") Integer courseId, @Param("status") Review.ModerationStatus status);
+    /**
+     * Projection ReviewResponse : avis + auteur + cours + réponse de l'enseignant en une seule requête
+     * (aucune entité chargée, donc ni chargement paresseux ni réponse lue avis par avis)
+     */
+    String REVIEW_RESPONSE_SELECT = "SELECT new com.uaz.backend.dto.ReviewResponse(" +
+            "r.reviewId, u.userId, c.courseId, c.name, c.code, " +
+            "r.ratingOverallTenths, r.ratingClarityTenths, r.ratingMaterialTenths, r.ratingPedagogyTenths, " +
+            "r.comment, r.anonymous, u.fullName, r.moderationStatus, rr.responseText, r.createdAt, r.updatedAt) " +
+            "FROM Review r JOIN r.user u JOIN r.course c LEFT JOIN r.response rr ";
 
-    @Query("SELECT r FROM Review r WHERE r.course.courseId = :courseId AND r.moderationStatus = :status")
-    Page<Review> findByCourseIdAndModerationStatus(
+    @Query(value = REVIEW_RESPONSE_SELECT + "WHERE c.courseId = :courseId AND r.moderationStatus = :status",
+            countQuery = "SELECT COUNT(r) FROM Review r WHERE r.course.courseId = :courseId AND r.moderationStatus = :status")
+    Page<ReviewResponse> findReviewResponsesByCourseAndStatus(
             @Param("courseId") Integer courseId,
             @Param("status") Review.ModerationStatus status,
             Pageable pageable
     );
 
+    /**
+     * Première page du fil des avis d'un cours, servie par idx_reviews_course_status_created
+     */
+    @Query(REVIEW_RESPONSE_SELECT + "WHERE r.course.courseId = :courseId AND r.moderationStatus = :status " +
+            "ORDER BY r.createdAt DESC, r.reviewId DESC")
+    List<ReviewResponse> findCourseReviewFeed(@Param("courseId") Integer courseId,
+                                              @Param("status") Review.ModerationStatus status,
+                                              Pageable pageable);
+
+    /**
+     * Page suivante du fil : avis strictement après le curseur (created_at, review_id)
+     */
+    @Query(REVIEW_RESPONSE_SELECT + "WHERE r.course.courseId = :courseId AND r.moderationStatus = :status " +
+            "AND (r.createdAt, r.reviewId) < (:createdAt, :reviewId) ORDER BY r.createdAt DESC, r.reviewId DESC")
+    List<ReviewResponse> findCourseReviewFeedBefore(@Param("courseId") Integer courseId,
+                                                    @Param("status") Review.ModerationStatus status,
+                                                    @Param("createdAt") LocalDateTime createdAt,
+                                                    @Param("reviewId") Integer reviewId,
+                                                    Pageable pageable);
+
+    @Query("SELECT COUNT(r) FROM Review r WHERE r.course.courseId = :courseId AND r.moderationStatus = :status")
+    long countByCourseAndStatus(@Param("courseId") Integer courseId, @Param("status") Review.ModerationStatus status);
+
+    @Query(REVIEW_RESPONSE_SELECT + "WHERE r.reviewId = :reviewId")
+    Optional<ReviewResponse> findReviewResponseById(@Param("reviewId") Integer reviewId);
+
+    @Query(REVIEW_RESPONSE_SELECT + "WHERE r.reviewId IN :reviewIds ORDER BY r.createdAt, r.reviewId")
+    List<ReviewResponse> findReviewResponsesByIds(@Param("reviewIds") Collection<Integer> reviewIds);
+
+    @Query(REVIEW_RESPONSE_SELECT + "WHERE u.userId = :userId ORDER BY r.createdAt DESC")
+    List<ReviewResponse> findReviewResponsesByUser(@Param("userId") Integer userId);
+
+    @Query(REVIEW_RESPONSE_SELECT + "WHERE r.moderationStatus = :status ORDER BY r.createdAt DESC")
+    List<ReviewResponse> findReviewResponsesByStatus(@Param("status") Review.ModerationStatus status);
+
+    @Query(REVIEW_RESPONSE_SELECT + "WHERE c.teacher.userId = :teacherId ORDER BY r.createdAt DESC")
+    List<ReviewResponse> findReviewResponsesForTeacher(@Param("teacherId") Integer teacherId);
+
+    @Query(REVIEW_RESPONSE_SELECT + "WHERE r.moderationStatus = :status ORDER BY r.createdAt DESC")
+    List<ReviewResponse> findReviewResponsesByStatus(@Param("status") Review.ModerationStatus status, Pageable pageable);
+
+    /**
+     * Avis verrouillé jusqu'à la fin de la transaction : les décisions, modifications et suppressions du même avis
+     * sont sérialisées, et une réservation concurrente le saute (SKIP LOCKED)
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM Review r WHERE r.reviewId = :reviewId")
+    Optional<Review> findByIdForUpdate(@Param("reviewId") Integer reviewId);
+
+    @Modifying
+    @Query(value = "UPDATE reviews SET claimed_by = NULL, claim_expires_at = NULL WHERE review_id = :reviewId",
+            nativeQuery = true)
+    int releaseClaim(@Param("reviewId") Integer reviewId);
+
     @Query("SELECT r FROM Review r WHERE r.user.userId = :userId ORDER BY r.createdAt DESC")
     List<Review> findByUserIdOrderByCreatedAtDesc(@Param("userId") Integer userId);
 
-    List<Review> findByModerationStatusOrderByCreatedAtDesc(Review.ModerationStatus status);
+    /**
+     * Avis d'un auteur verrouillés jusqu'à la fin de la transaction, dans l'ordre des IDs
+     * (même ordre de verrouillage quelle que soit la transaction concurrente)
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM Review r WHERE r.user.userId = :userId ORDER BY r.reviewId")
+    List<Review> findByUserIdForUpdate(@Param("userId") Integer userId);
 
     @Query("SELECT r FROM Review r WHERE r.user.userId = :userId AND r.course.courseId = :courseId")
     Optional<Review> findByUserIdAndCourseId(@Param("userId") Integer userId, @Param("courseId") Integer courseId);
@@ -41,15 +115,9 @@ public interface ReviewRepository extends JpaRepository<Review, Integer> {
     @Query("SELECT COUNT(r) FROM Review r WHERE r.course.courseId = :courseId AND r.moderationStatus = 'APPROVED'")
     long countApprovedReviewsByCourseId(@Param("courseId") Integer courseId);
 
-    @Query("SELECT AVG(r.ratingOverall) FROM Review r WHERE r.course.courseId = :courseId AND r.moderationStatus = 'APPROVED'")
+    @Query("SELECT AVG(r.ratingOverallTenths) / 10.0 FROM Review r WHERE r.course.courseId = :courseId AND r.moderationStatus = 'APPROVED'")
     Double getAverageRatingByCourseId(@Param("courseId") Integer courseId);
 
-    @Query("SELECT r FROM Review r WHERE r.course.teacher.userId = :teacherId ORDER BY r.createdAt DESC")
-    List<Review> findReviewsForTeacher(@Param("teacherId") Integer teacherId);
-
     @Query("SELECT COUNT(r) FROM Review r WHERE r.moderationStatus = 'PENDING'")
     long countPendingReviews();
-
-    @Query("SELECT r FROM Review r WHERE r.moderationStatus = 'APPROVED' ORDER BY r.createdAt DESC")
-    List<Review> findRecentApprovedReviews(Pageable pageable);
 }
@@ -0,0 +1,62 @@
+package com.uaz.backend.repository;
+
+import com.uaz.backend.dto.TeacherStatisticsDTO;
+import com.uaz.backend.entity.TeacherStatistics;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository pour l'entité TeacherStatistics
+ */
+@Repository
+public interface TeacherStatisticsRepository extends JpaRepository<TeacherStatistics, Integer> {
+
+    /**
+     * Classement des enseignants par moyenne pondérée, puis par nombre d'avis (nom lu par jointure)
+     */
+    @Query("SELECT new com.uaz.backend.dto.TeacherStatisticsDTO(ts.teacherId, t.fullName, ts.totalReviews, " +
+            "ts.avgRatingOverall, ts.avgRatingClarity, ts.avgRatingMaterial, ts.avgRatingPedagogy) " +
+            "FROM TeacherStatistics ts JOIN ts.teacher t " +
+            "WHERE ts.avgRatingOverall IS NOT NULL AND ts.totalReviews >= :minReviews " +
+            "ORDER BY ts.avgRatingOverall DESC, ts.totalReviews DESC, ts.teacherId")
+    List<TeacherStatisticsDTO> findRanking(@Param("minReviews") int minReviews, Pageable pageable);
+
+    /**
+     * Ajouter à la ligne d'un enseignant la somme des variations de ses cours
+     */
+    @Modifying
+    @Query(value = "INSERT INTO teacher_statistics AS a (teacher_id, " +
+            CourseStatisticsRepository.AGGREGATE_COLUMNS + ") " +
+            "SELECT :teacherId, " + CourseStatisticsRepository.AGGREGATE_DELTA_VALUES + " " +
+            "ON CONFLICT (teacher_id) DO UPDATE SET " + CourseStatisticsRepository.AGGREGATE_MERGE,
+            nativeQuery = true)
+    int applyReviewDelta(@Param("teacherId") Integer teacherId,
+                         @Param("reviews") int reviews,
+                         @Param("overall") long overall,
+                         @Param("clarity") long clarity,
+                         @Param("clarityCount") int clarityCount,
+                         @Param("material") long material,
+                         @Param("materialCount") int materialCount,
+                         @Param("pedagogy") long pedagogy,
+                         @Param("pedagogyCount") int pedagogyCount);
+
+    /**
+     * Ajouter (sign = 1) ou retirer (sign = -1) toutes les statistiques d'un cours à l'enseignant donné
+     */
+    @Modifying
+    @Query(value = "INSERT INTO teacher_statistics AS a (teacher_id, " +
+            CourseStatisticsRepository.AGGREGATE_COLUMNS + ") " +
+            "SELECT :teacherId, " + CourseStatisticsRepository.AGGREGATE_COURSE_VALUES + " " +
+            "FROM course_statistics s WHERE s.course_id = :courseId " +
+            "ON CONFLICT (teacher_id) DO UPDATE SET " + CourseStatisticsRepository.AGGREGATE_MERGE,
+            nativeQuery = true)
+    int applyCourse(@Param("teacherId") Integer teacherId,
+                    @Param("courseId") Integer courseId,
+                    @Param("sign") int sign);
+}
@@ -3,8 +3,10 @@ package com.uaz.backend.repository;
 import com.uaz.backend.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -39,6 +41,16 @@ public interface UserRepository extends JpaRepository<User, Integer> {
      */
     List<User> findByRoleAndIsActiveTrue(User.UserRole role);
 
+    /**
+     * Compte les utilisateurs actifs par rôle (COUNT en base, sans charger les entités)
+     */
+    long countByRoleAndIsActiveTrue(User.UserRole role);
+
+    /**
+     * Compte les utilisateurs actifs
+     */
+    long countByIsActiveTrue();
+
     /**
      * Trouve tous les enseignants
      */
@@ -50,4 +62,11 @@ public interface UserRepository extends JpaRepository<User, Integer> {
      */
     @Query("SELECT u FROM User u WHERE u.role = 'STUDENT' AND u.isActive = true")
     List<User> findAllStudents();
+
+    /**
+     * Parmi les IDs donnés, retourne ceux qui correspondent à un utilisateur du rôle demandé
+     */
+    @Query("SELECT u.userId FROM User u WHERE u.userId IN :userIds AND u.role = :role")
+    List<Integer> findUserIdsByRole(@Param("userIds") Collection<Integer> userIds,
+                                    @Param("role") User.UserRole role);
 }
\ No newline at end of file
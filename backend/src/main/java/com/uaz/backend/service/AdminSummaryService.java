@@ -0,0 +1,116 @@
+package com.uaz.backend.service;
+
+import com.uaz.backend.dto.AdminSummaryDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Service du résumé administrateur
+ * Tous les compteurs sont calculés par une seule requête (un agrégat filtré par table),
+ * puis servis depuis un cache de quelques secondes ; les appels concurrents pendant un recalcul
+ * attendent le même résultat au lieu de relancer la requête
+ */
+@Service
+@RequiredArgsConstructor
+public class AdminSummaryService {
+
+    private static final String SUMMARY_QUERY =
+            "SELECT u.total_users, u.active_users, u.active_students, u.active_teachers, u.active_admins, " +
+            "r.total_reviews, r.pending_reviews, r.approved_reviews, r.rejected_reviews, " +
+            "c.total_courses, c.active_courses " +
+            "FROM (SELECT COUNT(*) AS total_users, " +
+            "COUNT(*) FILTER (WHERE is_active IS TRUE) AS active_users, " +
+            "COUNT(*) FILTER (WHERE is_active IS TRUE AND role = 'student') AS active_students, " +
+            "COUNT(*) FILTER (WHERE is_active IS TRUE AND role = 'teacher') AS active_teachers, " +
+            "COUNT(*) FILTER (WHERE is_active IS TRUE AND role = 'admin') AS active_admins " +
+            "FROM users) u " +
+            "CROSS JOIN (SELECT COUNT(*) AS total_reviews, " +
+            "COUNT(*) FILTER (WHERE moderation_status = 'pending') AS pending_reviews, " +
+            "COUNT(*) FILTER (WHERE moderation_status = 'approved') AS approved_reviews, " +
+            "COUNT(*) FILTER (WHERE moderation_status = 'rejected') AS rejected_reviews " +
+            "FROM reviews) r " +
+            "CROSS JOIN (SELECT COUNT(*) AS total_courses, " +
+            "COUNT(*) FILTER (WHERE is_active IS TRUE) AS active_courses " +
+            "FROM courses) c";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.admin.summary.ttl-millis:3000}")
+    private long ttlMillis;
+
+    private final AtomicReference<Entry> current = new AtomicReference<>();
+
+    /**
+     * Obtenir le résumé, recalculé au plus une fois par période de cache
+     */
+    public AdminSummaryDTO getSummary() {
+        while (true) {
+            Entry entry = current.get();
+            if (entry != null && !entry.isExpired()) {
+                return entry.join();
+            }
+
+            Entry fresh = new Entry();
+            if (current.compareAndSet(entry, fresh)) {
+                try {
+                    AdminSummaryDTO summary = load();
+                    fresh.expiresAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+                    fresh.summary.complete(summary);
+                    return summary;
+                } catch (RuntimeException e) {
+                    // Échec non mis en cache : l'appel suivant relance le calcul
+                    current.compareAndSet(fresh, null);
+                    fresh.summary.completeExceptionally(e);
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private AdminSummaryDTO load() {
+        return jdbcTemplate.queryForObject(SUMMARY_QUERY, (rs, rowNum) -> AdminSummaryDTO.builder()
+                .totalUsers(rs.getLong("total_users"))
+                .activeUsers(rs.getLong("active_users"))
+                .inactiveUsers(rs.getLong("total_users") - rs.getLong("active_users"))
+                .activeStudents(rs.getLong("active_students"))
+                .activeTeachers(rs.getLong("active_teachers"))
+                .activeAdmins(rs.getLong("active_admins"))
+                .totalReviews(rs.getLong("total_reviews"))
+                .pendingReviews(rs.getLong("pending_reviews"))
+                .approvedReviews(rs.getLong("approved_reviews"))
+                .rejectedReviews(rs.getLong("rejected_reviews"))
+                .totalCourses(rs.getLong("total_courses"))
+                .activeCourses(rs.getLong("active_courses"))
+                .generatedAt(LocalDateTime.now())
+                .build());
+    }
+
+    /**
+     * Résumé calculé ou en cours de calcul ; n'expire qu'une fois calculé
+     */
+    private static final class Entry {
+
+        private final CompletableFuture<AdminSummaryDTO> summary = new CompletableFuture<>();
+        private volatile long expiresAt;
+
+        boolean isExpired() {
+            return summary.isDone() && System.nanoTime() - expiresAt >= 0;
+        }
+
+        AdminSummaryDTO join() {
+            try {
+                return summary.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.uaz.backend.service;
+
+import java.util.Objects;
+
+/**
+ * Événement publié quand la contribution d'un avis aux statistiques change
+ * (approbation, rejet, modification ou suppression d'un avis)
+ * Publié dans la transaction de la modification : les écouteurs synchrones y participent
+ *
+ * @param removed contribution retirée (avis approuvé avant le changement), ou null
+ * @param added   contribution ajoutée (avis approuvé après le changement), ou null
+ */
+public record ApprovedReviewChangedEvent(ReviewContribution removed, ReviewContribution added) {
+
+    /**
+     * Événement entre deux états d'un avis, ou null si aucun des deux ne compte dans les statistiques
+     */
+    public static ApprovedReviewChangedEvent between(ReviewContribution before, ReviewContribution after) {
+        if (Objects.equals(before, after)) {
+            return null;
+        }
+        return new ApprovedReviewChangedEvent(before, after);
+    }
+
+    public Integer courseId() {
+        return added != null ? added.courseId() : removed.courseId();
+    }
+
+    public Integer reviewId() {
+        return added != null ? added.reviewId() : removed.reviewId();
+    }
+}
@@ -0,0 +1,32 @@
+package com.uaz.backend.service;
+
+import java.util.Objects;
+
+/**
+ * Événement publié quand un cours change de département ou d'enseignant
+ * Publié dans la transaction de la modification : ses statistiques sont déplacées d'un agrégat à l'autre
+ */
+public record CourseAssignmentChangedEvent(Integer courseId,
+                                           String previousDepartment, String department,
+                                           Integer previousTeacherId, Integer teacherId) {
+
+    /**
+     * Événement entre deux affectations d'un cours, ou null si ni le département ni l'enseignant ne changent
+     */
+    public static CourseAssignmentChangedEvent between(Integer courseId,
+                                                       String previousDepartment, String department,
+                                                       Integer previousTeacherId, Integer teacherId) {
+        if (Objects.equals(previousDepartment, department) && Objects.equals(previousTeacherId, teacherId)) {
+            return null;
+        }
+        return new CourseAssignmentChangedEvent(courseId, previousDepartment, department, previousTeacherId, teacherId);
+    }
+
+    public boolean departmentChanged() {
+        return !Objects.equals(previousDepartment, department);
+    }
+
+    public boolean teacherChanged() {
+        return !Objects.equals(previousTeacherId, teacherId);
+    }
+}
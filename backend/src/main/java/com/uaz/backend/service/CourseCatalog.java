@@ -0,0 +1,96 @@
+package com.uaz.backend.service;
+
+import com.uaz.backend.repository.CourseRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Catalogue des cours actifs tenu en mémoire
+ * Les lectures publiques sont servies depuis l'instantané courant sans accès à la base ;
+ * l'instantané est reconstruit (copy-on-write) après chaque commit qui modifie un cours ;
+ * un report de statistiques ne corrige que la moyenne et le nombre d'avis des cours concernés
+ */
+@Component
+@RequiredArgsConstructor
+public class CourseCatalog {
+
+    private final CourseRepository courseRepository;
+
+    private final AtomicReference<CourseCatalogSnapshot> current = new AtomicReference<>();
+
+    /**
+     * Obtenir l'instantané courant (construit au premier accès si nécessaire)
+     */
+    public CourseCatalogSnapshot current() {
+        CourseCatalogSnapshot snapshot = current.get();
+        return snapshot != null ? snapshot : rebuild();
+    }
+
+    /**
+     * Version de l'instantané courant (compteur propre à cette instance)
+     */
+    public long version() {
+        return current().getVersion();
+    }
+
+    /**
+     * Empreinte du contenu de l'instantané courant
+     */
+    public String digest() {
+        return current().getDigest();
+    }
+
+    /**
+     * Reconstruire l'instantané et le publier atomiquement
+     * Les reconstructions sont sérialisées : la dernière lit toujours l'état commité le plus récent
+     */
+    public synchronized CourseCatalogSnapshot rebuild() {
+        CourseCatalogSnapshot previous = current.get();
+        long version = previous != null ? previous.getVersion() + 1 : 1;
+
+        CourseCatalogSnapshot snapshot = CourseCatalogSnapshot.of(
+                version,
+                courseRepository.findActiveCourseDTOs(),
+                courseRepository.findAllDepartments()
+        );
+        current.set(snapshot);
+        return snapshot;
+    }
+
+    /**
+     * Publier un instantané où seuls la moyenne et le nombre d'avis des cours donnés sont relus
+     * Sérialisé avec rebuild : le dernier appel lit l'état commité le plus récent
+     */
+    public synchronized CourseCatalogSnapshot refreshRatings(Collection<Integer> courseIds) {
+        CourseCatalogSnapshot previous = current.get();
+        if (previous == null) {
+            return rebuild();
+        }
+        CourseCatalogSnapshot snapshot = previous.withRatings(previous.getVersion() + 1,
+                courseRepository.findRatingsByCourseIds(courseIds));
+        current.set(snapshot);
+        return snapshot;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        rebuild();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCourseCatalogChanged(CourseCatalogChangedEvent event) {
+        rebuild();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCourseStatisticsChanged(CourseStatisticsChangedEvent event) {
+        refreshRatings(event.courseIds());
+    }
+}
@@ -0,0 +1,24 @@
+package com.uaz.backend.service;
+
+import java.util.Set;
+
+/**
+ * Événement publié quand un cours est créé ou modifié
+ * Les écouteurs transactionnels le reçoivent après le commit
+ *
+ * @param courseIds cours concernés (vide = catalogue entier)
+ */
+public record CourseCatalogChangedEvent(Set<Integer> courseIds) {
+
+    public static CourseCatalogChangedEvent of(Integer courseId) {
+        return new CourseCatalogChangedEvent(Set.of(courseId));
+    }
+
+    public static CourseCatalogChangedEvent all() {
+        return new CourseCatalogChangedEvent(Set.of());
+    }
+
+    public boolean isFullRefresh() {
+        return courseIds.isEmpty();
+    }
+}
@@ -0,0 +1,224 @@
+package com.uaz.backend.service;
+
+import com.uaz.backend.dto.CourseDTO;
+import com.uaz.backend.repository.CourseRatingView;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Instantané immuable et versionné du catalogue des cours actifs
+ * Indexé par type et département ; les listes sont pré-construites
+ * pour être servies telles quelles par les endpoints publics
+ * Les CourseDTO étant immuables, les listes et index partagent les mêmes instances par référence
+ */
+public final class CourseCatalogSnapshot {
+
+    private final long version;
+    private final Checksum checksum;
+    private final LocalDateTime builtAt;
+    private final List<CourseDTO> courses;
+    private final Map<String, List<CourseDTO>> byType;
+    private final Map<String, List<CourseDTO>> byDepartment;
+    private final List<String> departments;
+
+    private CourseCatalogSnapshot(long version, Checksum checksum, List<CourseDTO> courses,
+                                  Map<String, List<CourseDTO>> byType, Map<String, List<CourseDTO>> byDepartment,
+                                  List<String> departments) {
+        this.version = version;
+        this.checksum = checksum;
+        this.builtAt = LocalDateTime.now();
+        this.courses = courses;
+        this.byType = byType;
+        this.byDepartment = byDepartment;
+        this.departments = departments;
+    }
+
+    /**
+     * Construire un instantané à partir des cours actifs (triés par ID) et des départements
+     */
+    public static CourseCatalogSnapshot of(long version, List<CourseDTO> courses, List<String> departments) {
+        List<String> depts = List.copyOf(departments);
+        Checksum checksum = Checksum.of(depts.toArray());
+        Map<String, List<CourseDTO>> types = new LinkedHashMap<>();
+        Map<String, List<CourseDTO>> byDepartment = new HashMap<>();
+        for (CourseDTO course : courses) {
+            checksum = checksum.plus(Checksum.of(course));
+            types.computeIfAbsent(course.getType(), k -> new ArrayList<>()).add(course);
+            if (course.getDepartment() != null) {
+                byDepartment.computeIfAbsent(course.getDepartment(), k -> new ArrayList<>()).add(course);
+            }
+        }
+        return new CourseCatalogSnapshot(version, checksum, List.copyOf(courses), freeze(types),
+                freeze(byDepartment), depts);
+    }
+
+    /**
+     * Instantané suivant où seuls la moyenne et le nombre d'avis des cours donnés changent
+     * (les cours absents de l'instantané, inactifs, sont ignorés) ; sans requête sur les cours
+     * Seuls les cours modifiés sont recréés, et seules les listes qui les contiennent sont recopiées ;
+     * l'empreinte est corrigée de la contribution de ces cours
+     */
+    public CourseCatalogSnapshot withRatings(long version, Collection<CourseRatingView> ratings) {
+        Map<Integer, CourseDTO> updated = new HashMap<>(ratings.size() * 2);
+        Checksum patched = checksum;
+        for (CourseRatingView rating : ratings) {
+            CourseDTO course = findById(rating.getCourseId()).orElse(null);
+            if (course == null || (Objects.equals(course.getAvgRating(), rating.getAvgRating())
+                    && Objects.equals(course.getTotalReviews(), rating.getTotalReviews()))) {
+                continue;
+            }
+            CourseDTO rated = course.toBuilder()
+                    .avgRating(rating.getAvgRating())
+                    .totalReviews(rating.getTotalReviews())
+                    .build();
+            patched = patched.minus(Checksum.of(course)).plus(Checksum.of(rated));
+            updated.put(rated.getCourseId(), rated);
+        }
+        if (updated.isEmpty()) {
+            return new CourseCatalogSnapshot(version, checksum, courses, byType, byDepartment, departments);
+        }
+
+        Map<String, List<CourseDTO>> types = new HashMap<>(byType);
+        Map<String, List<CourseDTO>> depts = new HashMap<>(byDepartment);
+        for (CourseDTO course : updated.values()) {
+            types.computeIfPresent(course.getType(), (type, list) -> list == byType.get(type)
+                    ? replace(list, updated) : list);
+            if (course.getDepartment() != null) {
+                depts.computeIfPresent(course.getDepartment(), (department, list) -> list == byDepartment.get(department)
+                        ? replace(list, updated) : list);
+            }
+        }
+        return new CourseCatalogSnapshot(version, patched, replace(courses, updated), Map.copyOf(types),
+                Map.copyOf(depts), departments);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Empreinte du contenu (cours et départements) : identique d'une instance ou d'un redémarrage
+     * à l'autre tant que le catalogue ne change pas, contrairement à la version
+     * Somme des empreintes de chaque cours, indépendante de l'ordre dans lequel le contenu a été atteint
+     */
+    public String getDigest() {
+        return checksum.hex();
+    }
+
+    public LocalDateTime getBuiltAt() {
+        return builtAt;
+    }
+
+    public List<CourseDTO> getCourses() {
+        return courses;
+    }
+
+    public List<String> getDepartments() {
+        return departments;
+    }
+
+    /**
+     * Recherche dichotomique dans la liste des cours, triée par ID
+     */
+    public Optional<CourseDTO> findById(Integer courseId) {
+        if (courseId == null) {
+            return Optional.empty();
+        }
+        int low = 0;
+        int high = courses.size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int id = courses.get(mid).getCourseId();
+            if (id < courseId) {
+                low = mid + 1;
+            } else if (id > courseId) {
+                high = mid - 1;
+            } else {
+                return Optional.of(courses.get(mid));
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * @param type valeur du type en base ("course" ou "service")
+     */
+    public List<CourseDTO> getByType(String type) {
+        return byType.getOrDefault(type, List.of());
+    }
+
+    public List<CourseDTO> getByDepartment(String department) {
+        return byDepartment.getOrDefault(department, List.of());
+    }
+
+    public int size() {
+        return courses.size();
+    }
+
+    private static Map<String, List<CourseDTO>> freeze(Map<String, List<CourseDTO>> index) {
+        Map<String, List<CourseDTO>> frozen = new HashMap<>(index.size() * 2);
+        index.forEach((key, list) -> frozen.put(key, List.copyOf(list)));
+        return Map.copyOf(frozen);
+    }
+
+    private static List<CourseDTO> replace(List<CourseDTO> courses, Map<Integer, CourseDTO> updated) {
+        List<CourseDTO> replaced = new ArrayList<>(courses.size());
+        for (CourseDTO course : courses) {
+            replaced.add(updated.getOrDefault(course.getCourseId(), course));
+        }
+        return List.copyOf(replaced);
+    }
+
+    /**
+     * Empreinte de 128 bits additive : celle du catalogue est la somme (modulo 2^64 par moitié)
+     * des empreintes SHA-256 tronquées de chaque cours et de la liste des départements
+     */
+    private record Checksum(long high, long low) {
+
+        static Checksum of(CourseDTO course) {
+            return of(course.getCourseId(), course.getName(), course.getCode(), course.getDescription(),
+                    course.getType(), course.getTeacherId(), course.getTeacherName(), course.getDepartment(),
+                    course.getSemester(), course.getCredits(), course.getIsActive(), course.getAvgRating(),
+                    course.getTotalReviews(), course.getCreatedAt(), course.getUpdatedAt());
+        }
+
+        static Checksum of(Object... values) {
+            try {
+                MessageDigest sha = MessageDigest.getInstance("SHA-256");
+                for (Object value : values) {
+                    sha.update(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+                    sha.update((byte) 0);
+                }
+                ByteBuffer hash = ByteBuffer.wrap(sha.digest());
+                return new Checksum(hash.getLong(0), hash.getLong(8));
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        Checksum plus(Checksum other) {
+            return new Checksum(high + other.high, low + other.low);
+        }
+
+        Checksum minus(Checksum other) {
+            return new Checksum(high - other.high, low - other.low);
+        }
+
+        String hex() {
+            return HexFormat.of().toHexDigits(high) + HexFormat.of().toHexDigits(low);
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.uaz.backend.service;
+
+import com.uaz.backend.dto.CourseRequest;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Lecture en flux des lignes d'un import de cours : CSV avec en-tête, ou NDJSON (un objet JSON par ligne)
+ * Un seul enregistrement est décodé à la fois, la mémoire ne dépend donc pas de la taille du fichier
+ */
+public abstract class CourseImportReader implements Closeable {
+
+    public static final String TEXT_CSV = "text/csv";
+    public static final String APPLICATION_NDJSON = "application/x-ndjson";
+
+    /**
+     * Colonnes CSV reconnues (en-tête insensible à la casse, dans n'importe quel ordre)
+     */
+    public static final List<String> CSV_COLUMNS = List.of(
+            "name", "code", "description", "type", "teacherid", "department", "semester", "credits");
+
+    /**
+     * Enregistrement lu : numéro de ligne, requête décodée, ou message d'erreur si la ligne est illisible
+     */
+    public record Row(long line, CourseRequest request, String error) {
+    }
+
+    protected final BufferedReader reader;
+
+    protected long lineNumber;
+
+    protected CourseImportReader(Reader reader) {
+        this.reader = reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader);
+    }
+
+    /**
+     * Ouvrir un lecteur selon le type de contenu de la requête
+     */
+    public static CourseImportReader open(String contentType, Reader reader, JsonMapper jsonMapper) throws IOException {
+        String mediaType = contentType != null ? contentType.split(";")[0].trim().toLowerCase(Locale.ROOT) : "";
+        return switch (mediaType) {
+            case TEXT_CSV -> csv(reader);
+            case APPLICATION_NDJSON -> ndjson(reader, jsonMapper);
+            default -> throw new IllegalArgumentException("Format d'import non supporté: " + contentType);
+        };
+    }
+
+    public static CourseImportReader csv(Reader reader) throws IOException {
+        return new Csv(reader);
+    }
+
+    public static CourseImportReader ndjson(Reader reader, JsonMapper jsonMapper) {
+        return new NdJson(reader, jsonMapper);
+    }
+
+    /**
+     * Lire l'enregistrement suivant, ou null en fin de flux
+     */
+    public abstract Row next() throws IOException;
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private static final class NdJson extends CourseImportReader {
+
+        private final JsonMapper jsonMapper;
+
+        private NdJson(Reader reader, JsonMapper jsonMapper) {
+            super(reader);
+            this.jsonMapper = jsonMapper;
+        }
+
+        @Override
+        public Row next() throws IOException {
+            String text;
+            while ((text = reader.readLine()) != null) {
+                lineNumber++;
+                if (text.isBlank()) {
+                    continue;
+                }
+                try {
+                    CourseRequest request = jsonMapper.readValue(text, CourseRequest.class);
+                    return request != null
+                            ? new Row(lineNumber, request, null)
+                            : new Row(lineNumber, null, "Objet JSON attendu");
+                } catch (JacksonException e) {
+                    return new Row(lineNumber, null, "JSON invalide");
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * CSV (RFC 4180) : séparateur virgule, champs entre guillemets pouvant contenir virgules,
+     * guillemets doublés et retours à la ligne
+     */
+    private static final class Csv extends CourseImportReader {
+
+        private final int[] columns;
+
+        private Csv(Reader reader) throws IOException {
+            super(reader);
+            List<String> header = readRecord();
+            if (header == null) {
+                throw new IllegalArgumentException("Fichier CSV vide");
+            }
+            columns = new int[header.size()];
+            for (int i = 0; i < header.size(); i++) {
+                String name = header.get(i).trim().toLowerCase(Locale.ROOT);
+                columns[i] = CSV_COLUMNS.indexOf(name);
+                if (columns[i] < 0) {
+                    throw new IllegalArgumentException("Colonne inconnue: " + header.get(i).trim()
+                            + " (colonnes acceptées: " + String.join(", ", CSV_COLUMNS) + ")");
+                }
+            }
+        }
+
+        @Override
+        public Row next() throws IOException {
+            List<String> values;
+            long line;
+            do {
+                line = lineNumber + 1;
+                values = readRecord();
+                if (values == null) {
+                    return null;
+                }
+            } while (values.size() == 1 && values.get(0).isBlank());
+
+            if (values.size() != columns.length) {
+                return new Row(line, null, "Nombre de colonnes invalide: " + values.size()
+                        + " au lieu de " + columns.length);
+            }
+
+            CourseRequest request = new CourseRequest();
+            for (int i = 0; i < columns.length; i++) {
+                String column = CSV_COLUMNS.get(columns[i]);
+                String value = values.get(i).trim();
+                if (value.isEmpty()) {
+                    continue;
+                }
+                try {
+                    switch (column) {
+                        case "name" -> request.setName(value);
+                        case "code" -> request.setCode(value);
+                        case "description" -> request.setDescription(value);
+                        case "type" -> request.setType(value);
+                        case "teacherid" -> request.setTeacherId(Integer.valueOf(value));
+                        case "department" -> request.setDepartment(value);
+                        case "semester" -> request.setSemester(value);
+                        case "credits" -> request.setCredits(Integer.valueOf(value));
+                        default -> throw new IllegalStateException(column);
+                    }
+                } catch (NumberFormatException e) {
+                    return new Row(line, request, "Valeur numérique invalide pour " + column + ": " + value);
+                }
+            }
+            return new Row(line, request, null);
+        }
+
+        /**
+         * Lire un enregistrement (éventuellement sur plusieurs lignes physiques), ou null en fin de flux
+         */
+        private List<String> readRecord() throws IOException {
+            int c = reader.read();
+            if (c == -1) {
+                return null;
+            }
+
+            List<String> values = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            lineNumber++;
+
+            while (c != -1) {
+                if (quoted) {
+                    if (c == '"') {
+                        reader.mark(1);
+                        int following = reader.read();
+                        if (following == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            if (following != -1) {
+                                reader.reset();
+                            }
+                        }
+                    } else {
+                        if (c == '\n') {
+                            lineNumber++;
+                        }
+                        field.append((char) c);
+                    }
+                } else if (c == '"' && field.isEmpty()) {
+                    quoted = true;
+                } else if (c == ',') {
+                    values.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n') {
+                    break;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+                c = reader.read();
+            }
+
+            values.add(field.toString());
+            return values;
+        }
+    }
+}
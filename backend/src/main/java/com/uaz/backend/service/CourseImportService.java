@@ -0,0 +1,210 @@
+package com.uaz.backend.service;
+
+import com.uaz.backend.dto.CourseImportResult;
+import com.uaz.backend.dto.CourseImportSummary;
+import com.uaz.backend.dto.CourseRequest;
+import com.uaz.backend.entity.Course;
+import com.uaz.backend.entity.User;
+import com.uaz.backend.repository.CourseRepository;
+import com.uaz.backend.repository.UserRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Service d'import en masse des cours
+ * Les lignes sont traitées par paquets : une requête ensembliste par paquet pour les codes existants
+ * et une pour les enseignants, puis une insertion JDBC en batch, chaque paquet dans sa propre transaction
+ */
+@Service
+@RequiredArgsConstructor
+public class CourseImportService {
+
+    static final int CHUNK_SIZE = 500;
+
+    private static final String INSERT_COURSE =
+            "INSERT INTO courses (name, code, description, type, teacher_id, department, semester, credits, " +
+            "is_active, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, true, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP) " +
+            "ON CONFLICT (code) DO NOTHING";
+
+    private final CourseRepository courseRepository;
+    private final UserRepository userRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final Validator validator;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Importer toutes les lignes du lecteur ; chaque résultat est transmis à report dès que son paquet est traité
+     */
+    public CourseImportSummary importCourses(CourseImportReader reader,
+                                             Consumer<CourseImportResult> report) throws IOException {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        List<CourseImportReader.Row> chunk = new ArrayList<>(CHUNK_SIZE);
+        long total = 0;
+        long created = 0;
+
+        CourseImportReader.Row row;
+        while ((row = reader.next()) != null) {
+            chunk.add(row);
+            if (chunk.size() == CHUNK_SIZE) {
+                created += importChunk(chunk, transaction, report);
+                total += chunk.size();
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            created += importChunk(chunk, transaction, report);
+            total += chunk.size();
+        }
+
+        if (created > 0) {
+            eventPublisher.publishEvent(CourseCatalogChangedEvent.all());
+        }
+
+        return CourseImportSummary.builder()
+                .total(total)
+                .created(created)
+                .rejected(total - created)
+                .build();
+    }
+
+    /**
+     * Valider puis insérer un paquet ; retourne le nombre de cours créés
+     */
+    private long importChunk(List<CourseImportReader.Row> rows, TransactionTemplate transaction,
+                             Consumer<CourseImportResult> report) {
+        CourseImportResult[] results = new CourseImportResult[rows.size()];
+        Course.CourseType[] types = new Course.CourseType[rows.size()];
+        Set<String> codes = new HashSet<>();
+        Set<Integer> teacherIds = new HashSet<>();
+
+        for (int i = 0; i < rows.size(); i++) {
+            CourseImportReader.Row row = rows.get(i);
+            CourseRequest request = row.request();
+            String error = row.error() != null ? row.error() : validate(request);
+            if (error == null) {
+                types[i] = parseType(request.getType());
+                if (types[i] == null) {
+                    error = "Type de cours invalide: " + request.getType();
+                } else if (!codes.add(request.getCode())) {
+                    error = "Code en double dans l'import";
+                }
+            }
+            if (error != null) {
+                results[i] = CourseImportResult.rejected(row.line(), request != null ? request.getCode() : null, error);
+            } else if (request.getTeacherId() != null) {
+                teacherIds.add(request.getTeacherId());
+            }
+        }
+
+        Long created;
+        try {
+            created = transaction.execute(status -> {
+                Set<String> existingCodes = codes.isEmpty()
+                        ? Set.of() : new HashSet<>(courseRepository.findExistingCodes(codes));
+                Set<Integer> teachers = teacherIds.isEmpty()
+                        ? Set.of() : new HashSet<>(userRepository.findUserIdsByRole(teacherIds, User.UserRole.TEACHER));
+
+                List<Integer> accepted = new ArrayList<>();
+                for (int i = 0; i < rows.size(); i++) {
+                    if (results[i] != null) {
+                        continue;
+                    }
+                    CourseRequest request = rows.get(i).request();
+                    if (existingCodes.contains(request.getCode())) {
+                        results[i] = CourseImportResult.rejected(rows.get(i).line(), request.getCode(),
+                                "Un cours avec ce code existe déjà");
+                    } else if (request.getTeacherId() != null && !teachers.contains(request.getTeacherId())) {
+                        results[i] = CourseImportResult.rejected(rows.get(i).line(), request.getCode(),
+                                "Enseignant non trouvé (ou l'utilisateur n'est pas un enseignant)");
+                    } else {
+                        accepted.add(i);
+                    }
+                }
+                return insert(rows, types, accepted, results);
+            });
+        } catch (DataAccessException e) {
+            created = 0L;
+            for (int i = 0; i < rows.size(); i++) {
+                if (results[i] == null || CourseImportResult.CREATED.equals(results[i].getStatus())) {
+                    results[i] = CourseImportResult.rejected(rows.get(i).line(), rows.get(i).request().getCode(),
+                            "Paquet annulé : erreur lors de l'insertion");
+                }
+            }
+        }
+
+        for (CourseImportResult result : results) {
+            report.accept(result);
+        }
+        return Objects.requireNonNullElse(created, 0L);
+    }
+
+    /**
+     * Insertion JDBC en batch ; une ligne non insérée (0) a perdu la course au code unique
+     */
+    private long insert(List<CourseImportReader.Row> rows, Course.CourseType[] types,
+                        List<Integer> accepted, CourseImportResult[] results) {
+        if (accepted.isEmpty()) {
+            return 0;
+        }
+
+        int[][] counts = jdbcTemplate.batchUpdate(INSERT_COURSE, accepted, accepted.size(), (statement, i) -> {
+            CourseRequest request = rows.get(i).request();
+            statement.setString(1, request.getName());
+            statement.setString(2, request.getCode());
+            statement.setString(3, request.getDescription());
+            statement.setString(4, types[i].getValue());
+            statement.setObject(5, request.getTeacherId(), Types.INTEGER);
+            statement.setString(6, request.getDepartment());
+            statement.setString(7, request.getSemester());
+            statement.setObject(8, request.getCredits(), Types.INTEGER);
+        });
+
+        long created = 0;
+        for (int j = 0; j < accepted.size(); j++) {
+            int i = accepted.get(j);
+            CourseImportReader.Row row = rows.get(i);
+            if (counts[0][j] == 0) {
+                results[i] = CourseImportResult.rejected(row.line(), row.request().getCode(),
+                        "Un cours avec ce code existe déjà");
+            } else {
+                results[i] = CourseImportResult.created(row.line(), row.request().getCode());
+                created++;
+            }
+        }
+        return created;
+    }
+
+    private String validate(CourseRequest request) {
+        return validator.validate(request).stream()
+                .min(Comparator.comparing(violation -> violation.getPropertyPath().toString()))
+                .map(ConstraintViolation::getMessage)
+                .orElse(null);
+    }
+
+    private static Course.CourseType parseType(String type) {
+        try {
+            return Course.CourseType.valueOf(type.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
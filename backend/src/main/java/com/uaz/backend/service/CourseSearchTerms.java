@@ -0,0 +1,53 @@
+package com.uaz.backend.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Préparation des termes de recherche pour PostgreSQL
+ */
+public final class CourseSearchTerms {
+
+    /**
+     * Nombre maximum de mots pris en compte dans une recherche
+     */
+    private static final int MAX_TOKENS = 8;
+
+    private CourseSearchTerms() {
+    }
+
+    /**
+     * Construire une requête to_tsquery en préfixe ("java prog" -> "java:* & prog:*")
+     * Seuls les lettres et chiffres sont conservés, ce qui neutralise la syntaxe tsquery
+     *
+     * @return la requête, ou une chaîne vide si le terme ne contient aucun mot
+     */
+    public static String toPrefixTsQuery(String term) {
+        if (term == null) {
+            return "";
+        }
+        List<String> tokens = new ArrayList<>();
+        StringBuilder token = new StringBuilder();
+        for (int i = 0; i < term.length() && tokens.size() < MAX_TOKENS; i++) {
+            char ch = term.charAt(i);
+            if (Character.isLetterOrDigit(ch)) {
+                token.append(Character.toLowerCase(ch));
+            } else if (!token.isEmpty()) {
+                tokens.add(token + ":*");
+                token.setLength(0);
+            }
+        }
+        if (!token.isEmpty() && tokens.size() < MAX_TOKENS) {
+            tokens.add(token + ":*");
+        }
+        return String.join(" & ", tokens);
+    }
+
+    /**
+     * Terme normalisé pour la comparaison trigramme sur le code
+     */
+    public static String normalizeCode(String term) {
+        return term == null ? "" : term.trim().toLowerCase(Locale.ROOT);
+    }
+}
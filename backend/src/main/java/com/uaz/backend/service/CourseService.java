@@ -1,19 +1,41 @@
 package com.uaz.backend.service;
 
 import com.uaz.backend.dto.CourseDTO;
+import com.uaz.backend.dto.CourseFields;
 import com.uaz.backend.dto.CourseRequest;
 import com.uaz.backend.dto.CourseStatisticsDTO;
+import com.uaz.backend.dto.CourseSuggestionDTO;
+import com.uaz.backend.dto.CursorPage;
+import com.uaz.backend.dto.KeysetCursor;
 import com.uaz.backend.entity.Course;
-import com.uaz.backend.entity.CourseStatistics;
 import com.uaz.backend.entity.User;
 import com.uaz.backend.repository.CourseRepository;
 import com.uaz.backend.repository.CourseStatisticsRepository;
 import com.uaz.backend.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -24,18 +46,32 @@ import java.util.stream.Collectors;
 @Transactional
 public class CourseService {
 
+    private static final int MAX_SUGGESTIONS = 20;
+    private static final int MAX_STATISTICS_IDS = 500;
+
     private final CourseRepository courseRepository;
     private final CourseStatisticsRepository courseStatisticsRepository;
     private final UserRepository userRepository;
+    private final CourseCatalog courseCatalog;
+    private final CourseSuggestIndex courseSuggestIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final StatisticsDeltaService statisticsDeltaService;
+
+    @Value("${app.pagination.default-page-size:20}")
+    private int defaultPageSize;
+
+    @Value("${app.pagination.max-page-size:100}")
+    private int maxPageSize;
+
+    @Value("${app.courses.top-rated.bayesian-prior:5}")
+    private int bayesianPrior;
 
     /**
-     * Obtenir tous les cours actifs
+     * Obtenir tous les cours actifs (servis depuis le catalogue en mémoire)
      */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public List<CourseDTO> getAllActiveCourses() {
-        return courseRepository.findByIsActiveTrue()
-                .stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return courseCatalog.current().getCourses();
     }
 
     /**
@@ -53,104 +89,218 @@ public class CourseService {
 
         // Si l'utilisateur a un département, on filtre
         if (user.getDepartment() != null && !user.getDepartment().isEmpty()) {
-            return courseRepository.findByDepartmentOrGlobal(user.getDepartment())
-                    .stream()
-                    .map(this::convertToDTO)
-                    .collect(Collectors.toList());
+            return courseRepository.findActiveCourseDTOsByDepartmentOrGlobal(user.getDepartment());
         }
 
         // Sinon (par exemple enseignant sans département ou étudiant non assigné),
         // on retourne au moins les services globaux
-        return courseRepository.findByTypeAndIsActiveTrue(Course.CourseType.SERVICE)
-                .stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return courseRepository.findActiveCourseDTOsByType(Course.CourseType.SERVICE);
+    }
+
+    /**
+     * Obtenir une page de cours actifs avec sélection de champs (servie depuis le catalogue en mémoire)
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public CursorPage<Object> getAllActiveCourses(Integer page, Integer size, String cursor, String fields) {
+        return pageOf(courseCatalog.current().getCourses(), listQuery(page, size, cursor, fields));
+    }
+
+    /**
+     * Obtenir une page des cours d'un utilisateur avec sélection de champs
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<Object> getCoursesForUser(Integer userId, Integer page, Integer size, String cursor, String fields) {
+        ListQuery query = listQuery(page, size, cursor, fields);
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new RuntimeException("Utilisateur non trouvé"));
+
+        if (user.isAdmin()) {
+            return pageOf(courseCatalog.current().getCourses(), query);
+        }
+        if (user.getDepartment() != null && !user.getDepartment().isEmpty()) {
+            return sliceOf(courseRepository.findActiveCourseSummariesByDepartmentOrType(
+                    user.getDepartment(), Course.CourseType.SERVICE, query.afterId(), query.pageable()),
+                    courseRepository.countActiveCoursesByDepartmentOrType(user.getDepartment(),
+                            Course.CourseType.SERVICE), query);
+        }
+        return pageOf(courseCatalog.current().getByType(Course.CourseType.SERVICE.getValue()), query);
     }
 
     /**
      * Obtenir un cours par ID
      */
     public CourseDTO getCourseById(Integer id) {
-        Course course = courseRepository.findById(id)
+        return courseRepository.findCourseDTOById(id)
                 .orElseThrow(() -> new RuntimeException("Cours non trouvé"));
-        return convertToDTO(course);
     }
 
     /**
-     * Rechercher des cours
+     * ETag des listes servies depuis le catalogue : empreinte du contenu de l'instantané courant
+     * (stable après un redémarrage et entre instances, inchangée si une reconstruction ne change rien)
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public String getCatalogETag() {
+        return "\"catalog-" + courseCatalog.digest() + "\"";
+    }
+
+    /**
+     * ETag d'un cours, dérivé des dates de mise à jour du cours, de l'enseignant et des statistiques
+     * Vide si le cours n'existe pas
+     */
+    @Transactional(readOnly = true)
+    public Optional<String> getCourseETag(Integer courseId) {
+        return courseVersion(courseId).map(version -> "\"course-" + courseId + "-" + version + "\"");
+    }
+
+    /**
+     * ETag des statistiques d'un cours : dates de mise à jour et empreinte des variations en attente,
+     * lues dans le même instantané (lecture seule, le report reste fait par StatisticsDeltaService.foldAll)
      */
-    public List<CourseDTO> searchCourses(String searchTerm) {
-        return courseRepository.searchCourses(searchTerm)
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public Optional<String> getCourseStatisticsETag(Integer courseId) {
+        return courseVersion(courseId).map(version -> "\"course-statistics-" + courseId + "-" + version + "."
+                + statisticsDeltaService.pendingVersion(courseId) + "\"");
+    }
+
+    /**
+     * Rechercher des cours (plein texte pondéré + trigramme sur le code), résultats classés et paginés
+     */
+    @Transactional(readOnly = true)
+    public Page<CourseDTO> searchCourses(String searchTerm, int page, int size) {
+        Pageable pageable = PageRequest.of(Math.max(0, page), Math.max(1, Math.min(size, maxPageSize)));
+        String tsQuery = CourseSearchTerms.toPrefixTsQuery(searchTerm);
+        String code = CourseSearchTerms.normalizeCode(searchTerm);
+        if (tsQuery.isEmpty() && code.isEmpty()) {
+            return Page.empty(pageable);
+        }
+
+        Page<Integer> ids = courseRepository.searchRankedCourseIds(tsQuery, code, pageable);
+        if (ids.isEmpty()) {
+            return Page.empty(pageable);
+        }
+
+        Map<Integer, CourseDTO> courses = courseRepository.findCourseDTOsByIds(ids.getContent())
                 .stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+                .collect(Collectors.toMap(CourseDTO::getCourseId, Function.identity()));
+        List<CourseDTO> ranked = ids.getContent().stream()
+                .map(courses::get)
+                .filter(Objects::nonNull)
+                .toList();
+        return new PageImpl<>(ranked, pageable, ids.getTotalElements());
+    }
+
+    /**
+     * Suggestions d'autocomplétion (index en mémoire, aucune requête SQL)
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<CourseSuggestionDTO> suggestCourses(String query, Integer limit) {
+        return courseSuggestIndex.suggest(query, Math.max(1, Math.min(limit, MAX_SUGGESTIONS)));
     }
 
     /**
-     * Obtenir les cours par département
+     * Obtenir les cours par département (servis depuis le catalogue en mémoire)
      */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public List<CourseDTO> getCoursesByDepartment(String department) {
-        return courseRepository.findByDepartmentAndIsActiveTrue(department)
-                .stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return courseCatalog.current().getByDepartment(department);
     }
 
     /**
-     * Obtenir les cours par type
+     * Obtenir les cours par type (servis depuis le catalogue en mémoire)
      */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public List<CourseDTO> getCoursesByType(String type) {
         Course.CourseType courseType = Course.CourseType.valueOf(type.toUpperCase());
-        return courseRepository.findByTypeAndIsActiveTrue(courseType)
-                .stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return courseCatalog.current().getByType(courseType.getValue());
+    }
+
+    /**
+     * Obtenir une page des cours d'un département avec sélection de champs
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public CursorPage<Object> getCoursesByDepartment(String department, Integer page, Integer size,
+                                                     String cursor, String fields) {
+        return pageOf(courseCatalog.current().getByDepartment(department), listQuery(page, size, cursor, fields));
+    }
+
+    /**
+     * Obtenir une page des cours d'un type avec sélection de champs
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public CursorPage<Object> getCoursesByType(String type, Integer page, Integer size, String cursor, String fields) {
+        Course.CourseType courseType = Course.CourseType.valueOf(type.toUpperCase());
+        return pageOf(courseCatalog.current().getByType(courseType.getValue()), listQuery(page, size, cursor, fields));
     }
 
     /**
-     * Obtenir tous les départements
+     * Obtenir tous les départements (servis depuis le catalogue en mémoire)
      */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public List<String> getAllDepartments() {
-        return courseRepository.findAllDepartments();
+        return courseCatalog.current().getDepartments();
     }
 
     /**
      * Obtenir les cours d'un enseignant
      */
     public List<CourseDTO> getCoursesByTeacher(Integer teacherId) {
-        return courseRepository.findByTeacherUserIdAndIsActiveTrue(teacherId)
-                .stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return courseRepository.findActiveCourseDTOsByTeacher(teacherId);
     }
 
     /**
-     * Obtenir les statistiques d'un cours
+     * Obtenir une page des cours d'un enseignant avec sélection de champs
+     * La projection n'inclut pas la description, chargée à part seulement si elle est demandée
      */
+    @Transactional(readOnly = true)
+    public CursorPage<Object> getCoursesByTeacher(Integer teacherId, Integer page, Integer size,
+                                                  String cursor, String fields) {
+        ListQuery query = listQuery(page, size, cursor, fields);
+        return sliceOf(courseRepository.findActiveCourseSummariesByTeacher(
+                teacherId, query.afterId(), query.pageable()),
+                courseRepository.countActiveCoursesByTeacher(teacherId), query);
+    }
+
+    /**
+     * Obtenir les statistiques d'un cours, variations en attente comprises
+     * (nom, statistiques reportées et bandes lus par une seule requête, sans écriture)
+     */
+    @Transactional(readOnly = true)
     public CourseStatisticsDTO getCourseStatistics(Integer courseId) {
-        Course course = courseRepository.findById(courseId)
+        return statisticsDeltaService.readCourseStatistics(courseId)
                 .orElseThrow(() -> new RuntimeException("Cours non trouvé"));
+    }
 
-        CourseStatistics stats = courseStatisticsRepository.findByCourseId(courseId)
-                .orElse(null);
-
-        if (stats == null) {
-            return CourseStatisticsDTO.builder()
-                    .courseId(courseId)
-                    .courseName(course.getName())
-                    .totalReviews(0)
-                    .build();
+    /**
+     * Obtenir les statistiques de plusieurs cours en une seule requête
+     * Les IDs inconnus sont ignorés
+     */
+    @Transactional(readOnly = true)
+    public List<CourseStatisticsDTO> getCoursesStatistics(Collection<Integer> courseIds) {
+        if (courseIds.size() > MAX_STATISTICS_IDS) {
+            throw new IllegalArgumentException("Trop de cours demandés (maximum " + MAX_STATISTICS_IDS + ")");
+        }
+        if (courseIds.isEmpty()) {
+            return List.of();
         }
+        return courseRepository.findCourseStatisticsDTOsByIds(
+                courseIds.stream().filter(Objects::nonNull).collect(Collectors.toSet()));
+    }
 
-        return CourseStatisticsDTO.builder()
-                .courseId(courseId)
-                .courseName(course.getName())
-                .avgRatingOverall(stats.getAvgRatingOverall())
-                .avgRatingClarity(stats.getAvgRatingClarity())
-                .avgRatingMaterial(stats.getAvgRatingMaterial())
-                .avgRatingPedagogy(stats.getAvgRatingPedagogy())
-                .totalReviews(stats.getTotalReviews())
-                .build();
+    /**
+     * Obtenir les statistiques de tous les cours actifs, filtrées par département et/ou type
+     */
+    @Transactional(readOnly = true)
+    public List<CourseStatisticsDTO> getAllCourseStatistics(String department, String type) {
+        Course.CourseType courseType = null;
+        if (type != null && !type.isBlank()) {
+            try {
+                courseType = Course.CourseType.valueOf(type.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Type de cours invalide: " + type);
+            }
+        }
+        String departmentFilter = department != null && !department.isBlank() ? department : null;
+        return courseRepository.findActiveCourseStatisticsDTOs(departmentFilter, courseType);
     }
 
     /**
@@ -195,7 +345,8 @@ public class CourseService {
                 .build();
 
         course = courseRepository.save(course);
-        return convertToDTO(course);
+        eventPublisher.publishEvent(CourseCatalogChangedEvent.of(course.getCourseId()));
+        return toDTO(course);
     }
 
     /**
@@ -231,6 +382,9 @@ public class CourseService {
             }
         }
 
+        String previousDepartment = course.getDepartment();
+        Integer previousTeacherId = course.getTeacher() != null ? course.getTeacher().getUserId() : null;
+
         // Mettre à jour le cours
         course.setName(request.getName());
         course.setCode(request.getCode());
@@ -242,7 +396,14 @@ public class CourseService {
         course.setCredits(request.getCredits());
 
         course = courseRepository.save(course);
-        return convertToDTO(course);
+        CourseAssignmentChangedEvent moved = CourseAssignmentChangedEvent.between(course.getCourseId(),
+                previousDepartment, course.getDepartment(),
+                previousTeacherId, teacher != null ? teacher.getUserId() : null);
+        if (moved != null) {
+            eventPublisher.publishEvent(moved);
+        }
+        eventPublisher.publishEvent(CourseCatalogChangedEvent.of(course.getCourseId()));
+        return toDTO(course);
     }
 
     /**
@@ -253,6 +414,7 @@ public class CourseService {
                 .orElseThrow(() -> new RuntimeException("Cours non trouvé"));
         course.setIsActive(false);
         courseRepository.save(course);
+        eventPublisher.publishEvent(CourseCatalogChangedEvent.of(id));
     }
 
     /**
@@ -263,74 +425,169 @@ public class CourseService {
                 .orElseThrow(() -> new RuntimeException("Cours non trouvé"));
         course.setIsActive(true);
         courseRepository.save(course);
+        eventPublisher.publishEvent(CourseCatalogChangedEvent.of(id));
     }
 
     /**
      * Obtenir les cours les mieux notés
+     * Le classement est calculé par la base sur course_statistics et seuls "limit" cours sont lus
+     *
+     * @param minReviews nombre minimum d'avis pour apparaître dans le classement
+     * @param mode       "rating" (moyenne brute) ou "bayesian" (moyenne pondérée vers la moyenne globale)
+     * @param department filtre optionnel par département
      */
-    public List<CourseDTO> getTopRatedCourses(Integer limit) {
-        return courseRepository.findByIsActiveTrue()
-                .stream()
-                .map(course -> {
-                    CourseDTO dto = convertToDTO(course);
-                    CourseStatistics stats = courseStatisticsRepository.findByCourseId(course.getCourseId()).orElse(null);
-                    if (stats != null) {
-                        dto.setAvgRating(stats.getAvgRatingOverall());
-                        dto.setTotalReviews(stats.getTotalReviews());
-                    }
-                    return dto;
-                })
-                .filter(dto -> dto.getAvgRating() != null && dto.getTotalReviews() > 0)
-                .sorted((a, b) -> {
-                    int ratingCompare = b.getAvgRating().compareTo(a.getAvgRating());
-                    if (ratingCompare == 0) {
-                        return b.getTotalReviews().compareTo(a.getTotalReviews());
-                    }
-                    return ratingCompare;
-                })
-                .limit(limit)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public List<CourseDTO> getTopRatedCourses(Integer limit, Integer minReviews, String mode, String department) {
+        Pageable page = PageRequest.of(0, Math.max(1, Math.min(limit, maxPageSize)));
+        int threshold = Math.max(1, minReviews != null ? minReviews : 1);
+        boolean hasDepartment = department != null && !department.isBlank();
+
+        if ("bayesian".equalsIgnoreCase(mode)) {
+            BigDecimal globalMean = courseStatisticsRepository.findGlobalMeanRating();
+            if (globalMean == null) {
+                return List.of();
+            }
+            return courseStatisticsRepository.findTopRatedCoursesBayesian(
+                    hasDepartment ? department : null, threshold, Math.max(threshold, bayesianPrior), globalMean, page);
+        }
+
+        if (mode != null && !"rating".equalsIgnoreCase(mode)) {
+            throw new IllegalArgumentException("Mode de classement invalide: " + mode);
+        }
+
+        return hasDepartment
+                ? courseStatisticsRepository.findTopRatedCoursesByDepartment(department, threshold, page)
+                : courseStatisticsRepository.findTopRatedCourses(threshold, page);
     }
 
     /**
-     * Obtenir les cours récents
+     * Obtenir les cours récents, paginés par curseur (created_at, course_id)
+     * Chaque page coûte une lecture d'index bornée, quelle que soit la taille du catalogue
      */
-    public List<CourseDTO> getRecentCourses(Integer limit) {
-        return courseRepository.findByIsActiveTrue()
-                .stream()
-                .sorted((a, b) -> b.getCreatedAt().compareTo(a.getCreatedAt()))
-                .limit(limit)
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public CursorPage<CourseDTO> getRecentCourses(Integer limit, String cursor) {
+        int size = Math.max(1, Math.min(limit, maxPageSize));
+        KeysetCursor position = KeysetCursor.decode(cursor);
+        if (position != null && position.timestamp() == null) {
+            throw new IllegalArgumentException("Curseur invalide");
+        }
+        Pageable page = PageRequest.of(0, size + 1);
+
+        List<CourseDTO> rows = position == null
+                ? courseRepository.findRecentCourseDTOs(page)
+                : courseRepository.findRecentCourseDTOsBefore(position.timestamp(), position.id(), page);
+
+        return CursorPage.of(rows, size, dto -> KeysetCursor.of(dto.getCreatedAt(), dto.getCourseId()).encode());
+    }
+
+    private Optional<String> courseVersion(Integer courseId) {
+        return courseRepository.findVersionByCourseId(courseId)
+                .map(view -> stamp(view.getUpdatedAt()) + "." + stamp(view.getTeacherUpdatedAt())
+                        + "." + stamp(view.getStatisticsUpdatedAt()));
+    }
+
+    private static String stamp(LocalDateTime timestamp) {
+        if (timestamp == null) {
+            return "0";
+        }
+        long micros = timestamp.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + timestamp.getNano() / 1_000;
+        return Long.toString(micros, 36);
+    }
+
+    /**
+     * Paramètres d'une liste paginée : page (offset) ou curseur (keyset sur course_id), taille et champs
+     * (jamais null : sans paramètre "fields", tous les champs sauf la description)
+     */
+    private record ListQuery(int page, int size, int afterId, Set<String> fields) {
+
+        Pageable pageable() {
+            return PageRequest.of(afterId > 0 ? 0 : page, size);
+        }
+    }
+
+    private ListQuery listQuery(Integer page, Integer size, String cursor, String fields) {
+        KeysetCursor position = KeysetCursor.decode(cursor);
+        int pageSize = Math.max(1, Math.min(size != null ? size : defaultPageSize, maxPageSize));
+        return new ListQuery(
+                page != null ? Math.max(0, page) : 0,
+                pageSize,
+                position != null ? position.id() : 0,
+                CourseFields.parse(fields)
+        );
     }
 
     /**
-     * Convertir une entité Course en DTO
+     * Découper une liste du catalogue (triée par ID) sans accès à la base
      */
-    private CourseDTO convertToDTO(Course course) {
-        CourseDTO dto = CourseDTO.builder()
-                .courseId(course.getCourseId())
-                .name(course.getName())
-                .code(course.getCode())
-                .description(course.getDescription())
-                .type(course.getType().getValue())
-                .teacherId(course.getTeacher() != null ? course.getTeacher().getUserId() : null)
-                .teacherName(course.getTeacher() != null ? course.getTeacher().getFullName() : null)
-                .department(course.getDepartment())
-                .semester(course.getSemester())
-                .credits(course.getCredits())
-                .isActive(course.getIsActive())
-                .createdAt(course.getCreatedAt())
-                .updatedAt(course.getUpdatedAt())
+    private CursorPage<Object> pageOf(List<CourseDTO> courses, ListQuery query) {
+        int start = query.afterId() > 0
+                ? firstIndexAfter(courses, query.afterId())
+                : (int) Math.min((long) query.page() * query.size(), courses.size());
+        int end = Math.min(start + query.size(), courses.size());
+        List<CourseDTO> items = courses.subList(start, end);
+        boolean hasMore = end < courses.size();
+
+        return CursorPage.<Object>builder()
+                .items(select(items, query.fields()))
+                .nextCursor(hasMore && !items.isEmpty() ? nextCursor(items) : null)
+                .hasMore(hasMore)
+                .totalElements((long) courses.size())
                 .build();
+    }
 
-        // Ajouter les statistiques si disponibles
-        CourseStatistics stats = courseStatisticsRepository.findByCourseId(course.getCourseId()).orElse(null);
-        if (stats != null) {
-            dto.setAvgRating(stats.getAvgRatingOverall());
-            dto.setTotalReviews(stats.getTotalReviews());
+    /**
+     * Construire une page à partir d'une tranche lue en base et du nombre total de cours du filtre
+     * (même forme que les pages servies par le catalogue)
+     */
+    private CursorPage<Object> sliceOf(Slice<CourseDTO> slice, long total, ListQuery query) {
+        List<CourseDTO> items = slice.getContent();
+        if (CourseFields.includesDescription(query.fields()) && !items.isEmpty()) {
+            Map<Integer, String> descriptions = new HashMap<>();
+            courseRepository.findDescriptionsByCourseIds(items.stream().map(CourseDTO::getCourseId).toList())
+                    .forEach(view -> descriptions.put(view.getCourseId(), view.getDescription()));
+            items = items.stream()
+                    .map(course -> course.toBuilder().description(descriptions.get(course.getCourseId())).build())
+                    .toList();
         }
 
-        return dto;
+        return CursorPage.<Object>builder()
+                .items(select(items, query.fields()))
+                .nextCursor(slice.hasNext() && !items.isEmpty() ? nextCursor(items) : null)
+                .hasMore(slice.hasNext())
+                .totalElements(total)
+                .build();
+    }
+
+    private static List<Object> select(List<CourseDTO> courses, Set<String> fields) {
+        return courses.stream()
+                .map(course -> (Object) CourseFields.select(course, fields))
+                .toList();
+    }
+
+    private static String nextCursor(List<CourseDTO> items) {
+        return KeysetCursor.ofId(items.get(items.size() - 1).getCourseId()).encode();
+    }
+
+    private static int firstIndexAfter(List<CourseDTO> courses, int courseId) {
+        int low = 0;
+        int high = courses.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (courses.get(mid).getCourseId() <= courseId) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Relire un cours enregistré via la projection DTO
+     * (la requête JPQL déclenche le flush de l'entité dans la transaction courante)
+     */
+    private CourseDTO toDTO(Course course) {
+        return courseRepository.findCourseDTOById(course.getCourseId())
+                .orElseThrow(() -> new RuntimeException("Cours non trouvé"));
     }
 }
@@ -0,0 +1,12 @@
+package com.uaz.backend.service;
+
+import java.util.Set;
+
+/**
+ * Événement publié quand les statistiques de cours changent sans que les cours eux-mêmes changent
+ * (report des bandes) ; les écouteurs transactionnels le reçoivent après le commit
+ *
+ * @param courseIds cours dont la moyenne et le nombre d'avis ont pu changer
+ */
+public record CourseStatisticsChangedEvent(Set<Integer> courseIds) {
+}
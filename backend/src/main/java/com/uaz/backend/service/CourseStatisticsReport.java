@@ -0,0 +1,193 @@
+package com.uaz.backend.service;
+
+import com.uaz.backend.dto.CourseStatisticsDTO;
+import com.uaz.backend.repository.CourseRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Rapport public des statistiques de tous les cours actifs, pré-sérialisé
+ * Le JSON et sa variante gzip sont rendus une fois en octets, puis servis tels quels (sans requête
+ * ni sérialisation) ; un changement de statistiques ou de catalogue programme une reconstruction
+ * hors requête, regroupée avec les changements suivants pendant app.statistics.report.rebuild-delay-millis ;
+ * les lectures servent le rendu précédent jusqu'à l'échange
+ */
+@Component
+@RequiredArgsConstructor
+public class CourseStatisticsReport {
+
+    private final CourseRepository courseRepository;
+    private final JsonMapper jsonMapper;
+
+    @Value("${app.statistics.report.rebuild-delay-millis:500}")
+    private long rebuildDelayMillis;
+
+    /**
+     * Nombre de changements commités ; un rendu est à jour s'il a été construit au même compte
+     */
+    private final AtomicLong changes = new AtomicLong();
+
+    /**
+     * Une reconstruction est programmée et pas encore commencée
+     */
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    private ScheduledExecutorService scheduler;
+
+    private volatile Rendered current;
+
+    /**
+     * Obtenir le rendu courant, même périmé : seul le tout premier rendu est construit à la lecture
+     */
+    public Rendered current() {
+        Rendered rendered = current;
+        return rendered != null ? rendered : rebuild();
+    }
+
+    /**
+     * Reconstruire le rendu ; le compte est lu avant la requête, un changement commité pendant
+     * la reconstruction rend donc le nouveau rendu aussitôt périmé
+     */
+    public synchronized Rendered rebuild() {
+        long count = changes.get();
+        Rendered rendered = current;
+        if (rendered != null && rendered.changes == count) {
+            return rendered;
+        }
+
+        List<CourseStatisticsDTO> statistics = courseRepository.findActiveCourseStatisticsDTOs(null, null);
+        byte[] json = jsonMapper.writeValueAsBytes(statistics);
+        rendered = new Rendered(count, json, gzip(json), digest(json));
+        current = rendered;
+        return rendered;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        rebuild();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCourseCatalogChanged(CourseCatalogChangedEvent event) {
+        changed();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCourseStatisticsChanged(CourseStatisticsChangedEvent event) {
+        changed();
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Compter le changement et programmer une reconstruction si aucune n'est en attente
+     */
+    private void changed() {
+        changes.incrementAndGet();
+        scheduleRebuild();
+    }
+
+    private void scheduleRebuild() {
+        if (scheduled.compareAndSet(false, true)) {
+            scheduler().schedule(this::rebuildScheduled, rebuildDelayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Le drapeau est levé avant la reconstruction : un changement commité pendant celle-ci en programme
+     * une autre ; un échec (base indisponible) est retenté après le même délai
+     */
+    private void rebuildScheduled() {
+        scheduled.set(false);
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            scheduleRebuild();
+        }
+    }
+
+    private synchronized ScheduledExecutorService scheduler() {
+        if (scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor();
+        }
+        return scheduler;
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(json.length / 4 + 64);
+        try (GZIPOutputStream out = new GZIPOutputStream(buffer)) {
+            out.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toByteArray();
+    }
+
+    /**
+     * Empreinte du contenu : l'ETag reste le même tant que le rapport ne change pas, même après redémarrage
+     */
+    private static String digest(byte[] json) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(json);
+            return HexFormat.of().formatHex(hash, 0, 12);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Rapport rendu : octets JSON, octets gzip et ETag de chaque variante
+     * Les tableaux sont partagés entre toutes les réponses et ne doivent pas être modifiés
+     */
+    public static final class Rendered {
+
+        private final long changes;
+        private final byte[] json;
+        private final byte[] gzip;
+        private final String digest;
+
+        private Rendered(long changes, byte[] json, byte[] gzip, String digest) {
+            this.changes = changes;
+            this.json = json;
+            this.gzip = gzip;
+            this.digest = digest;
+        }
+
+        public byte[] body(boolean compressed) {
+            return compressed ? gzip : json;
+        }
+
+        /**
+         * ETag fort propre à chaque variante (les octets diffèrent)
+         */
+        public String etag(boolean compressed) {
+            return "\"course-statistics-" + digest + (compressed ? "-gzip" : "") + "\"";
+        }
+    }
+}
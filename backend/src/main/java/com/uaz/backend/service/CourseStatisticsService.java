@@ -0,0 +1,274 @@
+package com.uaz.backend.service;
+
+import com.uaz.backend.dto.DepartmentQuantilesDTO;
+import com.uaz.backend.dto.DepartmentStatisticsDTO;
+import com.uaz.backend.dto.RatingQuantilesDTO;
+import com.uaz.backend.dto.TeacherStatisticsDTO;
+import com.uaz.backend.repository.CourseStatisticsRepository;
+import com.uaz.backend.repository.DepartmentStatisticsRepository;
+import com.uaz.backend.repository.TeacherStatisticsRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Service de maintenance incrémentale des statistiques de cours
+ * Chaque changement d'état d'un avis ajoute sa variation (retrait puis ajout), dans la transaction de la
+ * modification et sans réagréger la table reviews, à l'une des bandes du cours : course_statistics_deltas
+ * et les trois lignes course_rating_rollup_deltas (semaine, mois, semestre) de la date de l'avis.
+ * La bande est choisie par hachage de l'avis ; StatisticsDeltaService reporte ensuite les bandes dans
+ * course_statistics, les agrégats temporels et ceux du département et de l'enseignant du cours
+ */
+@Service
+@RequiredArgsConstructor
+public class CourseStatisticsService {
+
+    private final CourseStatisticsRepository courseStatisticsRepository;
+    private final DepartmentStatisticsRepository departmentStatisticsRepository;
+    private final TeacherStatisticsRepository teacherStatisticsRepository;
+
+    @Value("${app.pagination.max-page-size:100}")
+    private int maxPageSize;
+
+    @Value("${app.statistics.deltas.stripes:16}")
+    private int deltaStripes;
+
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onApprovedReviewChanged(ApprovedReviewChangedEvent event) {
+        Delta delta = new Delta();
+        delta.subtract(event.removed());
+        delta.add(event.added());
+
+        if (delta.isEmpty()) {
+            return;
+        }
+
+        int stripe = StatisticsDeltaService.stripe(event.reviewId(), deltaStripes);
+        courseStatisticsRepository.applyReviewDeltaStripe(event.courseId(), stripe,
+                delta.reviews, delta.overall,
+                delta.clarity, delta.clarityCount,
+                delta.material, delta.materialCount,
+                delta.pedagogy, delta.pedagogyCount,
+                RatingHistogram.toSqlArray(delta.histOverall),
+                RatingHistogram.toSqlArray(delta.histClarity),
+                RatingHistogram.toSqlArray(delta.histMaterial),
+                RatingHistogram.toSqlArray(delta.histPedagogy),
+                RatingHistogram.toSqlArray(delta.sketchOverall.toArray()),
+                RatingHistogram.toSqlArray(delta.sketchClarity.toArray()),
+                RatingHistogram.toSqlArray(delta.sketchMaterial.toArray()),
+                RatingHistogram.toSqlArray(delta.sketchPedagogy.toArray()));
+        applyRollups(event, delta, stripe);
+    }
+
+    /**
+     * Déplacer les statistiques d'un cours vers son nouveau département ou son nouvel enseignant
+     * La ligne course_statistics est verrouillée d'abord : un report concurrent des bandes de ce cours
+     * est soit entièrement visible dans les sommes déplacées, soit appliqué ensuite à la nouvelle affectation.
+     * Les lignes de département et d'enseignant sont ensuite verrouillées par clé croissante, comme le report
+     */
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onCourseAssignmentChanged(CourseAssignmentChangedEvent event) {
+        if (courseStatisticsRepository.lockByCourseId(event.courseId()).isEmpty()) {
+            return;
+        }
+        if (event.departmentChanged()) {
+            moveInKeyOrder(event.previousDepartment(), event.department(),
+                    (department, sign) -> departmentStatisticsRepository.applyCourse(department, event.courseId(), sign));
+        }
+        if (event.teacherChanged()) {
+            moveInKeyOrder(event.previousTeacherId(), event.teacherId(),
+                    (teacherId, sign) -> teacherStatisticsRepository.applyCourse(teacherId, event.courseId(), sign));
+        }
+    }
+
+    /**
+     * Retirer de l'ancienne ligne et ajouter à la nouvelle dans l'ordre croissant des clés,
+     * l'ordre de verrouillage de StatisticsDeltaService (les deux écritures commutent)
+     */
+    private static <K extends Comparable<K>> void moveInKeyOrder(K previous, K current, ObjIntConsumer<K> apply) {
+        if (previous != null && current != null && current.compareTo(previous) < 0) {
+            apply.accept(current, 1);
+            apply.accept(previous, -1);
+            return;
+        }
+        if (previous != null) {
+            apply.accept(previous, -1);
+        }
+        if (current != null) {
+            apply.accept(current, 1);
+        }
+    }
+
+    /**
+     * Obtenir le classement des départements (moyenne pondérée par le nombre d'avis)
+     */
+    @Transactional(readOnly = true)
+    public List<DepartmentStatisticsDTO> getDepartmentRanking(Integer limit, Integer minReviews) {
+        return departmentStatisticsRepository.findRanking(threshold(minReviews), page(limit));
+    }
+
+    /**
+     * Obtenir le classement des enseignants (moyenne pondérée par le nombre d'avis de leurs cours)
+     */
+    @Transactional(readOnly = true)
+    public List<TeacherStatisticsDTO> getTeacherRanking(Integer limit, Integer minReviews) {
+        return teacherStatisticsRepository.findRanking(threshold(minReviews), page(limit));
+    }
+
+    /**
+     * Obtenir les quantiles des notes d'un département
+     * Les résumés des cours sont fusionnés à la lecture : le coût dépend du nombre de cours, pas du nombre d'avis
+     */
+    @Transactional(readOnly = true)
+    public DepartmentQuantilesDTO getDepartmentQuantiles(String department) {
+        List<Object[]> rows = courseStatisticsRepository.findSketchesByDepartment(department);
+        if (rows.isEmpty()) {
+            throw new RuntimeException("Département non trouvé");
+        }
+
+        String[] criteria = {"overall", "clarity", "material", "pedagogy"};
+        RatingSketch[] merged = new RatingSketch[criteria.length];
+        for (int i = 0; i < criteria.length; i++) {
+            merged[i] = RatingSketch.empty();
+        }
+        for (Object[] row : rows) {
+            for (int i = 0; i < criteria.length; i++) {
+                merged[i].merge(RatingSketch.of((int[]) row[i]));
+            }
+        }
+
+        Map<String, RatingQuantilesDTO> quantiles = new LinkedHashMap<>();
+        for (int i = 0; i < criteria.length; i++) {
+            quantiles.put(criteria[i], merged[i].quantiles());
+        }
+        return DepartmentQuantilesDTO.builder()
+                .department(department)
+                .courses(rows.size())
+                .quantiles(quantiles)
+                .build();
+    }
+
+    private PageRequest page(Integer limit) {
+        return PageRequest.of(0, Math.max(1, Math.min(limit != null ? limit : maxPageSize, maxPageSize)));
+    }
+
+    private static int threshold(Integer minReviews) {
+        return Math.max(1, minReviews != null ? minReviews : 1);
+    }
+
+    /**
+     * Les deux contributions d'un même avis partagent sa date de création : une seule variation suffit ;
+     * sinon chacune est appliquée aux périodes de sa propre date
+     */
+    private void applyRollups(ApprovedReviewChangedEvent event, Delta delta, int stripe) {
+        ReviewContribution removed = event.removed();
+        ReviewContribution added = event.added();
+        if (removed == null || added == null || removed.reviewedOn().equals(added.reviewedOn())) {
+            applyRollup(event.courseId(), stripe, added != null ? added.reviewedOn() : removed.reviewedOn(), delta);
+            return;
+        }
+        Delta removal = new Delta();
+        removal.subtract(removed);
+        applyRollup(removed.courseId(), stripe, removed.reviewedOn(), removal);
+        Delta addition = new Delta();
+        addition.add(added);
+        applyRollup(added.courseId(), stripe, added.reviewedOn(), addition);
+    }
+
+    private void applyRollup(Integer courseId, int stripe, LocalDate reviewedOn, Delta delta) {
+        courseStatisticsRepository.applyRollupDeltaStripe(courseId, stripe,
+                RatingPeriod.WEEK.start(reviewedOn),
+                RatingPeriod.MONTH.start(reviewedOn),
+                RatingPeriod.SEMESTER.start(reviewedOn),
+                delta.reviews, delta.overall,
+                delta.clarity, delta.clarityCount,
+                delta.material, delta.materialCount,
+                delta.pedagogy, delta.pedagogyCount);
+    }
+
+    /**
+     * Variation des sommes (dixièmes), compteurs, histogrammes et résumés de quantiles d'une ligne de statistiques
+     */
+    static final class Delta {
+        int reviews;
+        long overall;
+        long clarity;
+        int clarityCount;
+        long material;
+        int materialCount;
+        long pedagogy;
+        int pedagogyCount;
+        final int[] histOverall = RatingHistogram.empty();
+        final int[] histClarity = RatingHistogram.empty();
+        final int[] histMaterial = RatingHistogram.empty();
+        final int[] histPedagogy = RatingHistogram.empty();
+        final RatingSketch sketchOverall = RatingSketch.empty();
+        final RatingSketch sketchClarity = RatingSketch.empty();
+        final RatingSketch sketchMaterial = RatingSketch.empty();
+        final RatingSketch sketchPedagogy = RatingSketch.empty();
+
+        void add(ReviewContribution contribution) {
+            apply(contribution, 1);
+        }
+
+        void subtract(ReviewContribution contribution) {
+            apply(contribution, -1);
+        }
+
+        boolean isEmpty() {
+            return reviews == 0 && overall == 0
+                    && clarity == 0 && clarityCount == 0
+                    && material == 0 && materialCount == 0
+                    && pedagogy == 0 && pedagogyCount == 0
+                    && Arrays.stream(histOverall).allMatch(count -> count == 0)
+                    && Arrays.stream(histClarity).allMatch(count -> count == 0)
+                    && Arrays.stream(histMaterial).allMatch(count -> count == 0)
+                    && Arrays.stream(histPedagogy).allMatch(count -> count == 0)
+                    && sketchOverall.equals(RatingSketch.empty())
+                    && sketchClarity.equals(RatingSketch.empty())
+                    && sketchMaterial.equals(RatingSketch.empty())
+                    && sketchPedagogy.equals(RatingSketch.empty());
+        }
+
+        private void apply(ReviewContribution contribution, int sign) {
+            if (contribution == null) {
+                return;
+            }
+            reviews += sign;
+            overall += sign * contribution.overall();
+            histOverall[RatingHistogram.bucket(contribution.overall())] += sign;
+            sketchOverall.add(contribution.overall(), sign);
+            if (contribution.clarity() != null) {
+                clarity += sign * contribution.clarity();
+                clarityCount += sign;
+                histClarity[RatingHistogram.bucket(contribution.clarity())] += sign;
+                sketchClarity.add(contribution.clarity(), sign);
+            }
+            if (contribution.material() != null) {
+                material += sign * contribution.material();
+                materialCount += sign;
+                histMaterial[RatingHistogram.bucket(contribution.material())] += sign;
+                sketchMaterial.add(contribution.material(), sign);
+            }
+            if (contribution.pedagogy() != null) {
+                pedagogy += sign * contribution.pedagogy();
+                pedagogyCount += sign;
+                histPedagogy[RatingHistogram.bucket(contribution.pedagogy())] += sign;
+                sketchPedagogy.add(contribution.pedagogy(), sign);
+            }
+        }
+    }
+}
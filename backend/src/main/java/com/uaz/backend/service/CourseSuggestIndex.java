@@ -0,0 +1,505 @@
+package com.uaz.backend.service;
+
+import com.uaz.backend.dto.CourseDTO;
+import com.uaz.backend.dto.CourseSuggestionDTO;
+import com.uaz.backend.repository.CourseRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Index d'autocomplétion des cours tenu en mémoire
+ * Préfixes de mots et trigrammes sur le code, le nom et l'enseignant,
+ * sans accents ni majuscules ; mis à jour cours par cours après chaque commit,
+ * reconstruit hors verrou puis échangé d'un coup lors d'un rafraîchissement complet
+ * Les préfixes courts (une ou deux lettres, les premières frappes) ont des listes de cours
+ * triées par score, parcourues jusqu'à ce que les k meilleurs soient connus
+ */
+@Component
+@RequiredArgsConstructor
+public class CourseSuggestIndex {
+
+    /**
+     * Bornes par cours : la mémoire occupée ne dépend pas de la longueur des champs
+     */
+    static final int MAX_TOKENS_PER_COURSE = 24;
+    static final int MAX_TRIGRAMS_PER_COURSE = 96;
+
+    /**
+     * Longueur maximale des préfixes dont les cours sont tenus triés par score
+     */
+    static final int SHORT_PREFIX_LENGTH = 2;
+
+    private static final double MIN_TRIGRAM_SIMILARITY = 0.5;
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    private static final double CODE_WEIGHT = 3.0;
+    private static final double NAME_WEIGHT = 2.0;
+    private static final double TEACHER_WEIGHT = 1.0;
+
+    private final CourseRepository courseRepository;
+    private final CourseCatalog courseCatalog;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Tables tables = new Tables();
+
+    /**
+     * Changements reçus pendant une reconstruction, rejoués sur le nouvel index (sous le verrou d'écriture)
+     */
+    private List<Consumer<Tables>> pending;
+
+    /**
+     * Suggérer les k cours les plus pertinents pour une saisie partielle
+     */
+    public List<CourseSuggestionDTO> suggest(String query, int limit) {
+        List<String> queryTokens = tokenize(fold(query));
+        if (queryTokens.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        PriorityQueue<Scored> top = new PriorityQueue<>(Comparator.comparingDouble(Scored::score));
+        List<String> longTokens = queryTokens.stream()
+                .filter(token -> token.length() > SHORT_PREFIX_LENGTH)
+                .toList();
+        lock.readLock().lock();
+        try {
+            Tables index = tables;
+            if (longTokens.isEmpty()) {
+                index.rankedPrefixMatches(queryTokens, limit, top);
+            } else {
+                // Les mots longs, sélectifs, donnent les candidats ; les mots courts ne font que filtrer
+                for (Integer courseId : index.prefixCandidates(longTokens)) {
+                    Entry entry = index.entries.get(courseId);
+                    if (entry.matchesAll(queryTokens)) {
+                        offer(top, limit, entry, prefixScore(entry, queryTokens));
+                    }
+                }
+            }
+
+            // Repli approximatif (fautes de frappe) quand aucun préfixe ne correspond
+            if (top.isEmpty()) {
+                Set<String> queryTrigrams = trigramsOf(queryTokens);
+                if (!queryTrigrams.isEmpty()) {
+                    Map<Integer, Integer> shared = new HashMap<>();
+                    for (String trigram : queryTrigrams) {
+                        for (Integer courseId : index.trigrams.getOrDefault(trigram, Set.of())) {
+                            shared.merge(courseId, 1, Integer::sum);
+                        }
+                    }
+                    shared.forEach((courseId, count) -> {
+                        double similarity = (double) count / queryTrigrams.size();
+                        if (similarity >= MIN_TRIGRAM_SIMILARITY) {
+                            offer(top, limit, index.entries.get(courseId), similarity);
+                        }
+                    });
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<CourseSuggestionDTO> suggestions = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            Scored scored = top.poll();
+            Entry entry = scored.entry();
+            suggestions.add(0, CourseSuggestionDTO.builder()
+                    .courseId(entry.courseId())
+                    .code(entry.code())
+                    .name(entry.name())
+                    .teacherName(entry.teacherName())
+                    .score(scored.score())
+                    .build());
+        }
+        return suggestions;
+    }
+
+    /**
+     * Ajouter ou remplacer un cours (un cours inactif est retiré)
+     */
+    public void put(CourseDTO course) {
+        if (!Boolean.TRUE.equals(course.getIsActive())) {
+            remove(course.getCourseId());
+            return;
+        }
+        Entry entry = Entry.of(course);
+        write(index -> index.put(entry));
+    }
+
+    /**
+     * Retirer un cours de l'index
+     */
+    public void remove(Integer courseId) {
+        write(index -> index.remove(courseId));
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return tables.entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        reload(() -> courseCatalog.current().getCourses());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCourseCatalogChanged(CourseCatalogChangedEvent event) {
+        if (event.isFullRefresh()) {
+            reload(courseRepository::findActiveCourseDTOs);
+            return;
+        }
+        Set<Integer> missing = new HashSet<>(event.courseIds());
+        for (CourseDTO course : courseRepository.findCourseDTOsByIds(event.courseIds())) {
+            missing.remove(course.getCourseId());
+            put(course);
+        }
+        missing.forEach(this::remove);
+    }
+
+    /**
+     * Reconstruire l'index hors verrou puis l'échanger sous le verrou d'écriture :
+     * les suggestions concurrentes voient l'ancien index complet jusqu'à l'échange
+     * Les reconstructions sont sérialisées ; les mises à jour reçues entre-temps sont rejouées
+     */
+    private synchronized void reload(Supplier<? extends Collection<CourseDTO>> source) {
+        lock.writeLock().lock();
+        try {
+            pending = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Tables fresh = new Tables();
+        boolean complete = false;
+        try {
+            for (CourseDTO course : source.get()) {
+                if (Boolean.TRUE.equals(course.getIsActive())) {
+                    fresh.put(Entry.of(course));
+                }
+            }
+            complete = true;
+        } finally {
+            lock.writeLock().lock();
+            try {
+                if (complete) {
+                    pending.forEach(change -> change.accept(fresh));
+                    tables = fresh;
+                }
+                pending = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private void write(Consumer<Tables> change) {
+        lock.writeLock().lock();
+        try {
+            change.accept(tables);
+            if (pending != null) {
+                pending.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static double prefixScore(Entry entry, List<String> queryTokens) {
+        double score = 0;
+        for (String token : queryTokens) {
+            score += fieldWeight(entry, token);
+        }
+        return score + entry.lengthBonus();
+    }
+
+    /**
+     * Poids du champ où le mot de la requête préfixe un mot du cours (le cours correspond au mot)
+     */
+    private static double fieldWeight(Entry entry, String token) {
+        if (startsWithAny(entry.codeTokens(), token)) {
+            return CODE_WEIGHT;
+        }
+        return startsWithAny(entry.nameTokens(), token) ? NAME_WEIGHT : TEACHER_WEIGHT;
+    }
+
+    private static boolean startsWithAny(Collection<String> fieldTokens, String prefix) {
+        for (String token : fieldTokens) {
+            if (token.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void offer(PriorityQueue<Scored> top, int limit, Entry entry, double score) {
+        if (entry == null) {
+            return;
+        }
+        if (top.size() < limit) {
+            top.add(new Scored(entry, score));
+        } else if (top.peek().score() < score) {
+            top.poll();
+            top.add(new Scored(entry, score));
+        }
+    }
+
+    /**
+     * Minuscules sans accents ; tout caractère autre que lettre ou chiffre devient séparateur
+     */
+    static String fold(String value) {
+        if (value == null || value.isEmpty()) {
+            return "";
+        }
+        String stripped = DIACRITICS.matcher(Normalizer.normalize(value, Normalizer.Form.NFD)).replaceAll("");
+        StringBuilder folded = new StringBuilder(stripped.length());
+        for (int i = 0; i < stripped.length(); i++) {
+            char ch = stripped.charAt(i);
+            folded.append(Character.isLetterOrDigit(ch) ? Character.toLowerCase(ch) : ' ');
+        }
+        return folded.toString().toLowerCase(Locale.ROOT);
+    }
+
+    static List<String> tokenize(String folded) {
+        List<String> result = new ArrayList<>();
+        for (String token : folded.split(" ")) {
+            if (!token.isEmpty()) {
+                result.add(token);
+            }
+        }
+        return result;
+    }
+
+    static Set<String> trigramsOf(Collection<String> words) {
+        Set<String> result = new LinkedHashSet<>();
+        for (String word : words) {
+            String padded = "  " + word + " ";
+            for (int i = 0; i + 3 <= padded.length() && result.size() < MAX_TRIGRAMS_PER_COURSE; i++) {
+                result.add(padded.substring(i, i + 3));
+            }
+        }
+        return result;
+    }
+
+    private record Scored(Entry entry, double score) {
+    }
+
+    /**
+     * Cours d'une liste de préfixe court, ordonné par score décroissant puis par ID
+     */
+    private record Ranked(double score, Integer courseId) implements Comparable<Ranked> {
+
+        static Ranked of(Entry entry, String prefix) {
+            return new Ranked(fieldWeight(entry, prefix) + entry.lengthBonus(), entry.courseId());
+        }
+
+        @Override
+        public int compareTo(Ranked other) {
+            int byScore = Double.compare(other.score, score);
+            return byScore != 0 ? byScore : courseId.compareTo(other.courseId);
+        }
+    }
+
+    /**
+     * Tables de l'index : cours indexés, mots (triés, pour les préfixes) et trigrammes
+     */
+    private static final class Tables {
+
+        private final Map<Integer, Entry> entries = new HashMap<>();
+        private final NavigableMap<String, Set<Integer>> tokens = new TreeMap<>();
+        private final Map<String, Set<Integer>> trigrams = new HashMap<>();
+        private final Map<String, NavigableSet<Ranked>> shortPrefixes = new HashMap<>();
+
+        void put(Entry entry) {
+            unindex(entries.put(entry.courseId(), entry));
+            for (String token : entry.tokens()) {
+                tokens.computeIfAbsent(token, k -> new HashSet<>()).add(entry.courseId());
+            }
+            for (String trigram : entry.trigrams()) {
+                trigrams.computeIfAbsent(trigram, k -> new HashSet<>()).add(entry.courseId());
+            }
+            for (String prefix : entry.shortPrefixes()) {
+                shortPrefixes.computeIfAbsent(prefix, k -> new TreeSet<>()).add(Ranked.of(entry, prefix));
+            }
+        }
+
+        void remove(Integer courseId) {
+            unindex(entries.remove(courseId));
+        }
+
+        /**
+         * k meilleurs cours pour une requête dont tous les mots sont des préfixes courts
+         * La liste triée du mot le plus sélectif est parcourue dans l'ordre du score ; les autres mots
+         * ajoutent au plus CODE_WEIGHT chacun, le parcours s'arrête donc dès que ce majorant
+         * ne peut plus dépasser le k-ième score retenu
+         */
+        void rankedPrefixMatches(List<String> queryTokens, int limit, PriorityQueue<Scored> top) {
+            NavigableSet<Ranked> walked = null;
+            for (String token : queryTokens) {
+                NavigableSet<Ranked> ranked = shortPrefixes.get(token);
+                if (ranked == null) {
+                    return;
+                }
+                if (walked == null || ranked.size() < walked.size()) {
+                    walked = ranked;
+                }
+            }
+            double others = CODE_WEIGHT * (queryTokens.size() - 1);
+            for (Ranked ranked : walked) {
+                if (top.size() == limit && top.peek().score() >= ranked.score() + others) {
+                    return;
+                }
+                Entry entry = entries.get(ranked.courseId());
+                if (entry.matchesAll(queryTokens)) {
+                    offer(top, limit, entry, prefixScore(entry, queryTokens));
+                }
+            }
+        }
+
+        /**
+         * Cours dont chaque mot de la requête préfixe au moins un mot indexé
+         * L'intersection part du mot le plus sélectif
+         */
+        Set<Integer> prefixCandidates(List<String> queryTokens) {
+            List<Set<Integer>> matches = new ArrayList<>(queryTokens.size());
+            for (String token : queryTokens) {
+                Set<Integer> ids = new HashSet<>();
+                tokens.subMap(token, true, token + Character.MAX_VALUE, false).values().forEach(ids::addAll);
+                if (ids.isEmpty()) {
+                    return Set.of();
+                }
+                matches.add(ids);
+            }
+            matches.sort(Comparator.comparingInt(Set::size));
+            Set<Integer> result = matches.get(0);
+            for (int i = 1; i < matches.size() && !result.isEmpty(); i++) {
+                result.retainAll(matches.get(i));
+            }
+            return result;
+        }
+
+        private void unindex(Entry entry) {
+            if (entry == null) {
+                return;
+            }
+            for (String token : entry.tokens()) {
+                detach(tokens, token, entry.courseId());
+            }
+            for (String trigram : entry.trigrams()) {
+                detach(trigrams, trigram, entry.courseId());
+            }
+            for (String prefix : entry.shortPrefixes()) {
+                NavigableSet<Ranked> ranked = shortPrefixes.get(prefix);
+                if (ranked != null) {
+                    ranked.remove(Ranked.of(entry, prefix));
+                    if (ranked.isEmpty()) {
+                        shortPrefixes.remove(prefix);
+                    }
+                }
+            }
+        }
+
+        private static void detach(Map<String, Set<Integer>> index, String key, Integer courseId) {
+            Set<Integer> ids = index.get(key);
+            if (ids != null) {
+                ids.remove(courseId);
+                if (ids.isEmpty()) {
+                    index.remove(key);
+                }
+            }
+        }
+    }
+
+    /**
+     * Entrée indexée pour un cours : libellés d'origine + mots et trigrammes normalisés
+     * Une seule borne (MAX_TOKENS_PER_COURSE, dans l'ordre code, nom, enseignant) s'applique aux mots
+     * gardés par champ comme à l'ensemble indexé : un mot noté est toujours un mot cherchable
+     */
+    private record Entry(Integer courseId, String code, String name, String teacherName,
+                         List<String> codeTokens, List<String> nameTokens,
+                         Set<String> tokens, Set<String> trigrams) {
+
+        static Entry of(CourseDTO course) {
+            List<String> codeTokens = tokenize(fold(course.getCode()));
+            // Le code est aussi indexé sans séparateurs ("INF-101" -> "inf101")
+            if (codeTokens.size() > 1) {
+                codeTokens.add(String.join("", codeTokens));
+            }
+
+            Set<String> all = new LinkedHashSet<>();
+            List<String> code = keep(codeTokens, all);
+            List<String> name = keep(tokenize(fold(course.getName())), all);
+            keep(tokenize(fold(course.getTeacherName())), all);
+            return new Entry(course.getCourseId(), course.getCode(), course.getName(), course.getTeacherName(),
+                    code, name, Set.copyOf(all), Set.copyOf(trigramsOf(all)));
+        }
+
+        /**
+         * Mots du champ retenus sous la borne (ceux déjà retenus par un champ précédent compris)
+         */
+        private static List<String> keep(List<String> fieldTokens, Set<String> all) {
+            List<String> kept = new ArrayList<>(fieldTokens.size());
+            for (String token : fieldTokens) {
+                if (all.contains(token) || (all.size() < MAX_TOKENS_PER_COURSE && all.add(token))) {
+                    kept.add(token);
+                }
+            }
+            return List.copyOf(kept);
+        }
+
+        boolean matchesAll(List<String> queryTokens) {
+            for (String token : queryTokens) {
+                if (!startsWithAny(tokens, token)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Légère préférence pour les libellés courts (correspondance plus complète)
+         */
+        double lengthBonus() {
+            return 1.0 / (1 + (name != null ? name.length() : 0));
+        }
+
+        Set<String> shortPrefixes() {
+            Set<String> prefixes = new HashSet<>();
+            for (String token : tokens) {
+                for (int length = 1; length <= Math.min(SHORT_PREFIX_LENGTH, token.length()); length++) {
+                    prefixes.add(token.substring(0, length));
+                }
+            }
+            return prefixes;
+        }
+    }
+}
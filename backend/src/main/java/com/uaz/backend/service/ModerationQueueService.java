@@ -0,0 +1,92 @@
+package com.uaz.backend.service;
+
+import com.uaz.backend.dto.ModerationBatchDTO;
+import com.uaz.backend.dto.ReviewResponse;
+import com.uaz.backend.repository.ReviewRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * File de modération partagée entre modérateurs
+ * Un modérateur réserve le prochain lot d'avis en attente (les plus anciens d'abord) pour une durée limitée :
+ * les lignes verrouillées par une autre réservation ou une décision en cours sont sautées (SKIP LOCKED),
+ * si bien que les modérateurs ne s'attendent pas et qu'un avis n'est montré qu'à un seul d'entre eux.
+ * La décision libère la réservation ; une réservation expirée rend l'avis de nouveau disponible
+ */
+@Service
+@RequiredArgsConstructor
+public class ModerationQueueService {
+
+    /**
+     * Prolonger les réservations en cours du modérateur (expirées ou non, tant qu'un autre ne les a pas reprises)
+     * Paramètres : expiration, modérateur
+     */
+    public static final String RENEW_OWN =
+            "UPDATE reviews SET claim_expires_at = ? " +
+            "WHERE claimed_by = ? AND moderation_status = 'pending' RETURNING review_id";
+
+    /**
+     * Réserver jusqu'à N avis en attente libres ou à réservation expirée
+     * Paramètres : maintenant, taille du lot, modérateur, expiration
+     */
+    public static final String CLAIM_NEXT =
+            "WITH next AS (SELECT r.review_id FROM reviews r WHERE r.moderation_status = 'pending' " +
+            "AND (r.claimed_by IS NULL OR r.claim_expires_at < ?) " +
+            "ORDER BY r.created_at, r.review_id LIMIT ? FOR UPDATE SKIP LOCKED) " +
+            "UPDATE reviews r SET claimed_by = ?, claim_expires_at = ? FROM next " +
+            "WHERE r.review_id = next.review_id RETURNING r.review_id";
+
+    private static final String RELEASE_ALL =
+            "UPDATE reviews SET claimed_by = NULL, claim_expires_at = NULL " +
+            "WHERE claimed_by = ? AND moderation_status = 'pending'";
+
+    private final ReviewRepository reviewRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.moderation.claim.lease-seconds:300}")
+    private long leaseSeconds;
+
+    @Value("${app.moderation.claim.max-batch-size:50}")
+    private int maxBatchSize;
+
+    /**
+     * Réserver le prochain lot d'avis à modérer : le lot courant du modérateur est d'abord renouvelé en entier,
+     * puis complété jusqu'à la taille demandée ; un appel avant l'expiration prolonge donc la réservation
+     */
+    @Transactional
+    public ModerationBatchDTO claimNext(Integer moderatorId, Integer size) {
+        int batchSize = Math.max(1, Math.min(size, maxBatchSize));
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = now.plusSeconds(leaseSeconds);
+
+        List<Integer> reviewIds = new ArrayList<>(jdbcTemplate.queryForList(RENEW_OWN, Integer.class,
+                expiresAt, moderatorId));
+        if (reviewIds.size() < batchSize) {
+            reviewIds.addAll(jdbcTemplate.queryForList(CLAIM_NEXT, Integer.class,
+                    now, batchSize - reviewIds.size(), moderatorId, expiresAt));
+        }
+        List<ReviewResponse> reviews = reviewIds.isEmpty()
+                ? List.of()
+                : reviewRepository.findReviewResponsesByIds(reviewIds);
+
+        return ModerationBatchDTO.builder()
+                .reviews(reviews)
+                .claimExpiresAt(reviews.isEmpty() ? null : expiresAt)
+                .build();
+    }
+
+    /**
+     * Libérer les avis encore réservés par un modérateur (fin de session de modération)
+     */
+    @Transactional
+    public int release(Integer moderatorId) {
+        return jdbcTemplate.update(RELEASE_ALL, moderatorId);
+    }
+}
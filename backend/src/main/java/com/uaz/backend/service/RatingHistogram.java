@@ -0,0 +1,45 @@
+package com.uaz.backend.service;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Histogramme de notes par demi-étoile : 11 compteurs pour 0, 0.5, 1, ..., 5
+ * Une note (en dixièmes) tombe dans la demi-étoile la plus proche, arrondie vers le haut à égalité
+ */
+public final class RatingHistogram {
+
+    public static final int BUCKETS = 11;
+
+    private RatingHistogram() {
+    }
+
+    /**
+     * Indice du compteur d'une note exprimée en dixièmes (0 à 50)
+     */
+    public static int bucket(int tenths) {
+        return Math.min(BUCKETS - 1, Math.max(0, (tenths + 2) / 5));
+    }
+
+    public static int[] empty() {
+        return new int[BUCKETS];
+    }
+
+    /**
+     * Littéral tableau PostgreSQL ("{0,1,...}"), lié en texte puis converti par CAST(? AS integer[])
+     */
+    public static String toSqlArray(int[] counts) {
+        return Arrays.stream(counts).mapToObj(Integer::toString).collect(Collectors.joining(",", "{", "}"));
+    }
+
+    /**
+     * Expression SQL d'agrégat : tableau des compteurs par demi-étoile pour une colonne de note SMALLINT en dixièmes
+     * (même arrondi que bucket(), division entière)
+     */
+    static String sqlBucketCounts(String column) {
+        return IntStream.range(0, BUCKETS)
+                .mapToObj(i -> "COUNT(*) FILTER (WHERE (" + column + " + 2) / 5 = " + i + ")")
+                .collect(Collectors.joining(", ", "ARRAY[", "]::integer[]"));
+    }
+}
@@ -0,0 +1,70 @@
+package com.uaz.backend.service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.IsoFields;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * Granularité des agrégats temporels de notes (table course_rating_rollups)
+ * Chaque période est identifiée par sa date de début ; le calcul Java et l'expression SQL doivent coïncider
+ */
+public enum RatingPeriod {
+    WEEK("week"),
+    MONTH("month"),
+    SEMESTER("semester");
+
+    private final String value;
+
+    RatingPeriod(String value) {
+        this.value = value;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public static RatingPeriod fromValue(String value) {
+        for (RatingPeriod period : RatingPeriod.values()) {
+            if (period.value.equalsIgnoreCase(value)) {
+                return period;
+            }
+        }
+        throw new IllegalArgumentException("Granularité invalide: " + value + " (week, month ou semester)");
+    }
+
+    /**
+     * Début de la période contenant la date : lundi (ISO), premier du mois, ou 1er janvier / 1er juillet
+     */
+    public LocalDate start(LocalDate date) {
+        return switch (this) {
+            case WEEK -> date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH -> date.withDayOfMonth(1);
+            case SEMESTER -> LocalDate.of(date.getYear(), date.getMonthValue() <= 6 ? 1 : 7, 1);
+        };
+    }
+
+    /**
+     * Libellé d'une période à partir de sa date de début : 2025-W07, 2025-03 ou 2025-S1
+     */
+    public String label(LocalDate start) {
+        return switch (this) {
+            case WEEK -> String.format("%d-W%02d",
+                    start.get(IsoFields.WEEK_BASED_YEAR), start.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR));
+            case MONTH -> String.format("%d-%02d", start.getYear(), start.getMonthValue());
+            case SEMESTER -> start.getYear() + "-S" + (start.getMonthValue() <= 6 ? 1 : 2);
+        };
+    }
+
+    /**
+     * Expression SQL du début de période pour une colonne TIMESTAMP (même découpage que start())
+     */
+    String sqlStart(String column) {
+        return switch (this) {
+            case WEEK -> "CAST(date_trunc('week', " + column + ") AS date)";
+            case MONTH -> "CAST(date_trunc('month', " + column + ") AS date)";
+            case SEMESTER -> "make_date(CAST(EXTRACT(YEAR FROM " + column + ") AS integer), " +
+                    "CASE WHEN EXTRACT(MONTH FROM " + column + ") <= 6 THEN 1 ELSE 7 END, 1)";
+        };
+    }
+}
@@ -0,0 +1,128 @@
+package com.uaz.backend.service;
+
+import com.uaz.backend.dto.RatingQuantilesDTO;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Résumé de distribution des notes pour le calcul de quantiles (médiane, p10, p90)
+ * Une note (SMALLINT en dixièmes) ne prend que 51 valeurs (0.0 à 5.0 par dixième) : un compteur par valeur suffit.
+ * Le résumé est donc exact, de taille fixe, fusionnable par addition (agrégats de département)
+ * et supporte le retrait d'un avis, ce que ne permettent pas t-digest ou KLL
+ */
+public final class RatingSketch {
+
+    public static final int VALUES = 51;
+
+    private final int[] counts;
+
+    private RatingSketch(int[] counts) {
+        this.counts = counts;
+    }
+
+    public static RatingSketch empty() {
+        return new RatingSketch(new int[VALUES]);
+    }
+
+    /**
+     * Résumé à partir des compteurs stockés (copie ; null ou tableau incomplet complété par des zéros)
+     */
+    public static RatingSketch of(int[] counts) {
+        int[] copy = new int[VALUES];
+        if (counts != null) {
+            System.arraycopy(counts, 0, copy, 0, Math.min(counts.length, VALUES));
+        }
+        return new RatingSketch(copy);
+    }
+
+    /**
+     * Ajouter (weight > 0) ou retirer (weight < 0) une note exprimée en dixièmes
+     */
+    public RatingSketch add(int tenths, int weight) {
+        counts[Math.min(VALUES - 1, Math.max(0, tenths))] += weight;
+        return this;
+    }
+
+    /**
+     * Fusionner un autre résumé dans celui-ci
+     */
+    public RatingSketch merge(RatingSketch other) {
+        for (int i = 0; i < VALUES; i++) {
+            counts[i] += other.counts[i];
+        }
+        return this;
+    }
+
+    public long count() {
+        long total = 0;
+        for (int value : counts) {
+            total += value;
+        }
+        return total;
+    }
+
+    /**
+     * Quantile par rang le plus proche : plus petite note dont le rang cumulé atteint ceil(q * n)
+     * (la médiane d'un nombre pair d'avis est la note inférieure), ou null sans avis
+     */
+    public BigDecimal quantile(double q) {
+        if (q < 0 || q > 1) {
+            throw new IllegalArgumentException("Quantile hors de [0, 1]: " + q);
+        }
+        long total = count();
+        if (total <= 0) {
+            return null;
+        }
+        long rank = Math.max(1, (long) Math.ceil(q * total));
+        long cumulative = 0;
+        for (int i = 0; i < VALUES; i++) {
+            cumulative += counts[i];
+            if (cumulative >= rank) {
+                return BigDecimal.valueOf(i, 1);
+            }
+        }
+        return BigDecimal.valueOf(VALUES - 1, 1);
+    }
+
+    /**
+     * p10, médiane et p90, ou null sans avis
+     */
+    public RatingQuantilesDTO quantiles() {
+        long total = count();
+        if (total <= 0) {
+            return null;
+        }
+        return RatingQuantilesDTO.builder()
+                .count(total)
+                .p10(quantile(0.1))
+                .median(quantile(0.5))
+                .p90(quantile(0.9))
+                .build();
+    }
+
+    public int[] toArray() {
+        return counts.clone();
+    }
+
+    /**
+     * Expression SQL d'agrégat : compteurs par dixième d'étoile pour une colonne de note SMALLINT en dixièmes
+     */
+    static String sqlCounts(String column) {
+        return IntStream.range(0, VALUES)
+                .mapToObj(i -> "COUNT(*) FILTER (WHERE " + column + " = " + i + ")")
+                .collect(Collectors.joining(", ", "ARRAY[", "]::integer[]"));
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof RatingSketch sketch && Arrays.equals(counts, sketch.counts);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(counts);
+    }
+}
@@ -0,0 +1,85 @@
+package com.uaz.backend.service;
+
+import com.uaz.backend.dto.RatingTrendDTO;
+import com.uaz.backend.dto.RatingTrendPointDTO;
+import com.uaz.backend.repository.CourseRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Service de lecture des tendances de notes
+ * Les points sont lus dans course_rating_rollups par un parcours de la clé primaire
+ * (course_id, granularity, period_start), avec les bandes temporelles pas encore reportées :
+ * le coût dépend du nombre de périodes, pas du nombre d'avis
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class RatingTrendService {
+
+    private static final String ROLLUP_COLUMNS = "period_start, total_reviews, sum_overall_tenths, " +
+            "sum_clarity_tenths, count_clarity, sum_material_tenths, count_material, sum_pedagogy_tenths, count_pedagogy ";
+
+    private static final String TREND_FILTER =
+            "WHERE course_id = ? AND granularity = ? AND period_start BETWEEN ? AND ? ";
+
+    /**
+     * Périodes reportées (course_rating_rollups) plus les bandes temporelles en attente, en lecture seule
+     */
+    private static final String SELECT_TREND =
+            "SELECT period_start, SUM(total_reviews) AS total_reviews, " +
+            "ROUND(SUM(sum_overall_tenths) / 10.0 / SUM(total_reviews), 2) AS avg_overall, " +
+            "ROUND(SUM(sum_clarity_tenths) / 10.0 / NULLIF(SUM(count_clarity), 0), 2) AS avg_clarity, " +
+            "ROUND(SUM(sum_material_tenths) / 10.0 / NULLIF(SUM(count_material), 0), 2) AS avg_material, " +
+            "ROUND(SUM(sum_pedagogy_tenths) / 10.0 / NULLIF(SUM(count_pedagogy), 0), 2) AS avg_pedagogy " +
+            "FROM (SELECT " + ROLLUP_COLUMNS + "FROM course_rating_rollups " + TREND_FILTER +
+            "UNION ALL SELECT " + ROLLUP_COLUMNS + "FROM course_rating_rollup_deltas " + TREND_FILTER + ") t " +
+            "GROUP BY period_start HAVING SUM(total_reviews) > 0 " +
+            "ORDER BY period_start";
+
+    private final CourseRepository courseRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Obtenir la tendance des notes d'un cours
+     * Par défaut : granularité mensuelle, de l'origine jusqu'à aujourd'hui
+     * Les variations en attente du cours sont ajoutées à la lecture, sans écriture (le report reste périodique)
+     */
+    public RatingTrendDTO getRatingTrend(Integer courseId, String granularity, LocalDate from, LocalDate to) {
+        RatingPeriod period = granularity != null ? RatingPeriod.fromValue(granularity) : RatingPeriod.MONTH;
+        LocalDate end = to != null ? to : LocalDate.now();
+        if (from != null && from.isAfter(end)) {
+            throw new IllegalArgumentException("La date de début doit précéder la date de fin");
+        }
+        if (!courseRepository.existsById(courseId)) {
+            throw new RuntimeException("Cours non trouvé");
+        }
+        // La période contenant from est incluse entièrement
+        LocalDate start = from != null ? period.start(from) : LocalDate.EPOCH;
+        List<RatingTrendPointDTO> points = jdbcTemplate.query(SELECT_TREND, (rs, rowNum) -> {
+            LocalDate periodStart = rs.getObject("period_start", LocalDate.class);
+            return RatingTrendPointDTO.builder()
+                    .periodStart(periodStart)
+                    .label(period.label(periodStart))
+                    .totalReviews(rs.getInt("total_reviews"))
+                    .avgRatingOverall(rs.getBigDecimal("avg_overall"))
+                    .avgRatingClarity(rs.getBigDecimal("avg_clarity"))
+                    .avgRatingMaterial(rs.getBigDecimal("avg_material"))
+                    .avgRatingPedagogy(rs.getBigDecimal("avg_pedagogy"))
+                    .build();
+        }, courseId, period.getValue(), start, end, courseId, period.getValue(), start, end);
+
+        return RatingTrendDTO.builder()
+                .courseId(courseId)
+                .granularity(period.getValue())
+                .from(from)
+                .to(end)
+                .points(points)
+                .build();
+    }
+}
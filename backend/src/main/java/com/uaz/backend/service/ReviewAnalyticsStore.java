@@ -0,0 +1,676 @@
+package com.uaz.backend.service;
+
+import com.uaz.backend.dto.ReviewAnalyticsDTO;
+import com.uaz.backend.dto.ReviewAnalyticsGroupDTO;
+import com.uaz.backend.entity.Course;
+import com.uaz.backend.entity.Review;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+/**
+ * Magasin en colonnes des avis approuvés, tenu en mémoire pour les analyses ad hoc
+ * Une ligne par avis : tableaux primitifs (avis, cours, date, quatre notes en dixièmes) et
+ * département, semestre et type du cours encodés par dictionnaire. Filtres et agrégats parcourent
+ * les colonnes en parallèle, par tranches, sans accès à la base
+ * Chargé au démarrage, puis tenu à jour après chaque commit (modération d'un avis, modification d'un cours)
+ */
+@Component
+@RequiredArgsConstructor
+public class ReviewAnalyticsStore {
+
+    static final int LOAD_BATCH_SIZE = 50_000;
+    static final int SCAN_CHUNK_SIZE = 1 << 14;
+
+    static final List<String> CRITERIA = List.of("overall", "clarity", "material", "pedagogy");
+    static final List<String> GROUPS = List.of("department", "semester", "type");
+
+    private static final String SELECT_COURSES =
+            "SELECT c.course_id, c.department, c.semester, c.type FROM courses c";
+
+    /**
+     * Chargement par paquets dans l'ordre de la clé primaire (mémoire bornée, sans curseur serveur)
+     */
+    private static final String SELECT_REVIEWS =
+            "SELECT r.review_id, r.course_id, CAST(r.created_at AS date) AS reviewed_on, " +
+            "r.rating_overall, r.rating_clarity, r.rating_material, r.rating_pedagogy " +
+            "FROM reviews r WHERE r.moderation_status = 'approved' AND r.review_id > ? " +
+            "ORDER BY r.review_id LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Columns columns = new Columns();
+    private boolean ready;
+
+    /**
+     * Changements reçus pendant un chargement, rejoués sur les colonnes chargées
+     */
+    private List<Consumer<Columns>> pending;
+
+    /**
+     * Analyser les avis approuvés : filtres facultatifs (département, type, semestre, dates incluses),
+     * un critère de note et un regroupement facultatif
+     */
+    public ReviewAnalyticsDTO query(String department, String type, String semester,
+                                    LocalDate from, LocalDate to, String criterion, String groupBy) {
+        String criterionName = criterion != null ? criterion.toLowerCase(Locale.ROOT) : "overall";
+        int criterionIndex = CRITERIA.indexOf(criterionName);
+        if (criterionIndex < 0) {
+            throw new IllegalArgumentException("Critère invalide: " + criterion
+                    + " (valeurs acceptées: " + String.join(", ", CRITERIA) + ")");
+        }
+        String groupName = groupBy != null ? groupBy.toLowerCase(Locale.ROOT) : null;
+        if (groupName != null && !GROUPS.contains(groupName)) {
+            throw new IllegalArgumentException("Regroupement invalide: " + groupBy
+                    + " (valeurs acceptées: " + String.join(", ", GROUPS) + ")");
+        }
+        String typeValue = type != null ? Course.CourseType.fromValue(type).getValue() : null;
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("La date de début doit précéder la date de fin");
+        }
+
+        lock.readLock().lock();
+        try {
+            if (!ready) {
+                throw new IllegalStateException("Analyse des avis en cours de chargement");
+            }
+            Columns current = columns;
+            Filter filter = new Filter(
+                    current.departments.filterCode(department),
+                    current.semesters.filterCode(semester),
+                    current.types.filterCode(typeValue),
+                    from != null ? (int) from.toEpochDay() : Integer.MIN_VALUE,
+                    to != null ? (int) to.toEpochDay() : Integer.MAX_VALUE);
+            Dictionary groups = groupName == null ? null : switch (groupName) {
+                case "department" -> current.departments;
+                case "semester" -> current.semesters;
+                default -> current.types;
+            };
+            int[] groupCodes = groups == null ? null : switch (groupName) {
+                case "department" -> current.departmentCodes;
+                case "semester" -> current.semesterCodes;
+                default -> current.typeCodes;
+            };
+            short[] ratings = current.ratings(criterionIndex);
+
+            int groupCount = groups != null ? groups.size() + 1 : 0;
+            int size = current.size;
+            int chunks = (size + SCAN_CHUNK_SIZE - 1) / SCAN_CHUNK_SIZE;
+            Aggregate total = IntStream.range(0, chunks).parallel()
+                    .mapToObj(chunk -> current.scan(filter, ratings, groupCodes, groupCount,
+                            chunk * SCAN_CHUNK_SIZE, Math.min(size, (chunk + 1) * SCAN_CHUNK_SIZE)))
+                    .reduce(Aggregate::merge)
+                    .orElseGet(() -> new Aggregate(groupCount));
+
+            List<ReviewAnalyticsGroupDTO> groupResults = null;
+            if (groups != null) {
+                groupResults = new ArrayList<>();
+                for (int slot = 0; slot < groupCount; slot++) {
+                    if (total.groupReviews[slot] > 0) {
+                        groupResults.add(ReviewAnalyticsGroupDTO.builder()
+                                .key(slot < groups.size() ? groups.value(slot) : null)
+                                .reviews(total.groupReviews[slot])
+                                .rated(total.groupRated[slot])
+                                .average(average(total.groupSum[slot], total.groupRated[slot]))
+                                .build());
+                    }
+                }
+            }
+
+            return ReviewAnalyticsDTO.builder()
+                    .department(department)
+                    .type(typeValue)
+                    .semester(semester)
+                    .from(from)
+                    .to(to)
+                    .criterion(criterionName)
+                    .groupBy(groupName)
+                    .reviews(total.reviews)
+                    .rated(total.rated)
+                    .average(average(total.sum, total.rated))
+                    .histogram(total.histogram)
+                    .groups(groupResults)
+                    .build();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return columns.size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        load();
+    }
+
+    /**
+     * Charger toutes les colonnes depuis la base, puis rejouer les changements reçus entre-temps
+     */
+    public void load() {
+        lock.writeLock().lock();
+        try {
+            pending = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Columns loaded = new Columns();
+        boolean complete = false;
+        try {
+            jdbcTemplate.query(SELECT_COURSES, rs -> {
+                loaded.putCourse(rs.getInt("course_id"), rs.getString("department"),
+                        rs.getString("semester"), rs.getString("type"));
+            });
+            int[] lastReviewId = {0};
+            int read;
+            do {
+                int before = loaded.size;
+                jdbcTemplate.query(SELECT_REVIEWS, rs -> {
+                    lastReviewId[0] = rs.getInt("review_id");
+                    loaded.append(lastReviewId[0], rs.getInt("course_id"),
+                            (int) rs.getObject("reviewed_on", LocalDate.class).toEpochDay(),
+                            rating(rs, "rating_overall"), rating(rs, "rating_clarity"),
+                            rating(rs, "rating_material"), rating(rs, "rating_pedagogy"));
+                }, lastReviewId[0], LOAD_BATCH_SIZE);
+                read = loaded.size - before;
+            } while (read == LOAD_BATCH_SIZE);
+            complete = true;
+        } finally {
+            lock.writeLock().lock();
+            try {
+                if (complete) {
+                    columns = loaded;
+                    ready = true;
+                }
+                pending.forEach(change -> change.accept(columns));
+                pending = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onApprovedReviewChanged(ApprovedReviewChangedEvent event) {
+        ReviewContribution removed = event.removed();
+        ReviewContribution added = event.added();
+        if (added != null && !isKnownCourse(added.courseId())) {
+            refreshCourses(Set.of(added.courseId()));
+        }
+        write(target -> {
+            if (removed != null) {
+                target.remove(removed.reviewId());
+            }
+            if (added != null) {
+                target.put(added.reviewId(), added.courseId(), (int) added.reviewedOn().toEpochDay(),
+                        (short) added.overall(), criterion(added.clarity()),
+                        criterion(added.material()), criterion(added.pedagogy()));
+            }
+        });
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCourseCatalogChanged(CourseCatalogChangedEvent event) {
+        refreshCourses(event.isFullRefresh() ? null : event.courseIds());
+    }
+
+    /**
+     * Relire le département, le semestre et le type des cours (null = tous) ;
+     * seules les lignes des cours modifiés sont réencodées
+     */
+    private void refreshCourses(Set<Integer> courseIds) {
+        Map<Integer, String[]> courses = new HashMap<>();
+        if (courseIds == null) {
+            jdbcTemplate.query(SELECT_COURSES, rs -> {
+                courses.put(rs.getInt("course_id"), courseRow(rs));
+            });
+        } else {
+            jdbcTemplate.query(SELECT_COURSES + " WHERE c.course_id = ANY(?)", rs -> {
+                courses.put(rs.getInt("course_id"), courseRow(rs));
+            }, (Object) courseIds.toArray(Integer[]::new));
+        }
+
+        write(target -> {
+            Set<Integer> changed = new HashSet<>();
+            courses.forEach((courseId, row) -> {
+                if (target.putCourse(courseId, row[0], row[1], row[2])) {
+                    changed.add(courseId);
+                }
+            });
+            target.recode(changed);
+        });
+    }
+
+    private boolean isKnownCourse(Integer courseId) {
+        lock.readLock().lock();
+        try {
+            return columns.courses.containsKey(courseId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ajouter ou remplacer les attributs d'un cours (et réencoder ses lignes)
+     */
+    void putCourse(int courseId, String department, String semester, String type) {
+        write(target -> {
+            if (target.putCourse(courseId, department, semester, type)) {
+                target.recode(Set.of(courseId));
+            }
+        });
+    }
+
+    private void write(Consumer<Columns> change) {
+        lock.writeLock().lock();
+        try {
+            if (pending != null) {
+                pending.add(change);
+            } else {
+                change.accept(columns);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static String[] courseRow(ResultSet rs) throws SQLException {
+        return new String[] {rs.getString("department"), rs.getString("semester"), rs.getString("type")};
+    }
+
+    private static short rating(ResultSet rs, String column) throws SQLException {
+        short tenths = rs.getShort(column);
+        return rs.wasNull() ? Review.NOT_RATED : tenths;
+    }
+
+    private static short criterion(Integer tenths) {
+        return tenths != null ? tenths.shortValue() : Review.NOT_RATED;
+    }
+
+    /**
+     * Moyenne en centièmes d'une somme en dixièmes (demi vers le haut), null sans note
+     */
+    private static BigDecimal average(long sumTenths, long count) {
+        return count > 0 ? BigDecimal.valueOf((sumTenths * 20 + count) / (2 * count), 2) : null;
+    }
+
+    /**
+     * Codes recherchés (ANY = pas de filtre) et bornes de dates en jours depuis l'époque
+     */
+    private record Filter(int department, int semester, int type, int fromDay, int toDay) {
+    }
+
+    /**
+     * Encodage par dictionnaire d'un attribut de cours : code = position de la valeur, -1 pour null
+     * Les codes ne sont jamais réattribués ; un dictionnaire ne grossit qu'avec les valeurs distinctes
+     */
+    static final class Dictionary {
+
+        static final int NULL_CODE = -1;
+        static final int ANY = Integer.MIN_VALUE;
+        static final int NO_MATCH = -2;
+
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        int encode(String value) {
+            if (value == null) {
+                return NULL_CODE;
+            }
+            return codes.computeIfAbsent(value, key -> {
+                values.add(key);
+                return values.size() - 1;
+            });
+        }
+
+        /**
+         * Code d'un filtre : ANY sans filtre, NO_MATCH pour une valeur jamais vue
+         */
+        int filterCode(String value) {
+            if (value == null) {
+                return ANY;
+            }
+            return codes.getOrDefault(value, NO_MATCH);
+        }
+
+        String value(int code) {
+            return values.get(code);
+        }
+
+        int size() {
+            return values.size();
+        }
+    }
+
+    /**
+     * Index identifiant d'avis -> ligne, en adressage ouvert sur deux tableaux d'entiers (sans boxing)
+     * La suppression décale les entrées suivantes de la séquence de sondage (pas de marqueurs de suppression)
+     */
+    static final class RowIndex {
+
+        private static final int EMPTY = -1;
+
+        private int[] keys;
+        private int[] rows;
+        private int mask;
+        private int count;
+
+        RowIndex(int expected) {
+            int capacity = 16;
+            while (capacity < expected * 2) {
+                capacity <<= 1;
+            }
+            allocate(capacity);
+        }
+
+        /**
+         * Ligne de l'avis, ou -1 s'il est absent
+         */
+        int get(int key) {
+            for (int slot = slot(key); rows[slot] != EMPTY; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) {
+                    return rows[slot];
+                }
+            }
+            return -1;
+        }
+
+        void put(int key, int row) {
+            int slot = slot(key);
+            while (rows[slot] != EMPTY) {
+                if (keys[slot] == key) {
+                    rows[slot] = row;
+                    return;
+                }
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            rows[slot] = row;
+            if (++count * 2 > keys.length) {
+                resize();
+            }
+        }
+
+        void remove(int key) {
+            int hole = slot(key);
+            while (rows[hole] != EMPTY && keys[hole] != key) {
+                hole = (hole + 1) & mask;
+            }
+            if (rows[hole] == EMPTY) {
+                return;
+            }
+            // Remonter dans le trou les entrées dont la position d'origine le précède
+            for (int slot = (hole + 1) & mask; rows[slot] != EMPTY; slot = (slot + 1) & mask) {
+                if (((slot - slot(keys[slot])) & mask) >= ((slot - hole) & mask)) {
+                    keys[hole] = keys[slot];
+                    rows[hole] = rows[slot];
+                    hole = slot;
+                }
+            }
+            rows[hole] = EMPTY;
+            count--;
+        }
+
+        private int slot(int key) {
+            int hash = key * 0x9E3779B9;
+            return (hash ^ (hash >>> 16)) & mask;
+        }
+
+        private void resize() {
+            int[] oldKeys = keys;
+            int[] oldRows = rows;
+            allocate(keys.length * 2);
+            count = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldRows[i] != EMPTY) {
+                    put(oldKeys[i], oldRows[i]);
+                }
+            }
+        }
+
+        private void allocate(int capacity) {
+            keys = new int[capacity];
+            rows = new int[capacity];
+            Arrays.fill(rows, EMPTY);
+            mask = capacity - 1;
+        }
+    }
+
+    /**
+     * Colonnes du magasin ; une ligne supprimée est remplacée par la dernière (pas de trous)
+     * Les lignes sont retrouvées par identifiant d'avis via un index tenu à jour à chaque écriture
+     */
+    static final class Columns {
+
+        private static final int INITIAL_CAPACITY = 1024;
+
+        final Dictionary departments = new Dictionary();
+        final Dictionary semesters = new Dictionary();
+        final Dictionary types = new Dictionary();
+
+        /**
+         * Codes (département, semestre, type) par cours
+         */
+        final Map<Integer, int[]> courses = new HashMap<>();
+
+        private final RowIndex index = new RowIndex(INITIAL_CAPACITY);
+
+        int size;
+        int[] reviewIds = new int[INITIAL_CAPACITY];
+        int[] courseIds = new int[INITIAL_CAPACITY];
+        int[] reviewedOn = new int[INITIAL_CAPACITY];
+        short[] overall = new short[INITIAL_CAPACITY];
+        short[] clarity = new short[INITIAL_CAPACITY];
+        short[] material = new short[INITIAL_CAPACITY];
+        short[] pedagogy = new short[INITIAL_CAPACITY];
+        int[] departmentCodes = new int[INITIAL_CAPACITY];
+        int[] semesterCodes = new int[INITIAL_CAPACITY];
+        int[] typeCodes = new int[INITIAL_CAPACITY];
+
+        /**
+         * Enregistrer les attributs d'un cours ; retourne true s'ils ont changé
+         */
+        boolean putCourse(int courseId, String department, String semester, String type) {
+            int[] codes = {departments.encode(department), semesters.encode(semester), types.encode(type)};
+            return !Arrays.equals(courses.put(courseId, codes), codes);
+        }
+
+        /**
+         * Réencoder les lignes des cours donnés (parcours unique de la colonne des cours)
+         */
+        void recode(Set<Integer> changedCourses) {
+            if (changedCourses.isEmpty()) {
+                return;
+            }
+            for (int row = 0; row < size; row++) {
+                if (changedCourses.contains(courseIds[row])) {
+                    encodeCourse(row);
+                }
+            }
+        }
+
+        /**
+         * Ajouter ou remplacer la ligne d'un avis
+         */
+        void put(int reviewId, int courseId, int day, short overallTenths, short clarityTenths,
+                 short materialTenths, short pedagogyTenths) {
+            int row = index.get(reviewId);
+            if (row < 0) {
+                append(reviewId, courseId, day, overallTenths, clarityTenths, materialTenths, pedagogyTenths);
+                return;
+            }
+            set(row, reviewId, courseId, day, overallTenths, clarityTenths, materialTenths, pedagogyTenths);
+        }
+
+        /**
+         * Ajouter la ligne d'un avis absent des colonnes (chargement)
+         */
+        void append(int reviewId, int courseId, int day, short overallTenths, short clarityTenths,
+                    short materialTenths, short pedagogyTenths) {
+            if (size == reviewIds.length) {
+                grow();
+            }
+            set(size++, reviewId, courseId, day, overallTenths, clarityTenths, materialTenths, pedagogyTenths);
+        }
+
+        void remove(int reviewId) {
+            int row = index.get(reviewId);
+            if (row < 0) {
+                return;
+            }
+            int last = --size;
+            index.remove(reviewId);
+            if (row != last) {
+                index.put(reviewIds[last], row);
+            }
+            reviewIds[row] = reviewIds[last];
+            courseIds[row] = courseIds[last];
+            reviewedOn[row] = reviewedOn[last];
+            overall[row] = overall[last];
+            clarity[row] = clarity[last];
+            material[row] = material[last];
+            pedagogy[row] = pedagogy[last];
+            departmentCodes[row] = departmentCodes[last];
+            semesterCodes[row] = semesterCodes[last];
+            typeCodes[row] = typeCodes[last];
+        }
+
+        short[] ratings(int criterion) {
+            return switch (criterion) {
+                case 0 -> overall;
+                case 1 -> clarity;
+                case 2 -> material;
+                default -> pedagogy;
+            };
+        }
+
+        /**
+         * Filtrer et agréger les lignes [start, end) ; groupCodes null sans regroupement
+         */
+        Aggregate scan(Filter filter, short[] ratings, int[] groupCodes, int groupCount, int start, int end) {
+            Aggregate aggregate = new Aggregate(groupCount);
+            for (int row = start; row < end; row++) {
+                if ((filter.department() != Dictionary.ANY && departmentCodes[row] != filter.department())
+                        || (filter.semester() != Dictionary.ANY && semesterCodes[row] != filter.semester())
+                        || (filter.type() != Dictionary.ANY && typeCodes[row] != filter.type())
+                        || reviewedOn[row] < filter.fromDay() || reviewedOn[row] > filter.toDay()) {
+                    continue;
+                }
+                short rating = ratings[row];
+                aggregate.reviews++;
+                if (rating != Review.NOT_RATED) {
+                    aggregate.rated++;
+                    aggregate.sum += rating;
+                    aggregate.histogram[RatingHistogram.bucket(rating)]++;
+                }
+                if (groupCodes != null) {
+                    // Le groupe des valeurs nulles occupe la dernière position
+                    int slot = groupCodes[row] == Dictionary.NULL_CODE ? groupCount - 1 : groupCodes[row];
+                    aggregate.groupReviews[slot]++;
+                    if (rating != Review.NOT_RATED) {
+                        aggregate.groupRated[slot]++;
+                        aggregate.groupSum[slot] += rating;
+                    }
+                }
+            }
+            return aggregate;
+        }
+
+        private void set(int row, int reviewId, int courseId, int day, short overallTenths, short clarityTenths,
+                         short materialTenths, short pedagogyTenths) {
+            reviewIds[row] = reviewId;
+            index.put(reviewId, row);
+            courseIds[row] = courseId;
+            reviewedOn[row] = day;
+            overall[row] = overallTenths;
+            clarity[row] = clarityTenths;
+            material[row] = materialTenths;
+            pedagogy[row] = pedagogyTenths;
+            encodeCourse(row);
+        }
+
+        private void encodeCourse(int row) {
+            int[] codes = courses.get(courseIds[row]);
+            departmentCodes[row] = codes != null ? codes[0] : Dictionary.NULL_CODE;
+            semesterCodes[row] = codes != null ? codes[1] : Dictionary.NULL_CODE;
+            typeCodes[row] = codes != null ? codes[2] : Dictionary.NULL_CODE;
+        }
+
+        private void grow() {
+            int capacity = reviewIds.length + (reviewIds.length >> 1);
+            reviewIds = Arrays.copyOf(reviewIds, capacity);
+            courseIds = Arrays.copyOf(courseIds, capacity);
+            reviewedOn = Arrays.copyOf(reviewedOn, capacity);
+            overall = Arrays.copyOf(overall, capacity);
+            clarity = Arrays.copyOf(clarity, capacity);
+            material = Arrays.copyOf(material, capacity);
+            pedagogy = Arrays.copyOf(pedagogy, capacity);
+            departmentCodes = Arrays.copyOf(departmentCodes, capacity);
+            semesterCodes = Arrays.copyOf(semesterCodes, capacity);
+            typeCodes = Arrays.copyOf(typeCodes, capacity);
+        }
+    }
+
+    /**
+     * Résultat partiel d'une tranche, fusionné avec ceux des autres tranches
+     */
+    static final class Aggregate {
+        long reviews;
+        long rated;
+        long sum;
+        final int[] histogram = RatingHistogram.empty();
+        final long[] groupReviews;
+        final long[] groupRated;
+        final long[] groupSum;
+
+        Aggregate(int groupCount) {
+            groupReviews = new long[groupCount];
+            groupRated = new long[groupCount];
+            groupSum = new long[groupCount];
+        }
+
+        Aggregate merge(Aggregate other) {
+            reviews += other.reviews;
+            rated += other.rated;
+            sum += other.sum;
+            for (int i = 0; i < histogram.length; i++) {
+                histogram[i] += other.histogram[i];
+            }
+            for (int i = 0; i < groupReviews.length; i++) {
+                groupReviews[i] += other.groupReviews[i];
+                groupRated[i] += other.groupRated[i];
+                groupSum[i] += other.groupSum[i];
+            }
+            return this;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.uaz.backend.service;
+
+import com.uaz.backend.entity.Review;
+
+import java.time.LocalDate;
+
+/**
+ * Contribution d'un avis approuvé aux statistiques de son cours
+ * Les notes sont exprimées en dixièmes d'étoile (SMALLINT en base), null si le critère n'est pas noté
+ * reviewedOn (date de création de l'avis) situe la contribution dans les agrégats temporels,
+ * reviewId sa ligne dans le magasin d'analyse (ReviewAnalyticsStore)
+ */
+public record ReviewContribution(Integer reviewId, Integer courseId, int overall,
+                                 Integer clarity, Integer material, Integer pedagogy,
+                                 LocalDate reviewedOn) {
+
+    /**
+     * Contribution d'un avis, ou null s'il n'est pas approuvé (il ne compte pas dans les statistiques)
+     */
+    public static ReviewContribution of(Review review) {
+        if (!review.isApproved()) {
+            return null;
+        }
+        return new ReviewContribution(
+                review.getReviewId(),
+                review.getCourse().getCourseId(),
+                review.getRatingOverallTenths(),
+                criterion(review.getRatingClarityTenths()),
+                criterion(review.getRatingMaterialTenths()),
+                criterion(review.getRatingPedagogyTenths()),
+                review.getCreatedAt() != null ? review.getCreatedAt().toLocalDate() : LocalDate.now()
+        );
+    }
+
+    private static Integer criterion(short tenths) {
+        return tenths != Review.NOT_RATED ? Integer.valueOf(tenths) : null;
+    }
+}
@@ -1,5 +1,7 @@
 package com.uaz.backend.service;
 
+import com.uaz.backend.dto.CursorPage;
+import com.uaz.backend.dto.KeysetCursor;
 import com.uaz.backend.dto.ReviewRequest;
 import com.uaz.backend.dto.ReviewResponse;
 import com.uaz.backend.entity.Course;
@@ -10,14 +12,16 @@ import com.uaz.backend.repository.ReviewRepository;
 import com.uaz.backend.repository.ReviewResponseRepository;
 import com.uaz.backend.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -28,33 +32,66 @@ public class ReviewService {
     private final ReviewResponseRepository reviewResponseRepository;
     private final CourseRepository courseRepository;
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
+    @Value("${app.pagination.max-page-size:100}")
+    private int maxPageSize;
+
+    /**
+     * Obtenir les avis approuvés d'un cours (une requête de projection par page, plus le comptage)
+     */
+    @Transactional(readOnly = true)
     public Page<ReviewResponse> getApprovedReviewsByCourse(Integer courseId, Pageable pageable) {
-        Page<Review> reviews = reviewRepository.findByCourseIdAndModerationStatus(
+        return reviewRepository.findReviewResponsesByCourseAndStatus(
                 courseId,
                 Review.ModerationStatus.APPROVED,
                 pageable
         );
-        return reviews.map(this::convertToDTO);
+    }
+
+    /**
+     * Obtenir les avis approuvés d'un cours, paginés par curseur (created_at, review_id)
+     * Chaque page coûte une lecture d'index bornée, quelle que soit sa profondeur ;
+     * le total n'est compté que sur demande
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<ReviewResponse> getApprovedReviewsByCourse(Integer courseId, Integer limit, String cursor,
+                                                                 boolean includeTotal) {
+        int size = Math.max(1, Math.min(limit, maxPageSize));
+        KeysetCursor position = KeysetCursor.decode(cursor);
+        if (position != null && position.timestamp() == null) {
+            throw new IllegalArgumentException("Curseur invalide");
+        }
+        Pageable page = PageRequest.of(0, size + 1);
+
+        List<ReviewResponse> rows = position == null
+                ? reviewRepository.findCourseReviewFeed(courseId, Review.ModerationStatus.APPROVED, page)
+                : reviewRepository.findCourseReviewFeedBefore(courseId, Review.ModerationStatus.APPROVED,
+                        position.timestamp(), position.id(), page);
+
+        CursorPage<ReviewResponse> reviews = CursorPage.of(rows, size,
+                review -> KeysetCursor.of(review.getCreatedAt(), review.getReviewId()).encode());
+        if (includeTotal) {
+            reviews.setTotalElements(reviewRepository.countByCourseAndStatus(courseId, Review.ModerationStatus.APPROVED));
+        }
+        return reviews;
     }
 
     /**
      * Obtenir un avis par ID
      */
+    @Transactional(readOnly = true)
     public ReviewResponse getReviewById(Integer id) {
-        Review review = reviewRepository.findById(id)
+        return reviewRepository.findReviewResponseById(id)
                 .orElseThrow(() -> new RuntimeException("Avis non trouvé"));
-        return convertToDTO(review);
     }
 
     /**
      * Obtenir les avis d'un utilisateur
      */
+    @Transactional(readOnly = true)
     public List<ReviewResponse> getReviewsByUser(Integer userId) {
-        return reviewRepository.findByUserIdOrderByCreatedAtDesc(userId)
-                .stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return reviewRepository.findReviewResponsesByUser(userId);
     }
 
     /**
@@ -83,24 +120,27 @@ public class ReviewService {
         Review review = Review.builder()
                 .user(user)
                 .course(course)
-                .ratingOverall(request.getRatingOverall())
-                .ratingClarity(request.getRatingClarity())
-                .ratingMaterial(request.getRatingMaterial())
-                .ratingPedagogy(request.getRatingPedagogy())
+                .ratingOverallTenths(Review.tenths(request.getRatingOverall()))
+                .ratingClarityTenths(Review.tenths(request.getRatingClarity()))
+                .ratingMaterialTenths(Review.tenths(request.getRatingMaterial()))
+                .ratingPedagogyTenths(Review.tenths(request.getRatingPedagogy()))
                 .comment(request.getComment())
                 .anonymous(request.getAnonymous() != null ? request.getAnonymous() : false)
                 .moderationStatus(Review.ModerationStatus.PENDING)
                 .build();
 
         review = reviewRepository.save(review);
+        publishStatisticsChange(null, ReviewContribution.of(review));
         return convertToDTO(review);
     }
 
     /**
      * Mettre à jour un avis
+     * L'avis est verrouillé avant de calculer sa contribution : une décision ou une suppression concurrente
+     * est attendue, et la variation des statistiques part de l'état commité
      */
     public ReviewResponse updateReview(Integer reviewId, Integer userId, ReviewRequest request) {
-        Review review = reviewRepository.findById(reviewId)
+        Review review = reviewRepository.findByIdForUpdate(reviewId)
                 .orElseThrow(() -> new RuntimeException("Avis non trouvé"));
 
         // Vérifier que l'utilisateur est le propriétaire
@@ -108,6 +148,8 @@ public class ReviewService {
             throw new IllegalArgumentException("Vous ne pouvez modifier que vos propres avis");
         }
 
+        ReviewContribution before = ReviewContribution.of(review);
+
         // Mettre à jour les champs
         review.setRatingOverall(request.getRatingOverall());
         review.setRatingClarity(request.getRatingClarity());
@@ -120,14 +162,16 @@ public class ReviewService {
         review.setModerationStatus(Review.ModerationStatus.PENDING);
 
         review = reviewRepository.save(review);
+        publishStatisticsChange(before, ReviewContribution.of(review));
         return convertToDTO(review);
     }
 
     /**
      * Supprimer un avis
+     * L'avis est verrouillé avant de retirer sa contribution (une seule fois, même face à une modification concurrente)
      */
     public void deleteReview(Integer reviewId, Integer userId, User.UserRole userRole) {
-        Review review = reviewRepository.findById(reviewId)
+        Review review = reviewRepository.findByIdForUpdate(reviewId)
                 .orElseThrow(() -> new RuntimeException("Avis non trouvé"));
 
         // Vérifier les permissions (propriétaire ou admin)
@@ -135,26 +179,30 @@ public class ReviewService {
             throw new IllegalArgumentException("Vous n'avez pas la permission de supprimer cet avis");
         }
 
+        publishStatisticsChange(ReviewContribution.of(review), null);
         reviewRepository.delete(review);
     }
 
     /**
      * Obtenir les avis en attente de modération
      */
+    @Transactional(readOnly = true)
     public List<ReviewResponse> getPendingReviews() {
-        return reviewRepository.findByModerationStatusOrderByCreatedAtDesc(Review.ModerationStatus.PENDING)
-                .stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return reviewRepository.findReviewResponsesByStatus(Review.ModerationStatus.PENDING);
     }
 
     /**
-     * Modérer un avis
+     * Modérer un avis et libérer sa réservation
+     * L'avis est verrouillé pendant la décision ; refusé s'il est réservé par un autre modérateur
      */
-    public ReviewResponse moderateReview(Integer reviewId, String status) {
-        Review review = reviewRepository.findById(reviewId)
+    public ReviewResponse moderateReview(Integer reviewId, String status, Integer moderatorId) {
+        Review review = reviewRepository.findByIdForUpdate(reviewId)
                 .orElseThrow(() -> new RuntimeException("Avis non trouvé"));
 
+        if (review.isClaimedByOther(moderatorId, LocalDateTime.now())) {
+            throw new IllegalStateException("Avis réservé par un autre modérateur");
+        }
+
         Review.ModerationStatus moderationStatus;
         try {
             moderationStatus = Review.ModerationStatus.valueOf(status.toUpperCase());
@@ -162,8 +210,11 @@ public class ReviewService {
             throw new IllegalArgumentException("Statut de modération invalide: " + status);
         }
 
+        ReviewContribution before = ReviewContribution.of(review);
         review.setModerationStatus(moderationStatus);
         review = reviewRepository.save(review);
+        reviewRepository.releaseClaim(reviewId);
+        publishStatisticsChange(before, ReviewContribution.of(review));
 
         return convertToDTO(review);
     }
@@ -171,11 +222,9 @@ public class ReviewService {
     /**
      * Obtenir les avis pour les cours d'un enseignant
      */
+    @Transactional(readOnly = true)
     public List<ReviewResponse> getReviewsForTeacher(Integer teacherId) {
-        return reviewRepository.findReviewsForTeacher(teacherId)
-                .stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return reviewRepository.findReviewResponsesForTeacher(teacherId);
     }
 
     /**
@@ -245,12 +294,10 @@ public class ReviewService {
     /**
      * Obtenir les avis récents approuvés
      */
+    @Transactional(readOnly = true)
     public List<ReviewResponse> getRecentApprovedReviews(Integer limit) {
         Pageable pageable = PageRequest.of(0, limit);
-        return reviewRepository.findRecentApprovedReviews(pageable)
-                .stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return reviewRepository.findReviewResponsesByStatus(Review.ModerationStatus.APPROVED, pageable);
     }
 
     /**
@@ -261,16 +308,21 @@ public class ReviewService {
     }
 
     /**
-     * Convertir une entité Review en DTO
+     * Publier la variation de contribution aux statistiques (traitée dans la transaction courante)
      */
-    private ReviewResponse convertToDTO(Review review) {
-        // Récupérer la réponse de l'enseignant si elle existe
-        String teacherResponse = null;
-        com.uaz.backend.entity.ReviewResponse response =
-                reviewResponseRepository.findByReviewId(review.getReviewId()).orElse(null);
-        if (response != null) {
-            teacherResponse = response.getResponseText();
+    private void publishStatisticsChange(ReviewContribution before, ReviewContribution after) {
+        ApprovedReviewChangedEvent event = ApprovedReviewChangedEvent.between(before, after);
+        if (event != null) {
+            eventPublisher.publishEvent(event);
         }
+    }
+
+    /**
+     * Convertir une entité Review en DTO (avis tout juste écrit ; les lectures passent par la projection)
+     */
+    private ReviewResponse convertToDTO(Review review) {
+        // Réponse de l'enseignant déjà chargée avec l'avis (association inverse)
+        String teacherResponse = review.getResponse() != null ? review.getResponse().getResponseText() : null;
 
         return ReviewResponse.builder()
                 .reviewId(review.getReviewId())
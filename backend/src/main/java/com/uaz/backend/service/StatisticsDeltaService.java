@@ -0,0 +1,292 @@
+package com.uaz.backend.service;
+
+import com.uaz.backend.dto.CourseStatisticsDTO;
+import com.uaz.backend.repository.CourseStatisticsRepository;
+import com.uaz.backend.repository.DepartmentStatisticsRepository;
+import com.uaz.backend.repository.TeacherStatisticsRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Array;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Report des variations de statistiques écrites par bandes (course_statistics_deltas, course_rating_rollup_deltas)
+ * Les bandes d'un cours sont supprimées et sommées en une instruction, puis appliquées à course_statistics,
+ * aux agrégats du département et de l'enseignant et à course_rating_rollups, périodiquement pour tous les cours.
+ * Les lectures d'un cours n'écrivent pas : elles ajoutent la somme des bandes en attente à course_statistics.
+ * Les bandes verrouillées par une modération en cours sont ignorées (SKIP LOCKED) et reportées au passage suivant
+ */
+@Service
+@RequiredArgsConstructor
+public class StatisticsDeltaService {
+
+    /**
+     * Clé du verrou consultatif du report global : une seule instance reporte toutes les bandes à la fois
+     */
+    static final long FOLD_ALL_LOCK = 0x5354_4154_5344_4C54L;
+
+    private static final String STATISTICS_COLUMNS = "total_reviews, sum_overall_tenths, " +
+            "sum_clarity_tenths, count_clarity, sum_material_tenths, count_material, " +
+            "sum_pedagogy_tenths, count_pedagogy, hist_overall, hist_clarity, hist_material, hist_pedagogy, " +
+            "sketch_overall, sketch_clarity, sketch_material, sketch_pedagogy ";
+
+    /**
+     * Ligne course_statistics et bandes en attente d'un cours sommées ; moyennes calculées comme au report
+     */
+    private static final String READ_STATISTICS =
+            "SELECT c.course_id, c.name, COALESCE(SUM(t.total_reviews), 0) AS total_reviews, " +
+            "ROUND(SUM(t.sum_overall_tenths) / 10.0 / NULLIF(SUM(t.total_reviews), 0), 2) AS avg_overall, " +
+            "ROUND(SUM(t.sum_clarity_tenths) / 10.0 / NULLIF(SUM(t.count_clarity), 0), 2) AS avg_clarity, " +
+            "ROUND(SUM(t.sum_material_tenths) / 10.0 / NULLIF(SUM(t.count_material), 0), 2) AS avg_material, " +
+            "ROUND(SUM(t.sum_pedagogy_tenths) / 10.0 / NULLIF(SUM(t.count_pedagogy), 0), 2) AS avg_pedagogy, " +
+            "int_array_sum(t.hist_overall) AS hist_overall, int_array_sum(t.hist_clarity) AS hist_clarity, " +
+            "int_array_sum(t.hist_material) AS hist_material, int_array_sum(t.hist_pedagogy) AS hist_pedagogy, " +
+            "int_array_sum(t.sketch_overall) AS sketch_overall, int_array_sum(t.sketch_clarity) AS sketch_clarity, " +
+            "int_array_sum(t.sketch_material) AS sketch_material, " +
+            "int_array_sum(t.sketch_pedagogy) AS sketch_pedagogy " +
+            "FROM courses c LEFT JOIN (" +
+            "SELECT " + STATISTICS_COLUMNS + "FROM course_statistics WHERE course_id = ? UNION ALL " +
+            "SELECT " + STATISTICS_COLUMNS + "FROM course_statistics_deltas WHERE course_id = ?) t ON true " +
+            "WHERE c.course_id = ? GROUP BY c.course_id, c.name";
+
+    /**
+     * Empreinte du contenu des bandes en attente d'un cours (NULL sans bande)
+     */
+    private static final String PENDING_VERSION =
+            "SELECT left(md5(string_agg(d::text, ',' ORDER BY d.stripe)), 24) " +
+            "FROM course_statistics_deltas d WHERE d.course_id = ?";
+
+    /**
+     * Supprimer les bandes non verrouillées et renvoyer leur somme par cours (ordre des IDs)
+     */
+    static final String FOLD_STATISTICS =
+            "WITH folded AS (DELETE FROM course_statistics_deltas d USING (" +
+            "SELECT course_id, stripe FROM course_statistics_deltas FOR UPDATE SKIP LOCKED) l " +
+            "WHERE d.course_id = l.course_id AND d.stripe = l.stripe RETURNING d.*) " +
+            "SELECT course_id, SUM(total_reviews) AS total_reviews, SUM(sum_overall_tenths) AS sum_overall, " +
+            "SUM(sum_clarity_tenths) AS sum_clarity, SUM(count_clarity) AS count_clarity, " +
+            "SUM(sum_material_tenths) AS sum_material, SUM(count_material) AS count_material, " +
+            "SUM(sum_pedagogy_tenths) AS sum_pedagogy, SUM(count_pedagogy) AS count_pedagogy, " +
+            "int_array_sum(hist_overall) AS hist_overall, int_array_sum(hist_clarity) AS hist_clarity, " +
+            "int_array_sum(hist_material) AS hist_material, int_array_sum(hist_pedagogy) AS hist_pedagogy, " +
+            "int_array_sum(sketch_overall) AS sketch_overall, int_array_sum(sketch_clarity) AS sketch_clarity, " +
+            "int_array_sum(sketch_material) AS sketch_material, int_array_sum(sketch_pedagogy) AS sketch_pedagogy " +
+            "FROM folded GROUP BY course_id ORDER BY course_id";
+
+    /**
+     * Supprimer les bandes temporelles non verrouillées et les ajouter à course_rating_rollups en une instruction
+     */
+    static final String FOLD_ROLLUPS =
+            "WITH folded AS (DELETE FROM course_rating_rollup_deltas d USING (" +
+            "SELECT course_id, granularity, period_start, stripe FROM course_rating_rollup_deltas " +
+            "FOR UPDATE SKIP LOCKED) l " +
+            "WHERE d.course_id = l.course_id AND d.granularity = l.granularity " +
+            "AND d.period_start = l.period_start AND d.stripe = l.stripe RETURNING d.*) " +
+            "INSERT INTO course_rating_rollups AS r (course_id, granularity, period_start, total_reviews, " +
+            "sum_overall_tenths, sum_clarity_tenths, count_clarity, sum_material_tenths, count_material, " +
+            "sum_pedagogy_tenths, count_pedagogy) " +
+            "SELECT course_id, granularity, period_start, SUM(total_reviews), SUM(sum_overall_tenths), " +
+            "SUM(sum_clarity_tenths), SUM(count_clarity), SUM(sum_material_tenths), SUM(count_material), " +
+            "SUM(sum_pedagogy_tenths), SUM(count_pedagogy) " +
+            "FROM folded GROUP BY 1, 2, 3 ORDER BY 1, 2, 3 " +
+            "ON CONFLICT (course_id, granularity, period_start) DO UPDATE SET " +
+            CourseStatisticsRepository.ROLLUP_MERGE;
+
+    private static final String COURSE_ASSIGNMENTS =
+            "SELECT course_id, department, teacher_id FROM courses WHERE course_id = ANY(CAST(? AS integer[]))";
+
+    private final CourseStatisticsRepository courseStatisticsRepository;
+    private final DepartmentStatisticsRepository departmentStatisticsRepository;
+    private final TeacherStatisticsRepository teacherStatisticsRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Bande d'un avis : hachage multiplicatif de son ID ramené à [0, stripes)
+     */
+    public static int stripe(Integer reviewId, int stripes) {
+        if (reviewId == null || stripes <= 1) {
+            return 0;
+        }
+        return (int) (((reviewId * 0x9E3779B9L) & 0xFFFFFFFFL) % stripes);
+    }
+
+    /**
+     * Reporter les bandes de tous les cours ; ignoré si une autre instance reporte déjà
+     */
+    @Scheduled(fixedDelayString = "${app.statistics.deltas.fold-interval-millis:1000}")
+    @Transactional
+    public int foldAll() {
+        Boolean locked = jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)", Boolean.class, FOLD_ALL_LOCK);
+        if (!Boolean.TRUE.equals(locked)) {
+            return 0;
+        }
+        return foldCourses();
+    }
+
+    /**
+     * Statistiques d'un cours à jour sans écriture : ligne course_statistics plus la somme des bandes en attente,
+     * lues en une instruction (un report concurrent est vu entièrement ou pas du tout)
+     */
+    @Transactional(readOnly = true)
+    public Optional<CourseStatisticsDTO> readCourseStatistics(Integer courseId) {
+        return jdbcTemplate.query(READ_STATISTICS, (rs, rowNum) -> new CourseStatisticsDTO(
+                rs.getInt("course_id"), rs.getString("name"),
+                rs.getBigDecimal("avg_overall"), rs.getBigDecimal("avg_clarity"),
+                rs.getBigDecimal("avg_material"), rs.getBigDecimal("avg_pedagogy"),
+                rs.getInt("total_reviews"),
+                CourseDelta.counts(rs, "hist_overall", RatingHistogram.BUCKETS),
+                CourseDelta.counts(rs, "hist_clarity", RatingHistogram.BUCKETS),
+                CourseDelta.counts(rs, "hist_material", RatingHistogram.BUCKETS),
+                CourseDelta.counts(rs, "hist_pedagogy", RatingHistogram.BUCKETS),
+                CourseDelta.counts(rs, "sketch_overall", RatingSketch.VALUES),
+                CourseDelta.counts(rs, "sketch_clarity", RatingSketch.VALUES),
+                CourseDelta.counts(rs, "sketch_material", RatingSketch.VALUES),
+                CourseDelta.counts(rs, "sketch_pedagogy", RatingSketch.VALUES)),
+                courseId, courseId, courseId).stream().findFirst();
+    }
+
+    /**
+     * Empreinte des bandes en attente d'un cours ("0" sans bande), pour les ETag des statistiques
+     */
+    @Transactional(readOnly = true)
+    public String pendingVersion(Integer courseId) {
+        String version = jdbcTemplate.queryForObject(PENDING_VERSION, String.class, courseId);
+        return version != null ? version : "0";
+    }
+
+    /**
+     * Les lignes sont verrouillées dans le même ordre que les autres écritures : course_statistics par cours
+     * croissant, puis départements par nom, puis enseignants par ID (comme onCourseAssignmentChanged) ;
+     * les variations sont donc cumulées par département et par enseignant avant d'être appliquées.
+     * Le département et l'enseignant sont lus après le verrouillage des lignes course_statistics :
+     * un déplacement de cours concurrent attend la fin du report ou est déjà commité
+     */
+    private int foldCourses() {
+        List<CourseDelta> deltas = jdbcTemplate.query(FOLD_STATISTICS, (rs, rowNum) -> CourseDelta.of(rs));
+
+        for (CourseDelta delta : deltas) {
+            courseStatisticsRepository.applyReviewDelta(delta.courseId(),
+                    delta.reviews(), delta.overall(),
+                    delta.clarity(), delta.clarityCount(),
+                    delta.material(), delta.materialCount(),
+                    delta.pedagogy(), delta.pedagogyCount(),
+                    delta.histOverall(), delta.histClarity(), delta.histMaterial(), delta.histPedagogy(),
+                    delta.sketchOverall(), delta.sketchClarity(), delta.sketchMaterial(), delta.sketchPedagogy());
+        }
+        if (!deltas.isEmpty()) {
+            Map<Integer, CourseDelta> byCourse = deltas.stream()
+                    .collect(Collectors.toMap(CourseDelta::courseId, Function.identity()));
+            Map<String, AggregateDelta> departments = new TreeMap<>();
+            Map<Integer, AggregateDelta> teachers = new TreeMap<>();
+            jdbcTemplate.query(COURSE_ASSIGNMENTS, rs -> {
+                CourseDelta delta = byCourse.get(rs.getInt("course_id"));
+                String department = rs.getString("department");
+                if (department != null) {
+                    departments.computeIfAbsent(department, key -> new AggregateDelta()).add(delta);
+                }
+                int teacherId = rs.getInt("teacher_id");
+                if (!rs.wasNull()) {
+                    teachers.computeIfAbsent(teacherId, key -> new AggregateDelta()).add(delta);
+                }
+            }, RatingHistogram.toSqlArray(byCourse.keySet().stream().mapToInt(Integer::intValue).toArray()));
+
+            departments.forEach((department, sum) -> departmentStatisticsRepository.applyReviewDelta(department,
+                    sum.reviews, sum.overall, sum.clarity, sum.clarityCount,
+                    sum.material, sum.materialCount, sum.pedagogy, sum.pedagogyCount));
+            teachers.forEach((teacherId, sum) -> teacherStatisticsRepository.applyReviewDelta(teacherId,
+                    sum.reviews, sum.overall, sum.clarity, sum.clarityCount,
+                    sum.material, sum.materialCount, sum.pedagogy, sum.pedagogyCount));
+        }
+        jdbcTemplate.update(FOLD_ROLLUPS);
+
+        if (!deltas.isEmpty()) {
+            // Seules la moyenne et le nombre d'avis changent : le catalogue les corrige après le commit
+            Set<Integer> courseIds = deltas.stream().map(CourseDelta::courseId).collect(Collectors.toSet());
+            eventPublisher.publishEvent(new CourseStatisticsChangedEvent(courseIds));
+        }
+        return deltas.size();
+    }
+
+    /**
+     * Somme des variations des cours d'un même département ou d'un même enseignant
+     */
+    static final class AggregateDelta {
+        int reviews;
+        long overall;
+        long clarity;
+        int clarityCount;
+        long material;
+        int materialCount;
+        long pedagogy;
+        int pedagogyCount;
+
+        void add(CourseDelta delta) {
+            reviews += delta.reviews();
+            overall += delta.overall();
+            clarity += delta.clarity();
+            clarityCount += delta.clarityCount();
+            material += delta.material();
+            materialCount += delta.materialCount();
+            pedagogy += delta.pedagogy();
+            pedagogyCount += delta.pedagogyCount();
+        }
+    }
+
+    /**
+     * Somme des bandes reportées d'un cours ; tableaux en littéraux "{...}" pour CAST(? AS integer[])
+     */
+    record CourseDelta(Integer courseId, int reviews, long overall,
+                       long clarity, int clarityCount, long material, int materialCount,
+                       long pedagogy, int pedagogyCount,
+                       String histOverall, String histClarity, String histMaterial, String histPedagogy,
+                       String sketchOverall, String sketchClarity, String sketchMaterial, String sketchPedagogy) {
+
+        static CourseDelta of(ResultSet rs) throws SQLException {
+            return new CourseDelta(rs.getInt("course_id"), rs.getInt("total_reviews"), rs.getLong("sum_overall"),
+                    rs.getLong("sum_clarity"), rs.getInt("count_clarity"),
+                    rs.getLong("sum_material"), rs.getInt("count_material"),
+                    rs.getLong("sum_pedagogy"), rs.getInt("count_pedagogy"),
+                    counters(rs, "hist_overall", RatingHistogram.BUCKETS),
+                    counters(rs, "hist_clarity", RatingHistogram.BUCKETS),
+                    counters(rs, "hist_material", RatingHistogram.BUCKETS),
+                    counters(rs, "hist_pedagogy", RatingHistogram.BUCKETS),
+                    counters(rs, "sketch_overall", RatingSketch.VALUES),
+                    counters(rs, "sketch_clarity", RatingSketch.VALUES),
+                    counters(rs, "sketch_material", RatingSketch.VALUES),
+                    counters(rs, "sketch_pedagogy", RatingSketch.VALUES));
+        }
+
+        private static String counters(ResultSet rs, String column, int size) throws SQLException {
+            return RatingHistogram.toSqlArray(counts(rs, column, size));
+        }
+
+        /**
+         * Compteurs d'une colonne INTEGER[] (zéros si la colonne est nulle)
+         */
+        static int[] counts(ResultSet rs, String column, int size) throws SQLException {
+            int[] counts = new int[size];
+            Array array = rs.getArray(column);
+            if (array != null) {
+                Object[] values = (Object[]) array.getArray();
+                for (int i = 0; i < Math.min(size, values.length); i++) {
+                    counts[i] = values[i] != null ? ((Number) values[i]).intValue() : 0;
+                }
+            }
+            return counts;
+        }
+    }
+}
@@ -0,0 +1,647 @@
+package com.uaz.backend.service;
+
+import com.uaz.backend.dto.StatisticsDriftDTO;
+import com.uaz.backend.dto.StatisticsRebuildStatus;
+import com.uaz.backend.repository.CourseStatisticsRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Array;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * Reconstruction parallèle de course_statistics à partir des avis approuvés
+ * L'espace des IDs de cours est découpé en tranches agrégées (GROUP BY course_id) en parallèle
+ * sur un pool borné ; chaque tranche est traitée dans sa propre courte transaction.
+ * En mode verify, les écarts sont seulement rapportés ; en mode repair, les lignes en écart sont corrigées
+ * et les agrégats temporels (course_rating_rollups) de la tranche sont recalculés ; une fois toutes les tranches
+ * terminées, les agrégats par département et par enseignant sont recalculés depuis course_statistics.
+ * Les variations encore en bandes (course_statistics_deltas) sont déduites des sommes attendues : elles seront
+ * ajoutées par leur report, la réparation ne bloque donc pas les modérations
+ */
+@Service
+@RequiredArgsConstructor
+public class StatisticsRebuildService {
+
+    public static final String MODE_VERIFY = "verify";
+    public static final String MODE_REPAIR = "repair";
+
+    static final int MAX_REPORTED_DRIFTS = 1000;
+
+    private static final String AGGREGATE_REVIEWS =
+            "SELECT r.course_id, COUNT(*) AS total_reviews, " +
+            "SUM(r.rating_overall) AS sum_overall, " +
+            "COALESCE(SUM(r.rating_clarity), 0) AS sum_clarity, COUNT(r.rating_clarity) AS count_clarity, " +
+            "COALESCE(SUM(r.rating_material), 0) AS sum_material, COUNT(r.rating_material) AS count_material, " +
+            "COALESCE(SUM(r.rating_pedagogy), 0) AS sum_pedagogy, COUNT(r.rating_pedagogy) AS count_pedagogy, " +
+            RatingHistogram.sqlBucketCounts("r.rating_overall") + " AS hist_overall, " +
+            RatingHistogram.sqlBucketCounts("r.rating_clarity") + " AS hist_clarity, " +
+            RatingHistogram.sqlBucketCounts("r.rating_material") + " AS hist_material, " +
+            RatingHistogram.sqlBucketCounts("r.rating_pedagogy") + " AS hist_pedagogy, " +
+            RatingSketch.sqlCounts("r.rating_overall") + " AS sketch_overall, " +
+            RatingSketch.sqlCounts("r.rating_clarity") + " AS sketch_clarity, " +
+            RatingSketch.sqlCounts("r.rating_material") + " AS sketch_material, " +
+            RatingSketch.sqlCounts("r.rating_pedagogy") + " AS sketch_pedagogy " +
+            "FROM reviews r WHERE r.moderation_status = 'approved' AND r.course_id BETWEEN ? AND ? " +
+            "GROUP BY r.course_id";
+
+    private static final String SELECT_STORED =
+            "SELECT s.course_id, s.total_reviews, s.sum_overall_tenths AS sum_overall, " +
+            "s.sum_clarity_tenths AS sum_clarity, s.count_clarity, " +
+            "s.sum_material_tenths AS sum_material, s.count_material, " +
+            "s.sum_pedagogy_tenths AS sum_pedagogy, s.count_pedagogy, " +
+            "s.hist_overall, s.hist_clarity, s.hist_material, s.hist_pedagogy, " +
+            "s.sketch_overall, s.sketch_clarity, s.sketch_material, s.sketch_pedagogy, " +
+            "s.avg_rating_overall, s.avg_rating_clarity, s.avg_rating_material, s.avg_rating_pedagogy " +
+            "FROM course_statistics s WHERE s.course_id BETWEEN ? AND ?";
+
+    private static final String SELECT_PENDING =
+            "SELECT course_id, SUM(total_reviews) AS total_reviews, SUM(sum_overall_tenths) AS sum_overall, " +
+            "SUM(sum_clarity_tenths) AS sum_clarity, SUM(count_clarity) AS count_clarity, " +
+            "SUM(sum_material_tenths) AS sum_material, SUM(count_material) AS count_material, " +
+            "SUM(sum_pedagogy_tenths) AS sum_pedagogy, SUM(count_pedagogy) AS count_pedagogy, " +
+            "int_array_sum(hist_overall) AS hist_overall, int_array_sum(hist_clarity) AS hist_clarity, " +
+            "int_array_sum(hist_material) AS hist_material, int_array_sum(hist_pedagogy) AS hist_pedagogy, " +
+            "int_array_sum(sketch_overall) AS sketch_overall, int_array_sum(sketch_clarity) AS sketch_clarity, " +
+            "int_array_sum(sketch_material) AS sketch_material, int_array_sum(sketch_pedagogy) AS sketch_pedagogy " +
+            "FROM course_statistics_deltas WHERE course_id BETWEEN ? AND ? GROUP BY course_id";
+
+    private static final List<String> SUM_COLUMNS = List.of("total_reviews", "sum_overall",
+            "sum_clarity", "count_clarity", "sum_material", "count_material", "sum_pedagogy", "count_pedagogy",
+            "hist_overall", "hist_clarity", "hist_material", "hist_pedagogy",
+            "sketch_overall", "sketch_clarity", "sketch_material", "sketch_pedagogy");
+
+    /**
+     * Ligne stockée, bandes en attente et sommes attendues de chaque cours de la tranche en une seule
+     * instruction : les trois sont lues dans le même instantané
+     */
+    private static final String SELECT_CHUNK =
+            "WITH stored AS (" + SELECT_STORED + "), pending AS (" + SELECT_PENDING + "), " +
+            "expected AS (" + AGGREGATE_REVIEWS + ") " +
+            "SELECT COALESCE(s.course_id, p.course_id, e.course_id) AS course_id, s.course_id AS stored_course_id, " +
+            "s.avg_rating_overall, s.avg_rating_clarity, s.avg_rating_material, s.avg_rating_pedagogy, " +
+            SUM_COLUMNS.stream().map(column -> "s." + column + " AS " + column).collect(Collectors.joining(", ")) + ", " +
+            SUM_COLUMNS.stream().map(column -> "p." + column + " AS pending_" + column).collect(Collectors.joining(", ")) + ", " +
+            SUM_COLUMNS.stream().map(column -> "e." + column + " AS expected_" + column).collect(Collectors.joining(", ")) + " " +
+            "FROM stored s FULL JOIN pending p ON p.course_id = s.course_id " +
+            "FULL JOIN expected e ON e.course_id = COALESCE(s.course_id, p.course_id) ORDER BY 1";
+
+    /**
+     * Ajout d'une correction (écart entre attendu et stocké) : un report concurrent des bandes
+     * ajoute les siennes à la même ligne, aucune des deux variations n'écrase l'autre
+     */
+    private static final String UPSERT_STATISTICS =
+            "INSERT INTO course_statistics AS s (course_id, total_reviews, sum_overall_tenths, " +
+            "sum_clarity_tenths, count_clarity, sum_material_tenths, count_material, " +
+            "sum_pedagogy_tenths, count_pedagogy, hist_overall, hist_clarity, hist_material, hist_pedagogy, " +
+            "sketch_overall, sketch_clarity, sketch_material, sketch_pedagogy, " +
+            "avg_rating_overall, avg_rating_clarity, avg_rating_material, avg_rating_pedagogy, last_updated) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, CAST(? AS integer[]), CAST(? AS integer[]), " +
+            "CAST(? AS integer[]), CAST(? AS integer[]), CAST(? AS integer[]), CAST(? AS integer[]), " +
+            "CAST(? AS integer[]), CAST(? AS integer[]), ?, ?, ?, ?, CURRENT_TIMESTAMP) " +
+            "ON CONFLICT (course_id) DO UPDATE SET " +
+            "total_reviews = s.total_reviews + EXCLUDED.total_reviews, " +
+            "sum_overall_tenths = s.sum_overall_tenths + EXCLUDED.sum_overall_tenths, " +
+            "sum_clarity_tenths = s.sum_clarity_tenths + EXCLUDED.sum_clarity_tenths, " +
+            "count_clarity = s.count_clarity + EXCLUDED.count_clarity, " +
+            "sum_material_tenths = s.sum_material_tenths + EXCLUDED.sum_material_tenths, " +
+            "count_material = s.count_material + EXCLUDED.count_material, " +
+            "sum_pedagogy_tenths = s.sum_pedagogy_tenths + EXCLUDED.sum_pedagogy_tenths, " +
+            "count_pedagogy = s.count_pedagogy + EXCLUDED.count_pedagogy, " +
+            "hist_overall = int_array_add(s.hist_overall, EXCLUDED.hist_overall), " +
+            "hist_clarity = int_array_add(s.hist_clarity, EXCLUDED.hist_clarity), " +
+            "hist_material = int_array_add(s.hist_material, EXCLUDED.hist_material), " +
+            "hist_pedagogy = int_array_add(s.hist_pedagogy, EXCLUDED.hist_pedagogy), " +
+            "sketch_overall = int_array_add(s.sketch_overall, EXCLUDED.sketch_overall), " +
+            "sketch_clarity = int_array_add(s.sketch_clarity, EXCLUDED.sketch_clarity), " +
+            "sketch_material = int_array_add(s.sketch_material, EXCLUDED.sketch_material), " +
+            "sketch_pedagogy = int_array_add(s.sketch_pedagogy, EXCLUDED.sketch_pedagogy), " +
+            "avg_rating_overall = ROUND((s.sum_overall_tenths + EXCLUDED.sum_overall_tenths) / 10.0 " +
+            "/ NULLIF(s.total_reviews + EXCLUDED.total_reviews, 0), 2), " +
+            "avg_rating_clarity = ROUND((s.sum_clarity_tenths + EXCLUDED.sum_clarity_tenths) / 10.0 " +
+            "/ NULLIF(s.count_clarity + EXCLUDED.count_clarity, 0), 2), " +
+            "avg_rating_material = ROUND((s.sum_material_tenths + EXCLUDED.sum_material_tenths) / 10.0 " +
+            "/ NULLIF(s.count_material + EXCLUDED.count_material, 0), 2), " +
+            "avg_rating_pedagogy = ROUND((s.sum_pedagogy_tenths + EXCLUDED.sum_pedagogy_tenths) / 10.0 " +
+            "/ NULLIF(s.count_pedagogy + EXCLUDED.count_pedagogy, 0), 2), " +
+            "last_updated = EXCLUDED.last_updated";
+
+    /**
+     * Correction des agrégats temporels de la tranche en une instruction : sommes des avis (un seul parcours
+     * pour les trois granularités), moins les bandes en attente, moins les lignes stockées ; seuls les écarts
+     * non nuls sont ajoutés
+     */
+    private static final String CORRECT_ROLLUPS =
+            "INSERT INTO course_rating_rollups AS r (course_id, granularity, period_start, total_reviews, " +
+            "sum_overall_tenths, sum_clarity_tenths, count_clarity, sum_material_tenths, count_material, " +
+            "sum_pedagogy_tenths, count_pedagogy) " +
+            "SELECT course_id, granularity, period_start, SUM(total_reviews), SUM(sum_overall_tenths), " +
+            "SUM(sum_clarity_tenths), SUM(count_clarity), SUM(sum_material_tenths), SUM(count_material), " +
+            "SUM(sum_pedagogy_tenths), SUM(count_pedagogy) FROM (" +
+            "SELECT r.course_id, p.granularity, CASE p.granularity " +
+            Arrays.stream(RatingPeriod.values())
+                    .map(period -> "WHEN '" + period.getValue() + "' THEN " + period.sqlStart("r.created_at") + " ")
+                    .collect(Collectors.joining()) +
+            "END AS period_start, COUNT(*) AS total_reviews, SUM(r.rating_overall) AS sum_overall_tenths, " +
+            "COALESCE(SUM(r.rating_clarity), 0) AS sum_clarity_tenths, COUNT(r.rating_clarity) AS count_clarity, " +
+            "COALESCE(SUM(r.rating_material), 0) AS sum_material_tenths, COUNT(r.rating_material) AS count_material, " +
+            "COALESCE(SUM(r.rating_pedagogy), 0) AS sum_pedagogy_tenths, COUNT(r.rating_pedagogy) AS count_pedagogy " +
+            "FROM reviews r CROSS JOIN (VALUES " +
+            Arrays.stream(RatingPeriod.values())
+                    .map(period -> "('" + period.getValue() + "')")
+                    .collect(Collectors.joining(", ")) +
+            ") AS p(granularity) " +
+            "WHERE r.moderation_status = 'approved' AND r.course_id BETWEEN ? AND ? " +
+            "GROUP BY 1, 2, 3 " +
+            "UNION ALL " + negatedRollups("course_rating_rollup_deltas") +
+            "UNION ALL " + negatedRollups("course_rating_rollups") +
+            ") b GROUP BY 1, 2, 3 " +
+            "HAVING SUM(total_reviews) <> 0 OR SUM(sum_overall_tenths) <> 0 " +
+            "OR SUM(sum_clarity_tenths) <> 0 OR SUM(count_clarity) <> 0 " +
+            "OR SUM(sum_material_tenths) <> 0 OR SUM(count_material) <> 0 " +
+            "OR SUM(sum_pedagogy_tenths) <> 0 OR SUM(count_pedagogy) <> 0 " +
+            "ORDER BY 1, 2, 3 " +
+            "ON CONFLICT (course_id, granularity, period_start) DO UPDATE SET " +
+            CourseStatisticsRepository.ROLLUP_MERGE;
+
+    /**
+     * Agrégats par département / enseignant : sommes des lignes course_statistics de leurs cours
+     */
+    private static final String AGGREGATE_SELECT =
+            "SUM(s.total_reviews), SUM(s.sum_overall_tenths), SUM(s.sum_clarity_tenths), SUM(s.count_clarity), " +
+            "SUM(s.sum_material_tenths), SUM(s.count_material), SUM(s.sum_pedagogy_tenths), SUM(s.count_pedagogy), " +
+            "ROUND(SUM(s.sum_overall_tenths) / 10.0 / NULLIF(SUM(s.total_reviews), 0), 2), " +
+            "ROUND(SUM(s.sum_clarity_tenths) / 10.0 / NULLIF(SUM(s.count_clarity), 0), 2), " +
+            "ROUND(SUM(s.sum_material_tenths) / 10.0 / NULLIF(SUM(s.count_material), 0), 2), " +
+            "ROUND(SUM(s.sum_pedagogy_tenths) / 10.0 / NULLIF(SUM(s.count_pedagogy), 0), 2), CURRENT_TIMESTAMP " +
+            "FROM course_statistics s JOIN courses c ON c.course_id = s.course_id ";
+
+    private static final String INSERT_DEPARTMENT_STATISTICS =
+            "INSERT INTO department_statistics (department, " + CourseStatisticsRepository.AGGREGATE_COLUMNS + ") " +
+            "SELECT c.department, " + AGGREGATE_SELECT + "WHERE c.department IS NOT NULL GROUP BY c.department";
+
+    private static final String INSERT_TEACHER_STATISTICS =
+            "INSERT INTO teacher_statistics (teacher_id, " + CourseStatisticsRepository.AGGREGATE_COLUMNS + ") " +
+            "SELECT c.teacher_id, " + AGGREGATE_SELECT + "WHERE c.teacher_id IS NOT NULL GROUP BY c.teacher_id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.statistics.rebuild.parallelism:4}")
+    private int parallelism;
+
+    @Value("${app.statistics.rebuild.chunk-size:1000}")
+    private int defaultChunkSize;
+
+    private final AtomicReference<Job> current = new AtomicReference<>();
+    private final AtomicLong jobSequence = new AtomicLong();
+    private ExecutorService executor;
+
+    /**
+     * Lancer une reconstruction en arrière-plan ; une seule à la fois
+     */
+    public StatisticsRebuildStatus start(String mode, Integer chunkSize) {
+        String jobMode = mode != null ? mode.toLowerCase() : MODE_VERIFY;
+        if (!MODE_VERIFY.equals(jobMode) && !MODE_REPAIR.equals(jobMode)) {
+            throw new IllegalArgumentException("Mode invalide: " + mode + " (verify ou repair)");
+        }
+        int size = chunkSize != null ? chunkSize : defaultChunkSize;
+        if (size < 1) {
+            throw new IllegalArgumentException("La taille de tranche doit être positive");
+        }
+
+        Job job = new Job(jobSequence.incrementAndGet(), jobMode);
+        Job previous = current.get();
+        if (previous != null && previous.isRunning() || !current.compareAndSet(previous, job)) {
+            throw new IllegalStateException("Une reconstruction des statistiques est déjà en cours");
+        }
+
+        CompletableFuture<?>[] tasks;
+        try {
+            List<long[]> chunks = chunks(size);
+            job.totalChunks = chunks.size();
+            tasks = chunks.stream()
+                    .map(range -> CompletableFuture.runAsync(() -> processChunk(job, range[0], range[1]), executor()))
+                    .toArray(CompletableFuture[]::new);
+        } catch (RuntimeException e) {
+            job.finish(e);
+            throw e;
+        }
+
+        CompletableFuture.allOf(tasks).whenComplete((ignored, error) -> {
+            if (error == null && job.repair) {
+                try {
+                    rebuildAggregates();
+                } catch (RuntimeException e) {
+                    error = e;
+                }
+            }
+            job.finish(error);
+            if (job.repairedCourses.get() > 0) {
+                eventPublisher.publishEvent(CourseCatalogChangedEvent.all());
+            }
+        });
+        return job.status();
+    }
+
+    /**
+     * État de la reconstruction en cours ou de la dernière terminée
+     */
+    public StatisticsRebuildStatus getStatus() {
+        Job job = current.get();
+        if (job == null) {
+            throw new RuntimeException("Aucune reconstruction lancée");
+        }
+        return job.status();
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Découper [min(course_id), max(course_id)] en tranches d'IDs contiguës
+     */
+    private List<long[]> chunks(int size) {
+        Map<String, Object> bounds = jdbcTemplate.queryForMap(
+                "SELECT MIN(course_id) AS low, MAX(course_id) AS high FROM " +
+                "(SELECT course_id FROM courses UNION ALL SELECT course_id FROM course_statistics) ids");
+        List<long[]> chunks = new ArrayList<>();
+        if (bounds.get("low") == null) {
+            return chunks;
+        }
+        long low = ((Number) bounds.get("low")).longValue();
+        long high = ((Number) bounds.get("high")).longValue();
+        for (long start = low; start <= high; start += size) {
+            chunks.add(new long[]{start, Math.min(start + size - 1, high)});
+        }
+        return chunks;
+    }
+
+    private void processChunk(Job job, long low, long high) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(!job.repair);
+        transaction.executeWithoutResult(status -> {
+            // La correction (attendu - en attente - stocké) est ajoutée à la ligne plutôt qu'écrite :
+            // un report concurrent des bandes de la tranche n'est ni perdu ni compté deux fois
+            List<Object[]> repairs = new ArrayList<>();
+            jdbcTemplate.query(SELECT_CHUNK, rs -> {
+                Integer courseId = rs.getInt("course_id");
+                StoredRow row = rs.getObject("stored_course_id") == null ? null
+                        : new StoredRow(sums(rs, ""), rs.getBigDecimal("avg_rating_overall"),
+                        rs.getBigDecimal("avg_rating_clarity"), rs.getBigDecimal("avg_rating_material"),
+                        rs.getBigDecimal("avg_rating_pedagogy"));
+                Sums pending = sums(rs, "pending_");
+                Sums wanted = sums(rs, "expected_");
+                Sums target = wanted.minus(pending);
+                job.coursesScanned.incrementAndGet();
+                job.reviewsScanned.addAndGet(wanted.reviews());
+                if (row != null ? row.matches(target) : target.equals(Sums.ZERO)) {
+                    return;
+                }
+                job.reportDrift(drift(courseId, row, wanted, pending));
+                if (job.repair) {
+                    repairs.add(upsertArguments(courseId, target.minus(row != null ? row.sums() : Sums.ZERO)));
+                }
+            }, low, high, low, high, low, high);
+
+            if (!repairs.isEmpty()) {
+                jdbcTemplate.batchUpdate(UPSERT_STATISTICS, repairs);
+                job.repairedCourses.addAndGet(repairs.size());
+            }
+
+            if (job.repair) {
+                job.rollupBuckets.addAndGet(jdbcTemplate.update(CORRECT_ROLLUPS, low, high, low, high, low, high));
+            }
+        });
+        job.completedChunks.incrementAndGet();
+    }
+
+    /**
+     * Recalculer les agrégats par département et par enseignant (tables de petite taille)
+     * Le verrou de table fait attendre les reports de bandes concurrents, qui appliquent leur variation ensuite
+     */
+    private void rebuildAggregates() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            jdbcTemplate.execute("LOCK TABLE department_statistics, teacher_statistics IN EXCLUSIVE MODE");
+            jdbcTemplate.update("DELETE FROM department_statistics");
+            jdbcTemplate.update(INSERT_DEPARTMENT_STATISTICS);
+            jdbcTemplate.update("DELETE FROM teacher_statistics");
+            jdbcTemplate.update(INSERT_TEACHER_STATISTICS);
+        });
+    }
+
+    private synchronized ExecutorService executor() {
+        if (executor == null) {
+            executor = Executors.newFixedThreadPool(Math.max(1, parallelism));
+        }
+        return executor;
+    }
+
+    /**
+     * Sommes lues dans les colonnes préfixées ; une colonne NULL (jointure externe sans ligne) vaut zéro
+     */
+    private static Sums sums(ResultSet rs, String prefix) throws SQLException {
+        return new Sums(
+                rs.getInt(prefix + "total_reviews"),
+                rs.getLong(prefix + "sum_overall"),
+                rs.getLong(prefix + "sum_clarity"), rs.getInt(prefix + "count_clarity"),
+                rs.getLong(prefix + "sum_material"), rs.getInt(prefix + "count_material"),
+                rs.getLong(prefix + "sum_pedagogy"), rs.getInt(prefix + "count_pedagogy"),
+                histogram(rs, prefix + "hist_overall"), histogram(rs, prefix + "hist_clarity"),
+                histogram(rs, prefix + "hist_material"), histogram(rs, prefix + "hist_pedagogy"),
+                counters(rs, prefix + "sketch_overall", Sums.EMPTY_SKETCH),
+                counters(rs, prefix + "sketch_clarity", Sums.EMPTY_SKETCH),
+                counters(rs, prefix + "sketch_material", Sums.EMPTY_SKETCH),
+                counters(rs, prefix + "sketch_pedagogy", Sums.EMPTY_SKETCH));
+    }
+
+    /**
+     * Lignes temporelles d'une table de la tranche, de signe opposé
+     */
+    private static String negatedRollups(String table) {
+        return "SELECT course_id, granularity, period_start, -total_reviews, -sum_overall_tenths, " +
+                "-sum_clarity_tenths, -count_clarity, -sum_material_tenths, -count_material, " +
+                "-sum_pedagogy_tenths, -count_pedagogy FROM " + table + " WHERE course_id BETWEEN ? AND ? ";
+    }
+
+    private static List<Integer> histogram(ResultSet rs, String column) throws SQLException {
+        return counters(rs, column, Sums.EMPTY_HISTOGRAM);
+    }
+
+    private static List<Integer> counters(ResultSet rs, String column, List<Integer> empty) throws SQLException {
+        Array array = rs.getArray(column);
+        if (array == null) {
+            return empty;
+        }
+        List<Integer> counts = new ArrayList<>(empty.size());
+        for (Object count : (Object[]) array.getArray()) {
+            counts.add(count != null ? ((Number) count).intValue() : 0);
+        }
+        return List.copyOf(counts);
+    }
+
+    /**
+     * Écart entre les sommes attendues et les sommes stockées augmentées des bandes en attente
+     */
+    private static StatisticsDriftDTO drift(Integer courseId, StoredRow row, Sums wanted, Sums pending) {
+        Sums stored = (row != null ? row.sums() : Sums.ZERO).plus(pending);
+        Map<String, Long> differences = new LinkedHashMap<>();
+        putDifference(differences, "totalReviews", wanted.reviews(), stored.reviews());
+        putDifference(differences, "sumOverallTenths", wanted.overall(), stored.overall());
+        putDifference(differences, "sumClarityTenths", wanted.clarity(), stored.clarity());
+        putDifference(differences, "countClarity", wanted.clarityCount(), stored.clarityCount());
+        putDifference(differences, "sumMaterialTenths", wanted.material(), stored.material());
+        putDifference(differences, "countMaterial", wanted.materialCount(), stored.materialCount());
+        putDifference(differences, "sumPedagogyTenths", wanted.pedagogy(), stored.pedagogy());
+        putDifference(differences, "countPedagogy", wanted.pedagogyCount(), stored.pedagogyCount());
+        putHistogramDifferences(differences, "histOverall", wanted.histOverall(), stored.histOverall());
+        putHistogramDifferences(differences, "histClarity", wanted.histClarity(), stored.histClarity());
+        putHistogramDifferences(differences, "histMaterial", wanted.histMaterial(), stored.histMaterial());
+        putHistogramDifferences(differences, "histPedagogy", wanted.histPedagogy(), stored.histPedagogy());
+        putHistogramDifferences(differences, "sketchOverall", wanted.sketchOverall(), stored.sketchOverall());
+        putHistogramDifferences(differences, "sketchClarity", wanted.sketchClarity(), stored.sketchClarity());
+        putHistogramDifferences(differences, "sketchMaterial", wanted.sketchMaterial(), stored.sketchMaterial());
+        putHistogramDifferences(differences, "sketchPedagogy", wanted.sketchPedagogy(), stored.sketchPedagogy());
+
+        return StatisticsDriftDTO.builder()
+                .courseId(courseId)
+                .storedTotalReviews(row != null ? stored.reviews() : null)
+                .expectedTotalReviews(wanted.reviews())
+                .storedAvgRatingOverall(row != null ? row.avgOverall() : null)
+                .expectedAvgRatingOverall(average(wanted.overall(), wanted.reviews()))
+                .differences(differences)
+                .build();
+    }
+
+    private static void putDifference(Map<String, Long> differences, String field, long expected, long stored) {
+        if (expected != stored) {
+            differences.put(field, expected - stored);
+        }
+    }
+
+    private static void putHistogramDifferences(Map<String, Long> differences, String field,
+                                                List<Integer> expected, List<Integer> stored) {
+        for (int i = 0; i < Math.max(expected.size(), stored.size()); i++) {
+            putDifference(differences, field + "[" + i + "]", bucketCount(expected, i), bucketCount(stored, i));
+        }
+    }
+
+    private static int bucketCount(List<Integer> histogram, int bucket) {
+        return bucket < histogram.size() ? histogram.get(bucket) : 0;
+    }
+
+    private static String sqlArray(List<Integer> histogram) {
+        return sqlArray(histogram, RatingHistogram.BUCKETS);
+    }
+
+    private static String sqlArray(List<Integer> counters, int size) {
+        int[] counts = new int[size];
+        for (int i = 0; i < size; i++) {
+            counts[i] = bucketCount(counters, i);
+        }
+        return RatingHistogram.toSqlArray(counts);
+    }
+
+    private static Object[] upsertArguments(Integer courseId, Sums sums) {
+        return new Object[]{
+                courseId, sums.reviews(), sums.overall(),
+                sums.clarity(), sums.clarityCount(),
+                sums.material(), sums.materialCount(),
+                sums.pedagogy(), sums.pedagogyCount(),
+                sqlArray(sums.histOverall()), sqlArray(sums.histClarity()),
+                sqlArray(sums.histMaterial()), sqlArray(sums.histPedagogy()),
+                sqlArray(sums.sketchOverall(), RatingSketch.VALUES), sqlArray(sums.sketchClarity(), RatingSketch.VALUES),
+                sqlArray(sums.sketchMaterial(), RatingSketch.VALUES), sqlArray(sums.sketchPedagogy(), RatingSketch.VALUES),
+                average(sums.overall(), sums.reviews()),
+                average(sums.clarity(), sums.clarityCount()),
+                average(sums.material(), sums.materialCount()),
+                average(sums.pedagogy(), sums.pedagogyCount())
+        };
+    }
+
+    /**
+     * Moyenne à deux décimales d'une somme en dixièmes, comme ROUND(somme / 10.0 / nombre, 2)
+     */
+    static BigDecimal average(long sumTenths, int count) {
+        if (count == 0) {
+            return null;
+        }
+        return BigDecimal.valueOf(sumTenths).divide(BigDecimal.valueOf(count * 10L), 2, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Sommes (dixièmes), compteurs, histogrammes par demi-étoile et compteurs par dixième d'une ligne de statistiques
+     */
+    record Sums(int reviews, long overall, long clarity, int clarityCount,
+                long material, int materialCount, long pedagogy, int pedagogyCount,
+                List<Integer> histOverall, List<Integer> histClarity,
+                List<Integer> histMaterial, List<Integer> histPedagogy,
+                List<Integer> sketchOverall, List<Integer> sketchClarity,
+                List<Integer> sketchMaterial, List<Integer> sketchPedagogy) {
+
+        static final List<Integer> EMPTY_HISTOGRAM = Collections.nCopies(RatingHistogram.BUCKETS, 0);
+
+        static final List<Integer> EMPTY_SKETCH = Collections.nCopies(RatingSketch.VALUES, 0);
+
+        static final Sums ZERO = new Sums(0, 0, 0, 0, 0, 0, 0, 0,
+                EMPTY_HISTOGRAM, EMPTY_HISTOGRAM, EMPTY_HISTOGRAM, EMPTY_HISTOGRAM,
+                EMPTY_SKETCH, EMPTY_SKETCH, EMPTY_SKETCH, EMPTY_SKETCH);
+
+        Sums plus(Sums other) {
+            return combine(other, 1);
+        }
+
+        Sums minus(Sums other) {
+            return combine(other, -1);
+        }
+
+        private Sums combine(Sums other, int sign) {
+            return new Sums(reviews + sign * other.reviews, overall + sign * other.overall,
+                    clarity + sign * other.clarity, clarityCount + sign * other.clarityCount,
+                    material + sign * other.material, materialCount + sign * other.materialCount,
+                    pedagogy + sign * other.pedagogy, pedagogyCount + sign * other.pedagogyCount,
+                    combine(histOverall, other.histOverall, sign), combine(histClarity, other.histClarity, sign),
+                    combine(histMaterial, other.histMaterial, sign), combine(histPedagogy, other.histPedagogy, sign),
+                    combine(sketchOverall, other.sketchOverall, sign), combine(sketchClarity, other.sketchClarity, sign),
+                    combine(sketchMaterial, other.sketchMaterial, sign), combine(sketchPedagogy, other.sketchPedagogy, sign));
+        }
+
+        private static List<Integer> combine(List<Integer> counters, List<Integer> other, int sign) {
+            List<Integer> result = new ArrayList<>(Math.max(counters.size(), other.size()));
+            for (int i = 0; i < Math.max(counters.size(), other.size()); i++) {
+                result.add(bucketCount(counters, i) + sign * bucketCount(other, i));
+            }
+            return List.copyOf(result);
+        }
+    }
+
+    /**
+     * Ligne stockée : sommes et moyennes dérivées
+     */
+    record StoredRow(Sums sums, BigDecimal avgOverall, BigDecimal avgClarity,
+                     BigDecimal avgMaterial, BigDecimal avgPedagogy) {
+
+        boolean matches(Sums expected) {
+            return sums.equals(expected)
+                    && sameValue(avgOverall, average(expected.overall(), expected.reviews()))
+                    && sameValue(avgClarity, average(expected.clarity(), expected.clarityCount()))
+                    && sameValue(avgMaterial, average(expected.material(), expected.materialCount()))
+                    && sameValue(avgPedagogy, average(expected.pedagogy(), expected.pedagogyCount()));
+        }
+
+        private static boolean sameValue(BigDecimal stored, BigDecimal expected) {
+            return stored == null || expected == null ? Objects.equals(stored, expected) : stored.compareTo(expected) == 0;
+        }
+    }
+
+    /**
+     * Progression d'une reconstruction (compteurs partagés entre les tâches du pool)
+     */
+    private static final class Job {
+
+        private final long id;
+        private final String mode;
+        private final boolean repair;
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private final long startedNanos = System.nanoTime();
+        private final AtomicInteger completedChunks = new AtomicInteger();
+        private final AtomicLong coursesScanned = new AtomicLong();
+        private final AtomicLong reviewsScanned = new AtomicLong();
+        private final AtomicLong driftedCourses = new AtomicLong();
+        private final AtomicLong repairedCourses = new AtomicLong();
+        private final AtomicLong rollupBuckets = new AtomicLong();
+        private final List<StatisticsDriftDTO> drifts = new ArrayList<>();
+        private volatile int totalChunks;
+        private volatile LocalDateTime finishedAt;
+        private volatile long finishedNanos;
+        private volatile String error;
+
+        private Job(long id, String mode) {
+            this.id = id;
+            this.mode = mode;
+            this.repair = MODE_REPAIR.equals(mode);
+        }
+
+        boolean isRunning() {
+            return finishedAt == null;
+        }
+
+        void reportDrift(StatisticsDriftDTO drift) {
+            driftedCourses.incrementAndGet();
+            synchronized (drifts) {
+                if (drifts.size() < MAX_REPORTED_DRIFTS) {
+                    drifts.add(drift);
+                }
+            }
+        }
+
+        void finish(Throwable failure) {
+            if (failure != null) {
+                Throwable cause = failure.getCause() != null ? failure.getCause() : failure;
+                error = cause.getMessage();
+            }
+            finishedNanos = System.nanoTime();
+            finishedAt = LocalDateTime.now();
+        }
+
+        StatisticsRebuildStatus status() {
+            long elapsedNanos = (isRunning() ? System.nanoTime() : finishedNanos) - startedNanos;
+            double seconds = Math.max(elapsedNanos, 1) / 1_000_000_000.0;
+            List<StatisticsDriftDTO> reported;
+            synchronized (drifts) {
+                reported = drifts.stream()
+                        .sorted((a, b) -> Integer.compare(a.getCourseId(), b.getCourseId()))
+                        .toList();
+            }
+
+            return StatisticsRebuildStatus.builder()
+                    .jobId(id)
+                    .mode(mode)
+                    .state(isRunning() ? "running" : error != null ? "failed" : "completed")
+                    .totalChunks(totalChunks)
+                    .completedChunks(completedChunks.get())
+                    .coursesScanned(coursesScanned.get())
+                    .reviewsScanned(reviewsScanned.get())
+                    .driftedCourses(driftedCourses.get())
+                    .repairedCourses(repairedCourses.get())
+                    .rollupBuckets(rollupBuckets.get())
+                    .reviewsPerSecond(Math.round(reviewsScanned.get() / seconds * 10) / 10.0)
+                    .startedAt(startedAt)
+                    .finishedAt(finishedAt)
+                    .elapsedMillis(Duration.ofNanos(elapsedNanos).toMillis())
+                    .error(error)
+                    .drifts(reported)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package com.uaz.backend.service;
+
+import com.uaz.backend.dto.CourseDTO;
+import com.uaz.backend.dto.TrendingCourseDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+
+/**
+ * Classement des cours tendance tenu en mémoire
+ * Chaque avis approuvé pèse exp(λ·(jour de l'avis − repère)) (décroissance exponentielle « vers l'avant ») :
+ * le score (somme pondérée des notes) et le volume (somme des poids) d'un cours sont mis à jour en O(1)
+ * à chaque modération, et ramenés à la date du jour à la lecture seulement. Tous les cours étant divisés
+ * par le même facteur, l'ordre ne change pas avec le temps : les meilleurs cours sont tenus dans un
+ * ensemble trié borné, servi sans requête. Chargé au démarrage, puis tenu à jour après chaque commit
+ */
+@Component
+@RequiredArgsConstructor
+public class TrendingCourses {
+
+    /**
+     * Exposant maximal des poids : au-delà, le repère est avancé et les sommes rééchelonnées
+     */
+    static final double MAX_EXPONENT = 64;
+
+    /**
+     * Avis approuvés regroupés par cours et par jour (une ligne par jour d'activité d'un cours)
+     */
+    private static final String SELECT_DAILY_REVIEWS =
+            "SELECT r.course_id, CAST(r.created_at AS date) AS reviewed_on, COUNT(*) AS reviews, " +
+            "SUM(r.rating_overall) AS sum_overall FROM reviews r WHERE r.moderation_status = 'approved' " +
+            "GROUP BY r.course_id, CAST(r.created_at AS date)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CourseCatalog courseCatalog;
+
+    @Value("${app.courses.trending.half-life-days:7}")
+    private double halfLifeDays;
+
+    @Value("${app.courses.trending.capacity:100}")
+    private int capacity;
+
+    private Ranking ranking;
+    private boolean ready;
+
+    /**
+     * Changements reçus pendant un chargement, rejoués sur le classement chargé
+     */
+    private List<Consumer<Ranking>> pending;
+
+    /**
+     * Obtenir les cours actifs les plus tendance (limit borné par la capacité du classement)
+     */
+    public List<TrendingCourseDTO> getTrendingCourses(int limit) {
+        return getTrendingCourses(limit, LocalDate.now());
+    }
+
+    synchronized List<TrendingCourseDTO> getTrendingCourses(int limit, LocalDate today) {
+        if (!ready) {
+            throw new IllegalStateException("Classement des cours tendance en cours de chargement");
+        }
+        int size = Math.max(1, Math.min(limit, capacity));
+        // Décroissance paresseuse : un seul facteur, commun à tous les cours, appliqué à la lecture
+        double decay = Math.exp(-lambda() * (today.toEpochDay() - ranking.landmark));
+        CourseCatalogSnapshot catalog = courseCatalog.current();
+
+        List<TrendingCourseDTO> courses = new ArrayList<>(size);
+        for (Entry entry : ranking.top()) {
+            if (courses.size() == size) {
+                break;
+            }
+            // Les cours désactivés restent classés mais ne sont pas servis
+            Optional<CourseDTO> course = catalog.findById(entry.courseId);
+            course.ifPresent(dto -> courses.add(TrendingCourseDTO.builder()
+                    .courseId(dto.getCourseId())
+                    .code(dto.getCode())
+                    .name(dto.getName())
+                    .type(dto.getType())
+                    .teacherName(dto.getTeacherName())
+                    .department(dto.getDepartment())
+                    .avgRating(dto.getAvgRating())
+                    .totalReviews(dto.getTotalReviews())
+                    .trendingScore(decimal(entry.score * decay / 10))
+                    .recentReviews(decimal(entry.volume * decay))
+                    .recentAverage(entry.volume > 0 ? decimal(entry.score / entry.volume / 10) : null)
+                    .build()));
+        }
+        return courses;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        load();
+    }
+
+    /**
+     * Charger le classement depuis la base, puis rejouer les changements reçus entre-temps
+     */
+    public void load() {
+        synchronized (this) {
+            pending = new ArrayList<>();
+        }
+
+        Ranking loaded = new Ranking(LocalDate.now().toEpochDay(), lambda(), capacity);
+        boolean complete = false;
+        try {
+            jdbcTemplate.query(SELECT_DAILY_REVIEWS, rs -> {
+                loaded.apply(rs.getInt("course_id"), rs.getObject("reviewed_on", LocalDate.class).toEpochDay(),
+                        rs.getInt("reviews"), rs.getLong("sum_overall"));
+            });
+            complete = true;
+        } finally {
+            synchronized (this) {
+                if (complete) {
+                    ranking = loaded;
+                    ready = true;
+                }
+                if (ranking != null) {
+                    pending.forEach(change -> change.accept(ranking));
+                }
+                pending = null;
+            }
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onApprovedReviewChanged(ApprovedReviewChangedEvent event) {
+        ReviewContribution removed = event.removed();
+        ReviewContribution added = event.added();
+        write(target -> {
+            if (removed != null) {
+                target.apply(removed.courseId(), removed.reviewedOn().toEpochDay(), -1, -removed.overall());
+            }
+            if (added != null) {
+                target.apply(added.courseId(), added.reviewedOn().toEpochDay(), 1, added.overall());
+            }
+        });
+    }
+
+    private synchronized void write(Consumer<Ranking> change) {
+        if (pending != null) {
+            pending.add(change);
+        } else if (ranking != null) {
+            change.accept(ranking);
+        }
+    }
+
+    private double lambda() {
+        return Math.log(2) / halfLifeDays;
+    }
+
+    private static BigDecimal decimal(double value) {
+        return BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Sommes pondérées par cours et meilleurs cours (capacité bornée)
+     * Invariant : top contient les meilleurs cours de entries, sauf si stale (reclassement à la lecture)
+     */
+    static final class Ranking {
+
+        private static final Comparator<Entry> BY_SCORE = Comparator
+                .comparingDouble((Entry entry) -> entry.score).reversed()
+                .thenComparingInt(entry -> entry.courseId);
+
+        private final double lambda;
+        private final int capacity;
+        private final Map<Integer, Entry> entries = new HashMap<>();
+        private final TreeSet<Entry> top = new TreeSet<>(BY_SCORE);
+        private long landmark;
+        private boolean stale;
+
+        Ranking(long landmark, double lambda, int capacity) {
+            this.landmark = landmark;
+            this.lambda = lambda;
+            this.capacity = Math.max(1, capacity);
+        }
+
+        /**
+         * Ajouter (ou retirer, valeurs négatives) des avis d'un cours datés du jour donné
+         * sumOverall : somme des notes globales en dixièmes
+         */
+        void apply(int courseId, long day, int reviews, long sumOverall) {
+            if (lambda * (day - landmark) > MAX_EXPONENT) {
+                rebase(day);
+            }
+            double weight = Math.exp(lambda * (day - landmark));
+            Entry entry = entries.computeIfAbsent(courseId, Entry::new);
+            boolean ranked = top.remove(entry);
+
+            entry.reviews += reviews;
+            if (entry.reviews <= 0) {
+                entries.remove(courseId);
+            } else {
+                entry.score += sumOverall * weight;
+                entry.volume += reviews * weight;
+                if (ranked) {
+                    top.add(entry);
+                } else {
+                    offer(entry);
+                }
+            }
+            // Un cours classé qui recule peut être dépassé par un cours hors du classement
+            if (ranked && sumOverall < 0 && entries.size() > top.size()) {
+                stale = true;
+            }
+        }
+
+        TreeSet<Entry> top() {
+            if (stale) {
+                top.clear();
+                entries.values().forEach(this::offer);
+                stale = false;
+            }
+            return top;
+        }
+
+        private void offer(Entry entry) {
+            top.add(entry);
+            if (top.size() > capacity) {
+                top.pollLast();
+            }
+        }
+
+        /**
+         * Avancer le repère : les sommes sont multipliées par un même facteur (ordre conservé)
+         */
+        private void rebase(long day) {
+            double factor = Math.exp(-lambda * (day - landmark));
+            for (Entry entry : entries.values()) {
+                entry.score *= factor;
+                entry.volume *= factor;
+            }
+            landmark = day;
+            stale = true;
+        }
+    }
+
+    /**
+     * Sommes d'un cours, relatives au repère : score = Σ poids × note (dixièmes), volume = Σ poids
+     */
+    static final class Entry {
+        final int courseId;
+        int reviews;
+        double score;
+        double volume;
+
+        Entry(int courseId) {
+            this.courseId = courseId;
+        }
+    }
+}
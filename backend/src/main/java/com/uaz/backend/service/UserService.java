@@ -2,13 +2,16 @@ package com.uaz.backend.service;
 
 import com.uaz.backend.dto.RegisterRequest;
 import com.uaz.backend.entity.User;
+import com.uaz.backend.repository.ReviewRepository;
 import com.uaz.backend.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 /**
@@ -21,6 +24,8 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final ReviewRepository reviewRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Trouver un utilisateur par son username
@@ -152,6 +157,12 @@ public class UserService {
      * Supprimer un utilisateur
      */
     public void deleteUser(Integer userId) {
+        // Les avis sont supprimés en cascade : retirer d'abord leur contribution aux statistiques,
+        // calculée sur les avis verrouillés (une décision concurrente est commitée avant la lecture)
+        reviewRepository.findByUserIdForUpdate(userId).stream()
+                .map(ReviewContribution::of)
+                .filter(Objects::nonNull)
+                .forEach(contribution -> eventPublisher.publishEvent(new ApprovedReviewChangedEvent(contribution, null)));
         userRepository.deleteById(userId);
     }
 
@@ -166,30 +177,28 @@ public class UserService {
      * Compter les étudiants
      */
     public long countStudents() {
-        return userRepository.findByRoleAndIsActiveTrue(User.UserRole.STUDENT).size();
+        return userRepository.countByRoleAndIsActiveTrue(User.UserRole.STUDENT);
     }
 
     /**
      * Compter les enseignants
      */
     public long countTeachers() {
-        return userRepository.findByRoleAndIsActiveTrue(User.UserRole.TEACHER).size();
+        return userRepository.countByRoleAndIsActiveTrue(User.UserRole.TEACHER);
     }
 
     /**
      * Compter les admins
      */
     public long countAdmins() {
-        return userRepository.findByRoleAndIsActiveTrue(User.UserRole.ADMIN).size();
+        return userRepository.countByRoleAndIsActiveTrue(User.UserRole.ADMIN);
     }
 
     /**
      * Compter les utilisateurs actifs
      */
     public long countActiveUsers() {
-        return userRepository.findAll().stream()
-                .filter(User::getIsActive)
-                .count();
+        return userRepository.countByIsActiveTrue();
     }
 
     /**
@@ -0,0 +1,37 @@
+-- Exact rating distribution per criterion for quantiles (median, p10, p90):
+-- ratings are NUMERIC(2,1) between 0 and 5, so 51 counters (one per tenth of a star) hold the whole distribution.
+-- Counters are added element-wise (int_array_add) on moderation changes and summed to merge courses.
+ALTER TABLE course_statistics
+    ADD COLUMN IF NOT EXISTS sketch_overall INTEGER[] NOT NULL DEFAULT array_fill(0, ARRAY[51]),
+    ADD COLUMN IF NOT EXISTS sketch_clarity INTEGER[] NOT NULL DEFAULT array_fill(0, ARRAY[51]),
+    ADD COLUMN IF NOT EXISTS sketch_material INTEGER[] NOT NULL DEFAULT array_fill(0, ARRAY[51]),
+    ADD COLUMN IF NOT EXISTS sketch_pedagogy INTEGER[] NOT NULL DEFAULT array_fill(0, ARRAY[51]);
+
+-- Per-criterion counts per tenth of a star of the approved reviews already stored
+CREATE OR REPLACE FUNCTION rating_tenths_counts(ratings NUMERIC[])
+RETURNS INTEGER[]
+LANGUAGE sql IMMUTABLE PARALLEL SAFE
+AS $$
+    SELECT array_agg((SELECT COUNT(*) FROM unnest(ratings) AS r(rating)
+                      WHERE r.rating * 10 = t)::INTEGER ORDER BY t)
+    FROM generate_series(0, 50) AS t
+$$;
+
+UPDATE course_statistics s
+SET sketch_overall = h.sketch_overall,
+    sketch_clarity = h.sketch_clarity,
+    sketch_material = h.sketch_material,
+    sketch_pedagogy = h.sketch_pedagogy
+FROM (
+    SELECT r.course_id,
+           rating_tenths_counts(array_agg(r.rating_overall)) AS sketch_overall,
+           rating_tenths_counts(array_agg(r.rating_clarity)) AS sketch_clarity,
+           rating_tenths_counts(array_agg(r.rating_material)) AS sketch_material,
+           rating_tenths_counts(array_agg(r.rating_pedagogy)) AS sketch_pedagogy
+    FROM reviews r
+    WHERE r.moderation_status = 'approved'
+    GROUP BY r.course_id
+) h
+WHERE h.course_id = s.course_id;
+
+DROP FUNCTION rating_tenths_counts(NUMERIC[]);
@@ -0,0 +1,16 @@
+-- Ratings are stored as integer tenths of a star (0 to 50) instead of NUMERIC(2,1):
+-- two bytes per criterion, and sums, histograms and sketches are computed without
+-- numeric arithmetic. Existing values have a single decimal, so the conversion is exact.
+ALTER TABLE reviews
+    ALTER COLUMN rating_overall TYPE SMALLINT USING ROUND(rating_overall * 10)::smallint,
+    ALTER COLUMN rating_clarity TYPE SMALLINT USING ROUND(rating_clarity * 10)::smallint,
+    ALTER COLUMN rating_material TYPE SMALLINT USING ROUND(rating_material * 10)::smallint,
+    ALTER COLUMN rating_pedagogy TYPE SMALLINT USING ROUND(rating_pedagogy * 10)::smallint;
+
+ALTER TABLE reviews
+    ADD CONSTRAINT reviews_rating_tenths_check CHECK (
+        rating_overall BETWEEN 0 AND 50
+        AND (rating_clarity IS NULL OR rating_clarity BETWEEN 0 AND 50)
+        AND (rating_material IS NULL OR rating_material BETWEEN 0 AND 50)
+        AND (rating_pedagogy IS NULL OR rating_pedagogy BETWEEN 0 AND 50)
+    );
@@ -0,0 +1,48 @@
+-- Striped statistics deltas: a moderation change adds its delta to one of N stripe rows of the course
+-- (stripe chosen by hashing the review id) instead of updating the single course_statistics row,
+-- so concurrent approvals on a popular course no longer queue behind one row lock.
+-- Stripes are folded (deleted and summed) into course_statistics, department_statistics, teacher_statistics
+-- and course_rating_rollups periodically and when a course's statistics are read.
+CREATE TABLE IF NOT EXISTS course_statistics_deltas (
+    course_id INTEGER NOT NULL REFERENCES courses(course_id) ON DELETE CASCADE,
+    stripe SMALLINT NOT NULL,
+    total_reviews INTEGER NOT NULL DEFAULT 0,
+    sum_overall_tenths BIGINT NOT NULL DEFAULT 0,
+    sum_clarity_tenths BIGINT NOT NULL DEFAULT 0,
+    count_clarity INTEGER NOT NULL DEFAULT 0,
+    sum_material_tenths BIGINT NOT NULL DEFAULT 0,
+    count_material INTEGER NOT NULL DEFAULT 0,
+    sum_pedagogy_tenths BIGINT NOT NULL DEFAULT 0,
+    count_pedagogy INTEGER NOT NULL DEFAULT 0,
+    hist_overall INTEGER[] NOT NULL DEFAULT array_fill(0, ARRAY[11]),
+    hist_clarity INTEGER[] NOT NULL DEFAULT array_fill(0, ARRAY[11]),
+    hist_material INTEGER[] NOT NULL DEFAULT array_fill(0, ARRAY[11]),
+    hist_pedagogy INTEGER[] NOT NULL DEFAULT array_fill(0, ARRAY[11]),
+    sketch_overall INTEGER[] NOT NULL DEFAULT array_fill(0, ARRAY[51]),
+    sketch_clarity INTEGER[] NOT NULL DEFAULT array_fill(0, ARRAY[51]),
+    sketch_material INTEGER[] NOT NULL DEFAULT array_fill(0, ARRAY[51]),
+    sketch_pedagogy INTEGER[] NOT NULL DEFAULT array_fill(0, ARRAY[51]),
+    PRIMARY KEY (course_id, stripe)
+);
+
+CREATE TABLE IF NOT EXISTS course_rating_rollup_deltas (
+    course_id INTEGER NOT NULL REFERENCES courses(course_id) ON DELETE CASCADE,
+    granularity VARCHAR(10) NOT NULL CHECK (granularity IN ('week', 'month', 'semester')),
+    period_start DATE NOT NULL,
+    stripe SMALLINT NOT NULL,
+    total_reviews INTEGER NOT NULL DEFAULT 0,
+    sum_overall_tenths BIGINT NOT NULL DEFAULT 0,
+    sum_clarity_tenths BIGINT NOT NULL DEFAULT 0,
+    count_clarity INTEGER NOT NULL DEFAULT 0,
+    sum_material_tenths BIGINT NOT NULL DEFAULT 0,
+    count_material INTEGER NOT NULL DEFAULT 0,
+    sum_pedagogy_tenths BIGINT NOT NULL DEFAULT 0,
+    count_pedagogy INTEGER NOT NULL DEFAULT 0,
+    PRIMARY KEY (course_id, granularity, period_start, stripe)
+);
+
+-- Element-wise sum of counter arrays over a group of rows (sums the stripes of a course when folding)
+CREATE OR REPLACE AGGREGATE int_array_sum(INTEGER[]) (
+    SFUNC = int_array_add,
+    STYPE = INTEGER[]
+);
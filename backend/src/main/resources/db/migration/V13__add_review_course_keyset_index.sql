@@ -0,0 +1,4 @@
+-- Keyset index for the course review feed: WHERE course_id = ? AND moderation_status = ?
+-- ORDER BY created_at DESC, review_id DESC, resumed with (created_at, review_id) < (cursor)
+CREATE INDEX IF NOT EXISTS idx_reviews_course_status_created
+    ON reviews (course_id, moderation_status, created_at DESC, review_id DESC);
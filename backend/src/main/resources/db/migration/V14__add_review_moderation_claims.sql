@@ -0,0 +1,10 @@
+-- Moderation work queue: a moderator claims a batch of pending reviews for a limited lease
+-- (claimed_by, claim_expires_at); a decision or an explicit release clears the claim,
+-- and an expired lease makes the review claimable again.
+ALTER TABLE reviews ADD COLUMN IF NOT EXISTS claimed_by INTEGER REFERENCES users(user_id) ON DELETE SET NULL;
+ALTER TABLE reviews ADD COLUMN IF NOT EXISTS claim_expires_at TIMESTAMP;
+
+-- Queue order (oldest first), partial on pending reviews which are the only ones claimed
+CREATE INDEX IF NOT EXISTS idx_reviews_pending_queue
+    ON reviews (created_at, review_id)
+    WHERE moderation_status = 'pending';
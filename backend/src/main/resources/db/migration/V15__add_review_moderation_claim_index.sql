@@ -0,0 +1,5 @@
+-- A moderator's own claims: renewing a batch updates them
+-- without walking the whole pending queue
+CREATE INDEX IF NOT EXISTS idx_reviews_pending_claims
+    ON reviews (claimed_by)
+    WHERE moderation_status = 'pending' AND claimed_by IS NOT NULL;
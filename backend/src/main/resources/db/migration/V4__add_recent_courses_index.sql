@@ -0,0 +1,5 @@
+-- Keyset index for the "recent courses" feed: ORDER BY created_at DESC, course_id DESC
+-- Partial on active courses, which are the only ones the feed returns
+CREATE INDEX IF NOT EXISTS idx_courses_active_created
+    ON courses (created_at DESC, course_id DESC)
+    WHERE is_active = true;
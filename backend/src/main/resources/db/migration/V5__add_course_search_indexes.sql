@@ -0,0 +1,31 @@
+-- Full-text and trigram search on courses
+-- Replaces LOWER(x) LIKE '%term%' scans with index-backed, ranked lookups
+
+CREATE EXTENSION IF NOT EXISTS unaccent;
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- French text search configuration with accent folding (e.g. "réseaux" matches "reseaux")
+DO $$
+BEGIN
+    IF NOT EXISTS (
+        SELECT 1 FROM pg_ts_config WHERE cfgname = 'french_unaccent'
+    ) THEN
+        CREATE TEXT SEARCH CONFIGURATION french_unaccent (COPY = french);
+        ALTER TEXT SEARCH CONFIGURATION french_unaccent
+            ALTER MAPPING FOR hword, hword_part, word WITH unaccent, french_stem;
+    END IF;
+END
+$$;
+
+-- Weighted document: code (A) > name (B) > description (C)
+ALTER TABLE courses ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (
+        setweight(to_tsvector('french_unaccent', coalesce(code, '')), 'A') ||
+        setweight(to_tsvector('french_unaccent', coalesce(name, '')), 'B') ||
+        setweight(to_tsvector('french_unaccent', coalesce(description, '')), 'C')
+    ) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_courses_search_vector ON courses USING gin (search_vector);
+
+-- Fuzzy matching on course codes ("inf10" -> "INF-101")
+CREATE INDEX IF NOT EXISTS idx_courses_code_trgm ON courses USING gin (lower(code) gin_trgm_ops);
@@ -0,0 +1,60 @@
+-- Running sums and counts per criterion, maintained incrementally by the application
+-- on every moderation state change (approve, reject, edit, delete) of a review.
+-- Ratings are NUMERIC(2,1), so sums are stored exactly as integer tenths of a star.
+ALTER TABLE course_statistics
+    ADD COLUMN IF NOT EXISTS sum_overall_tenths BIGINT NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS sum_clarity_tenths BIGINT NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS count_clarity INTEGER NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS sum_material_tenths BIGINT NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS count_material INTEGER NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS sum_pedagogy_tenths BIGINT NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS count_pedagogy INTEGER NOT NULL DEFAULT 0;
+
+-- One-time backfill from the approved reviews already stored
+INSERT INTO course_statistics (course_id, total_reviews,
+                               sum_overall_tenths, sum_clarity_tenths, count_clarity,
+                               sum_material_tenths, count_material, sum_pedagogy_tenths, count_pedagogy,
+                               avg_rating_overall, avg_rating_clarity, avg_rating_material, avg_rating_pedagogy,
+                               last_updated)
+SELECT r.course_id,
+       COUNT(*),
+       SUM(r.rating_overall * 10),
+       COALESCE(SUM(r.rating_clarity * 10), 0), COUNT(r.rating_clarity),
+       COALESCE(SUM(r.rating_material * 10), 0), COUNT(r.rating_material),
+       COALESCE(SUM(r.rating_pedagogy * 10), 0), COUNT(r.rating_pedagogy),
+       ROUND(AVG(r.rating_overall), 2),
+       ROUND(AVG(r.rating_clarity), 2),
+       ROUND(AVG(r.rating_material), 2),
+       ROUND(AVG(r.rating_pedagogy), 2),
+       CURRENT_TIMESTAMP
+FROM reviews r
+WHERE r.moderation_status = 'approved'
+GROUP BY r.course_id
+ON CONFLICT (course_id) DO UPDATE SET
+    total_reviews = EXCLUDED.total_reviews,
+    sum_overall_tenths = EXCLUDED.sum_overall_tenths,
+    sum_clarity_tenths = EXCLUDED.sum_clarity_tenths,
+    count_clarity = EXCLUDED.count_clarity,
+    sum_material_tenths = EXCLUDED.sum_material_tenths,
+    count_material = EXCLUDED.count_material,
+    sum_pedagogy_tenths = EXCLUDED.sum_pedagogy_tenths,
+    count_pedagogy = EXCLUDED.count_pedagogy,
+    avg_rating_overall = EXCLUDED.avg_rating_overall,
+    avg_rating_clarity = EXCLUDED.avg_rating_clarity,
+    avg_rating_material = EXCLUDED.avg_rating_material,
+    avg_rating_pedagogy = EXCLUDED.avg_rating_pedagogy,
+    last_updated = EXCLUDED.last_updated;
+
+-- Courses whose statistics row has no approved review left
+UPDATE course_statistics s
+SET total_reviews = 0,
+    avg_rating_overall = NULL,
+    avg_rating_clarity = NULL,
+    avg_rating_material = NULL,
+    avg_rating_pedagogy = NULL
+WHERE NOT EXISTS (
+    SELECT 1 FROM reviews r WHERE r.course_id = s.course_id AND r.moderation_status = 'approved'
+);
+
+UPDATE course_statistics SET total_reviews = 0 WHERE total_reviews IS NULL;
+ALTER TABLE course_statistics ALTER COLUMN total_reviews SET NOT NULL;
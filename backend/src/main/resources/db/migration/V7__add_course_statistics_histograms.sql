@@ -0,0 +1,45 @@
+-- Half-star rating histograms per criterion: 11 counters for 0, 0.5, ..., 5 stars.
+-- A rating (NUMERIC(2,1)) falls into the nearest half star, rounding up on ties: FLOOR((rating * 10 + 2) / 5).
+ALTER TABLE course_statistics
+    ADD COLUMN IF NOT EXISTS hist_overall INTEGER[] NOT NULL DEFAULT array_fill(0, ARRAY[11]),
+    ADD COLUMN IF NOT EXISTS hist_clarity INTEGER[] NOT NULL DEFAULT array_fill(0, ARRAY[11]),
+    ADD COLUMN IF NOT EXISTS hist_material INTEGER[] NOT NULL DEFAULT array_fill(0, ARRAY[11]),
+    ADD COLUMN IF NOT EXISTS hist_pedagogy INTEGER[] NOT NULL DEFAULT array_fill(0, ARRAY[11]);
+
+-- Element-wise sum of two counter arrays (used to apply histogram deltas in a single upsert)
+CREATE OR REPLACE FUNCTION int_array_add(a INTEGER[], b INTEGER[])
+RETURNS INTEGER[]
+LANGUAGE sql IMMUTABLE PARALLEL SAFE
+AS $$
+    SELECT array_agg(COALESCE(x, 0) + COALESCE(y, 0) ORDER BY i)
+    FROM unnest(a, b) WITH ORDINALITY AS t(x, y, i)
+$$;
+
+-- Per-criterion bucket counts of the approved reviews already stored
+CREATE OR REPLACE FUNCTION rating_histogram(ratings NUMERIC[])
+RETURNS INTEGER[]
+LANGUAGE sql IMMUTABLE PARALLEL SAFE
+AS $$
+    SELECT array_agg((SELECT COUNT(*) FROM unnest(ratings) AS r(rating)
+                      WHERE FLOOR((r.rating * 10 + 2) / 5) = b)::INTEGER ORDER BY b)
+    FROM generate_series(0, 10) AS b
+$$;
+
+UPDATE course_statistics s
+SET hist_overall = h.hist_overall,
+    hist_clarity = h.hist_clarity,
+    hist_material = h.hist_material,
+    hist_pedagogy = h.hist_pedagogy
+FROM (
+    SELECT r.course_id,
+           rating_histogram(array_agg(r.rating_overall)) AS hist_overall,
+           rating_histogram(array_agg(r.rating_clarity)) AS hist_clarity,
+           rating_histogram(array_agg(r.rating_material)) AS hist_material,
+           rating_histogram(array_agg(r.rating_pedagogy)) AS hist_pedagogy
+    FROM reviews r
+    WHERE r.moderation_status = 'approved'
+    GROUP BY r.course_id
+) h
+WHERE h.course_id = s.course_id;
+
+DROP FUNCTION rating_histogram(NUMERIC[]);
@@ -0,0 +1,41 @@
+-- Time-bucketed rating rollups per course, used by the trend endpoint.
+-- One row per (course, granularity, period start); granularity is 'week' (ISO, Monday start),
+-- 'month' or 'semester' (January-June, July-December). Sums are integer tenths of a star, like course_statistics.
+-- Maintained incrementally with the course statistics on every moderation change, keyed by the review creation date.
+CREATE TABLE IF NOT EXISTS course_rating_rollups (
+    course_id INTEGER NOT NULL REFERENCES courses(course_id) ON DELETE CASCADE,
+    granularity VARCHAR(10) NOT NULL CHECK (granularity IN ('week', 'month', 'semester')),
+    period_start DATE NOT NULL,
+    total_reviews INTEGER NOT NULL DEFAULT 0,
+    sum_overall_tenths BIGINT NOT NULL DEFAULT 0,
+    sum_clarity_tenths BIGINT NOT NULL DEFAULT 0,
+    count_clarity INTEGER NOT NULL DEFAULT 0,
+    sum_material_tenths BIGINT NOT NULL DEFAULT 0,
+    count_material INTEGER NOT NULL DEFAULT 0,
+    sum_pedagogy_tenths BIGINT NOT NULL DEFAULT 0,
+    count_pedagogy INTEGER NOT NULL DEFAULT 0,
+    PRIMARY KEY (course_id, granularity, period_start)
+);
+
+-- One-time backfill from the approved reviews already stored (a single scan for the three granularities)
+INSERT INTO course_rating_rollups (course_id, granularity, period_start, total_reviews,
+                                   sum_overall_tenths, sum_clarity_tenths, count_clarity,
+                                   sum_material_tenths, count_material, sum_pedagogy_tenths, count_pedagogy)
+SELECT r.course_id,
+       p.granularity,
+       CASE p.granularity
+           WHEN 'week' THEN CAST(date_trunc('week', r.created_at) AS date)
+           WHEN 'month' THEN CAST(date_trunc('month', r.created_at) AS date)
+           ELSE make_date(CAST(EXTRACT(YEAR FROM r.created_at) AS integer),
+                          CASE WHEN EXTRACT(MONTH FROM r.created_at) <= 6 THEN 1 ELSE 7 END, 1)
+       END,
+       COUNT(*),
+       SUM(r.rating_overall * 10),
+       COALESCE(SUM(r.rating_clarity * 10), 0), COUNT(r.rating_clarity),
+       COALESCE(SUM(r.rating_material * 10), 0), COUNT(r.rating_material),
+       COALESCE(SUM(r.rating_pedagogy * 10), 0), COUNT(r.rating_pedagogy)
+FROM reviews r
+CROSS JOIN (VALUES ('week'), ('month'), ('semester')) AS p(granularity)
+WHERE r.moderation_status = 'approved'
+GROUP BY 1, 2, 3
+ON CONFLICT (course_id, granularity, period_start) DO NOTHING;
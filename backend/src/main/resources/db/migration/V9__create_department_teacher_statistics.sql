@@ -0,0 +1,73 @@
+-- Department- and teacher-level aggregates rolled up from course_statistics (all courses, active or not).
+-- Sums are integer tenths of a star, so the averages are weighted by review count.
+-- Maintained incrementally with the course statistics, and moved when a course changes department or teacher.
+CREATE TABLE IF NOT EXISTS department_statistics (
+    department VARCHAR(100) PRIMARY KEY,
+    total_reviews INTEGER NOT NULL DEFAULT 0,
+    sum_overall_tenths BIGINT NOT NULL DEFAULT 0,
+    sum_clarity_tenths BIGINT NOT NULL DEFAULT 0,
+    count_clarity INTEGER NOT NULL DEFAULT 0,
+    sum_material_tenths BIGINT NOT NULL DEFAULT 0,
+    count_material INTEGER NOT NULL DEFAULT 0,
+    sum_pedagogy_tenths BIGINT NOT NULL DEFAULT 0,
+    count_pedagogy INTEGER NOT NULL DEFAULT 0,
+    avg_rating_overall NUMERIC(3,2),
+    avg_rating_clarity NUMERIC(3,2),
+    avg_rating_material NUMERIC(3,2),
+    avg_rating_pedagogy NUMERIC(3,2),
+    last_updated TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS teacher_statistics (
+    teacher_id INTEGER PRIMARY KEY REFERENCES users(user_id) ON DELETE CASCADE,
+    total_reviews INTEGER NOT NULL DEFAULT 0,
+    sum_overall_tenths BIGINT NOT NULL DEFAULT 0,
+    sum_clarity_tenths BIGINT NOT NULL DEFAULT 0,
+    count_clarity INTEGER NOT NULL DEFAULT 0,
+    sum_material_tenths BIGINT NOT NULL DEFAULT 0,
+    count_material INTEGER NOT NULL DEFAULT 0,
+    sum_pedagogy_tenths BIGINT NOT NULL DEFAULT 0,
+    count_pedagogy INTEGER NOT NULL DEFAULT 0,
+    avg_rating_overall NUMERIC(3,2),
+    avg_rating_clarity NUMERIC(3,2),
+    avg_rating_material NUMERIC(3,2),
+    avg_rating_pedagogy NUMERIC(3,2),
+    last_updated TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- One-time backfill from the course statistics already stored
+INSERT INTO department_statistics (department, total_reviews,
+                                   sum_overall_tenths, sum_clarity_tenths, count_clarity,
+                                   sum_material_tenths, count_material, sum_pedagogy_tenths, count_pedagogy,
+                                   avg_rating_overall, avg_rating_clarity, avg_rating_material, avg_rating_pedagogy)
+SELECT c.department,
+       SUM(s.total_reviews),
+       SUM(s.sum_overall_tenths), SUM(s.sum_clarity_tenths), SUM(s.count_clarity),
+       SUM(s.sum_material_tenths), SUM(s.count_material), SUM(s.sum_pedagogy_tenths), SUM(s.count_pedagogy),
+       ROUND(SUM(s.sum_overall_tenths) / 10.0 / NULLIF(SUM(s.total_reviews), 0), 2),
+       ROUND(SUM(s.sum_clarity_tenths) / 10.0 / NULLIF(SUM(s.count_clarity), 0), 2),
+       ROUND(SUM(s.sum_material_tenths) / 10.0 / NULLIF(SUM(s.count_material), 0), 2),
+       ROUND(SUM(s.sum_pedagogy_tenths) / 10.0 / NULLIF(SUM(s.count_pedagogy), 0), 2)
+FROM course_statistics s
+JOIN courses c ON c.course_id = s.course_id
+WHERE c.department IS NOT NULL
+GROUP BY c.department
+ON CONFLICT (department) DO NOTHING;
+
+INSERT INTO teacher_statistics (teacher_id, total_reviews,
+                                sum_overall_tenths, sum_clarity_tenths, count_clarity,
+                                sum_material_tenths, count_material, sum_pedagogy_tenths, count_pedagogy,
+                                avg_rating_overall, avg_rating_clarity, avg_rating_material, avg_rating_pedagogy)
+SELECT c.teacher_id,
+       SUM(s.total_reviews),
+       SUM(s.sum_overall_tenths), SUM(s.sum_clarity_tenths), SUM(s.count_clarity),
+       SUM(s.sum_material_tenths), SUM(s.count_material), SUM(s.sum_pedagogy_tenths), SUM(s.count_pedagogy),
+       ROUND(SUM(s.sum_overall_tenths) / 10.0 / NULLIF(SUM(s.total_reviews), 0), 2),
+       ROUND(SUM(s.sum_clarity_tenths) / 10.0 / NULLIF(SUM(s.count_clarity), 0), 2),
+       ROUND(SUM(s.sum_material_tenths) / 10.0 / NULLIF(SUM(s.count_material), 0), 2),
+       ROUND(SUM(s.sum_pedagogy_tenths) / 10.0 / NULLIF(SUM(s.count_pedagogy), 0), 2)
+FROM course_statistics s
+JOIN courses c ON c.course_id = s.course_id
+WHERE c.teacher_id IS NOT NULL
+GROUP BY c.teacher_id
+ON CONFLICT (teacher_id) DO NOTHING;
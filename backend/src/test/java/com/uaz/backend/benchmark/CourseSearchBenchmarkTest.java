@@ -0,0 +1,120 @@
+package com.uaz.backend.benchmark;
+
+import com.uaz.backend.service.CourseSearchTerms;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Benchmark de la recherche de cours : LIKE '%terme%' (ancienne requête) contre plein texte + trigramme
+ * (migration V5) sur 50 000 cours. Les deux requêtes servent la même première page de 20 cours
+ * (LIKE trié par nom, plein texte trié par pertinence) et chaque exécution doit renvoyer 20 lignes
+ *
+ * Nécessite une base PostgreSQL migrée par Flyway ; les données sont insérées dans
+ * une transaction annulée à la fin. Exécution :
+ * mvn test -Dtest=CourseSearchBenchmarkTest -Dbenchmark.jdbc.url=jdbc:postgresql://localhost:5432/feedbacksystem
+ *          -Dbenchmark.jdbc.user=postgres -Dbenchmark.jdbc.password=...
+ */
+@EnabledIfSystemProperty(named = "benchmark.jdbc.url", matches = ".+")
+class CourseSearchBenchmarkTest {
+
+    private static final int COURSE_COUNT = 50_000;
+    private static final int ITERATIONS = 30;
+    private static final int PAGE_SIZE = 20;
+
+    /**
+     * Termes trouvés par les deux requêtes (LIKE ne trouve ni les accents ni les mots séparés)
+     */
+    private static final List<String> TERMS = List.of("programmation", "algorithmique", "gestion", "anglais", "BEN-0042");
+
+    private static final String LIKE_QUERY = "SELECT c.course_id FROM courses c WHERE c.is_active = true AND " +
+            "(lower(c.name) LIKE '%' || lower(?) || '%' OR lower(c.code) LIKE '%' || lower(?) || '%' " +
+            "OR lower(c.description) LIKE '%' || lower(?) || '%') ORDER BY c.name, c.course_id LIMIT " + PAGE_SIZE;
+
+    private static final String SEARCH_QUERY = "SELECT c.course_id FROM courses c WHERE c.is_active = true AND " +
+            "(c.search_vector @@ to_tsquery('french_unaccent', ?) OR lower(c.code) % ?) " +
+            "ORDER BY ts_rank_cd(c.search_vector, to_tsquery('french_unaccent', ?)) " +
+            "+ similarity(lower(c.code), ?) DESC, c.course_id LIMIT " + PAGE_SIZE;
+
+    @Test
+    void fullTextSearchIsFasterThanLike() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(
+                System.getProperty("benchmark.jdbc.url"),
+                System.getProperty("benchmark.jdbc.user", "postgres"),
+                System.getProperty("benchmark.jdbc.password", ""))) {
+            connection.setAutoCommit(false);
+            try {
+                seed(connection);
+
+                double likeMedian = medianMillis(connection, LIKE_QUERY, true);
+                double searchMedian = medianMillis(connection, SEARCH_QUERY, false);
+
+                assertThat(searchMedian)
+                        .as("Première page sur %d cours : LIKE = %.2f ms, plein texte = %.2f ms (x%.1f)",
+                                COURSE_COUNT, likeMedian, searchMedian, likeMedian / searchMedian)
+                        .isLessThan(likeMedian);
+            } finally {
+                connection.rollback();
+            }
+        }
+    }
+
+    private static void seed(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("INSERT INTO courses (name, code, description, type, department, semester, credits, is_active) " +
+                    "SELECT (ARRAY['Programmation', 'Réseaux', 'Algorithmique', 'Bases de données', 'Mathématiques', " +
+                    "'Électronique', 'Gestion de projet', 'Anglais'])[1 + i % 8] || ' ' || i, " +
+                    "'BEN-' || lpad(i::text, 6, '0'), " +
+                    "repeat('Ce cours présente les notions fondamentales et les travaux pratiques associés. ', 8) || md5(i::text), " +
+                    "CASE WHEN i % 10 = 0 THEN 'service' ELSE 'course' END, " +
+                    "(ARRAY['Informatique', 'Mathématiques', 'Langues'])[1 + i % 3], 'S' || (1 + i % 2), 3, true " +
+                    "FROM generate_series(1, " + COURSE_COUNT + ") AS i");
+            statement.execute("ANALYZE courses");
+        }
+    }
+
+    private static double medianMillis(Connection connection, String sql, boolean like) throws SQLException {
+        double[] samples = new double[ITERATIONS * TERMS.size()];
+        int sample = 0;
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int i = 0; i < ITERATIONS; i++) {
+                for (String term : TERMS) {
+                    if (like) {
+                        statement.setString(1, term);
+                        statement.setString(2, term);
+                        statement.setString(3, term);
+                    } else {
+                        String tsQuery = CourseSearchTerms.toPrefixTsQuery(term);
+                        String code = CourseSearchTerms.normalizeCode(term);
+                        statement.setString(1, tsQuery);
+                        statement.setString(2, code);
+                        statement.setString(3, tsQuery);
+                        statement.setString(4, code);
+                    }
+                    long start = System.nanoTime();
+                    int count = 0;
+                    try (ResultSet rows = statement.executeQuery()) {
+                        while (rows.next()) {
+                            rows.getInt(1);
+                            count++;
+                        }
+                    }
+                    samples[sample++] = (System.nanoTime() - start) / 1_000_000.0;
+                    assertThat(count).as("lignes renvoyées pour « %s »", term).isEqualTo(PAGE_SIZE);
+                }
+            }
+        }
+        Arrays.sort(samples);
+        return samples[samples.length / 2];
+    }
+}
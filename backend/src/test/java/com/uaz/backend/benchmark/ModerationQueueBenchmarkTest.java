@@ -0,0 +1,190 @@
+package com.uaz.backend.benchmark;
+
+import com.uaz.backend.service.ModerationQueueService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Benchmark de la file de modération : de 1 à 8 modérateurs réservent des lots de 10 avis
+ * (FOR UPDATE SKIP LOCKED, migration V14) puis décident chaque avis dans sa propre transaction,
+ * qui garde son verrou 2 ms (lecture de l'avis par le modérateur). Vérifie qu'aucun avis n'est décidé deux fois
+ *
+ * La requête de réservation est celle du service, restreinte au cours de test pour ne pas réserver les avis
+ * réels en attente. Nécessite une base PostgreSQL migrée par Flyway ; un cours, des modérateurs et des étudiants
+ * de test sont créés puis supprimés (avec leurs avis) à la fin. Exécution :
+ * mvn test -Dtest=ModerationQueueBenchmarkTest -Dbenchmark.jdbc.url=jdbc:postgresql://localhost:5432/feedbacksystem
+ *          -Dbenchmark.jdbc.user=postgres -Dbenchmark.jdbc.password=...
+ */
+@EnabledIfSystemProperty(named = "benchmark.jdbc.url", matches = ".+")
+class ModerationQueueBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(ModerationQueueBenchmarkTest.class);
+
+    private static final int[] MODERATORS = {1, 2, 4, 8};
+    private static final int BATCH_SIZE = 10;
+    private static final int PENDING_REVIEWS = 20_000;
+    private static final long DURATION_MILLIS = 3_000;
+
+    private static final String DECIDE =
+            "UPDATE reviews SET moderation_status = 'approved', claimed_by = NULL, claim_expires_at = NULL " +
+            "WHERE review_id = ? AND moderation_status = 'pending' AND claimed_by = ?";
+
+    @Test
+    void claimedBatchesScaleWithModerators() throws Exception {
+        int courseId = createCourse();
+        List<Integer> moderators = createModerators();
+        try {
+            String claimNext = ModerationQueueService.CLAIM_NEXT.replace("r.moderation_status = 'pending'",
+                    "r.moderation_status = 'pending' AND r.course_id = " + courseId);
+            double[] throughput = new double[MODERATORS.length];
+            StringBuilder measured = new StringBuilder("Décisions/s :");
+            for (int i = 0; i < MODERATORS.length; i++) {
+                insertPendingReviews(courseId);
+                throughput[i] = decisionsPerSecond(claimNext, moderators.subList(0, MODERATORS[i]));
+                measured.append(String.format(" %d modérateur(s) = %.0f ;", MODERATORS[i], throughput[i]));
+            }
+
+            log.info("{}", measured);
+            assertThat(throughput[MODERATORS.length - 1]).as(measured.toString()).isGreaterThan(throughput[0] * 3);
+        } finally {
+            execute("DELETE FROM courses WHERE course_id = " + courseId);
+            execute("DELETE FROM users WHERE username LIKE 'bench-moderator-%' OR username LIKE 'bench-author-%'");
+        }
+    }
+
+    private static double decisionsPerSecond(String claimNext, List<Integer> moderators) throws Exception {
+        Set<Integer> decided = ConcurrentHashMap.newKeySet();
+        long deadline = System.currentTimeMillis() + DURATION_MILLIS;
+        ExecutorService pool = Executors.newFixedThreadPool(moderators.size());
+        try {
+            List<Callable<Integer>> tasks = new ArrayList<>();
+            for (Integer moderatorId : moderators) {
+                tasks.add(() -> {
+                    int decisions = 0;
+                    try (Connection connection = connect();
+                         PreparedStatement claim = connection.prepareStatement(claimNext);
+                         PreparedStatement decide = connection.prepareStatement(DECIDE);
+                         PreparedStatement work = connection.prepareStatement("SELECT pg_sleep(0.002)")) {
+                        connection.setAutoCommit(false);
+                        while (System.currentTimeMillis() < deadline) {
+                            List<Integer> batch = claim(claim, moderatorId);
+                            connection.commit();
+                            for (Integer reviewId : batch) {
+                                decide.setInt(1, reviewId);
+                                decide.setInt(2, moderatorId);
+                                if (decide.executeUpdate() == 1) {
+                                    assertThat(decided.add(reviewId)).as("avis %d décidé deux fois", reviewId).isTrue();
+                                    decisions++;
+                                }
+                                work.execute();
+                                connection.commit();
+                            }
+                        }
+                    }
+                    return decisions;
+                });
+            }
+            long start = System.nanoTime();
+            int total = 0;
+            for (Future<Integer> result : pool.invokeAll(tasks)) {
+                total += result.get();
+            }
+            assertThat(decided).hasSize(total);
+            return total / ((System.nanoTime() - start) / 1_000_000_000.0);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static List<Integer> claim(PreparedStatement claim, int moderatorId) throws SQLException {
+        LocalDateTime now = LocalDateTime.now();
+        claim.setTimestamp(1, Timestamp.valueOf(now));
+        claim.setInt(2, BATCH_SIZE);
+        claim.setInt(3, moderatorId);
+        claim.setTimestamp(4, Timestamp.valueOf(now.plusMinutes(5)));
+        List<Integer> reviewIds = new ArrayList<>(BATCH_SIZE);
+        try (ResultSet rows = claim.executeQuery()) {
+            while (rows.next()) {
+                reviewIds.add(rows.getInt(1));
+            }
+        }
+        return reviewIds;
+    }
+
+    /**
+     * Un avis par auteur de test (un seul avis par étudiant et par cours)
+     */
+    private static void insertPendingReviews(int courseId) throws SQLException {
+        execute("DELETE FROM reviews WHERE course_id = " + courseId);
+        execute("INSERT INTO users (username, email, password_hash, role, full_name, is_active) " +
+                "SELECT 'bench-author-' || i, 'bench-author-' || i || '@example.com', '-', 'student', " +
+                "'Auteur ' || i, true FROM generate_series(1, " + PENDING_REVIEWS + ") i " +
+                "ON CONFLICT DO NOTHING");
+        execute("INSERT INTO reviews (user_id, course_id, rating_overall, moderation_status, created_at, updated_at) " +
+                "SELECT u.user_id, " + courseId + ", 40, 'pending', " +
+                "TIMESTAMP '2000-01-01' + u.user_id * INTERVAL '1 second', CURRENT_TIMESTAMP " +
+                "FROM users u WHERE u.username LIKE 'bench-author-%'");
+        execute("ANALYZE reviews");
+    }
+
+    private static List<Integer> createModerators() throws SQLException {
+        List<Integer> moderators = new ArrayList<>();
+        try (Connection connection = connect();
+             Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery(
+                     "INSERT INTO users (username, email, password_hash, role, full_name, is_active) " +
+                     "SELECT 'bench-moderator-' || i, 'bench-moderator-' || i || '@example.com', '-', 'admin', " +
+                     "'Modérateur ' || i, true FROM generate_series(1, 8) i RETURNING user_id")) {
+            while (rows.next()) {
+                moderators.add(rows.getInt(1));
+            }
+        }
+        return moderators;
+    }
+
+    private static int createCourse() throws SQLException {
+        try (Connection connection = connect();
+             Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery(
+                     "INSERT INTO courses (name, code, type, department, semester, credits, is_active) " +
+                     "VALUES ('Benchmark modération', 'BENCH-QUEUE', 'course', 'Informatique', 'S1', 3, true) " +
+                     "RETURNING course_id")) {
+            rows.next();
+            return rows.getInt(1);
+        }
+    }
+
+    private static void execute(String sql) throws SQLException {
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private static Connection connect() throws SQLException {
+        return DriverManager.getConnection(
+                System.getProperty("benchmark.jdbc.url"),
+                System.getProperty("benchmark.jdbc.user", "postgres"),
+                System.getProperty("benchmark.jdbc.password", ""));
+    }
+}
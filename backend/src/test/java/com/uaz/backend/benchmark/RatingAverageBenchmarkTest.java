@@ -0,0 +1,147 @@
+package com.uaz.backend.benchmark;
+
+import com.uaz.backend.entity.Review;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Benchmark JMH des moyennes de notes : BigDecimal (ancienne représentation NUMERIC(2,1))
+ * contre dixièmes entiers (migration V11) sur 10 000 avis, débit et allocation par opération
+ *
+ * Exécution : mvn test -Dtest=RatingAverageBenchmarkTest -Dbenchmark.jmh=true
+ */
+@EnabledIfSystemProperty(named = "benchmark.jmh", matches = "true")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RatingAverageBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(RatingAverageBenchmarkTest.class);
+
+    private static final int REVIEW_COUNT = 10_000;
+
+    private BigDecimal[][] decimalRatings;
+    private Review[] reviews;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        decimalRatings = new BigDecimal[REVIEW_COUNT][];
+        reviews = new Review[REVIEW_COUNT];
+        for (int i = 0; i < REVIEW_COUNT; i++) {
+            BigDecimal[] ratings = new BigDecimal[4];
+            for (int criterion = 0; criterion < ratings.length; criterion++) {
+                // Un critère facultatif sur quatre n'est pas noté
+                if (criterion == 0 || random.nextInt(4) > 0) {
+                    ratings[criterion] = BigDecimal.valueOf(random.nextInt(51), 1);
+                }
+            }
+            decimalRatings[i] = ratings;
+
+            Review review = new Review();
+            review.setRatingOverall(ratings[0]);
+            review.setRatingClarity(ratings[1]);
+            review.setRatingMaterial(ratings[2]);
+            review.setRatingPedagogy(ratings[3]);
+            reviews[i] = review;
+        }
+    }
+
+    /**
+     * Moyenne de chaque avis puis moyenne globale du cours, en BigDecimal
+     */
+    @Benchmark
+    public BigDecimal decimal(Blackhole blackhole) {
+        BigDecimal sum = BigDecimal.ZERO;
+        for (BigDecimal[] ratings : decimalRatings) {
+            blackhole.consume(decimalAverage(ratings));
+            sum = sum.add(ratings[0]);
+        }
+        return sum.divide(BigDecimal.valueOf(REVIEW_COUNT), 2, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Même calcul en dixièmes : sommes entières, un seul BigDecimal par résultat exposé
+     */
+    @Benchmark
+    public BigDecimal fixedPoint(Blackhole blackhole) {
+        long sum = 0;
+        for (Review review : reviews) {
+            blackhole.consume(review.getAverageRating());
+            sum += review.getRatingOverallTenths();
+        }
+        return BigDecimal.valueOf((sum * 20 + REVIEW_COUNT) / (2L * REVIEW_COUNT), 2);
+    }
+
+    @Test
+    void fixedPointAveragesAreFasterAndAllocateLess() throws RunnerException {
+        Map<String, RunResult> results = new HashMap<>();
+        for (RunResult result : new Runner(new OptionsBuilder()
+                .include(RatingAverageBenchmarkTest.class.getName() + "\\.")
+                .addProfiler(GCProfiler.class)
+                .build()).run()) {
+            String benchmark = result.getParams().getBenchmark();
+            results.put(benchmark.substring(benchmark.lastIndexOf('.') + 1), result);
+        }
+
+        double decimalOps = results.get("decimal").getPrimaryResult().getScore();
+        double fixedPointOps = results.get("fixedPoint").getPrimaryResult().getScore();
+        double decimalBytes = allocatedBytes(results.get("decimal"));
+        double fixedPointBytes = allocatedBytes(results.get("fixedPoint"));
+
+        String measured = String.format("Moyennes sur %d avis : BigDecimal = %.0f ops/s (%.0f o/op), " +
+                "dixièmes = %.0f ops/s (%.0f o/op)", REVIEW_COUNT, decimalOps, decimalBytes, fixedPointOps, fixedPointBytes);
+        log.info("{}", measured);
+        assertThat(fixedPointOps).as(measured).isGreaterThan(decimalOps);
+        assertThat(fixedPointBytes).as(measured).isLessThan(decimalBytes);
+    }
+
+    private static double allocatedBytes(RunResult result) {
+        return result.getSecondaryResults().get("gc.alloc.rate.norm").getScore();
+    }
+
+    /**
+     * Ancienne implémentation de Review.getAverageRating (avant V11)
+     */
+    private static BigDecimal decimalAverage(BigDecimal[] ratings) {
+        int count = 1;
+        BigDecimal sum = ratings[0];
+        for (int criterion = 1; criterion < ratings.length; criterion++) {
+            if (ratings[criterion] != null) {
+                sum = sum.add(ratings[criterion]);
+                count++;
+            }
+        }
+        return sum.divide(BigDecimal.valueOf(count), 2, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,144 @@
+package com.uaz.backend.benchmark;
+
+import com.uaz.backend.service.StatisticsDeltaService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Benchmark de concurrence des approbations sur un même cours : variation écrite dans l'unique
+ * ligne course_statistics (ancienne écriture) contre une des 16 bandes course_statistics_deltas (migration V12),
+ * de 1 à 8 écrivains. Chaque transaction garde son verrou 2 ms (reste de la transaction de modération)
+ *
+ * Nécessite une base PostgreSQL migrée par Flyway ; un cours de test est créé puis supprimé (avec ses lignes
+ * de statistiques) à la fin. Exécution :
+ * mvn test -Dtest=StatisticsStripeBenchmarkTest -Dbenchmark.jdbc.url=jdbc:postgresql://localhost:5432/feedbacksystem
+ *          -Dbenchmark.jdbc.user=postgres -Dbenchmark.jdbc.password=...
+ */
+@EnabledIfSystemProperty(named = "benchmark.jdbc.url", matches = ".+")
+class StatisticsStripeBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(StatisticsStripeBenchmarkTest.class);
+
+    private static final int STRIPES = 16;
+    private static final int[] WRITERS = {1, 2, 4, 8};
+    private static final long DURATION_MILLIS = 3_000;
+
+    private static final String HOT_ROW_UPSERT =
+            "INSERT INTO course_statistics AS s (course_id, total_reviews, sum_overall_tenths) VALUES (?, 1, ?) " +
+            "ON CONFLICT (course_id) DO UPDATE SET total_reviews = s.total_reviews + 1, " +
+            "sum_overall_tenths = s.sum_overall_tenths + EXCLUDED.sum_overall_tenths, " +
+            "avg_rating_overall = ROUND((s.sum_overall_tenths + EXCLUDED.sum_overall_tenths) / 10.0 " +
+            "/ (s.total_reviews + 1), 2), last_updated = CURRENT_TIMESTAMP";
+
+    private static final String STRIPE_UPSERT =
+            "INSERT INTO course_statistics_deltas AS d (course_id, stripe, total_reviews, sum_overall_tenths) " +
+            "VALUES (?, ?, 1, ?) ON CONFLICT (course_id, stripe) DO UPDATE SET " +
+            "total_reviews = d.total_reviews + 1, sum_overall_tenths = d.sum_overall_tenths + EXCLUDED.sum_overall_tenths";
+
+    @Test
+    void stripedApprovalsScaleWithWriters() throws Exception {
+        int courseId = createCourse();
+        try {
+            double[] hotRow = new double[WRITERS.length];
+            double[] striped = new double[WRITERS.length];
+            StringBuilder measured = new StringBuilder("Approbations/s (ligne unique / bandes) :");
+            for (int i = 0; i < WRITERS.length; i++) {
+                hotRow[i] = approvalsPerSecond(courseId, WRITERS[i], false);
+                striped[i] = approvalsPerSecond(courseId, WRITERS[i], true);
+                measured.append(String.format(" %d écrivain(s) = %.0f / %.0f ;", WRITERS[i], hotRow[i], striped[i]));
+            }
+
+            int last = WRITERS.length - 1;
+            log.info("{}", measured);
+            assertThat(striped[last]).as(measured.toString()).isGreaterThan(striped[0] * 2);
+            assertThat(striped[last]).as(measured.toString()).isGreaterThan(hotRow[last] * 2);
+        } finally {
+            execute("DELETE FROM courses WHERE course_id = " + courseId);
+        }
+    }
+
+    private static double approvalsPerSecond(int courseId, int writers, boolean striped) throws Exception {
+        AtomicInteger reviewIds = new AtomicInteger();
+        long deadline = System.currentTimeMillis() + DURATION_MILLIS;
+        ExecutorService pool = Executors.newFixedThreadPool(writers);
+        try {
+            List<Callable<Integer>> tasks = new ArrayList<>();
+            for (int w = 0; w < writers; w++) {
+                tasks.add(() -> {
+                    int approvals = 0;
+                    try (Connection connection = connect();
+                         PreparedStatement upsert = connection.prepareStatement(striped ? STRIPE_UPSERT : HOT_ROW_UPSERT);
+                         PreparedStatement work = connection.prepareStatement("SELECT pg_sleep(0.002)")) {
+                        connection.setAutoCommit(false);
+                        while (System.currentTimeMillis() < deadline) {
+                            int reviewId = reviewIds.incrementAndGet();
+                            upsert.setInt(1, courseId);
+                            if (striped) {
+                                upsert.setInt(2, StatisticsDeltaService.stripe(reviewId, STRIPES));
+                                upsert.setLong(3, reviewId % 51);
+                            } else {
+                                upsert.setLong(2, reviewId % 51);
+                            }
+                            upsert.executeUpdate();
+                            work.execute();
+                            connection.commit();
+                            approvals++;
+                        }
+                    }
+                    return approvals;
+                });
+            }
+            long start = System.nanoTime();
+            int total = 0;
+            for (Future<Integer> result : pool.invokeAll(tasks)) {
+                total += result.get();
+            }
+            return total / ((System.nanoTime() - start) / 1_000_000_000.0);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static int createCourse() throws SQLException {
+        try (Connection connection = connect();
+             Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery(
+                     "INSERT INTO courses (name, code, type, department, semester, credits, is_active) " +
+                     "VALUES ('Benchmark bandes', 'BENCH-STRIPES', 'course', 'Informatique', 'S1', 3, true) " +
+                     "RETURNING course_id")) {
+            rows.next();
+            return rows.getInt(1);
+        }
+    }
+
+    private static void execute(String sql) throws SQLException {
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private static Connection connect() throws SQLException {
+        return DriverManager.getConnection(
+                System.getProperty("benchmark.jdbc.url"),
+                System.getProperty("benchmark.jdbc.user", "postgres"),
+                System.getProperty("benchmark.jdbc.password", ""));
+    }
+}
@@ -0,0 +1,79 @@
+package com.uaz.backend.controller;
+
+import com.uaz.backend.dto.CourseDTO;
+import com.uaz.backend.dto.MessageResponse;
+import com.uaz.backend.service.CourseImportService;
+import com.uaz.backend.service.CourseService;
+import com.uaz.backend.service.CourseStatisticsReport;
+import com.uaz.backend.service.RatingTrendService;
+import com.uaz.backend.service.ReviewAnalyticsStore;
+import com.uaz.backend.service.TrendingCourses;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+/**
+ * Vérifie la traduction des erreurs de paramètres du classement en réponses HTTP
+ */
+@ExtendWith(MockitoExtension.class)
+class CourseControllerTest {
+
+    @Mock
+    private CourseService courseService;
+
+    @Mock
+    private CourseImportService courseImportService;
+
+    @Mock
+    private CourseStatisticsReport courseStatisticsReport;
+
+    @Mock
+    private RatingTrendService ratingTrendService;
+
+    @Mock
+    private ReviewAnalyticsStore reviewAnalyticsStore;
+
+    @Mock
+    private TrendingCourses trendingCourses;
+
+    private CourseController courseController;
+
+    @BeforeEach
+    void setUp() {
+        courseController = new CourseController(courseService, courseImportService, courseStatisticsReport,
+                ratingTrendService, reviewAnalyticsStore, trendingCourses, JsonMapper.builder().build());
+    }
+
+    @Test
+    void unknownLeaderboardModeIsABadRequest() {
+        when(courseService.getTopRatedCourses(5, 1, "popular", null))
+                .thenThrow(new IllegalArgumentException("Mode de classement invalide: popular"));
+
+        ResponseEntity<?> response = courseController.getTopRatedCourses(5, 1, "popular", null);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(response.getBody()).isInstanceOfSatisfying(MessageResponse.class,
+                body -> assertThat(body.getMessage()).contains("popular"));
+    }
+
+    @Test
+    void leaderboardIsReturnedAsIs() {
+        List<CourseDTO> top = List.of(CourseDTO.builder().courseId(1).build());
+        when(courseService.getTopRatedCourses(5, 3, "bayesian", "Informatique")).thenReturn(top);
+
+        ResponseEntity<?> response = courseController.getTopRatedCourses(5, 3, "bayesian", "Informatique");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isSameAs(top);
+    }
+}
@@ -0,0 +1,79 @@
+package com.uaz.backend.repository;
+
+import com.uaz.backend.dto.CourseDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Vérifie l'ordre des classements calculés par la base : moyenne brute, ou moyenne bayésienne
+ * qui fait passer un cours très noté mais peu évalué derrière des cours évalués par beaucoup d'étudiants
+ *
+ * Les cours de test (un département dédié) sont insérés dans la transaction du test, annulée à la fin
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class CourseLeaderboardQueryTest {
+
+    private static final String DEPARTMENT = "Département du classement";
+    private static final BigDecimal GLOBAL_MEAN = new BigDecimal("3.50");
+
+    @Autowired
+    private CourseStatisticsRepository courseStatisticsRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        insertRatedCourse("RANK-FEW", "5.00", 1);
+        insertRatedCourse("RANK-MANY", "4.50", 50);
+        insertRatedCourse("RANK-MOST", "4.00", 200);
+        insertRatedCourse("RANK-NONE", null, 0);
+    }
+
+    @Test
+    void rawAverageRanksTheBestRatedFirst() {
+        assertThat(courseStatisticsRepository.findTopRatedCoursesByDepartment(DEPARTMENT, 1, PageRequest.of(0, 10)))
+                .extracting(CourseDTO::getCode)
+                .containsExactly("RANK-FEW", "RANK-MANY", "RANK-MOST");
+    }
+
+    @Test
+    void bayesianAverageRanksTheWidelyReviewedFirst() {
+        // (n * moyenne + 10 * 3,5) / (n + 10) : 4,33 pour 50 avis, 3,98 pour 200 avis, 3,64 pour un seul avis
+        assertThat(courseStatisticsRepository.findTopRatedCoursesBayesian(DEPARTMENT, 1, 10, GLOBAL_MEAN,
+                PageRequest.of(0, 10)))
+                .extracting(CourseDTO::getCode)
+                .containsExactly("RANK-MANY", "RANK-MOST", "RANK-FEW");
+    }
+
+    @Test
+    void thresholdAndLimitApplyToTheBayesianRanking() {
+        assertThat(courseStatisticsRepository.findTopRatedCoursesBayesian(DEPARTMENT, 100, 100, GLOBAL_MEAN,
+                PageRequest.of(0, 10)))
+                .extracting(CourseDTO::getCode)
+                .containsExactly("RANK-MOST");
+        assertThat(courseStatisticsRepository.findTopRatedCoursesBayesian(DEPARTMENT, 1, 10, GLOBAL_MEAN,
+                PageRequest.of(0, 1)))
+                .extracting(CourseDTO::getCode)
+                .containsExactly("RANK-MANY");
+    }
+
+    private void insertRatedCourse(String code, String average, int reviews) {
+        int courseId = jdbcTemplate.queryForObject(
+                "INSERT INTO courses (name, code, type, department, semester, credits, is_active) " +
+                "VALUES (?, ?, 'course', ?, 'S1', 3, true) RETURNING course_id",
+                Integer.class, "Cours " + code, code, DEPARTMENT);
+        jdbcTemplate.update("INSERT INTO course_statistics (course_id, avg_rating_overall, total_reviews) " +
+                "VALUES (?, ?, ?)", courseId, average != null ? new BigDecimal(average) : null, reviews);
+    }
+}
@@ -0,0 +1,102 @@
+package com.uaz.backend.repository;
+
+import com.uaz.backend.dto.CourseDTO;
+import com.uaz.backend.service.CourseCatalog;
+import com.uaz.backend.service.CourseCatalogSnapshot;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compte les requêtes SQL réellement préparées par Hibernate pour les listes de cours :
+ * le catalogue et la liste d'un enseignant gardent le même nombre de requêtes pour 1, 20 ou 200 cours
+ * (pas de chargement paresseux de l'enseignant ni des statistiques par cours)
+ *
+ * Les cours de test sont insérés dans la transaction du test, annulée à la fin
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(CourseCatalog.class)
+class CourseRepositoryStatementCountTest {
+
+    private static final String DEPARTMENT = "Département des requêtes";
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private CourseCatalog courseCatalog;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 20, 200})
+    void catalogIsBuiltWithTwoStatements(int courseCount) {
+        insertCourses(insertTeacher(), courseCount);
+
+        statistics.clear();
+        CourseCatalogSnapshot snapshot = courseCatalog.rebuild();
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        List<CourseDTO> courses = snapshot.getByDepartment(DEPARTMENT);
+        assertThat(courses).hasSize(courseCount);
+        assertThat(courses).allSatisfy(course -> {
+            assertThat(course.getTeacherName()).isEqualTo("Enseignant Requêtes");
+            assertThat(course.getTotalReviews()).isEqualTo(3);
+        });
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 20, 200})
+    void teacherListUsesOneStatement(int courseCount) {
+        int teacherId = insertTeacher();
+        insertCourses(teacherId, courseCount);
+
+        statistics.clear();
+        List<CourseDTO> courses = courseRepository.findActiveCourseDTOsByTeacher(teacherId);
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(courses).hasSize(courseCount);
+        assertThat(courses).allSatisfy(course -> assertThat(course.getAvgRating()).isEqualByComparingTo("4.20"));
+    }
+
+    private int insertTeacher() {
+        return jdbcTemplate.queryForObject(
+                "INSERT INTO users (username, email, password_hash, role, full_name, is_active) " +
+                "VALUES ('statement-teacher', 'statement-teacher@example.com', '-', 'teacher', " +
+                "'Enseignant Requêtes', true) RETURNING user_id", Integer.class);
+    }
+
+    private void insertCourses(int teacherId, int courseCount) {
+        jdbcTemplate.update(
+                "INSERT INTO courses (name, code, type, teacher_id, department, semester, credits, is_active) " +
+                "SELECT 'Cours ' || i, 'STMT-' || i, 'course', ?, ?, 'S1', 3, true " +
+                "FROM generate_series(1, ?) i", teacherId, DEPARTMENT, courseCount);
+        jdbcTemplate.update(
+                "INSERT INTO course_statistics (course_id, avg_rating_overall, total_reviews) " +
+                "SELECT course_id, 4.20, 3 FROM courses WHERE teacher_id = ?", teacherId);
+    }
+}
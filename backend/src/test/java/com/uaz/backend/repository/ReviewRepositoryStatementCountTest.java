@@ -0,0 +1,88 @@
+package com.uaz.backend.repository;
+
+import com.uaz.backend.dto.ReviewResponse;
+import com.uaz.backend.entity.Review;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compte les requêtes SQL réellement préparées par Hibernate pour une page d'avis d'un cours :
+ * deux requêtes (la page projetée et le total) pour 1, 20 ou 200 avis par page, sans lecture
+ * de l'auteur, du cours ni de la réponse avis par avis
+ *
+ * Les avis de test (un auteur par avis, un seul avis par étudiant et par cours) sont insérés
+ * dans la transaction du test, annulée à la fin
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class ReviewRepositoryStatementCountTest {
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 20, 200})
+    void coursePageUsesTwoStatements(int pageSize) {
+        int reviewCount = pageSize * 3;
+        int courseId = insertCourse();
+        insertApprovedReviews(courseId, reviewCount);
+
+        statistics.clear();
+        Page<ReviewResponse> page = reviewRepository.findReviewResponsesByCourseAndStatus(courseId,
+                Review.ModerationStatus.APPROVED, PageRequest.of(1, pageSize));
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(page.getTotalElements()).isEqualTo(reviewCount);
+        assertThat(page.getContent()).hasSize(pageSize).allSatisfy(review -> {
+            assertThat(review.getCourseCode()).isEqualTo("STMT-REV");
+            assertThat(review.getReviewerName()).startsWith("Auteur ");
+            assertThat(review.getTeacherResponse()).isEqualTo("Merci pour l'avis");
+        });
+    }
+
+    private int insertCourse() {
+        return jdbcTemplate.queryForObject(
+                "INSERT INTO courses (name, code, type, department, semester, credits, is_active) " +
+                "VALUES ('Cours des requêtes', 'STMT-REV', 'course', 'Informatique', 'S1', 3, true) " +
+                "RETURNING course_id", Integer.class);
+    }
+
+    private void insertApprovedReviews(int courseId, int reviewCount) {
+        jdbcTemplate.update(
+                "INSERT INTO users (username, email, password_hash, role, full_name, is_active) " +
+                "SELECT 'statement-author-' || i, 'statement-author-' || i || '@example.com', '-', 'student', " +
+                "'Auteur ' || i, true FROM generate_series(1, ?) i", reviewCount);
+        jdbcTemplate.update(
+                "INSERT INTO reviews (user_id, course_id, rating_overall, comment, anonymous, moderation_status) " +
+                "SELECT user_id, ?, 40, 'Avis de test', false, 'approved' FROM users " +
+                "WHERE username LIKE 'statement-author-%'", courseId);
+        jdbcTemplate.update(
+                "INSERT INTO review_responses (review_id, teacher_id, response_text) " +
+                "SELECT review_id, user_id, 'Merci pour l''avis' FROM reviews WHERE course_id = ?", courseId);
+    }
+}
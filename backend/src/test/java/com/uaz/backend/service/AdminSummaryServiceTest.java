@@ -0,0 +1,98 @@
+package com.uaz.backend.service;
+
+import com.uaz.backend.dto.AdminSummaryDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Vérifie le cache court et le regroupement des appels concurrents du résumé administrateur
+ */
+@ExtendWith(MockitoExtension.class)
+class AdminSummaryServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private AdminSummaryService adminSummaryService;
+
+    private final AtomicLong queries = new AtomicLong();
+
+    @BeforeEach
+    void setUp() {
+        adminSummaryService = new AdminSummaryService(jdbcTemplate);
+        ReflectionTestUtils.setField(adminSummaryService, "ttlMillis", 60_000L);
+    }
+
+    @Test
+    void concurrentCallersShareASingleQuery() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(jdbcTemplate.queryForObject(anyString(), ArgumentMatchers.<RowMapper<AdminSummaryDTO>>any())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return summary(queries.incrementAndGet());
+        });
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<AdminSummaryDTO>> calls = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                calls.add(pool.submit(adminSummaryService::getSummary));
+            }
+            Thread.sleep(100);
+            release.countDown();
+            for (Future<AdminSummaryDTO> call : calls) {
+                assertThat(call.get(5, TimeUnit.SECONDS).getTotalUsers()).isEqualTo(1);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertThat(adminSummaryService.getSummary().getTotalUsers()).isEqualTo(1);
+        verify(jdbcTemplate, times(1)).queryForObject(anyString(), ArgumentMatchers.<RowMapper<AdminSummaryDTO>>any());
+    }
+
+    @Test
+    void expiredSummaryIsRecomputed() {
+        ReflectionTestUtils.setField(adminSummaryService, "ttlMillis", 0L);
+        when(jdbcTemplate.queryForObject(anyString(), ArgumentMatchers.<RowMapper<AdminSummaryDTO>>any()))
+                .thenAnswer(invocation -> summary(queries.incrementAndGet()));
+
+        adminSummaryService.getSummary();
+
+        assertThat(adminSummaryService.getSummary().getTotalUsers()).isEqualTo(2);
+    }
+
+    @Test
+    void failuresAreNotCached() {
+        when(jdbcTemplate.queryForObject(anyString(), ArgumentMatchers.<RowMapper<AdminSummaryDTO>>any()))
+                .thenThrow(new IllegalStateException("base indisponible"))
+                .thenAnswer(invocation -> summary(7));
+
+        assertThatThrownBy(adminSummaryService::getSummary).isInstanceOf(IllegalStateException.class);
+        assertThat(adminSummaryService.getSummary().getTotalUsers()).isEqualTo(7);
+    }
+
+    private static AdminSummaryDTO summary(long totalUsers) {
+        return AdminSummaryDTO.builder().totalUsers(totalUsers).build();
+    }
+}
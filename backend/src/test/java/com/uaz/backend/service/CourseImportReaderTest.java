@@ -0,0 +1,68 @@
+package com.uaz.backend.service;
+
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Vérifie le décodage en flux des fichiers d'import (CSV et NDJSON)
+ */
+class CourseImportReaderTest {
+
+    @Test
+    void csvHandlesQuotedFieldsAndReportsLineNumbers() throws IOException {
+        String csv = "code,name,type,teacherId,credits,description\r\n"
+                + "INF101,Programmation,course,7,6,\"Bases, \"\"Java\"\"\nsur deux lignes\"\r\n"
+                + "\r\n"
+                + "INF102,Algorithmique,course,,x,\n";
+
+        try (CourseImportReader reader = CourseImportReader.csv(new StringReader(csv))) {
+            CourseImportReader.Row first = reader.next();
+            assertThat(first.line()).isEqualTo(2);
+            assertThat(first.error()).isNull();
+            assertThat(first.request().getCode()).isEqualTo("INF101");
+            assertThat(first.request().getTeacherId()).isEqualTo(7);
+            assertThat(first.request().getCredits()).isEqualTo(6);
+            assertThat(first.request().getDescription()).isEqualTo("Bases, \"Java\"\nsur deux lignes");
+
+            CourseImportReader.Row second = reader.next();
+            assertThat(second.line()).isEqualTo(5);
+            assertThat(second.request().getTeacherId()).isNull();
+            assertThat(second.error()).contains("credits");
+
+            assertThat(reader.next()).isNull();
+        }
+    }
+
+    @Test
+    void csvRejectsUnknownColumns() {
+        assertThatThrownBy(() -> CourseImportReader.csv(new StringReader("code,title\n")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("title");
+    }
+
+    @Test
+    void ndjsonDecodesOneObjectPerLine() throws IOException {
+        String ndjson = "{\"code\":\"INF101\",\"name\":\"Programmation\",\"type\":\"course\",\"teacherId\":7}\n"
+                + "\n"
+                + "{not json}\n";
+
+        try (CourseImportReader reader = CourseImportReader.open("application/x-ndjson; charset=UTF-8",
+                new StringReader(ndjson), JsonMapper.builder().build())) {
+            CourseImportReader.Row first = reader.next();
+            assertThat(first.line()).isEqualTo(1);
+            assertThat(first.request().getTeacherId()).isEqualTo(7);
+
+            CourseImportReader.Row second = reader.next();
+            assertThat(second.line()).isEqualTo(3);
+            assertThat(second.error()).isEqualTo("JSON invalide");
+
+            assertThat(reader.next()).isNull();
+        }
+    }
+}
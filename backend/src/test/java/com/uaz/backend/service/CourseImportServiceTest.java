@@ -0,0 +1,102 @@
+package com.uaz.backend.service;
+
+import com.uaz.backend.dto.CourseImportResult;
+import com.uaz.backend.dto.CourseImportSummary;
+import com.uaz.backend.entity.User;
+import com.uaz.backend.repository.CourseRepository;
+import com.uaz.backend.repository.UserRepository;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Vérifie que l'import valide chaque paquet avec une requête ensembliste et insère en batch
+ */
+@ExtendWith(MockitoExtension.class)
+class CourseImportServiceTest {
+
+    @Mock
+    private CourseRepository courseRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private CourseImportService courseImportService;
+
+    @BeforeEach
+    void setUp() {
+        courseImportService = new CourseImportService(courseRepository, userRepository, jdbcTemplate,
+                transactionManager, Validation.buildDefaultValidatorFactory().getValidator(), eventPublisher);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void importsChunksWithSetBasedValidationAndBatchInserts() throws IOException {
+        StringBuilder csv = new StringBuilder("code,name,type,teacherId\n");
+        for (int i = 1; i <= 1200; i++) {
+            csv.append("C").append(i).append(",Cours ").append(i).append(",course,")
+                    .append(i == 3 ? "99" : "7").append('\n');
+        }
+        csv.append("C1100,Doublon,course,7\n");
+        csv.append("C1201,Sans type,,7\n");
+
+        when(courseRepository.findExistingCodes(any())).thenAnswer(invocation ->
+                ((Collection<String>) invocation.getArgument(0)).contains("C10") ? List.of("C10") : List.of());
+        when(userRepository.findUserIdsByRole(any(), eq(User.UserRole.TEACHER))).thenReturn(List.of(7));
+        when(jdbcTemplate.batchUpdate(anyString(), any(Collection.class), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class))).thenAnswer(invocation -> {
+            int[] counts = new int[((Collection<?>) invocation.getArgument(1)).size()];
+            Arrays.fill(counts, 1);
+            return new int[][]{counts};
+        });
+
+        List<CourseImportResult> results = new ArrayList<>();
+        CourseImportSummary summary = courseImportService.importCourses(
+                CourseImportReader.csv(new StringReader(csv.toString())), results::add);
+
+        assertThat(summary.getTotal()).isEqualTo(1202);
+        assertThat(summary.getCreated()).isEqualTo(1198);
+        assertThat(summary.getRejected()).isEqualTo(4);
+        assertThat(results).hasSize(1202);
+        assertThat(results.get(2).getMessage()).startsWith("Enseignant non trouvé");
+        assertThat(results.get(9).getMessage()).isEqualTo("Un cours avec ce code existe déjà");
+        assertThat(results.get(1200).getMessage()).isEqualTo("Code en double dans l'import");
+        assertThat(results.get(1201).getMessage()).isEqualTo("Le type est obligatoire");
+
+        verify(courseRepository, times(3)).findExistingCodes(any());
+        verify(userRepository, times(3)).findUserIdsByRole(any(), any());
+        verify(jdbcTemplate, times(3)).batchUpdate(anyString(), any(Collection.class), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+        verify(eventPublisher).publishEvent(CourseCatalogChangedEvent.all());
+    }
+}
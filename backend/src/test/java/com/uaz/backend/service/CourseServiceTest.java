@@ -0,0 +1,368 @@
+package com.uaz.backend.service;
+
+import com.uaz.backend.dto.CourseDTO;
+import com.uaz.backend.dto.CourseFields;
+import com.uaz.backend.dto.CourseStatisticsDTO;
+import com.uaz.backend.dto.CursorPage;
+import com.uaz.backend.dto.KeysetCursor;
+import com.uaz.backend.entity.Course;
+import com.uaz.backend.entity.User;
+import com.uaz.backend.repository.CourseDescriptionView;
+import com.uaz.backend.repository.CourseRatingView;
+import com.uaz.backend.repository.CourseRepository;
+import com.uaz.backend.repository.CourseStatisticsRepository;
+import com.uaz.backend.repository.CourseVersionView;
+import com.uaz.backend.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Vérifie que les listes de cours passent par une seule méthode de projection du repository
+ * et que les endpoints publics sont servis par le catalogue en mémoire
+ * (le nombre de requêtes SQL est compté par CourseRepositoryStatementCountTest)
+ */
+@ExtendWith(MockitoExtension.class)
+class CourseServiceTest {
+
+    @Mock
+    private CourseRepository courseRepository;
+
+    @Mock
+    private CourseStatisticsRepository courseStatisticsRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private StatisticsDeltaService statisticsDeltaService;
+
+    private CourseCatalog courseCatalog;
+
+    private CourseService courseService;
+
+    @BeforeEach
+    void setUp() {
+        courseCatalog = new CourseCatalog(courseRepository);
+        courseService = new CourseService(courseRepository, courseStatisticsRepository, userRepository,
+                courseCatalog, new CourseSuggestIndex(courseRepository, courseCatalog), eventPublisher,
+                statisticsDeltaService);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 50, 2000})
+    void catalogListsAreServedFromOneLoad(int courseCount) {
+        when(courseRepository.findActiveCourseDTOs()).thenReturn(courses(courseCount));
+        when(courseRepository.findAllDepartments()).thenReturn(List.of("Informatique"));
+
+        assertThat(courseService.getAllActiveCourses()).hasSize(courseCount);
+        assertThat(courseService.getCoursesByType("course")).hasSize(courseCount);
+        assertThat(courseService.getCoursesByDepartment("Informatique")).hasSize(courseCount);
+        assertThat(courseService.getAllDepartments()).containsExactly("Informatique");
+
+        verify(courseRepository, times(1)).findActiveCourseDTOs();
+        verify(courseRepository, times(1)).findAllDepartments();
+        verifyNoMoreInteractions(courseRepository);
+        verifyNoInteractions(courseStatisticsRepository);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2000})
+    void teacherListUsesOneQuery(int courseCount) {
+        when(courseRepository.findActiveCourseDTOsByTeacher(7)).thenReturn(courses(courseCount));
+
+        assertThat(courseService.getCoursesByTeacher(7)).hasSize(courseCount);
+
+        verify(courseRepository).findActiveCourseDTOsByTeacher(7);
+        verifyNoMoreInteractions(courseRepository);
+        verifyNoInteractions(courseStatisticsRepository);
+    }
+
+    @Test
+    void catalogRebuildPublishesNewVersion() {
+        when(courseRepository.findActiveCourseDTOs()).thenReturn(courses(3)).thenReturn(courses(4));
+        when(courseRepository.findAllDepartments()).thenReturn(List.of("Informatique"));
+
+        CourseCatalogSnapshot first = courseCatalog.current();
+        courseCatalog.onCourseCatalogChanged(CourseCatalogChangedEvent.of(4));
+        CourseCatalogSnapshot second = courseCatalog.current();
+
+        assertThat(second.getVersion()).isEqualTo(first.getVersion() + 1);
+        assertThat(first.size()).isEqualTo(3);
+        assertThat(second.size()).isEqualTo(4);
+        assertThat(second.findById(4)).isPresent();
+    }
+
+    @Test
+    void statisticsFoldPatchesRatingsWithoutReloadingTheCatalog() {
+        when(courseRepository.findActiveCourseDTOs()).thenReturn(courses(3));
+        when(courseRepository.findAllDepartments()).thenReturn(List.of("Informatique"));
+        CourseRatingView rating = mock(CourseRatingView.class);
+        when(rating.getCourseId()).thenReturn(2);
+        when(rating.getAvgRating()).thenReturn(new BigDecimal("3.25"));
+        when(rating.getTotalReviews()).thenReturn(13);
+        when(courseRepository.findRatingsByCourseIds(Set.of(2))).thenReturn(List.of(rating));
+
+        CourseCatalogSnapshot first = courseCatalog.current();
+        courseCatalog.onCourseStatisticsChanged(new CourseStatisticsChangedEvent(Set.of(2)));
+        CourseCatalogSnapshot second = courseCatalog.current();
+
+        assertThat(second.getVersion()).isEqualTo(first.getVersion() + 1);
+        assertThat(second.getDigest()).isNotEqualTo(first.getDigest());
+        assertThat(second.findById(2).orElseThrow().getAvgRating()).isEqualByComparingTo("3.25");
+        assertThat(second.findById(2).orElseThrow().getTotalReviews()).isEqualTo(13);
+        assertThat(second.findById(1).orElseThrow()).isSameAs(first.findById(1).orElseThrow());
+        // L'empreinte corrigée est celle d'un instantané construit entièrement sur le même contenu
+        assertThat(second.getDigest()).isEqualTo(
+                CourseCatalogSnapshot.of(9, second.getCourses(), List.of("Informatique")).getDigest());
+        assertThat(second.getByDepartment("Informatique")).hasSize(3);
+        verify(courseRepository, times(1)).findActiveCourseDTOs();
+        verify(courseRepository, times(1)).findAllDepartments();
+    }
+
+    @Test
+    void recentCoursesRejectCursorsWithoutTimestamp() {
+        ReflectionTestUtils.setField(courseService, "maxPageSize", 100);
+
+        assertThatThrownBy(() -> courseService.getRecentCourses(10, KeysetCursor.ofId(5).encode()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Curseur invalide");
+        verifyNoInteractions(courseRepository);
+    }
+
+    @Test
+    void catalogListsShareTheLoadedCoursesWithoutCopies() {
+        List<CourseDTO> loaded = courses(3);
+        when(courseRepository.findActiveCourseDTOs()).thenReturn(loaded);
+        when(courseRepository.findAllDepartments()).thenReturn(List.of("Informatique"));
+
+        CourseCatalogSnapshot snapshot = courseCatalog.current();
+
+        assertThat(courseService.getAllActiveCourses().get(0)).isSameAs(loaded.get(0));
+        assertThat(courseService.getCoursesByDepartment("Informatique").get(1)).isSameAs(loaded.get(1));
+        assertThat(snapshot.findById(3)).containsSame(loaded.get(2));
+        assertThat(snapshot.findById(4)).isEmpty();
+        assertThatThrownBy(() -> snapshot.getCourses().set(0, loaded.get(1)))
+                .isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    void cursorPagesWalkTheCatalogWithoutGapsOrDuplicates() {
+        ReflectionTestUtils.setField(courseService, "defaultPageSize", 20);
+        ReflectionTestUtils.setField(courseService, "maxPageSize", 100);
+        when(courseRepository.findActiveCourseDTOs()).thenReturn(courses(45));
+        when(courseRepository.findAllDepartments()).thenReturn(List.of("Informatique"));
+
+        List<Object> seen = new ArrayList<>();
+        String cursor = null;
+        CursorPage<Object> page;
+        do {
+            page = courseService.getAllActiveCourses(null, 20, cursor, "courseId,code");
+            seen.addAll(page.getItems());
+            cursor = page.getNextCursor();
+        } while (page.getHasMore());
+
+        assertThat(seen).hasSize(45);
+        assertThat(page.getTotalElements()).isEqualTo(45);
+        assertThat(seen.get(44)).isEqualTo(Map.of("courseId", 45, "code", "C45"));
+        verify(courseRepository, times(1)).findActiveCourseDTOs();
+    }
+
+    @Test
+    void teacherPageLoadsDescriptionsOnlyWhenRequested() {
+        ReflectionTestUtils.setField(courseService, "defaultPageSize", 20);
+        ReflectionTestUtils.setField(courseService, "maxPageSize", 100);
+        when(courseRepository.findActiveCourseSummariesByTeacher(eq(7), eq(0), any()))
+                .thenReturn(new SliceImpl<>(courses(2)))
+                .thenReturn(new SliceImpl<>(courses(2)))
+                .thenReturn(new SliceImpl<>(courses(2)));
+        when(courseRepository.countActiveCoursesByTeacher(7)).thenReturn(2L);
+
+        courseService.getCoursesByTeacher(7, 0, 20, null, "courseId,name");
+        CursorPage<Object> defaults = courseService.getCoursesByTeacher(7, 0, 20, null, null);
+        verify(courseRepository, never()).findDescriptionsByCourseIds(any());
+        assertThat(defaults.getItems()).allSatisfy(item -> assertThat(keys(item))
+                .contains("courseId", "name", "teacherName").doesNotContain("description"));
+
+        CourseDescriptionView description = mock(CourseDescriptionView.class);
+        when(description.getCourseId()).thenReturn(1);
+        when(description.getDescription()).thenReturn("Introduction");
+        when(courseRepository.findDescriptionsByCourseIds(List.of(1, 2))).thenReturn(List.of(description));
+        CursorPage<Object> described = courseService.getCoursesByTeacher(7, 0, 20, null, "courseId,description");
+        assertThat(described.getItems()).containsExactly(Map.of("courseId", 1, "description", "Introduction"),
+                Map.of("courseId", 2));
+        assertThat(described.getTotalElements()).isEqualTo(2);
+    }
+
+    @Test
+    void pagesHaveTheSameShapeFromTheCatalogAndFromTheDatabase() {
+        ReflectionTestUtils.setField(courseService, "defaultPageSize", 20);
+        ReflectionTestUtils.setField(courseService, "maxPageSize", 100);
+        List<CourseDTO> described = courses(3).stream()
+                .map(course -> course.toBuilder().description("Description " + course.getCourseId()).build())
+                .toList();
+        when(courseRepository.findActiveCourseDTOs()).thenReturn(described);
+        when(courseRepository.findAllDepartments()).thenReturn(List.of("Informatique"));
+        when(userRepository.findById(5)).thenReturn(Optional.of(
+                User.builder().userId(5).role(User.UserRole.STUDENT).department("Informatique").build()));
+        when(courseRepository.findActiveCourseSummariesByDepartmentOrType(eq("Informatique"),
+                eq(Course.CourseType.SERVICE), eq(0), any())).thenReturn(new SliceImpl<>(courses(3)));
+        when(courseRepository.countActiveCoursesByDepartmentOrType("Informatique", Course.CourseType.SERVICE))
+                .thenReturn(3L);
+
+        CursorPage<Object> fromCatalog = courseService.getAllActiveCourses(0, 20, null, null);
+        CursorPage<Object> fromDatabase = courseService.getCoursesForUser(5, 0, 20, null, null);
+
+        assertThat(fromCatalog.getTotalElements()).isEqualTo(fromDatabase.getTotalElements()).isEqualTo(3);
+        assertThat(fromCatalog.getItems()).hasSize(3).allSatisfy(item ->
+                assertThat(keys(item)).containsExactlyElementsOf(CourseFields.LIST_DEFAULT));
+        assertThat(keys(fromDatabase.getItems().get(0))).isEqualTo(keys(fromCatalog.getItems().get(0)));
+        verify(courseRepository, never()).findDescriptionsByCourseIds(any());
+    }
+
+    @Test
+    void etagsFollowCatalogContentAndUpdateDates() {
+        List<CourseDTO> catalog = courses(3);
+        when(courseRepository.findActiveCourseDTOs()).thenReturn(catalog).thenReturn(catalog).thenReturn(courses(4));
+        when(courseRepository.findAllDepartments()).thenReturn(List.of("Informatique"));
+        CourseVersionView before = version(LocalDateTime.of(2026, 1, 5, 10, 0), null);
+        CourseVersionView after = version(LocalDateTime.of(2026, 1, 5, 10, 0), LocalDateTime.of(2026, 1, 6, 9, 30));
+        when(courseRepository.findVersionByCourseId(1)).thenReturn(Optional.of(before)).thenReturn(Optional.of(after));
+        when(courseRepository.findVersionByCourseId(99)).thenReturn(Optional.empty());
+
+        String catalogETag = courseService.getCatalogETag();
+        assertThat(courseService.getCatalogETag()).isEqualTo(catalogETag);
+        // Reconstruction sans changement (ou autre instance, redémarrage) : même ETag, version différente
+        courseCatalog.onCourseCatalogChanged(CourseCatalogChangedEvent.of(1));
+        assertThat(courseCatalog.version()).isEqualTo(2);
+        assertThat(courseService.getCatalogETag()).isEqualTo(catalogETag);
+        courseCatalog.onCourseCatalogChanged(CourseCatalogChangedEvent.of(4));
+        assertThat(courseService.getCatalogETag()).isNotEqualTo(catalogETag);
+
+        // Statistiques reportées (date) ou variations en attente (empreinte) : l'ETag change sans report à la lecture
+        when(statisticsDeltaService.pendingVersion(1)).thenReturn("0").thenReturn("0").thenReturn("5e2c");
+        String statisticsETag = courseService.getCourseStatisticsETag(1).orElseThrow();
+        String foldedETag = courseService.getCourseStatisticsETag(1).orElseThrow();
+        assertThat(foldedETag).isNotEqualTo(statisticsETag);
+        assertThat(courseService.getCourseStatisticsETag(1)).get().isNotEqualTo(foldedETag);
+        verify(statisticsDeltaService, never()).foldAll();
+        assertThat(courseService.getCourseETag(99)).isEmpty();
+    }
+
+    @Test
+    void statisticsAreReadWithOneJoinedQuery() {
+        CourseStatisticsDTO stats = CourseStatisticsDTO.builder().courseId(1).courseName("Cours 1").totalReviews(0).build();
+        when(statisticsDeltaService.readCourseStatistics(1)).thenReturn(Optional.of(stats));
+        when(courseRepository.findCourseStatisticsDTOsByIds(Set.of(1, 2))).thenReturn(List.of(stats));
+
+        assertThat(courseService.getCourseStatistics(1)).isSameAs(stats);
+        assertThat(courseService.getCoursesStatistics(List.of(1, 2, 2))).containsExactly(stats);
+
+        verify(courseRepository, never()).findById(any());
+        verifyNoInteractions(courseStatisticsRepository);
+    }
+
+    @Test
+    void leaderboardClampsTheLimitAndTheThreshold() {
+        ReflectionTestUtils.setField(courseService, "maxPageSize", 100);
+
+        courseService.getTopRatedCourses(500, 0, "rating", " ");
+        courseService.getTopRatedCourses(0, null, null, null);
+
+        verify(courseStatisticsRepository).findTopRatedCourses(1, PageRequest.of(0, 100));
+        verify(courseStatisticsRepository).findTopRatedCourses(1, PageRequest.of(0, 1));
+        verify(courseStatisticsRepository, never()).findTopRatedCoursesByDepartment(any(), anyInt(), any());
+    }
+
+    @Test
+    void leaderboardFiltersByDepartment() {
+        ReflectionTestUtils.setField(courseService, "maxPageSize", 100);
+        List<CourseDTO> top = courses(2);
+        when(courseStatisticsRepository.findTopRatedCoursesByDepartment("Informatique", 3, PageRequest.of(0, 5)))
+                .thenReturn(top);
+
+        assertThat(courseService.getTopRatedCourses(5, 3, "RATING", "Informatique")).isSameAs(top);
+        verify(courseStatisticsRepository, never()).findTopRatedCourses(anyInt(), any());
+    }
+
+    @Test
+    void bayesianLeaderboardUsesTheGlobalMeanAndAPriorNoSmallerThanTheThreshold() {
+        ReflectionTestUtils.setField(courseService, "maxPageSize", 100);
+        ReflectionTestUtils.setField(courseService, "bayesianPrior", 5);
+        BigDecimal globalMean = new BigDecimal("3.80");
+        when(courseStatisticsRepository.findGlobalMeanRating()).thenReturn(globalMean);
+
+        courseService.getTopRatedCourses(10, 2, "bayesian", "Informatique");
+        courseService.getTopRatedCourses(10, 20, "Bayesian", "");
+
+        verify(courseStatisticsRepository).findTopRatedCoursesBayesian("Informatique", 2, 5, globalMean,
+                PageRequest.of(0, 10));
+        verify(courseStatisticsRepository).findTopRatedCoursesBayesian(null, 20, 20, globalMean,
+                PageRequest.of(0, 10));
+    }
+
+    @Test
+    void bayesianLeaderboardIsEmptyWithoutAnyRating() {
+        ReflectionTestUtils.setField(courseService, "maxPageSize", 100);
+        when(courseStatisticsRepository.findGlobalMeanRating()).thenReturn(null);
+
+        assertThat(courseService.getTopRatedCourses(10, 1, "bayesian", null)).isEmpty();
+        verify(courseStatisticsRepository, never()).findTopRatedCoursesBayesian(any(), anyInt(), anyInt(), any(), any());
+    }
+
+    @Test
+    void leaderboardRejectsAnUnknownMode() {
+        ReflectionTestUtils.setField(courseService, "maxPageSize", 100);
+
+        assertThatThrownBy(() -> courseService.getTopRatedCourses(10, 1, "popular", null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("popular");
+        verifyNoInteractions(courseStatisticsRepository);
+    }
+
+    private static List<String> keys(Object item) {
+        return ((Map<?, ?>) item).keySet().stream().map(String::valueOf).toList();
+    }
+
+    private static CourseVersionView version(LocalDateTime updatedAt, LocalDateTime statisticsUpdatedAt) {
+        CourseVersionView view = mock(CourseVersionView.class);
+        when(view.getUpdatedAt()).thenReturn(updatedAt);
+        when(view.getStatisticsUpdatedAt()).thenReturn(statisticsUpdatedAt);
+        return view;
+    }
+
+    private static List<CourseDTO> courses(int count) {
+        return IntStream.rangeClosed(1, count)
+                .mapToObj(id -> new CourseDTO(id, "Cours " + id, "C" + id, null, Course.CourseType.COURSE,
+                        7, "Dr. Jean Dupont", "Informatique", "S1", 3, true,
+                        BigDecimal.valueOf(4), 12, LocalDateTime.now(), LocalDateTime.now()))
+                .toList();
+    }
+}
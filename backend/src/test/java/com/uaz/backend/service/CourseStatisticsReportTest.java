@@ -0,0 +1,139 @@
+package com.uaz.backend.service;
+
+import com.uaz.backend.dto.CourseStatisticsDTO;
+import com.uaz.backend.repository.CourseRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Vérifie le rendu pré-sérialisé du rapport des statistiques et sa reconstruction hors lecture
+ */
+@ExtendWith(MockitoExtension.class)
+class CourseStatisticsReportTest {
+
+    @Mock
+    private CourseRepository courseRepository;
+
+    private CourseStatisticsReport report;
+
+    @BeforeEach
+    void setUp() {
+        report = new CourseStatisticsReport(courseRepository, JsonMapper.builder().build());
+        ReflectionTestUtils.setField(report, "rebuildDelayMillis", 20L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        report.shutdown();
+    }
+
+    @Test
+    void hitsServeTheSameBytesWithoutQuerying() throws IOException {
+        when(courseRepository.findActiveCourseStatisticsDTOs(null, null)).thenReturn(List.of(statistics("4.50")));
+
+        CourseStatisticsReport.Rendered first = report.current();
+        CourseStatisticsReport.Rendered second = report.current();
+
+        assertThat(second).isSameAs(first);
+        verify(courseRepository, times(1)).findActiveCourseStatisticsDTOs(null, null);
+        String json = new String(first.body(false), StandardCharsets.UTF_8);
+        assertThat(json).startsWith("[{").contains("\"courseId\":3");
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(first.body(true)))) {
+            assertThat(gzip.readAllBytes()).isEqualTo(first.body(false));
+        }
+        assertThat(first.etag(true)).isNotEqualTo(first.etag(false)).endsWith("-gzip\"");
+    }
+
+    @Test
+    void aCommittedChangeRebuildsInTheBackground() throws InterruptedException {
+        when(courseRepository.findActiveCourseStatisticsDTOs(null, null))
+                .thenReturn(List.of(statistics("4.50")))
+                .thenReturn(List.of(statistics("3.00")));
+        String etag = report.current().etag(false);
+
+        // Un report des bandes ne change que les statistiques : le rapport est aussi reconstruit
+        report.onCourseStatisticsChanged(new CourseStatisticsChangedEvent(Set.of(3)));
+        String rebuilt = awaitETagOtherThan(etag);
+
+        assertThat(rebuilt).isNotEqualTo(etag);
+        verify(courseRepository, times(2)).findActiveCourseStatisticsDTOs(null, null);
+    }
+
+    @Test
+    void readsServeThePreviousRenderWhileRebuilding() throws InterruptedException {
+        CountDownLatch querying = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(courseRepository.findActiveCourseStatisticsDTOs(null, null))
+                .thenReturn(List.of(statistics("4.50")))
+                .thenAnswer(invocation -> {
+                    querying.countDown();
+                    release.await();
+                    return List.of(statistics("3.00"));
+                });
+        CourseStatisticsReport.Rendered first = report.current();
+
+        report.onCourseCatalogChanged(CourseCatalogChangedEvent.of(3));
+        assertThat(querying.await(5, TimeUnit.SECONDS)).isTrue();
+        // La reconstruction est bloquée dans la requête : la lecture ne l'attend pas
+        assertThat(report.current()).isSameAs(first);
+
+        release.countDown();
+        awaitETagOtherThan(first.etag(false));
+        verify(courseRepository, times(2)).findActiveCourseStatisticsDTOs(null, null);
+    }
+
+    @Test
+    void changesWithinTheDelayShareOneRebuild() throws InterruptedException {
+        ReflectionTestUtils.setField(report, "rebuildDelayMillis", 200L);
+        when(courseRepository.findActiveCourseStatisticsDTOs(null, null))
+                .thenReturn(List.of(statistics("4.50")))
+                .thenReturn(List.of(statistics("3.00")));
+        String etag = report.current().etag(false);
+
+        for (int fold = 0; fold < 5; fold++) {
+            report.onCourseStatisticsChanged(new CourseStatisticsChangedEvent(Set.of(3)));
+        }
+        awaitETagOtherThan(etag);
+
+        verify(courseRepository, times(2)).findActiveCourseStatisticsDTOs(null, null);
+    }
+
+    private String awaitETagOtherThan(String etag) throws InterruptedException {
+        for (int attempt = 0; attempt < 200; attempt++) {
+            String current = report.current().etag(false);
+            if (!current.equals(etag)) {
+                return current;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("Le rapport n'a pas été reconstruit");
+    }
+
+    private static CourseStatisticsDTO statistics(String average) {
+        return CourseStatisticsDTO.builder()
+                .courseId(3)
+                .courseName("Programmation")
+                .avgRatingOverall(new BigDecimal(average))
+                .totalReviews(2)
+                .build();
+    }
+}
@@ -0,0 +1,232 @@
+package com.uaz.backend.service;
+
+import com.uaz.backend.entity.Course;
+import com.uaz.backend.entity.CourseStatistics;
+import com.uaz.backend.entity.Review;
+import com.uaz.backend.repository.CourseStatisticsRepository;
+import com.uaz.backend.repository.DepartmentStatisticsRepository;
+import com.uaz.backend.repository.TeacherStatisticsRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+/**
+ * Vérifie les variations écrites dans les bandes de course_statistics pour chaque transition de modération
+ */
+@ExtendWith(MockitoExtension.class)
+class CourseStatisticsServiceTest {
+
+    private static final int STRIPES = 16;
+
+    private static final int STRIPE = StatisticsDeltaService.stripe(41, STRIPES);
+
+    @Mock
+    private CourseStatisticsRepository courseStatisticsRepository;
+
+    @Mock
+    private DepartmentStatisticsRepository departmentStatisticsRepository;
+
+    @Mock
+    private TeacherStatisticsRepository teacherStatisticsRepository;
+
+    private CourseStatisticsService courseStatisticsService;
+
+    @BeforeEach
+    void setUp() {
+        courseStatisticsService = new CourseStatisticsService(courseStatisticsRepository,
+                departmentStatisticsRepository, teacherStatisticsRepository);
+        ReflectionTestUtils.setField(courseStatisticsService, "deltaStripes", STRIPES);
+    }
+
+    @Test
+    void approvingAddsTheReviewContribution() {
+        Review review = review("4.5", "4.0", null, "3.5", Review.ModerationStatus.PENDING);
+        ReviewContribution before = ReviewContribution.of(review);
+        review.setModerationStatus(Review.ModerationStatus.APPROVED);
+
+        courseStatisticsService.onApprovedReviewChanged(
+                ApprovedReviewChangedEvent.between(before, ReviewContribution.of(review)));
+
+        verify(courseStatisticsRepository).applyReviewDeltaStripe(3, STRIPE, 1, 45, 40, 1, 0, 0, 35, 1,
+                "{0,0,0,0,0,0,0,0,0,1,0}", "{0,0,0,0,0,0,0,0,1,0,0}",
+                "{0,0,0,0,0,0,0,0,0,0,0}", "{0,0,0,0,0,0,0,1,0,0,0}",
+                sketch(45, 1), sketch(40, 1), sketch(0, 0), sketch(35, 1));
+        // La ligne course_statistics et les agrégats ne sont écrits qu'au report des bandes
+        verify(courseStatisticsRepository, never()).applyReviewDelta(any(), anyInt(), anyLong(), anyLong(),
+                anyInt(), anyLong(), anyInt(), anyLong(), anyInt(), any(), any(), any(), any(),
+                any(), any(), any(), any());
+        verifyNoInteractions(departmentStatisticsRepository, teacherStatisticsRepository);
+    }
+
+    @Test
+    void reviewsAreSpreadOverTheStripes() {
+        int[] perStripe = new int[STRIPES];
+        for (int reviewId = 1; reviewId <= STRIPES * 100; reviewId++) {
+            perStripe[StatisticsDeltaService.stripe(reviewId, STRIPES)]++;
+        }
+
+        assertThat(Arrays.stream(perStripe).min().getAsInt()).isGreaterThan(50);
+        assertThat(Arrays.stream(perStripe).max().getAsInt()).isLessThan(150);
+        assertThat(StatisticsDeltaService.stripe(null, STRIPES)).isZero();
+        assertThat(StatisticsDeltaService.stripe(41, 1)).isZero();
+    }
+
+    @Test
+    void movingACourseTransfersItsStatisticsBetweenAggregates() {
+        when(courseStatisticsRepository.lockByCourseId(3)).thenReturn(Optional.of(30));
+
+        courseStatisticsService.onCourseAssignmentChanged(
+                CourseAssignmentChangedEvent.between(3, "Informatique", "Mathématiques", 7, 7));
+
+        InOrder order = inOrder(courseStatisticsRepository, departmentStatisticsRepository);
+        order.verify(courseStatisticsRepository).lockByCourseId(3);
+        order.verify(departmentStatisticsRepository).applyCourse("Informatique", 3, -1);
+        order.verify(departmentStatisticsRepository).applyCourse("Mathématiques", 3, 1);
+        verifyNoInteractions(teacherStatisticsRepository);
+    }
+
+    @Test
+    void movingACourseLocksTheAggregatesInKeyOrder() {
+        when(courseStatisticsRepository.lockByCourseId(3)).thenReturn(Optional.of(30));
+
+        courseStatisticsService.onCourseAssignmentChanged(
+                CourseAssignmentChangedEvent.between(3, "Mathématiques", "Informatique", 8, 7));
+
+        InOrder order = inOrder(departmentStatisticsRepository, teacherStatisticsRepository);
+        order.verify(departmentStatisticsRepository).applyCourse("Informatique", 3, 1);
+        order.verify(departmentStatisticsRepository).applyCourse("Mathématiques", 3, -1);
+        order.verify(teacherStatisticsRepository).applyCourse(7, 3, 1);
+        order.verify(teacherStatisticsRepository).applyCourse(8, 3, -1);
+    }
+
+    @Test
+    void movingACourseWithoutStatisticsChangesNoAggregate() {
+        when(courseStatisticsRepository.lockByCourseId(3)).thenReturn(Optional.empty());
+
+        courseStatisticsService.onCourseAssignmentChanged(
+                CourseAssignmentChangedEvent.between(3, null, null, 7, 8));
+
+        verifyNoInteractions(departmentStatisticsRepository, teacherStatisticsRepository);
+        assertThat(CourseAssignmentChangedEvent.between(3, "Informatique", "Informatique", 7, 7)).isNull();
+    }
+
+    @Test
+    void editingAnApprovedReviewRemovesItsContribution() {
+        Review review = review("4.5", "4.0", "2.0", null, Review.ModerationStatus.APPROVED);
+        ReviewContribution before = ReviewContribution.of(review);
+        review.setRatingOverall(new BigDecimal("1.0"));
+        review.setModerationStatus(Review.ModerationStatus.PENDING);
+
+        courseStatisticsService.onApprovedReviewChanged(
+                ApprovedReviewChangedEvent.between(before, ReviewContribution.of(review)));
+
+        verify(courseStatisticsRepository).applyReviewDeltaStripe(3, STRIPE, -1, -45, -40, -1, -20, -1, 0, 0,
+                "{0,0,0,0,0,0,0,0,0,-1,0}", "{0,0,0,0,0,0,0,0,-1,0,0}",
+                "{0,0,0,0,-1,0,0,0,0,0,0}", "{0,0,0,0,0,0,0,0,0,0,0}",
+                sketch(45, -1), sketch(40, -1), sketch(20, -1), sketch(0, 0));
+    }
+
+    @Test
+    void rollupsOfTheReviewDatePeriodsReceiveTheSameDelta() {
+        Review review = review("4.5", null, null, null, Review.ModerationStatus.PENDING);
+        review.setCreatedAt(LocalDateTime.of(2025, 3, 12, 10, 0));
+        ReviewContribution before = ReviewContribution.of(review);
+        review.setModerationStatus(Review.ModerationStatus.APPROVED);
+
+        courseStatisticsService.onApprovedReviewChanged(
+                ApprovedReviewChangedEvent.between(before, ReviewContribution.of(review)));
+
+        verify(courseStatisticsRepository).applyRollupDeltaStripe(3, STRIPE, LocalDate.of(2025, 3, 10),
+                LocalDate.of(2025, 3, 1), LocalDate.of(2025, 1, 1), 1, 45, 0, 0, 0, 0, 0, 0);
+    }
+
+    @Test
+    void periodsStartAndLabelLikeTheRollupKeys() {
+        LocalDate date = LocalDate.of(2024, 12, 31);
+
+        assertThat(RatingPeriod.WEEK.start(date)).isEqualTo(LocalDate.of(2024, 12, 30));
+        assertThat(RatingPeriod.WEEK.label(RatingPeriod.WEEK.start(date))).isEqualTo("2025-W01");
+        assertThat(RatingPeriod.MONTH.label(RatingPeriod.MONTH.start(date))).isEqualTo("2024-12");
+        assertThat(RatingPeriod.SEMESTER.start(date)).isEqualTo(LocalDate.of(2024, 7, 1));
+        assertThat(RatingPeriod.SEMESTER.label(LocalDate.of(2024, 7, 1))).isEqualTo("2024-S2");
+        assertThat(RatingPeriod.fromValue("Semester")).isEqualTo(RatingPeriod.SEMESTER);
+    }
+
+    @Test
+    void transitionsOutsideApprovedStateProduceNoEvent() {
+        Review review = review("4.5", null, null, null, Review.ModerationStatus.PENDING);
+        ReviewContribution before = ReviewContribution.of(review);
+        review.setModerationStatus(Review.ModerationStatus.REJECTED);
+
+        assertThat(ApprovedReviewChangedEvent.between(before, ReviewContribution.of(review))).isNull();
+        verify(courseStatisticsRepository, never()).applyReviewDeltaStripe(any(), anyInt(), anyInt(), anyLong(),
+                anyLong(), anyInt(), anyLong(), anyInt(), anyLong(), anyInt(), any(), any(), any(), any(),
+                any(), any(), any(), any());
+    }
+
+    @Test
+    void ratingsAreStoredAsTenthsAndAveragedWithoutDecimalArithmetic() {
+        assertThat(Review.tenths(new BigDecimal("4.25"))).isEqualTo((short) 43);
+        assertThat(Review.tenths(new BigDecimal("5"))).isEqualTo((short) 50);
+        assertThat(Review.tenths(null)).isEqualTo(Review.NOT_RATED);
+        assertThat(Review.rating((short) 35)).isEqualByComparingTo("3.5");
+        assertThat(Review.rating(Review.NOT_RATED)).isNull();
+
+        Review review = review("4.5", "4.0", null, "3.5", Review.ModerationStatus.APPROVED);
+        assertThat(review.getRatingMaterial()).isNull();
+        assertThat(review.getAverageRating()).isEqualTo(new BigDecimal("4.00"));
+        review.setRatingClarity(new BigDecimal("4.1"));
+        assertThat(review.getAverageRating()).isEqualTo(new BigDecimal("4.03"));
+        assertThat(ReviewContribution.of(review).clarity()).isEqualTo(41);
+        assertThat(ReviewContribution.of(review).material()).isNull();
+
+        CourseStatistics statistics = CourseStatistics.builder()
+                .totalReviews(3).sumOverallTenths(130L)
+                .sumClarityTenths(25L).countClarity(1)
+                .build();
+        assertThat(statistics.getOverallAverage()).isEqualTo(new BigDecimal("3.42"));
+    }
+
+    @Test
+    void ratingsFallIntoTheNearestHalfStarBucket() {
+        assertThat(RatingHistogram.bucket(0)).isZero();
+        assertThat(RatingHistogram.bucket(12)).isEqualTo(2);
+        assertThat(RatingHistogram.bucket(13)).isEqualTo(3);
+        assertThat(RatingHistogram.bucket(43)).isEqualTo(9);
+        assertThat(RatingHistogram.bucket(50)).isEqualTo(10);
+        assertThat(RatingHistogram.toSqlArray(new int[] {1, 0, 2})).isEqualTo("{1,0,2}");
+    }
+
+    private static String sketch(int tenths, int weight) {
+        return RatingHistogram.toSqlArray(RatingSketch.empty().add(tenths, weight).toArray());
+    }
+
+    private static Review review(String overall, String clarity, String material, String pedagogy,
+                                 Review.ModerationStatus status) {
+        return Review.builder()
+                .reviewId(41)
+                .course(Course.builder().courseId(3).build())
+                .ratingOverallTenths(Review.tenths(new BigDecimal(overall)))
+                .ratingClarityTenths(Review.tenths(clarity != null ? new BigDecimal(clarity) : null))
+                .ratingMaterialTenths(Review.tenths(material != null ? new BigDecimal(material) : null))
+                .ratingPedagogyTenths(Review.tenths(pedagogy != null ? new BigDecimal(pedagogy) : null))
+                .moderationStatus(status)
+                .build();
+    }
+}
@@ -0,0 +1,146 @@
+package com.uaz.backend.service;
+
+import com.uaz.backend.dto.CourseDTO;
+import com.uaz.backend.dto.CourseSuggestionDTO;
+import com.uaz.backend.repository.CourseRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CourseSuggestIndexTest {
+
+    private CourseSuggestIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new CourseSuggestIndex(null, null);
+        index.put(course(1, "INF-101", "Programmation Java", "Dr. Jean Dupont"));
+        index.put(course(2, "RES-201", "Réseaux et télécommunications", "Dr. Marie Martin"));
+        index.put(course(3, "MAT-110", "Mathématiques discrètes", "Dr. Jean Dupont"));
+        index.put(course(4, "INF-205", "Programmation web", null));
+    }
+
+    @Test
+    void matchesPrefixesWithoutAccentsOrCase() {
+        assertThat(ids(index.suggest("RESEAU", 5))).containsExactly(2);
+        assertThat(ids(index.suggest("mathé", 5))).containsExactly(3);
+        assertThat(ids(index.suggest("prog", 5))).containsExactlyInAnyOrder(1, 4);
+    }
+
+    @Test
+    void requiresEveryQueryWordAndRanksCodeFirst() {
+        assertThat(ids(index.suggest("prog java", 5))).containsExactly(1);
+        assertThat(ids(index.suggest("dupont", 5))).containsExactlyInAnyOrder(1, 3);
+        assertThat(ids(index.suggest("inf101", 5))).first().isEqualTo(1);
+    }
+
+    @Test
+    void fallsBackToTrigramsForTypos() {
+        assertThat(ids(index.suggest("programation", 5))).contains(1, 4);
+    }
+
+    @Test
+    void keepsOnlyTopK() {
+        assertThat(index.suggest("dr", 2)).hasSize(2);
+    }
+
+    @Test
+    void updatesAndRemovesIncrementally() {
+        index.put(course(2, "RES-201", "Systèmes distribués", "Dr. Marie Martin"));
+        assertThat(index.suggest("reseaux", 5)).isEmpty();
+        assertThat(ids(index.suggest("distrib", 5))).containsExactly(2);
+
+        CourseDTO inactive = course(1, "INF-101", "Programmation Java", "Dr. Jean Dupont").toBuilder()
+                .isActive(false)
+                .build();
+        index.put(inactive);
+        assertThat(ids(index.suggest("java", 5))).isEmpty();
+        assertThat(ids(index.suggest("ja", 5))).isEmpty();
+        assertThat(ids(index.suggest("di", 5))).containsExactlyInAnyOrder(2, 3);
+        assertThat(index.size()).isEqualTo(3);
+    }
+
+    @Test
+    void shortPrefixesRankLikeTheFullScoring() {
+        assertThat(ids(index.suggest("pr ja", 5))).containsExactly(1);
+        assertThat(ids(index.suggest("i", 5))).containsExactly(4, 1);
+        assertThat(ids(index.suggest("d", 5))).containsExactlyInAnyOrder(1, 2, 3);
+        assertThat(index.suggest("in", 1)).singleElement()
+                .satisfies(suggestion -> assertThat(suggestion.getScore())
+                        .isEqualTo(index.suggest("inf", 1).get(0).getScore()));
+    }
+
+    @Test
+    void wordsPastTheBoundAreNeitherIndexedNorScored() {
+        StringBuilder name = new StringBuilder();
+        for (int word = 1; word <= CourseSuggestIndex.MAX_TOKENS_PER_COURSE + 6; word++) {
+            name.append("mot").append(word).append(' ');
+        }
+        index.put(course(9, "LONG-1", name + "zygomatique", "Dr. Paul Bernard"));
+
+        assertThat(ids(index.suggest("mot1", 5))).containsExactly(9);
+        assertThat(ids(index.suggest("zygomatique", 5))).isEmpty();
+        assertThat(ids(index.suggest("zy", 5))).isEmpty();
+        // Le nom de l'enseignant vient après la borne : ni cherchable, ni noté
+        assertThat(ids(index.suggest("bernard", 5))).isEmpty();
+        assertThat(ids(index.suggest("be", 5))).isEmpty();
+    }
+
+    @Test
+    void ranksEveryPrefixMatchBeforeKeepingTopK() {
+        for (int id = 100; id < 6_100; id++) {
+            index.put(course(id, "X-" + id, "Cours " + id, "Alain Martin"));
+        }
+        index.put(course(50, "ALG-300", "Structures de données", null));
+
+        assertThat(ids(index.suggest("al", 1))).containsExactly(50);
+    }
+
+    @Test
+    void fullRefreshServesTheOldIndexUntilSwappedAndReplaysUpdates() throws Exception {
+        CourseRepository courseRepository = mock(CourseRepository.class);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch loaded = new CountDownLatch(1);
+        when(courseRepository.findActiveCourseDTOs()).thenAnswer(invocation -> {
+            loading.countDown();
+            loaded.await();
+            return List.of(course(1, "INF-101", "Programmation Java", "Dr. Jean Dupont"),
+                    course(5, "BIO-100", "Biologie cellulaire", null));
+        });
+        CourseSuggestIndex refreshed = new CourseSuggestIndex(courseRepository, null);
+        refreshed.put(course(1, "INF-101", "Programmation Java", "Dr. Jean Dupont"));
+
+        Thread reload = new Thread(() -> refreshed.onCourseCatalogChanged(CourseCatalogChangedEvent.all()));
+        reload.start();
+        loading.await();
+        assertThat(ids(refreshed.suggest("java", 5))).containsExactly(1);
+        refreshed.put(course(6, "CHI-100", "Chimie organique", null));
+        loaded.countDown();
+        reload.join();
+
+        assertThat(ids(refreshed.suggest("java", 5))).containsExactly(1);
+        assertThat(ids(refreshed.suggest("bio", 5))).containsExactly(5);
+        assertThat(ids(refreshed.suggest("chimie", 5))).containsExactly(6);
+        assertThat(refreshed.size()).isEqualTo(3);
+    }
+
+    private static List<Integer> ids(List<CourseSuggestionDTO> suggestions) {
+        return suggestions.stream().map(CourseSuggestionDTO::getCourseId).toList();
+    }
+
+    private static CourseDTO course(int id, String code, String name, String teacher) {
+        return CourseDTO.builder()
+                .courseId(id)
+                .code(code)
+                .name(name)
+                .teacherName(teacher)
+                .isActive(true)
+                .build();
+    }
+}
@@ -0,0 +1,112 @@
+package com.uaz.backend.service;
+
+import com.uaz.backend.dto.ModerationBatchDTO;
+import com.uaz.backend.dto.ReviewResponse;
+import com.uaz.backend.repository.ReviewRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Vérifie la réservation des lots de modération : taille bornée, durée de réservation, renouvellement du lot en cours et lot vide sans lecture
+ */
+@ExtendWith(MockitoExtension.class)
+class ModerationQueueServiceTest {
+
+    @Mock
+    private ReviewRepository reviewRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private ModerationQueueService moderationQueueService;
+
+    @BeforeEach
+    void setUp() {
+        moderationQueueService = new ModerationQueueService(reviewRepository, jdbcTemplate);
+        ReflectionTestUtils.setField(moderationQueueService, "leaseSeconds", 300L);
+        ReflectionTestUtils.setField(moderationQueueService, "maxBatchSize", 50);
+    }
+
+    @Test
+    void claimedReviewsAreReadWithOneProjectionQuery() {
+        when(jdbcTemplate.queryForList(eq(ModerationQueueService.RENEW_OWN), eq(Integer.class), any(Object[].class)))
+                .thenReturn(List.of());
+        when(jdbcTemplate.queryForList(eq(ModerationQueueService.CLAIM_NEXT), eq(Integer.class), any(Object[].class)))
+                .thenReturn(List.of(4, 9));
+        List<ReviewResponse> reviews = List.of(ReviewResponse.builder().reviewId(4).build(),
+                ReviewResponse.builder().reviewId(9).build());
+        when(reviewRepository.findReviewResponsesByIds(List.of(4, 9))).thenReturn(reviews);
+
+        LocalDateTime before = LocalDateTime.now();
+        ModerationBatchDTO batch = moderationQueueService.claimNext(7, 500);
+
+        assertThat(batch.getReviews()).isSameAs(reviews);
+        assertThat(batch.getClaimExpiresAt()).isBetween(before.plusSeconds(300), LocalDateTime.now().plusSeconds(300));
+        ArgumentCaptor<Object[]> arguments = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbcTemplate).queryForList(eq(ModerationQueueService.CLAIM_NEXT), eq(Integer.class), arguments.capture());
+        assertThat(arguments.getValue()).hasSize(4);
+        assertThat(arguments.getValue()[1]).isEqualTo(50);
+        assertThat(arguments.getValue()[2]).isEqualTo(7);
+        assertThat(arguments.getValue()[3]).isEqualTo(batch.getClaimExpiresAt());
+    }
+
+    @Test
+    void renewingKeepsTheCurrentBatchAndCompletesIt() {
+        when(jdbcTemplate.queryForList(eq(ModerationQueueService.RENEW_OWN), eq(Integer.class), any(Object[].class)))
+                .thenReturn(List.of(4, 9));
+        when(jdbcTemplate.queryForList(eq(ModerationQueueService.CLAIM_NEXT), eq(Integer.class), any(Object[].class)))
+                .thenReturn(List.of(12));
+        when(reviewRepository.findReviewResponsesByIds(List.of(4, 9, 12))).thenReturn(List.of());
+
+        moderationQueueService.claimNext(7, 3);
+
+        ArgumentCaptor<Object[]> renewed = ArgumentCaptor.forClass(Object[].class);
+        ArgumentCaptor<Object[]> claimed = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbcTemplate).queryForList(eq(ModerationQueueService.RENEW_OWN), eq(Integer.class), renewed.capture());
+        verify(jdbcTemplate).queryForList(eq(ModerationQueueService.CLAIM_NEXT), eq(Integer.class), claimed.capture());
+        assertThat(renewed.getValue()[1]).isEqualTo(7);
+        assertThat(renewed.getValue()[0]).isEqualTo(claimed.getValue()[3]);
+        assertThat(claimed.getValue()[1]).isEqualTo(1);
+    }
+
+    @Test
+    void aFullRenewedBatchClaimsNothingMore() {
+        when(jdbcTemplate.queryForList(eq(ModerationQueueService.RENEW_OWN), eq(Integer.class), any(Object[].class)))
+                .thenReturn(List.of(4, 9));
+        when(reviewRepository.findReviewResponsesByIds(List.of(4, 9))).thenReturn(List.of());
+
+        moderationQueueService.claimNext(7, 2);
+
+        verify(jdbcTemplate, never()).queryForList(eq(ModerationQueueService.CLAIM_NEXT), eq(Integer.class),
+                any(Object[].class));
+    }
+
+    @Test
+    void emptyQueueReturnsAnEmptyBatch() {
+        when(jdbcTemplate.queryForList(eq(ModerationQueueService.RENEW_OWN), eq(Integer.class), any(Object[].class)))
+                .thenReturn(List.of());
+        when(jdbcTemplate.queryForList(eq(ModerationQueueService.CLAIM_NEXT), eq(Integer.class), any(Object[].class)))
+                .thenReturn(List.of());
+
+        ModerationBatchDTO batch = moderationQueueService.claimNext(7, 10);
+
+        assertThat(batch.getReviews()).isEmpty();
+        assertThat(batch.getClaimExpiresAt()).isNull();
+        verify(reviewRepository, never()).findReviewResponsesByIds(anyList());
+    }
+}
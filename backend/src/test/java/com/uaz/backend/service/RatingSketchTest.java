@@ -0,0 +1,77 @@
+package com.uaz.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compare les quantiles du résumé aux percentiles exacts (tri complet) sur des notes synthétiques
+ */
+class RatingSketchTest {
+
+    private static final double[] QUANTILES = {0.0, 0.01, 0.1, 0.25, 0.5, 0.75, 0.9, 0.99, 1.0};
+
+    @Test
+    void quantilesMatchExactPercentilesOnPolarizedRatings() {
+        Random random = new Random(42);
+        List<Integer> ratings = new ArrayList<>();
+        RatingSketch sketch = RatingSketch.empty();
+        for (int i = 0; i < 20_000; i++) {
+            // Cours polarisé : deux modes autour de 1.0 et 4.5 étoiles
+            double mean = random.nextDouble() < 0.4 ? 10 : 45;
+            int tenths = (int) Math.max(0, Math.min(50, Math.round(mean + random.nextGaussian() * 4)));
+            ratings.add(tenths);
+            sketch.add(tenths, 1);
+        }
+
+        assertMatchesExact(sketch, ratings);
+    }
+
+    @Test
+    void mergedSketchesMatchTheUnionOfTheirRatings() {
+        Random random = new Random(7);
+        List<Integer> all = new ArrayList<>();
+        RatingSketch merged = RatingSketch.empty();
+        for (int course = 0; course < 25; course++) {
+            RatingSketch sketch = RatingSketch.empty();
+            int reviews = 1 + random.nextInt(300);
+            for (int i = 0; i < reviews; i++) {
+                int tenths = random.nextInt(51);
+                all.add(tenths);
+                sketch.add(tenths, 1);
+            }
+            merged.merge(RatingSketch.of(sketch.toArray()));
+        }
+
+        assertMatchesExact(merged, all);
+    }
+
+    @Test
+    void removedRatingsNoLongerCount() {
+        RatingSketch sketch = RatingSketch.empty().add(10, 1).add(20, 1).add(50, 1);
+
+        sketch.add(10, -1);
+
+        assertThat(sketch.count()).isEqualTo(2);
+        assertThat(sketch.quantile(0.5)).isEqualByComparingTo("2.0");
+        assertThat(RatingSketch.empty().quantiles()).isNull();
+    }
+
+    private static void assertMatchesExact(RatingSketch sketch, List<Integer> ratings) {
+        List<Integer> sorted = new ArrayList<>(ratings);
+        Collections.sort(sorted);
+        assertThat(sketch.count()).isEqualTo(sorted.size());
+        for (double q : QUANTILES) {
+            // Percentile exact par rang le plus proche
+            int rank = Math.max(1, (int) Math.ceil(q * sorted.size()));
+            BigDecimal exact = BigDecimal.valueOf(sorted.get(rank - 1), 1);
+            assertThat(sketch.quantile(q)).as("q=%s", q).isEqualByComparingTo(exact);
+        }
+    }
+}
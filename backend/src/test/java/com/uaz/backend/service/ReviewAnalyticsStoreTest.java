@@ -0,0 +1,167 @@
+package com.uaz.backend.service;
+
+import com.uaz.backend.dto.ReviewAnalyticsDTO;
+import com.uaz.backend.dto.ReviewAnalyticsGroupDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Vérifie les filtres, agrégats et mises à jour du magasin d'analyse en colonnes
+ */
+@ExtendWith(MockitoExtension.class)
+class ReviewAnalyticsStoreTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 3, 12);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private ReviewAnalyticsStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new ReviewAnalyticsStore(jdbcTemplate);
+        store.load();
+        store.putCourse(1, "Informatique", "S1", "course");
+        store.putCourse(2, "Informatique", "S2", "service");
+        store.putCourse(3, "Mathématiques", "S1", "course");
+    }
+
+    @Test
+    void filtersAndAggregatesTheApprovedReviews() {
+        approve(10, 1, 45, null, DAY);
+        approve(11, 2, 30, 40, DAY.plusDays(1));
+        approve(12, 3, 50, 20, DAY.plusDays(30));
+
+        ReviewAnalyticsDTO all = store.query(null, null, null, null, null, null, null);
+        assertThat(all.getReviews()).isEqualTo(3);
+        assertThat(all.getAverage()).isEqualByComparingTo("4.17");
+        assertThat(all.getHistogram()[9]).isEqualTo(1);
+
+        ReviewAnalyticsDTO clarity = store.query("Informatique", null, null, null, DAY, "Clarity", null);
+        assertThat(clarity.getReviews()).isEqualTo(1);
+        assertThat(clarity.getRated()).isZero();
+        assertThat(clarity.getAverage()).isNull();
+
+        assertThat(store.query(null, "COURSE", "S1", DAY, DAY.plusDays(30), null, null).getReviews()).isEqualTo(2);
+        assertThat(store.query("Physique", null, null, null, null, null, null).getReviews()).isZero();
+    }
+
+    @Test
+    void groupsByDictionaryEncodedAttribute() {
+        approve(10, 1, 45, null, DAY);
+        approve(11, 2, 30, 40, DAY);
+        approve(12, 3, 50, 20, DAY);
+        store.putCourse(4, null, "S1", "course");
+        approve(13, 4, 10, null, DAY);
+
+        ReviewAnalyticsDTO byDepartment = store.query(null, null, null, null, null, null, "department");
+
+        assertThat(byDepartment.getGroups()).extracting(ReviewAnalyticsGroupDTO::getKey)
+                .containsExactly("Informatique", "Mathématiques", null);
+        assertThat(byDepartment.getGroups().get(0).getReviews()).isEqualTo(2);
+        assertThat(byDepartment.getGroups().get(0).getAverage()).isEqualByComparingTo("3.75");
+    }
+
+    @Test
+    void moderationAndCourseChangesKeepTheColumnsCurrent() {
+        approve(10, 1, 45, null, DAY);
+        approve(11, 2, 30, 40, DAY);
+        approve(12, 3, 50, 20, DAY);
+
+        // Avis 10 rejeté, avis 11 modifié (remplacé en place)
+        store.onApprovedReviewChanged(new ApprovedReviewChangedEvent(contribution(10, 1, 45, null, DAY), null));
+        approve(11, 2, 10, 40, DAY);
+        // Cours 3 déplacé vers Informatique
+        store.putCourse(3, "Informatique", "S1", "course");
+
+        ReviewAnalyticsDTO informatique = store.query("Informatique", null, null, null, null, null, null);
+        assertThat(store.size()).isEqualTo(2);
+        assertThat(informatique.getReviews()).isEqualTo(2);
+        assertThat(informatique.getAverage()).isEqualByComparingTo(new BigDecimal("3.00"));
+    }
+
+    @Test
+    void scansEveryChunkInParallel() {
+        int reviews = ReviewAnalyticsStore.SCAN_CHUNK_SIZE * 2 + 17;
+        long secondSemester = 0;
+        for (int reviewId = 1; reviewId <= reviews; reviewId++) {
+            int courseId = 1 + reviewId % 3;
+            approve(reviewId, courseId, reviewId % 51, null, DAY);
+            if (courseId == 2) {
+                secondSemester++;
+            }
+        }
+
+        ReviewAnalyticsDTO all = store.query(null, null, null, null, null, null, "semester");
+
+        assertThat(all.getReviews()).isEqualTo(reviews);
+        assertThat(all.getGroups()).extracting(ReviewAnalyticsGroupDTO::getReviews)
+                .containsExactly(reviews - secondSemester, secondSemester);
+    }
+
+    @Test
+    void removalsKeepTheReviewIndexInStep() {
+        int reviews = 5000;
+        for (int reviewId = 1; reviewId <= reviews; reviewId++) {
+            approve(reviewId, 1, 20, null, DAY);
+        }
+        // Chaque suppression déplace la dernière ligne ; l'index doit suivre
+        for (int reviewId = 1; reviewId <= reviews; reviewId += 2) {
+            store.onApprovedReviewChanged(new ApprovedReviewChangedEvent(contribution(reviewId, 1, 20, null, DAY), null));
+        }
+        for (int reviewId = 2; reviewId <= reviews; reviewId += 2) {
+            approve(reviewId, 1, 40, null, DAY);
+        }
+        store.onApprovedReviewChanged(new ApprovedReviewChangedEvent(contribution(1, 1, 20, null, DAY), null));
+
+        ReviewAnalyticsDTO all = store.query(null, null, null, null, null, null, null);
+        assertThat(store.size()).isEqualTo(reviews / 2);
+        assertThat(all.getReviews()).isEqualTo(reviews / 2);
+        assertThat(all.getAverage()).isEqualByComparingTo("4.00");
+    }
+
+    @Test
+    void rowIndexFindsKeysAfterRemovalsInTheProbeSequence() {
+        ReviewAnalyticsStore.RowIndex index = new ReviewAnalyticsStore.RowIndex(4);
+        for (int key = 0; key < 1000; key++) {
+            index.put(key * 16, key);
+        }
+        for (int key = 0; key < 1000; key += 3) {
+            index.remove(key * 16);
+        }
+        index.remove(99_999);
+
+        for (int key = 0; key < 1000; key++) {
+            assertThat(index.get(key * 16)).isEqualTo(key % 3 == 0 ? -1 : key);
+        }
+    }
+
+    @Test
+    void rejectsUnknownCriterionAndGroup() {
+        assertThatThrownBy(() -> store.query(null, null, null, null, null, "fun", null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> store.query(null, null, null, null, null, null, "teacher"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private void approve(int reviewId, int courseId, int overall, Integer clarity, LocalDate day) {
+        store.onApprovedReviewChanged(new ApprovedReviewChangedEvent(null,
+                contribution(reviewId, courseId, overall, clarity, day)));
+    }
+
+    private static ReviewContribution contribution(int reviewId, int courseId, int overall, Integer clarity,
+                                                   LocalDate day) {
+        return new ReviewContribution(reviewId, courseId, overall, clarity, null, null, day);
+    }
+}
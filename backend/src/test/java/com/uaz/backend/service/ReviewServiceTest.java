@@ -0,0 +1,197 @@
+package com.uaz.backend.service;
+
+import com.uaz.backend.dto.CursorPage;
+import com.uaz.backend.dto.KeysetCursor;
+import com.uaz.backend.dto.ReviewResponse;
+import com.uaz.backend.entity.Course;
+import com.uaz.backend.entity.Review;
+import com.uaz.backend.entity.User;
+import com.uaz.backend.repository.CourseRepository;
+import com.uaz.backend.repository.ReviewRepository;
+import com.uaz.backend.repository.ReviewResponseRepository;
+import com.uaz.backend.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Vérifie que les listes d'avis passent par une seule méthode de projection du repository
+ * (le nombre de requêtes SQL d'une page est compté par ReviewRepositoryStatementCountTest),
+ * que le fil par curseur ne compte les avis que sur demande,
+ * et qu'une décision respecte et libère la réservation de l'avis
+ */
+@ExtendWith(MockitoExtension.class)
+class ReviewServiceTest {
+
+    @Mock
+    private ReviewRepository reviewRepository;
+
+    @Mock
+    private ReviewResponseRepository reviewResponseRepository;
+
+    @Mock
+    private CourseRepository courseRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private ReviewService reviewService;
+
+    @BeforeEach
+    void setUp() {
+        reviewService = new ReviewService(reviewRepository, reviewResponseRepository, courseRepository,
+                userRepository, eventPublisher);
+    }
+
+    @Test
+    void everyListUsesOneProjectionQuery() {
+        when(reviewRepository.findReviewResponsesByUser(7)).thenReturn(reviews(30));
+        when(reviewRepository.findReviewResponsesByStatus(Review.ModerationStatus.PENDING)).thenReturn(reviews(30));
+        when(reviewRepository.findReviewResponsesForTeacher(9)).thenReturn(reviews(30));
+        when(reviewRepository.findReviewResponsesByStatus(eq(Review.ModerationStatus.APPROVED), any())).thenReturn(reviews(10));
+        when(reviewRepository.findReviewResponseById(1)).thenReturn(Optional.of(reviews(1).get(0)));
+
+        assertThat(reviewService.getReviewsByUser(7)).hasSize(30);
+        assertThat(reviewService.getPendingReviews()).hasSize(30);
+        assertThat(reviewService.getReviewsForTeacher(9)).hasSize(30);
+        assertThat(reviewService.getRecentApprovedReviews(10)).hasSize(10);
+        assertThat(reviewService.getReviewById(1).getReviewId()).isEqualTo(1);
+
+        verify(reviewRepository).findReviewResponsesByUser(7);
+        verify(reviewRepository).findReviewResponsesByStatus(Review.ModerationStatus.PENDING);
+        verify(reviewRepository).findReviewResponsesForTeacher(9);
+        verify(reviewRepository).findReviewResponsesByStatus(Review.ModerationStatus.APPROVED, PageRequest.of(0, 10));
+        verify(reviewRepository).findReviewResponseById(1);
+        verifyNoMoreInteractions(reviewRepository);
+        verifyNoInteractions(reviewResponseRepository, courseRepository, userRepository);
+    }
+
+    @Test
+    void cursorPagesSkipTheCountUnlessRequested() {
+        ReflectionTestUtils.setField(reviewService, "maxPageSize", 100);
+        LocalDateTime newest = LocalDateTime.of(2026, 3, 2, 10, 0);
+        List<ReviewResponse> feed = IntStream.range(0, 25)
+                .mapToObj(i -> ReviewResponse.builder().reviewId(100 - i).courseId(3)
+                        .createdAt(newest.minusMinutes(i / 2)).build())
+                .toList();
+        ReviewResponse last = feed.get(19);
+        when(reviewRepository.findCourseReviewFeed(3, Review.ModerationStatus.APPROVED, PageRequest.of(0, 21)))
+                .thenReturn(feed.subList(0, 21));
+        when(reviewRepository.findCourseReviewFeedBefore(3, Review.ModerationStatus.APPROVED,
+                last.getCreatedAt(), last.getReviewId(), PageRequest.of(0, 21)))
+                .thenReturn(feed.subList(20, 25));
+        when(reviewRepository.countByCourseAndStatus(3, Review.ModerationStatus.APPROVED)).thenReturn(25L);
+
+        CursorPage<ReviewResponse> first = reviewService.getApprovedReviewsByCourse(3, 20, null, false);
+        assertThat(first.getItems()).hasSize(20);
+        assertThat(first.getHasMore()).isTrue();
+        assertThat(first.getTotalElements()).isNull();
+        assertThat(KeysetCursor.decode(first.getNextCursor()))
+                .isEqualTo(KeysetCursor.of(last.getCreatedAt(), last.getReviewId()));
+        verify(reviewRepository, never()).countByCourseAndStatus(any(), any());
+
+        CursorPage<ReviewResponse> second = reviewService.getApprovedReviewsByCourse(3, 20, first.getNextCursor(), true);
+        assertThat(second.getItems()).extracting(ReviewResponse::getReviewId).containsExactly(80, 79, 78, 77, 76);
+        assertThat(second.getHasMore()).isFalse();
+        assertThat(second.getNextCursor()).isNull();
+        assertThat(second.getTotalElements()).isEqualTo(25);
+    }
+
+    @Test
+    void cursorPageSizeIsBoundedAndBadCursorsAreRejected() {
+        ReflectionTestUtils.setField(reviewService, "maxPageSize", 100);
+        when(reviewRepository.findCourseReviewFeed(3, Review.ModerationStatus.APPROVED, PageRequest.of(0, 101)))
+                .thenReturn(List.of());
+
+        assertThat(reviewService.getApprovedReviewsByCourse(3, 5000, null, false).getItems()).isEmpty();
+        assertThatThrownBy(() -> reviewService.getApprovedReviewsByCourse(3, 20, "pas-un-curseur", false))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> reviewService.getApprovedReviewsByCourse(3, 20, KeysetCursor.ofId(5).encode(), false))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void reviewsClaimedByAnotherModeratorCannotBeModerated() {
+        Review claimed = pending(5, 8, LocalDateTime.now().plusMinutes(5));
+        when(reviewRepository.findByIdForUpdate(5)).thenReturn(Optional.of(claimed));
+
+        assertThatThrownBy(() -> reviewService.moderateReview(5, "approved", 7))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(claimed.isPending()).isTrue();
+        verify(reviewRepository, never()).save(any());
+        verify(reviewRepository, never()).releaseClaim(any());
+    }
+
+    @Test
+    void decisionsReleaseOwnAndExpiredClaims() {
+        Review own = pending(5, 7, LocalDateTime.now().plusMinutes(5));
+        Review expired = pending(6, 8, LocalDateTime.now().minusSeconds(1));
+        when(reviewRepository.findByIdForUpdate(5)).thenReturn(Optional.of(own));
+        when(reviewRepository.findByIdForUpdate(6)).thenReturn(Optional.of(expired));
+        when(reviewRepository.save(any(Review.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        assertThat(reviewService.moderateReview(5, "approved", 7).getModerationStatus()).isEqualTo("APPROVED");
+        assertThat(reviewService.moderateReview(6, "rejected", 7).getModerationStatus()).isEqualTo("REJECTED");
+
+        verify(reviewRepository).releaseClaim(5);
+        verify(reviewRepository).releaseClaim(6);
+        verify(reviewRepository, never()).findById(any());
+    }
+
+    @Test
+    void projectionMapsTenthsAuthorAndResponse() {
+        ReviewResponse anonymous = new ReviewResponse(1, 7, 3, "Programmation", "INF101",
+                (short) 45, Review.NOT_RATED, (short) 30, Review.NOT_RATED,
+                "Très bien", true, "Marie Curie", Review.ModerationStatus.APPROVED, "Merci",
+                LocalDateTime.now(), null);
+        ReviewResponse signed = new ReviewResponse(2, 7, 3, "Programmation", "INF101",
+                (short) 50, null, null, null, null, false, "Marie Curie", Review.ModerationStatus.PENDING, null,
+                LocalDateTime.now(), null);
+
+        assertThat(anonymous.getRatingOverall()).isEqualByComparingTo("4.5");
+        assertThat(anonymous.getRatingClarity()).isNull();
+        assertThat(anonymous.getRatingMaterial()).isEqualByComparingTo("3.0");
+        assertThat(anonymous.getReviewerName()).isEqualTo("Anonyme");
+        assertThat(anonymous.getModerationStatus()).isEqualTo("APPROVED");
+        assertThat(anonymous.getTeacherResponse()).isEqualTo("Merci");
+        assertThat(signed.getReviewerName()).isEqualTo("Marie Curie");
+        assertThat(signed.getRatingPedagogy()).isNull();
+    }
+
+    private static Review pending(int reviewId, Integer claimedBy, LocalDateTime claimExpiresAt) {
+        return Review.builder()
+                .reviewId(reviewId)
+                .user(User.builder().userId(3).fullName("Marie Curie").build())
+                .course(Course.builder().courseId(3).name("Programmation").code("INF101").build())
+                .ratingOverallTenths((short) 40)
+                .anonymous(false)
+                .claimedBy(claimedBy)
+                .claimExpiresAt(claimExpiresAt)
+                .build();
+    }
+
+    private static List<ReviewResponse> reviews(int count) {
+        return IntStream.rangeClosed(1, count)
+                .mapToObj(id -> ReviewResponse.builder().reviewId(id).courseId(3).build())
+                .toList();
+    }
+}
@@ -0,0 +1,182 @@
+package com.uaz.backend.service;
+
+import com.uaz.backend.dto.ReviewRequest;
+import com.uaz.backend.entity.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Entrelace, sur la base PostgreSQL configurée, une modification d'avis (ou la suppression de son auteur)
+ * avec une suppression ou une décision concurrente du même avis : la première transaction garde l'avis verrouillé jusqu'à son commit, la seconde
+ * l'attend puis calcule sa variation sur l'état commité. Les statistiques du cours (course_statistics
+ * et bandes en attente) restent égales au recomptage des avis approuvés
+ */
+@SpringBootTest
+class ReviewStatisticsConcurrencyTest {
+
+    private static final String DEPARTMENT = "Concurrence des avis";
+
+    @Autowired
+    private ReviewService reviewService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    private int courseId;
+    private int studentId;
+
+    @BeforeEach
+    void setUp() {
+        courseId = jdbcTemplate.queryForObject(
+                "INSERT INTO courses (name, code, type, department, semester, credits, is_active) " +
+                "VALUES ('Cours concurrence', 'CONC-101', 'course', ?, 'S1', 3, true) RETURNING course_id",
+                Integer.class, DEPARTMENT);
+        studentId = jdbcTemplate.queryForObject(
+                "INSERT INTO users (username, email, password_hash, role, full_name, is_active) " +
+                "VALUES ('concurrence', 'concurrence@example.com', '-', 'student', 'Étudiant Concurrence', true) " +
+                "RETURNING user_id", Integer.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        jdbcTemplate.update("DELETE FROM courses WHERE course_id = ?", courseId);
+        jdbcTemplate.update("DELETE FROM users WHERE user_id = ?", studentId);
+        jdbcTemplate.update("DELETE FROM department_statistics WHERE department = ?", DEPARTMENT);
+    }
+
+    @Test
+    void deletionRacingAnEditSubtractsTheReviewOnce() throws Exception {
+        int reviewId = reviewService.createReview(studentId, request(4.0)).getReviewId();
+        reviewService.moderateReview(reviewId, "approved", null);
+        assertStatisticsMatchReviews(1);
+
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        Future<?> deletion = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+            reviewService.deleteReview(reviewId, studentId, User.UserRole.ADMIN);
+            locked.countDown();
+            await(commit);
+        }));
+        locked.await();
+        Future<?> edit = executor.submit(() -> reviewService.updateReview(reviewId, studentId, request(2.0)));
+
+        assertThatThrownBy(() -> edit.get(500, TimeUnit.MILLISECONDS)).isInstanceOf(TimeoutException.class);
+        commit.countDown();
+        deletion.get();
+        assertThatThrownBy(edit::get).hasRootCauseMessage("Avis non trouvé");
+        assertStatisticsMatchReviews(0);
+    }
+
+    @Test
+    void editRacingAnApprovalRemovesTheApprovedContribution() throws Exception {
+        int reviewId = reviewService.createReview(studentId, request(4.0)).getReviewId();
+
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        Future<?> approval = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+            reviewService.moderateReview(reviewId, "approved", null);
+            locked.countDown();
+            await(commit);
+        }));
+        locked.await();
+        Future<?> edit = executor.submit(() -> reviewService.updateReview(reviewId, studentId, request(2.0)));
+
+        assertThatThrownBy(() -> edit.get(500, TimeUnit.MILLISECONDS)).isInstanceOf(TimeoutException.class);
+        commit.countDown();
+        approval.get();
+        edit.get();
+        assertThat(jdbcTemplate.queryForObject("SELECT moderation_status FROM reviews WHERE review_id = ?",
+                String.class, reviewId)).isEqualTo("pending");
+        assertStatisticsMatchReviews(0);
+    }
+
+    @Test
+    void authorDeletionRacingARejectionSubtractsTheReviewOnce() throws Exception {
+        int reviewId = reviewService.createReview(studentId, request(4.0)).getReviewId();
+        reviewService.moderateReview(reviewId, "approved", null);
+
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        Future<?> rejection = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+            reviewService.moderateReview(reviewId, "rejected", null);
+            locked.countDown();
+            await(commit);
+        }));
+        locked.await();
+        Future<?> deletion = executor.submit(() -> userService.deleteUser(studentId));
+
+        assertThatThrownBy(() -> deletion.get(500, TimeUnit.MILLISECONDS)).isInstanceOf(TimeoutException.class);
+        commit.countDown();
+        rejection.get();
+        deletion.get();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM reviews WHERE review_id = ?",
+                Integer.class, reviewId)).isZero();
+        assertStatisticsMatchReviews(0);
+    }
+
+    /**
+     * Statistiques reportées + bandes en attente, lues en une requête (un report concurrent ne fausse pas la somme)
+     */
+    private void assertStatisticsMatchReviews(int approved) {
+        Map<String, Object> row = jdbcTemplate.queryForMap(
+                "SELECT COALESCE((SELECT total_reviews FROM course_statistics WHERE course_id = ?), 0) " +
+                "+ COALESCE((SELECT SUM(total_reviews) FROM course_statistics_deltas WHERE course_id = ?), 0) " +
+                "AS statistics_reviews, " +
+                "COALESCE((SELECT sum_overall_tenths FROM course_statistics WHERE course_id = ?), 0) " +
+                "+ COALESCE((SELECT SUM(sum_overall_tenths) FROM course_statistics_deltas WHERE course_id = ?), 0) " +
+                "AS statistics_overall, " +
+                "(SELECT COUNT(*) FROM reviews WHERE course_id = ? AND moderation_status = 'approved') AS reviews, " +
+                "(SELECT COALESCE(SUM(rating_overall), 0) FROM reviews " +
+                "WHERE course_id = ? AND moderation_status = 'approved') AS overall",
+                courseId, courseId, courseId, courseId, courseId, courseId);
+        assertThat(((Number) row.get("reviews")).intValue()).isEqualTo(approved);
+        assertThat(((Number) row.get("statistics_reviews")).longValue())
+                .isEqualTo(((Number) row.get("reviews")).longValue());
+        assertThat(((Number) row.get("statistics_overall")).longValue())
+                .isEqualTo(((Number) row.get("overall")).longValue());
+    }
+
+    private ReviewRequest request(double overall) {
+        return ReviewRequest.builder()
+                .courseId(courseId)
+                .ratingOverall(BigDecimal.valueOf(overall))
+                .comment("Avis écrit pour le test de concurrence")
+                .anonymous(false)
+                .build();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.uaz.backend.service;
+
+import com.uaz.backend.dto.CourseStatisticsDTO;
+import com.uaz.backend.dto.RatingTrendDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+
+/**
+ * Vérifie, sur la base PostgreSQL configurée, l'ordre de verrouillage du report des bandes
+ * (les départements sont écrits par nom croissant quel que soit l'ordre des IDs de leurs cours)
+ * et les lectures sans écriture qui ajoutent les bandes en attente
+ * Le report périodique est espacé pour que le test déclenche lui-même le report
+ */
+@SpringBootTest(properties = "app.statistics.deltas.fold-interval-millis=3600000")
+class StatisticsDeltaServiceTest {
+
+    private static final String FIRST_DEPARTMENT = "Report A";
+    private static final String LAST_DEPARTMENT = "Report Z";
+    private static final LocalDate MARCH = LocalDate.of(2025, 3, 1);
+
+    @Autowired
+    private StatisticsDeltaService statisticsDeltaService;
+
+    @Autowired
+    private RatingTrendService ratingTrendService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    private int lowerCourseId;
+    private int higherCourseId;
+
+    @BeforeEach
+    void setUp() {
+        // Le cours d'ID le plus petit appartient au dernier département dans l'ordre des noms
+        lowerCourseId = createCourse("REPORT-1", LAST_DEPARTMENT);
+        higherCourseId = createCourse("REPORT-2", FIRST_DEPARTMENT);
+        for (String department : new String[] {FIRST_DEPARTMENT, LAST_DEPARTMENT}) {
+            jdbcTemplate.update("INSERT INTO department_statistics (department) VALUES (?)", department);
+        }
+        for (int courseId : new int[] {lowerCourseId, higherCourseId}) {
+            jdbcTemplate.update("INSERT INTO course_statistics_deltas (course_id, stripe, total_reviews, " +
+                    "sum_overall_tenths) VALUES (?, 0, 1, 40)", courseId);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        jdbcTemplate.update("DELETE FROM courses WHERE course_id IN (?, ?)", lowerCourseId, higherCourseId);
+        jdbcTemplate.update("DELETE FROM department_statistics WHERE department IN (?, ?)",
+                FIRST_DEPARTMENT, LAST_DEPARTMENT);
+    }
+
+    @Test
+    void departmentsAreLockedByNameWhateverTheCourseOrder() throws Exception {
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<?> holder = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.queryForList("SELECT department FROM department_statistics WHERE department = ? FOR UPDATE",
+                    FIRST_DEPARTMENT);
+            locked.countDown();
+            await(release);
+        }));
+        locked.await();
+        Future<Integer> fold = executor.submit(statisticsDeltaService::foldAll);
+        awaitBlockedDepartmentWrite();
+
+        // Bloqué sur le premier département, le report n'a pas encore verrouillé le second
+        assertThatCode(() -> transactionTemplate.executeWithoutResult(status -> jdbcTemplate.queryForList(
+                "SELECT department FROM department_statistics WHERE department = ? FOR UPDATE NOWAIT",
+                LAST_DEPARTMENT))).doesNotThrowAnyException();
+
+        release.countDown();
+        holder.get();
+        assertThat(fold.get()).isGreaterThanOrEqualTo(2);
+        assertThat(jdbcTemplate.queryForList("SELECT total_reviews FROM department_statistics " +
+                "WHERE department IN (?, ?) ORDER BY department", Integer.class, FIRST_DEPARTMENT, LAST_DEPARTMENT))
+                .containsExactly(1, 1);
+    }
+
+    @Test
+    void readsAddThePendingStripesWithoutFolding() {
+        jdbcTemplate.update("INSERT INTO course_rating_rollup_deltas (course_id, granularity, period_start, stripe, " +
+                "total_reviews, sum_overall_tenths) VALUES (?, 'month', ?, 0, 1, 40)", higherCourseId, MARCH);
+        RatingTrendDTO trend = ratingTrendService.getRatingTrend(higherCourseId, "month", MARCH, MARCH.plusDays(30));
+        String pending = statisticsDeltaService.pendingVersion(higherCourseId);
+        CourseStatisticsDTO statistics = statisticsDeltaService.readCourseStatistics(higherCourseId).orElseThrow();
+
+        assertThat(statistics.getTotalReviews()).isEqualTo(1);
+        assertThat(statistics.getAvgRatingOverall()).isEqualByComparingTo("4.00");
+        assertThat(pending).isNotEqualTo("0");
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM course_statistics_deltas WHERE course_id = ?",
+                Integer.class, higherCourseId)).isEqualTo(1);
+        assertThat(trend.getPoints()).singleElement().satisfies(point -> {
+            assertThat(point.getTotalReviews()).isEqualTo(1);
+            assertThat(point.getAvgRatingOverall()).isEqualByComparingTo("4.00");
+        });
+
+        statisticsDeltaService.foldAll();
+
+        assertThat(statisticsDeltaService.pendingVersion(higherCourseId)).isEqualTo("0");
+        assertThat(statisticsDeltaService.readCourseStatistics(higherCourseId).orElseThrow())
+                .usingRecursiveComparison().isEqualTo(statistics);
+        assertThat(statisticsDeltaService.readCourseStatistics(-1)).isEmpty();
+    }
+
+    private void awaitBlockedDepartmentWrite() throws InterruptedException {
+        for (int attempt = 0; attempt < 100; attempt++) {
+            Integer waiting = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM pg_stat_activity " +
+                    "WHERE wait_event_type = 'Lock' AND query ILIKE '%insert into department_statistics%'",
+                    Integer.class);
+            if (waiting != null && waiting > 0) {
+                return;
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("Le report n'attend pas le verrou du département");
+    }
+
+    private int createCourse(String code, String department) {
+        return jdbcTemplate.queryForObject(
+                "INSERT INTO courses (name, code, type, department, semester, credits, is_active) " +
+                "VALUES (?, ?, 'course', ?, 'S1', 3, true) RETURNING course_id",
+                Integer.class, "Cours " + code, code, department);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
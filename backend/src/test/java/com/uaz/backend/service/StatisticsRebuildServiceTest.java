@@ -0,0 +1,333 @@
+package com.uaz.backend.service;
+
+import com.uaz.backend.dto.StatisticsRebuildStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.quality.Strictness;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Vérifie la détection d'écart entre une ligne stockée et les sommes recalculées, puis le cycle de vie
+ * d'une reconstruction (validation, tâche unique, découpage, compteurs) sur un JdbcTemplate simulé
+ *
+ * La vérification puis la réparation d'une ligne corrompue s'exécutent sur une base PostgreSQL migrée
+ * par Flyway, comme les mesures de performance : la réparation porte sur toute la base. Exécution :
+ * mvn test -Dtest=StatisticsRebuildServiceTest -Dbenchmark.jdbc.url=jdbc:postgresql://localhost:5432/feedbacksystem
+ *          -Dbenchmark.jdbc.user=postgres -Dbenchmark.jdbc.password=...
+ */
+@ExtendWith(MockitoExtension.class)
+class StatisticsRebuildServiceTest {
+
+    private static final List<Integer> EMPTY = StatisticsRebuildService.Sums.EMPTY_HISTOGRAM;
+
+    private static final List<Integer> NO_SKETCH = StatisticsRebuildService.Sums.EMPTY_SKETCH;
+
+    private static final StatisticsRebuildService.Sums EXPECTED =
+            new StatisticsRebuildService.Sums(3, 125, 80, 2, 0, 0, 45, 1, EMPTY, EMPTY, EMPTY, EMPTY,
+                    NO_SKETCH, NO_SKETCH, NO_SKETCH, NO_SKETCH);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private StatisticsRebuildService statisticsRebuildService;
+
+    @BeforeEach
+    void setUp() {
+        statisticsRebuildService = rebuildService(jdbcTemplate, transactionManager, eventPublisher);
+    }
+
+    @AfterEach
+    void tearDown() {
+        statisticsRebuildService.shutdown();
+    }
+
+    @Test
+    void averagesAreRoundedLikeTheUpsert() {
+        assertThat(StatisticsRebuildService.average(125, 3)).isEqualByComparingTo("4.17");
+        assertThat(StatisticsRebuildService.average(0, 0)).isNull();
+    }
+
+    @Test
+    void storedRowMatchesOnlyWithSameSumsAndAverages() {
+        StatisticsRebuildService.StoredRow exact = new StatisticsRebuildService.StoredRow(EXPECTED,
+                new BigDecimal("4.17"), new BigDecimal("4.00"), null, new BigDecimal("4.50"));
+        StatisticsRebuildService.StoredRow staleAverage = new StatisticsRebuildService.StoredRow(EXPECTED,
+                new BigDecimal("4.20"), new BigDecimal("4.00"), null, new BigDecimal("4.50"));
+        StatisticsRebuildService.StoredRow staleSums = new StatisticsRebuildService.StoredRow(
+                new StatisticsRebuildService.Sums(2, 80, 80, 2, 0, 0, 45, 1, EMPTY, EMPTY, EMPTY, EMPTY,
+                        NO_SKETCH, NO_SKETCH, NO_SKETCH, NO_SKETCH),
+                new BigDecimal("4.17"), new BigDecimal("4.00"), null, new BigDecimal("4.50"));
+
+        assertThat(exact.matches(EXPECTED)).isTrue();
+        assertThat(staleAverage.matches(EXPECTED)).isFalse();
+        assertThat(staleSums.matches(EXPECTED)).isFalse();
+    }
+
+    @Test
+    void pendingStripesAreDeductedFromTheExpectedSums() {
+        List<Integer> histogram = new ArrayList<>(EMPTY);
+        histogram.set(9, 1);
+        StatisticsRebuildService.Sums pending = new StatisticsRebuildService.Sums(1, 45, 0, 0, 0, 0, 0, 0,
+                List.copyOf(histogram), EMPTY, EMPTY, EMPTY, NO_SKETCH, NO_SKETCH, NO_SKETCH, NO_SKETCH);
+
+        StatisticsRebuildService.Sums target = EXPECTED.minus(pending);
+
+        assertThat(target.reviews()).isEqualTo(2);
+        assertThat(target.overall()).isEqualTo(80);
+        assertThat(target.histOverall().get(9)).isEqualTo(-1);
+        assertThat(target.plus(pending)).isEqualTo(EXPECTED);
+        assertThat(EXPECTED.minus(EXPECTED)).isEqualTo(StatisticsRebuildService.Sums.ZERO);
+    }
+
+    @Test
+    void rejectsUnknownModeAndEmptyChunks() {
+        assertThatThrownBy(() -> statisticsRebuildService.start("fix", null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> statisticsRebuildService.start(null, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> statisticsRebuildService.getStatus()).isInstanceOf(RuntimeException.class);
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void chunksCoverTheCourseIdRange() throws Exception {
+        idRange(1, 25);
+
+        StatisticsRebuildStatus started = statisticsRebuildService.start("VERIFY", 10);
+        StatisticsRebuildStatus status = awaitFinished();
+
+        assertThat(started.getMode()).isEqualTo(StatisticsRebuildService.MODE_VERIFY);
+        assertThat(started.getTotalChunks()).isEqualTo(3);
+        assertThat(status.getState()).isEqualTo("completed");
+        assertThat(status.getJobId()).isEqualTo(started.getJobId());
+        assertThat(status.getCompletedChunks()).isEqualTo(3);
+        assertThat(status.getFinishedAt()).isNotNull();
+        verify(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), eq(1L), eq(10L), eq(1L), eq(10L),
+                eq(1L), eq(10L));
+        verify(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), eq(11L), eq(20L), eq(11L), eq(20L),
+                eq(11L), eq(20L));
+        verify(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), eq(21L), eq(25L), eq(21L), eq(25L),
+                eq(21L), eq(25L));
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void emptyCatalogCompletesWithoutChunks() throws Exception {
+        Map<String, Object> bounds = new HashMap<>();
+        bounds.put("low", null);
+        bounds.put("high", null);
+        when(jdbcTemplate.queryForMap(anyString())).thenReturn(bounds);
+
+        assertThat(statisticsRebuildService.start(null, null).getTotalChunks()).isZero();
+        assertThat(awaitFinished().getState()).isEqualTo("completed");
+        verify(jdbcTemplate, never()).query(anyString(), any(RowCallbackHandler.class), any(Object[].class));
+    }
+
+    @Test
+    void aSecondJobIsRejectedWhileTheFirstRuns() throws Exception {
+        idRange(1, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            release.await();
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), any(Object[].class));
+
+        long first = statisticsRebuildService.start(StatisticsRebuildService.MODE_VERIFY, null).getJobId();
+
+        assertThat(statisticsRebuildService.getStatus().getState()).isEqualTo("running");
+        assertThatThrownBy(() -> statisticsRebuildService.start(StatisticsRebuildService.MODE_REPAIR, null))
+                .isInstanceOf(IllegalStateException.class);
+        release.countDown();
+        assertThat(awaitFinished().getMode()).isEqualTo(StatisticsRebuildService.MODE_VERIFY);
+        assertThat(statisticsRebuildService.start(StatisticsRebuildService.MODE_VERIFY, null).getJobId())
+                .isGreaterThan(first);
+    }
+
+    @Test
+    void verifyReportsTheDriftWithoutWriting() throws Exception {
+        idRange(5, 5);
+        ResultSet row = driftedRow();
+
+        statisticsRebuildService.start(StatisticsRebuildService.MODE_VERIFY, null);
+        StatisticsRebuildStatus status = awaitFinished();
+
+        assertThat(status.getCoursesScanned()).isEqualTo(1);
+        assertThat(status.getReviewsScanned()).isEqualTo(2);
+        assertThat(status.getDriftedCourses()).isEqualTo(1);
+        assertThat(status.getRepairedCourses()).isZero();
+        assertThat(status.getDrifts()).singleElement().satisfies(drift -> {
+            assertThat(drift.getCourseId()).isEqualTo(5);
+            assertThat(drift.getStoredTotalReviews()).isZero();
+            assertThat(drift.getExpectedTotalReviews()).isEqualTo(2);
+            assertThat(drift.getExpectedAvgRatingOverall()).isEqualByComparingTo("4.00");
+            assertThat(drift.getDifferences()).containsEntry("totalReviews", 2L).containsEntry("sumOverallTenths", 80L);
+        });
+        verify(row, atLeastOnce()).getInt("expected_total_reviews");
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+        verify(jdbcTemplate, never()).update(anyString(), any(Object[].class));
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void repairAddsTheCorrectionAndRebuildsTheAggregates() throws Exception {
+        idRange(5, 5);
+        driftedRow();
+        when(jdbcTemplate.update(contains("course_rating_rollups"), any(Object[].class))).thenReturn(3);
+
+        statisticsRebuildService.start(StatisticsRebuildService.MODE_REPAIR, null);
+        StatisticsRebuildStatus status = awaitFinished();
+
+        assertThat(status.getState()).as(status.getError()).isEqualTo("completed");
+        assertThat(status.getRepairedCourses()).isEqualTo(1);
+        assertThat(status.getRollupBuckets()).isEqualTo(3);
+        ArgumentCaptor<List<Object[]>> repairs = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(contains("INSERT INTO course_statistics"), repairs.capture());
+        assertThat(repairs.getValue()).singleElement().satisfies(arguments -> {
+            assertThat(arguments[0]).isEqualTo(5);
+            assertThat(arguments[1]).isEqualTo(2);
+            assertThat(arguments[2]).isEqualTo(80L);
+        });
+        verify(jdbcTemplate).update(contains("INSERT INTO department_statistics"));
+        verify(jdbcTemplate).update(contains("INSERT INTO teacher_statistics"));
+        verify(eventPublisher).publishEvent(any(CourseCatalogChangedEvent.class));
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark.jdbc.url", matches = ".+")
+    void verifyReportsACorruptedRowAndRepairFixesIt() throws Exception {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(System.getProperty("benchmark.jdbc.url"),
+                System.getProperty("benchmark.jdbc.user", "postgres"), System.getProperty("benchmark.jdbc.password", ""));
+        JdbcTemplate database = new JdbcTemplate(dataSource);
+        statisticsRebuildService = rebuildService(database, new DataSourceTransactionManager(dataSource), event -> { });
+        int courseId = database.queryForObject(
+                "INSERT INTO courses (name, code, type, department, semester, credits, is_active) " +
+                "VALUES ('Cours à réparer', 'REBUILD-1', 'course', 'Informatique', 'S1', 3, true) " +
+                "RETURNING course_id", Integer.class);
+        try {
+            database.update("INSERT INTO users (username, email, password_hash, role, full_name, is_active) " +
+                    "SELECT 'rebuild-author-' || i, 'rebuild-author-' || i || '@example.com', '-', 'student', " +
+                    "'Auteur ' || i, true FROM generate_series(1, 2) i");
+            database.update("INSERT INTO reviews (user_id, course_id, rating_overall, rating_clarity, comment, " +
+                    "anonymous, moderation_status) SELECT user_id, ?, 40, 30, 'Avis de test', false, 'approved' " +
+                    "FROM users WHERE username LIKE 'rebuild-author-%'", courseId);
+            repair();
+            database.update("UPDATE course_statistics SET total_reviews = total_reviews + 5, " +
+                    "sum_overall_tenths = 10, avg_rating_overall = 1 WHERE course_id = ?", courseId);
+            database.update("UPDATE course_rating_rollups SET total_reviews = 0 WHERE course_id = ?", courseId);
+
+            statisticsRebuildService.start(StatisticsRebuildService.MODE_VERIFY, null);
+            StatisticsRebuildStatus verified = awaitFinished();
+
+            assertThat(verified.getState()).isEqualTo("completed");
+            assertThat(verified.getDrifts()).filteredOn(drift -> drift.getCourseId() == courseId)
+                    .singleElement().satisfies(drift -> {
+                        assertThat(drift.getStoredTotalReviews()).isEqualTo(7);
+                        assertThat(drift.getExpectedTotalReviews()).isEqualTo(2);
+                        assertThat(drift.getStoredAvgRatingOverall()).isEqualByComparingTo("1");
+                        assertThat(drift.getDifferences()).containsEntry("totalReviews", -5L)
+                                .containsEntry("sumOverallTenths", 70L);
+                    });
+
+            assertThat(repair().getRollupBuckets()).isGreaterThanOrEqualTo(RatingPeriod.values().length);
+            assertThat(database.queryForMap("SELECT total_reviews, sum_overall_tenths, avg_rating_overall, " +
+                    "avg_rating_clarity FROM course_statistics WHERE course_id = ?", courseId))
+                    .containsEntry("total_reviews", 2).containsEntry("sum_overall_tenths", 80L)
+                    .containsEntry("avg_rating_overall", new BigDecimal("4.00"))
+                    .containsEntry("avg_rating_clarity", new BigDecimal("3.00"));
+            assertThat(database.queryForList("SELECT total_reviews FROM course_rating_rollups WHERE course_id = ?",
+                    Integer.class, courseId)).hasSize(RatingPeriod.values().length).containsOnly(2);
+
+            statisticsRebuildService.start(StatisticsRebuildService.MODE_VERIFY, null);
+            assertThat(awaitFinished().getDrifts()).noneMatch(drift -> drift.getCourseId() == courseId);
+        } finally {
+            database.update("DELETE FROM courses WHERE course_id = ?", courseId);
+            database.update("DELETE FROM users WHERE username LIKE 'rebuild-author-%'");
+        }
+    }
+
+    private StatisticsRebuildStatus repair() throws InterruptedException {
+        statisticsRebuildService.start(StatisticsRebuildService.MODE_REPAIR, null);
+        StatisticsRebuildStatus status = awaitFinished();
+        assertThat(status.getState()).as(status.getError()).isEqualTo("completed");
+        return status;
+    }
+
+    private StatisticsRebuildStatus awaitFinished() throws InterruptedException {
+        for (int attempt = 0; attempt < 600; attempt++) {
+            StatisticsRebuildStatus status = statisticsRebuildService.getStatus();
+            if (!"running".equals(status.getState())) {
+                return status;
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("La reconstruction ne se termine pas");
+    }
+
+    private void idRange(int low, int high) {
+        when(jdbcTemplate.queryForMap(anyString())).thenReturn(Map.of("low", low, "high", high));
+    }
+
+    /**
+     * Ligne de tranche : le cours 5 a une ligne stockée vide alors que deux avis approuvés (8,0 / 10) existent
+     */
+    private ResultSet driftedRow() throws Exception {
+        // Les autres colonnes valent zéro ou NULL : les accesseurs non simulés ne sont pas des erreurs
+        ResultSet row = mock(ResultSet.class, withSettings().strictness(Strictness.LENIENT));
+        when(row.getInt("course_id")).thenReturn(5);
+        when(row.getObject("stored_course_id")).thenReturn(5);
+        when(row.getInt("expected_total_reviews")).thenReturn(2);
+        when(row.getLong("expected_sum_overall")).thenReturn(80L);
+        doAnswer(invocation -> {
+            invocation.<RowCallbackHandler>getArgument(1).processRow(row);
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), any(Object[].class));
+        return row;
+    }
+
+    private static StatisticsRebuildService rebuildService(JdbcTemplate jdbcTemplate,
+                                                           PlatformTransactionManager transactionManager,
+                                                           ApplicationEventPublisher eventPublisher) {
+        StatisticsRebuildService service = new StatisticsRebuildService(jdbcTemplate, transactionManager,
+                eventPublisher);
+        ReflectionTestUtils.setField(service, "parallelism", 2);
+        ReflectionTestUtils.setField(service, "defaultChunkSize", 1000);
+        return service;
+    }
+}
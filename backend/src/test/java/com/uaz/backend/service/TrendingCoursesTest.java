@@ -0,0 +1,142 @@
+package com.uaz.backend.service;
+
+import com.uaz.backend.dto.CourseDTO;
+import com.uaz.backend.dto.TrendingCourseDTO;
+import com.uaz.backend.repository.CourseRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Vérifie la décroissance paresseuse des scores tendance et le classement borné, servi sans requête
+ */
+@ExtendWith(MockitoExtension.class)
+class TrendingCoursesTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 3, 2);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private CourseRepository courseRepository;
+
+    private TrendingCourses trendingCourses;
+
+    @BeforeEach
+    void setUp() {
+        trendingCourses = new TrendingCourses(jdbcTemplate, new CourseCatalog(courseRepository));
+        ReflectionTestUtils.setField(trendingCourses, "halfLifeDays", 7.0);
+        ReflectionTestUtils.setField(trendingCourses, "capacity", 3);
+    }
+
+    @Test
+    void recentReviewsOutweighOlderOnesAndDecayAtRead() {
+        catalog(1, 2);
+        trendingCourses.load();
+        approve(10, 1, 50, TODAY.minusDays(28));
+        approve(11, 1, 50, TODAY.minusDays(28));
+        approve(12, 1, 50, TODAY.minusDays(28));
+        approve(13, 2, 40, TODAY);
+
+        List<TrendingCourseDTO> today = trendingCourses.getTrendingCourses(10, TODAY);
+        assertThat(today).extracting(TrendingCourseDTO::getCourseId).containsExactly(2, 1);
+        assertThat(today.get(0).getTrendingScore()).isEqualByComparingTo("4.00");
+        assertThat(today.get(1).getTrendingScore()).isEqualByComparingTo("0.94");
+        assertThat(today.get(1).getRecentReviews()).isEqualByComparingTo("0.19");
+        assertThat(today.get(1).getRecentAverage()).isEqualByComparingTo("5.00");
+        assertThat(today.get(0).getCode()).isEqualTo("C2");
+
+        List<TrendingCourseDTO> nextWeek = trendingCourses.getTrendingCourses(10, TODAY.plusDays(7));
+        assertThat(nextWeek).extracting(TrendingCourseDTO::getCourseId).containsExactly(2, 1);
+        assertThat(nextWeek.get(0).getTrendingScore()).isEqualByComparingTo("2.00");
+        assertThat(nextWeek.get(0).getRecentAverage()).isEqualByComparingTo("4.00");
+
+        verify(jdbcTemplate, times(1)).query(anyString(), any(RowCallbackHandler.class));
+        verifyNoMoreInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void rankingIsBoundedAndRefilledWhenATopCourseLosesReviews() {
+        catalog(1, 2, 3, 4, 5);
+        trendingCourses.load();
+        for (int course = 1; course <= 5; course++) {
+            approve(100 + course, course, 10 * course, TODAY);
+        }
+
+        assertThat(trendingCourses.getTrendingCourses(10, TODAY))
+                .extracting(TrendingCourseDTO::getCourseId).containsExactly(5, 4, 3);
+
+        trendingCourses.onApprovedReviewChanged(new ApprovedReviewChangedEvent(contribution(105, 5, 50, TODAY), null));
+        assertThat(trendingCourses.getTrendingCourses(10, TODAY))
+                .extracting(TrendingCourseDTO::getCourseId).containsExactly(4, 3, 2);
+
+        approve(106, 1, 50, TODAY.plusDays(1));
+        assertThat(trendingCourses.getTrendingCourses(2, TODAY.plusDays(1)))
+                .extracting(TrendingCourseDTO::getCourseId).containsExactly(1, 4);
+    }
+
+    @Test
+    void inactiveCoursesAreNotServed() {
+        catalog(2);
+        trendingCourses.load();
+        approve(10, 1, 50, TODAY);
+        approve(11, 2, 20, TODAY);
+
+        assertThat(trendingCourses.getTrendingCourses(10, TODAY))
+                .extracting(TrendingCourseDTO::getCourseId).containsExactly(2);
+    }
+
+    @Test
+    void landmarkMovesForwardWithoutChangingTheScores() {
+        catalog(1, 2);
+        trendingCourses.load();
+        LocalDate later = TODAY.plusDays(2_000);
+        approve(10, 1, 30, later.minusDays(7));
+        approve(11, 2, 50, later.minusDays(14));
+
+        List<TrendingCourseDTO> courses = trendingCourses.getTrendingCourses(10, later);
+        assertThat(courses).extracting(TrendingCourseDTO::getCourseId).containsExactly(1, 2);
+        assertThat(courses.get(0).getTrendingScore()).isEqualByComparingTo("1.50");
+        assertThat(courses.get(1).getTrendingScore()).isEqualByComparingTo("1.25");
+    }
+
+    @Test
+    void readsBeforeLoadingAreRejected() {
+        assertThatThrownBy(() -> trendingCourses.getTrendingCourses(10, TODAY))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    private void approve(int reviewId, int courseId, int overall, LocalDate day) {
+        trendingCourses.onApprovedReviewChanged(new ApprovedReviewChangedEvent(null,
+                contribution(reviewId, courseId, overall, day)));
+    }
+
+    private static ReviewContribution contribution(int reviewId, int courseId, int overall, LocalDate day) {
+        return new ReviewContribution(reviewId, courseId, overall, null, null, null, day);
+    }
+
+    private void catalog(int... courseIds) {
+        List<CourseDTO> courses = IntStream.of(courseIds)
+                .mapToObj(id -> CourseDTO.builder().courseId(id).code("C" + id).name("Cours " + id)
+                        .type("course").department("Informatique").build())
+                .toList();
+        lenient().when(courseRepository.findActiveCourseDTOs()).thenReturn(courses);
+        lenient().when(courseRepository.findAllDepartments()).thenReturn(List.of("Informatique"));
+    }
+}
@@ -1,34 +1,63 @@
 import { useEffect, useState } from 'react';
 import { CheckCircle, XCircle } from 'lucide-react';
-import api from '../../services/api';
+import reviewService from '../../services/reviewService';
+
+const BATCH_SIZE = 10;
+// Renouveler la réservation avant son expiration
+const RENEW_MARGIN_MS = 30000;
 
 const AdminModeration = () => {
     const [reviews, setReviews] = useState([]);
+    const [claimExpiresAt, setClaimExpiresAt] = useState(null);
     const [loading, setLoading] = useState(true);
     const [error, setError] = useState(null);
 
     useEffect(() => {
-        fetchPendingReviews();
+        claimBatch();
+        // Libérer les avis non traités en quittant la page
+        return () => {
+            reviewService.releaseModerationBatch().catch(() => {});
+        };
     }, []);
 
-    const fetchPendingReviews = async () => {
+    // Tant que des avis restent à traiter, les réserver à nouveau avant l'expiration
+    useEffect(() => {
+        if (!claimExpiresAt || reviews.length === 0) return;
+        const delay = Math.max(new Date(claimExpiresAt).getTime() - Date.now() - RENEW_MARGIN_MS, 0);
+        const timer = setTimeout(() => claimBatch(true), delay);
+        return () => clearTimeout(timer);
+    }, [claimExpiresAt, reviews.length]);
+
+    // Réserver un lot d'avis en attente (les autres modérateurs reçoivent d'autres avis)
+    // Un renouvellement garde les avis déjà réservés et se fait sans écran de chargement
+    const claimBatch = async (renew = false) => {
         try {
-            setLoading(true);
-            const response = await api.get('/reviews/pending');
-            setReviews(response.data);
+            if (!renew) setLoading(true);
+            const response = await reviewService.claimModerationBatch(BATCH_SIZE);
+            setReviews(response.data.reviews);
+            setClaimExpiresAt(response.data.claimExpiresAt);
         } catch (err) {
             setError(err.message);
         } finally {
-            setLoading(false);
+            if (!renew) setLoading(false);
         }
     };
 
     const handleModerate = async (reviewId, status) => {
         try {
-            await api.put(`/reviews/${reviewId}/moderate`, { status });
-            setReviews(reviews.filter(r => r.reviewId !== reviewId));
+            await reviewService.moderateReview(reviewId, status);
         } catch (err) {
-            setError('Erreur lors de la modération');
+            if (err.response?.status !== 409) {
+                setError('Erreur lors de la modération');
+                return;
+            }
+            // Réservation expirée et reprise par un autre modérateur
+            setError('Cet avis est traité par un autre modérateur');
+        }
+        const remaining = reviews.filter(r => r.reviewId !== reviewId);
+        setReviews(remaining);
+        if (remaining.length === 0) {
+            claimBatch();
         }
     };
 
@@ -40,6 +69,12 @@ const AdminModeration = () => {
 
             {error && <div className="bg-red-100 text-red-700 p-4 rounded mb-4">{error}</div>}
 
+            {claimExpiresAt && reviews.length > 0 && (
+                <p className="text-sm text-gray-600 mb-4">
+                    Avis réservés jusqu'à {new Date(claimExpiresAt).toLocaleTimeString('fr-FR')}
+                </p>
+            )}
+
             {reviews.length === 0 ? (
                 <div className="bg-green-100 text-green-700 p-4 rounded">
                     Aucun avis en attente de modération! 🎉
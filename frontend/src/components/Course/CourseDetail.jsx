@@ -26,6 +26,9 @@ const CourseDetail = () => {
 
     const [course, setCourse] = useState(null);
     const [reviews, setReviews] = useState([]);
+    const [reviewsCursor, setReviewsCursor] = useState(null);
+    const [totalReviews, setTotalReviews] = useState(0);
+    const [loadingMore, setLoadingMore] = useState(false);
     const [stats, setStats] = useState(null);
     const [loading, setLoading] = useState(true);
     const [hasUserReview, setHasUserReview] = useState(false);
@@ -40,9 +43,11 @@ const CourseDetail = () => {
             const courseResponse = await courseService.getCourseById(id);
             setCourse(courseResponse.data);
 
-            const reviewsResponse = await reviewService.getReviewsByCourse(id);
-            const reviewsData = reviewsResponse.data.content || reviewsResponse.data;
+            const reviewsResponse = await reviewService.getReviewsByCourseCursor(id, null, 20, true);
+            const reviewsData = reviewsResponse.data.items;
             setReviews(reviewsData);
+            setReviewsCursor(reviewsResponse.data.nextCursor);
+            setTotalReviews(reviewsResponse.data.totalElements ?? reviewsData.length);
 
             try {
                 const statsResponse = await courseService.getCourseStatistics(id);
@@ -63,6 +68,20 @@ const CourseDetail = () => {
         }
     };
 
+    const loadMoreReviews = async () => {
+        try {
+            setLoadingMore(true);
+            const response = await reviewService.getReviewsByCourseCursor(id, reviewsCursor);
+            setReviews(previous => [...previous, ...response.data.items]);
+            setReviewsCursor(response.data.nextCursor);
+        } catch (error) {
+            console.error('Error loading reviews:', error);
+            toast.error('Erreur lors du chargement des avis');
+        } finally {
+            setLoadingMore(false);
+        }
+    };
+
     const RatingStars = ({ rating, size = 18 }) => (
         <div className="flex gap-0.5">
             {[1, 2, 3, 4, 5].map((s) => (
@@ -284,7 +303,7 @@ const CourseDetail = () => {
                 <div className="lg:col-span-2 space-y-8">
                     <div className="flex items-center justify-between">
                         <h2 className="text-3xl font-bold text-slate-900 tracking-tight">
-                            Avis étudiants <span className="text-slate-300 ml-2">{reviews.length}</span>
+                            Avis étudiants <span className="text-slate-300 ml-2">{totalReviews}</span>
                         </h2>
                     </div>
 
@@ -293,6 +312,15 @@ const CourseDetail = () => {
                             {reviews.map((review) => (
                                 <ReviewCard key={review.reviewId} review={review} />
                             ))}
+                            {reviewsCursor && (
+                                <button
+                                    onClick={loadMoreReviews}
+                                    disabled={loadingMore}
+                                    className="w-full py-4 rounded-2xl border border-slate-200 bg-white text-slate-600 font-bold text-sm hover:bg-slate-50 transition-all disabled:opacity-50"
+                                >
+                                    {loadingMore ? 'Chargement...' : "Voir plus d'avis"}
+                                </button>
+                            )}
                         </div>
                     ) : (
                         <div className="py-20 bg-white rounded-[32px] border border-dashed border-slate-200 flex flex-col items-center justify-center text-center px-10">
@@ -1,16 +1,26 @@
 import { useState, useEffect } from 'react';
+import { useNavigate } from 'react-router-dom';
 import { Search, Filter, BookOpen, Settings, X, ChevronDown } from 'lucide-react';
 import courseService from '../../services/courseService';
 import CourseCard from './CourseCard';
 import toast from 'react-hot-toast';
 import { useAuth } from '../../context/AuthContext';
 
+// Champs affichés par les cartes : la description n'est ni lue ni transférée
+const LIST_FIELDS = 'courseId,name,code,type,teacherName,department,avgRating,totalReviews';
+const PAGE_SIZE = 24;
+
 const CourseList = () => {
     const { user } = useAuth();
+    const navigate = useNavigate();
     const [courses, setCourses] = useState([]);
     const [filteredCourses, setFilteredCourses] = useState([]);
     const [loading, setLoading] = useState(true);
+    const [loadingMore, setLoadingMore] = useState(false);
+    const [nextCursor, setNextCursor] = useState(null);
+    const [totalElements, setTotalElements] = useState(0);
     const [searchTerm, setSearchTerm] = useState('');
+    const [suggestions, setSuggestions] = useState([]);
     const [filters, setFilters] = useState({
         type: 'all', 
         department: 'all',
@@ -26,15 +36,50 @@ const CourseList = () => {
         applyFilters();
     }, [courses, searchTerm, filters]);
 
-    const loadCourses = async () => {
+    // Autocomplétion servie par l'index en mémoire du serveur, après une courte pause de frappe
+    useEffect(() => {
+        const term = searchTerm.trim();
+        if (!term) {
+            setSuggestions([]);
+            return;
+        }
+        let cancelled = false;
+        const timer = setTimeout(async () => {
+            try {
+                const response = await courseService.suggestCourses(term, 8);
+                if (!cancelled) {
+                    setSuggestions(response.data);
+                }
+            } catch (error) {
+                console.error('Erreur lors des suggestions:', error);
+            }
+        }, 150);
+        return () => {
+            cancelled = true;
+            clearTimeout(timer);
+        };
+    }, [searchTerm]);
+
+    // Pages successives (curseur), filtrées selon le domaine de l'utilisateur
+    const loadCourses = async (cursor = null) => {
         if (!user) return;
         try {
-            setLoading(true);
-            // We use getCoursesForUser to respect domain visibility rules
-            const response = await courseService.getCoursesForUser(user.userId);
-            const coursesData = response.data;
+            if (cursor) {
+                setLoadingMore(true);
+            } else {
+                setLoading(true);
+            }
+            const response = await courseService.getCoursesForUser(user.userId, {
+                size: PAGE_SIZE,
+                cursor: cursor || undefined,
+                fields: LIST_FIELDS
+            });
+            const page = response.data;
+            const coursesData = cursor ? [...courses, ...page.items] : page.items;
 
             setCourses(coursesData);
+            setNextCursor(page.hasMore ? page.nextCursor : null);
+            setTotalElements(page.totalElements ?? coursesData.length);
 
             const uniqueDepartments = [...new Set(
                 coursesData
@@ -48,6 +93,7 @@ const CourseList = () => {
             toast.error('Erreur lors du chargement des cours');
         } finally {
             setLoading(false);
+            setLoadingMore(false);
         }
     };
 
@@ -59,7 +105,6 @@ const CourseList = () => {
             filtered = filtered.filter(course =>
                 course.name.toLowerCase().includes(term) ||
                 course.code.toLowerCase().includes(term) ||
-                (course.description && course.description.toLowerCase().includes(term)) ||
                 (course.teacherName && course.teacherName.toLowerCase().includes(term))
             );
         }
@@ -120,7 +165,7 @@ const CourseList = () => {
                     <h1 className="text-4xl font-bold text-slate-900 mb-2 tracking-tight">Catalogue des Cours</h1>
                     <p className="text-slate-500 font-medium flex items-center gap-2">
                         <BookOpen size={18} className="text-[#007AB8]" />
-                        Découvrez {courses.length} cours et services disponibles dans votre domaine
+                        Découvrez {totalElements} cours et services disponibles dans votre domaine
                     </p>
                 </div>
 
@@ -131,6 +176,11 @@ const CourseList = () => {
                    <div className="px-4 py-2 bg-slate-100 text-slate-600 rounded-xl text-sm font-bold border border-slate-200 flex items-center gap-2">
                      <BookOpen size={16} /> {courses.filter(c => c.type === 'course').length} Cours
                    </div>
+                   {nextCursor && (
+                     <div className="px-4 py-2 text-slate-400 text-sm font-bold">
+                       {courses.length} / {totalElements} affichés
+                     </div>
+                   )}
                 </div>
             </div>
 
@@ -155,6 +205,24 @@ const CourseList = () => {
                             <X size={20} />
                         </button>
                     )}
+                    {suggestions.length > 0 && (
+                        <ul className="absolute z-10 left-0 right-0 mt-2 bg-white border border-slate-100 rounded-2xl shadow-xl shadow-slate-200/50 overflow-hidden">
+                            {suggestions.map((suggestion) => (
+                                <li key={suggestion.courseId}>
+                                    <button
+                                        onClick={() => navigate(`/app/courses/${suggestion.courseId}`)}
+                                        className="w-full text-left px-5 py-3 hover:bg-slate-50 flex items-center gap-3"
+                                    >
+                                        <span className="text-xs font-bold text-[#007AB8]">{suggestion.code}</span>
+                                        <span className="text-slate-900 font-medium line-clamp-1">{suggestion.name}</span>
+                                        {suggestion.teacherName && (
+                                            <span className="ml-auto text-sm text-slate-400">{suggestion.teacherName}</span>
+                                        )}
+                                    </button>
+                                </li>
+                            ))}
+                        </ul>
+                    )}
                 </div>
 
                 <div className="grid grid-cols-1 md:grid-cols-3 gap-6">
@@ -219,7 +287,7 @@ const CourseList = () => {
                         <CourseCard key={course.courseId} course={course} />
                     ))}
                 </div>
-            ) : (
+            ) : nextCursor ? null : (
                 <div className="py-24 bg-white rounded-3xl border border-slate-100 shadow-sm flex flex-col items-center justify-center text-center px-6">
                     <div className="w-20 h-20 bg-slate-50 rounded-3xl flex items-center justify-center text-slate-300 mb-6">
                         <Filter size={40} />
@@ -236,6 +304,18 @@ const CourseList = () => {
                     </button>
                 </div>
             )}
+
+            {nextCursor && (
+                <div className="flex justify-center">
+                    <button
+                        onClick={() => loadCourses(nextCursor)}
+                        disabled={loadingMore}
+                        className="px-8 py-3 bg-slate-900 text-white rounded-xl font-bold hover:bg-slate-800 transition-all shadow-lg shadow-slate-200 disabled:opacity-50"
+                    >
+                        {loadingMore ? 'Chargement...' : 'Afficher plus de cours'}
+                    </button>
+                </div>
+            )}
         </div>
     );
 };
@@ -13,14 +13,18 @@ import {
     Award,
     Settings,
     ChevronRight,
-    Search
+    Search,
+    Flame
 } from 'lucide-react';
 
+const TRENDING_LIMIT = 5;
+
 const Dashboard = () => {
     const navigate = useNavigate();
     const { user, isStudent, isAdmin } = useAuth();
     const [loading, setLoading] = useState(true);
     const [courses, setCourses] = useState([]);
+    const [trending, setTrending] = useState([]);
     const [myReviewsCount, setMyReviewsCount] = useState(0);
     const [stats, setStats] = useState({
         avisSoumis: 0,
@@ -33,6 +37,13 @@ const Dashboard = () => {
         loadDashboardData();
     }, [user]);
 
+    // Cours tendance : chargés à part, la section est masquée tant que le classement n'est pas prêt (503)
+    useEffect(() => {
+        courseService.getTrendingCourses(TRENDING_LIMIT)
+            .then(response => setTrending(response.data))
+            .catch(() => setTrending([]));
+    }, []);
+
     const loadDashboardData = async () => {
         if (!user) return;
         try {
@@ -131,6 +142,48 @@ const Dashboard = () => {
                 />
             </div>
 
+            {/* Trending Section */}
+            {trending.length > 0 && (
+                <div className="bg-white p-6 rounded-2xl shadow-sm border border-slate-100 space-y-4">
+                    <div className="flex items-center gap-3">
+                        <div className="w-10 h-10 bg-orange-50 rounded-xl flex items-center justify-center text-orange-500">
+                            <Flame size={20} />
+                        </div>
+                        <h2 className="text-xl font-bold text-slate-900">Tendances</h2>
+                    </div>
+                    <div className="divide-y divide-slate-50">
+                        {trending.map((course, index) => (
+                            <div
+                                key={course.courseId}
+                                onClick={() => navigate(`/app/courses/${course.courseId}`)}
+                                className="flex items-center justify-between py-3 cursor-pointer group"
+                            >
+                                <div className="flex items-center gap-4 min-w-0">
+                                    <span className="text-lg font-bold text-slate-300 w-6">{index + 1}</span>
+                                    <div className="min-w-0">
+                                        <p className="font-bold text-slate-900 group-hover:text-[#007AB8] transition-colors line-clamp-1">
+                                            {course.name}
+                                        </p>
+                                        <p className="text-xs text-slate-500">
+                                            {course.code} · {course.department || 'Général'}
+                                        </p>
+                                    </div>
+                                </div>
+                                <div className="flex items-center gap-4 text-sm text-slate-500 flex-shrink-0">
+                                    <span>{Math.round(course.recentReviews || 0)} avis récents</span>
+                                    {course.recentAverage != null && (
+                                        <span className="flex items-center gap-1 font-bold text-slate-700">
+                                            <Star size={14} className="fill-yellow-400 text-yellow-400" />
+                                            {Number(course.recentAverage).toFixed(1)}
+                                        </span>
+                                    )}
+                                </div>
+                            </div>
+                        ))}
+                    </div>
+                </div>
+            )}
+
             {/* Content Section */}
             <div className="space-y-6">
                 <div className="flex items-center justify-between">
@@ -14,11 +14,19 @@ import {
     Cell,
     Legend
 } from 'recharts';
-import { BarChart3, PieChart as PieIcon, Info } from 'lucide-react';
+import { BarChart3, PieChart as PieIcon, Info, Building2 } from 'lucide-react';
+
+const CRITERIA = [
+    { value: 'overall', label: 'Note globale' },
+    { value: 'clarity', label: 'Clarté' },
+    { value: 'material', label: 'Supports' },
+    { value: 'pedagogy', label: 'Pédagogie' }
+];
 
 const Statistics = () => {
     const [loading, setLoading] = useState(true);
-    const [ratingData, setRatingData] = useState([]);
+    const [criterion, setCriterion] = useState('overall');
+    const [analytics, setAnalytics] = useState(null);
     const [topCoursesData, setTopCoursesData] = useState([]);
 
     const COLORS = ['#007AB8', '#FFB800', '#003E5D', '#10b981', '#f59e0b', '#ef4444'];
@@ -27,38 +35,38 @@ const Statistics = () => {
         loadStatistics();
     }, []);
 
+    useEffect(() => {
+        loadAnalytics(criterion);
+    }, [criterion]);
+
+    // Distribution des avis approuvés par demi-étoile et moyennes par département, pour le critère choisi
+    const loadAnalytics = async (selected) => {
+        try {
+            const response = await courseService.getReviewAnalytics({
+                criterion: selected,
+                groupBy: 'department'
+            });
+            setAnalytics(response.data);
+        } catch (error) {
+            console.error('Error loading analytics:', error);
+            toast.error("Erreur lors du chargement de l'analyse des avis");
+        }
+    };
+
     const loadStatistics = async () => {
         try {
             setLoading(true);
-            const response = await courseService.getAllCourses();
-            const courses = response.data;
-
-            // 1. Calculate Rating Distribution (1 to 5 stars)
-            const distribution = [
-                { name: '5', value: 0 },
-                { name: '4', value: 0 },
-                { name: '3', value: 0 },
-                { name: '2', value: 0 },
-                { name: '1', value: 0 },
-            ];
-
-            courses.forEach(course => {
-                if (course.avgRating) {
-                    const rounded = Math.round(course.avgRating);
-                    const item = distribution.find(d => d.name === rounded.toString());
-                    if (item) item.value++;
-                }
-            });
-            setRatingData(distribution);
+            const response = await courseService.getCoursesStatistics();
+            const statistics = response.data;
 
-            // 2. Get Top Courses for Doughnut
-            const topCourses = courses
-                .filter(c => c.avgRating && c.totalReviews > 0)
-                .sort((a, b) => b.avgRating - a.avgRating)
+            // Top cours pour le graphique en anneau
+            const topCourses = statistics
+                .filter(s => s.avgRatingOverall && s.totalReviews > 0)
+                .sort((a, b) => b.avgRatingOverall - a.avgRatingOverall)
                 .slice(0, 5)
-                .map(c => ({
-                    name: c.name,
-                    value: c.avgRating
+                .map(s => ({
+                    name: s.courseName,
+                    value: s.avgRatingOverall
                 }));
             setTopCoursesData(topCourses);
 
@@ -70,6 +78,12 @@ const Statistics = () => {
         }
     };
 
+    // Compteurs par demi-étoile (0 ; 0,5 ; ... ; 5), les notes commencent à 1
+    const ratingData = (analytics?.histogram || [])
+        .map((value, bucket) => ({ name: (bucket / 2).toLocaleString('fr-FR'), value }))
+        .slice(2);
+    const departments = (analytics?.groups || []).filter(group => group.key);
+
     if (loading) {
         return (
             <div className="flex flex-col items-center justify-center min-h-[60vh]">
@@ -92,11 +106,30 @@ const Statistics = () => {
                 
                 {/* Distribution des notes */}
                 <div className="bg-white p-10 rounded-3xl shadow-sm border border-slate-100 space-y-8">
-                    <div className="flex items-center gap-3">
-                        <div className="w-10 h-10 bg-blue-50 rounded-xl flex items-center justify-center text-[#007AB8]">
-                            <BarChart3 size={20} />
+                    <div className="flex items-center justify-between gap-3">
+                        <div className="flex items-center gap-3">
+                            <div className="w-10 h-10 bg-blue-50 rounded-xl flex items-center justify-center text-[#007AB8]">
+                                <BarChart3 size={20} />
+                            </div>
+                            <div>
+                                <h2 className="text-xl font-bold text-slate-900 tracking-tight">Distribution des notes</h2>
+                                {analytics && (
+                                    <p className="text-sm text-slate-500">
+                                        {analytics.rated} avis notés
+                                        {analytics.average != null && ` · moyenne ${Number(analytics.average).toFixed(2)}`}
+                                    </p>
+                                )}
+                            </div>
                         </div>
-                        <h2 className="text-xl font-bold text-slate-900 tracking-tight">Distribution des notes</h2>
+                        <select
+                            value={criterion}
+                            onChange={(e) => setCriterion(e.target.value)}
+                            className="px-3 py-2 bg-slate-50 border border-slate-200 rounded-xl text-sm font-semibold text-slate-600"
+                        >
+                            {CRITERIA.map(option => (
+                                <option key={option.value} value={option.value}>{option.label}</option>
+                            ))}
+                        </select>
                     </div>
 
                     <div className="h-[350px] w-full min-h-[350px]">
@@ -175,6 +208,31 @@ const Statistics = () => {
                 </div>
             </div>
 
+            {/* Moyennes par département */}
+            {departments.length > 0 && (
+                <div className="bg-white p-10 rounded-3xl shadow-sm border border-slate-100 space-y-6">
+                    <div className="flex items-center gap-3">
+                        <div className="w-10 h-10 bg-slate-50 rounded-xl flex items-center justify-center text-[#003E5D]">
+                            <Building2 size={20} />
+                        </div>
+                        <h2 className="text-xl font-bold text-slate-900 tracking-tight">Par département</h2>
+                    </div>
+                    <div className="divide-y divide-slate-100">
+                        {departments.map(group => (
+                            <div key={group.key} className="flex items-center justify-between py-3">
+                                <span className="font-semibold text-slate-700">{group.key}</span>
+                                <span className="text-sm text-slate-500">
+                                    {group.rated} avis
+                                    <span className="ml-4 font-bold text-[#FFB800]">
+                                        {group.average != null ? Number(group.average).toFixed(2) : '—'}
+                                    </span>
+                                </span>
+                            </div>
+                        ))}
+                    </div>
+                </div>
+            )}
+
             {/* Info Box */}
             <div className="bg-blue-50/50 p-6 rounded-3xl border border-blue-100 flex gap-4 items-start">
                 <div className="w-10 h-10 bg-blue-100 rounded-xl flex items-center justify-center text-blue-600 flex-shrink-0">
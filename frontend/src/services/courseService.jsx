@@ -7,8 +7,9 @@ class CourseService {
     }
 
     // Obtenir les cours filtrés pour l'utilisateur
-    getCoursesForUser(userId) {
-        return api.get(`/courses/user/${userId}`);
+    // Avec { size, cursor, fields } : une page sans description (sauf si fields la nomme)
+    getCoursesForUser(userId, params) {
+        return api.get(`/courses/user/${userId}`, { params });
     }
 
     // Obtenir un cours par ID
@@ -23,6 +24,20 @@ class CourseService {
         });
     }
 
+    // Suggestions d'autocomplétion (code, nom, enseignant)
+    suggestCourses(query, limit = 8) {
+        return api.get('/courses/suggest', {
+            params: { q: query, limit }
+        });
+    }
+
+    // Cours tendance (avis approuvés récents)
+    getTrendingCourses(limit = 10) {
+        return api.get('/courses/trending', {
+            params: { limit }
+        });
+    }
+
     // Obtenir les cours par département
     getCoursesByDepartment(department) {
         return api.get('/courses/department', {
@@ -49,6 +64,19 @@ class CourseService {
     getCourseStatistics(id) {
         return api.get(`/courses/${id}/statistics`);
     }
+
+    // Obtenir les statistiques de plusieurs cours en une requête (ids, ou filtres department/type)
+    getCoursesStatistics({ ids, department, type } = {}) {
+        const params = ids ? { ids: ids.join(',') } : { department, type };
+        return api.get('/courses/statistics', { params });
+    }
+
+    // Analyser les avis approuvés (filtres, critère et regroupement facultatifs)
+    getReviewAnalytics({ department, type, semester, from, to, criterion, groupBy } = {}) {
+        return api.get('/courses/statistics/analytics', {
+            params: { department, type, semester, from, to, criterion, groupBy }
+        });
+    }
 }
 
 export default new CourseService();
@@ -8,6 +8,13 @@ class ReviewService {
         });
     }
 
+    // Obtenir les avis d'un cours par curseur (cursor renvoyé par la page précédente)
+    getReviewsByCourseCursor(courseId, cursor = null, limit = 20, includeTotal = false) {
+        return api.get(`/reviews/course/${courseId}/cursor`, {
+            params: { limit, cursor, includeTotal }
+        });
+    }
+
     // Obtenir les avis de l'utilisateur courant
     getMyReviews() {
         return api.get('/reviews/my');
@@ -33,6 +40,18 @@ class ReviewService {
         return api.get('/reviews/pending');
     }
 
+    // Réserver le prochain lot d'avis en attente (admin)
+    claimModerationBatch(size = 10) {
+        return api.post('/reviews/moderation/claim', null, {
+            params: { size }
+        });
+    }
+
+    // Libérer les avis réservés (admin)
+    releaseModerationBatch() {
+        return api.delete('/reviews/moderation/claim');
+    }
+
     // Modérer un avis (admin)
     moderateReview(id, status) {
         return api.put(`/reviews/${id}/moderate`, { status });